@@ -0,0 +1,235 @@
+package org.buildozers.dojo.abstraction.advanced;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import org.buildozers.dojo.abstraction.advanced.QueryProfile.ExecutionMode;
+
+/**
+ * Data processor streaming each query straight from its file, with the
+ * execution mode chosen per file.
+ * 
+ * Small files are streamed on the calling thread; large files are
+ * memory-mapped, and large CSV files are mapped and cut into ranges of
+ * whole records parsed in parallel on the common fork-join pool, their partial
+ * aggregates being merged at the end. An {@link ExecutionPlanner} makes the
+ * choice from the file size, format and number of cores, and learns from
+ * the duration of every run where this host's thresholds actually lie, so
+ * callers never tune anything per file.
+ * 
+ * Files are read from the classpath, or from a base directory when one is
+ * given. Classpath files packaged in an archive are always streamed.
+ * 
+ * This processor supports SUM, COUNT, MIN and MAX, and selects categories
+ * with the {@link CategoryFilter} of the file format.
+ */
+public class AdaptiveDataProcessor implements ExplainableDataProcessor {
+
+    /**
+     * Smallest range handed to a parallel task
+     */
+    private static final int MIN_RANGE_BYTES = 128 * 1024;
+
+    private final Path baseDirectory;
+    private final DataValidator validator;
+    private final ExecutionPlanner planner;
+
+    /**
+     * Creates a processor reading its files from the classpath.
+     */
+    public AdaptiveDataProcessor() {
+        this(null, new DataValidator(), new ExecutionPlanner());
+    }
+
+    /**
+     * Creates a processor reading its files from a directory.
+     * 
+     * @param baseDirectory the directory holding the data files
+     */
+    public AdaptiveDataProcessor(Path baseDirectory) {
+        this(baseDirectory.toAbsolutePath().normalize(), new DataValidator(), new ExecutionPlanner());
+    }
+
+    /**
+     * @param baseDirectory the directory holding the data files, or null for
+     *                      the classpath
+     * @param validator     the validator holding the compiled schemas
+     * @param planner       the planner choosing the execution modes
+     */
+    AdaptiveDataProcessor(Path baseDirectory, DataValidator validator, ExecutionPlanner planner) {
+        this.baseDirectory = baseDirectory;
+        this.validator = validator;
+        this.planner = planner;
+    }
+
+    /**
+     * {@inheritDoc}
+     * 
+     * @throws UnsupportedAggregationException if aggregation type is not one of
+     *                                         SUM, COUNT, MIN or MAX
+     */
+    @Override
+    public long processFileData(String filename, String format, boolean validate,
+            String categoryFilter, String aggregationType) {
+        return explain(filename, format, validate, categoryFilter, aggregationType).getResult();
+    }
+
+    /**
+     * {@inheritDoc}
+     * 
+     * The profile reports the chosen mode as its execution mode; reading,
+     * parsing, filtering and aggregating run fused and are reported under
+     * {@link ProcessingStage#LOAD}.
+     */
+    @Override
+    public QueryProfile explain(String filename, String format, boolean validate, String categoryFilter,
+            String aggregationType) {
+        QueryProfile.Builder profile = QueryProfile.builder(getClass().getSimpleName(), filename, format,
+                categoryFilter, aggregationType);
+        DataFormat dataFormat = DataFormat.of(format);
+        AggregationType aggregation = AggregationType.of(aggregationType);
+        CategoryFilter filter = CategoryFilter.of(categoryFilter, dataFormat);
+        Path path = baseDirectory != null ? DataSources.resolveWithin(baseDirectory, filename)
+                : DataSources.resourcePath(filename);
+
+        long start = System.nanoTime();
+        if (validate) {
+            if (baseDirectory != null) {
+                validator.validate(path, dataFormat);
+            } else {
+                validator.validate(filename, dataFormat);
+            }
+            profile.stage(ProcessingStage.VALIDATE, System.nanoTime() - start);
+        }
+
+        long bytes = sizeOf(filename, path);
+        ExecutionMode mode = planner.plan(dataFormat, bytes, path != null);
+        PartialAggregate aggregate = new PartialAggregate();
+        start = System.nanoTime();
+        long scanned;
+        try {
+            scanned = switch (mode) {
+                case SEQUENTIAL -> readSequential(filename, path, dataFormat, filter, aggregate);
+                case MAPPED -> readMapped(path, dataFormat, filter, aggregate);
+                case PARALLEL -> readParallel(path, filter, aggregate);
+            };
+        } catch (IOException e) {
+            throw new DataProcessingException("Failed to load file: " + filename, e);
+        }
+        long elapsed = System.nanoTime() - start;
+        planner.record(dataFormat, mode, bytes, elapsed);
+
+        return profile.stage(ProcessingStage.LOAD, elapsed)
+                .executionMode(mode)
+                .estimatedRows(-1)
+                .rows(scanned, aggregate.getCount())
+                .build(aggregate.result(aggregation));
+    }
+
+    private long readSequential(String filename, Path path, DataFormat format, CategoryFilter filter,
+            PartialAggregate aggregate) throws IOException {
+        try (InputStream input = path != null ? DataSources.openFile(path) : DataSources.openResource(filename)) {
+            return read(input, format, filter, aggregate);
+        }
+    }
+
+    private long readMapped(Path path, DataFormat format, CategoryFilter filter, PartialAggregate aggregate)
+            throws IOException {
+        return read(new ByteBufferInputStream(map(path)), format, filter, aggregate);
+    }
+
+    private long readParallel(Path path, CategoryFilter filter, PartialAggregate aggregate) throws IOException {
+        ByteBuffer content = map(path);
+        int parts = Math.max(1, Math.min(planner.cores(), content.limit() / MIN_RANGE_BYTES));
+        int[] offsets = CsvRangeSplitter.split(content, parts);
+        byte[] header = header(content, offsets[1]);
+
+        List<CompletableFuture<long[]>> tasks = new ArrayList<>();
+        List<PartialAggregate> partials = new ArrayList<>();
+        for (int part = 0; part < parts; part++) {
+            if (offsets[part] == offsets[part + 1]) {
+                continue;
+            }
+            PartialAggregate partial = new PartialAggregate();
+            partials.add(partial);
+            ByteBuffer range = content.slice(offsets[part], offsets[part + 1] - offsets[part]);
+            boolean first = part == 0;
+            tasks.add(CompletableFuture.supplyAsync(() -> new long[] { readRange(range, first ? null : header, filter, partial) }));
+        }
+
+        long scanned = 0;
+        try {
+            for (CompletableFuture<long[]> task : tasks) {
+                scanned += task.join()[0];
+            }
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof DataProcessingException) {
+                // Ranges report line numbers relative to their start: re-read
+                // the whole file to fail with the same error as a sequential run
+                return read(new ByteBufferInputStream(content), DataFormat.CSV, filter, aggregate);
+            }
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+        partials.forEach(aggregate::merge);
+        return scanned;
+    }
+
+    private static long readRange(ByteBuffer range, byte[] header, CategoryFilter filter, PartialAggregate partial) {
+        InputStream input = new ByteBufferInputStream(range);
+        if (header != null) {
+            input = new SequenceInputStream(new ByteArrayInputStream(header), input);
+        }
+        try {
+            return read(input, DataFormat.CSV, filter, partial);
+        } catch (IOException e) {
+            throw new DataProcessingException("Failed to read CSV range", e);
+        }
+    }
+
+    private static long read(InputStream input, DataFormat format, CategoryFilter filter, PartialAggregate aggregate)
+            throws IOException {
+        try (DataRecordReader reader = DataRecordReaders.open(input, format)) {
+            AggregatingSink sink = new AggregatingSink(filter, aggregate);
+            reader.readAll(sink);
+            return sink.getScanned();
+        }
+    }
+
+    private static byte[] header(ByteBuffer content, int end) {
+        int length = 0;
+        while (length < end && content.get(length) != '\n') {
+            length++;
+        }
+        byte[] header = new byte[Math.min(length + 1, end)];
+        content.get(0, header);
+        return header;
+    }
+
+    private static ByteBuffer map(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+    }
+
+    private static long sizeOf(String filename, Path path) {
+        if (path == null) {
+            return DataSources.resourceSize(filename);
+        }
+        try {
+            return Files.size(path);
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,275 @@
+package org.buildozers.dojo.abstraction.advanced;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Materialized SUM and COUNT of a dataset for every (category, region)
+ * pair, with the marginal totals per category, per region and overall.
+ * 
+ * The cube is filled while a {@link ColumnarDataset} is loaded, at the cost
+ * of a hash lookup and two additions per record, and holds one cell per pair
+ * that occurs in the data, in an open-addressing table keyed by the two
+ * dictionary codes: its size follows the number of distinct pairs, not the
+ * product of the number of categories and regions. SUM and COUNT queries
+ * with exact-match filters are then a couple of array reads; a
+ * {@link CategoryFilter} adds up the marginals of the matching categories,
+ * without scanning any record.
+ * 
+ * Like the other aggregations, COUNT includes the records with a malformed
+ * value and SUM skips them. The cube is immutable and thread-safe.
+ */
+public final class AggregateCube {
+
+    private final StringDictionary categories;
+    private final StringDictionary regions;
+    private final Cells cells;
+    private final long[] categorySums;
+    private final long[] categoryCounts;
+    private final long[] regionSums;
+    private final long[] regionCounts;
+    private final long totalSum;
+    private final long totalCount;
+
+    private AggregateCube(Cells cells, StringDictionary categories, StringDictionary regions) {
+        this.categories = categories;
+        this.regions = regions;
+        this.cells = cells;
+        this.categorySums = new long[categories.size()];
+        this.categoryCounts = new long[categories.size()];
+        this.regionSums = new long[regions.size()];
+        this.regionCounts = new long[regions.size()];
+        long sum = 0;
+        long count = 0;
+        for (int slot = 0; slot < cells.keys.length; slot++) {
+            long key = cells.keys[slot];
+            if (key == Cells.EMPTY) {
+                continue;
+            }
+            int category = (int) (key >>> 32);
+            int region = (int) key;
+            categorySums[category] += cells.sums[slot];
+            categoryCounts[category] += cells.counts[slot];
+            regionSums[region] += cells.sums[slot];
+            regionCounts[region] += cells.counts[slot];
+            sum += cells.sums[slot];
+            count += cells.counts[slot];
+        }
+        this.totalSum = sum;
+        this.totalCount = count;
+    }
+
+    /**
+     * Answers a SUM or COUNT with exact-match filters.
+     * 
+     * @param aggregationType SUM or COUNT
+     * @param category        the exact category, or null for all categories
+     * @param region          the exact region, or null for all regions
+     * @return the aggregated value, 0 for unknown categories or regions
+     * @throws UnsupportedAggregationException if the aggregation is not SUM or
+     *                                         COUNT
+     */
+    public long get(AggregationType aggregationType, String category, String region) {
+        boolean sum = isSum(aggregationType);
+        int categoryCode = category == null ? -1 : categories.find(category);
+        int regionCode = region == null ? -1 : regions.find(region);
+        if ((category != null && categoryCode < 0) || (region != null && regionCode < 0)) {
+            return 0L;
+        }
+        if (category == null && region == null) {
+            return sum ? totalSum : totalCount;
+        }
+        if (region == null) {
+            return sum ? categorySums[categoryCode] : categoryCounts[categoryCode];
+        }
+        if (category == null) {
+            return sum ? regionSums[regionCode] : regionCounts[regionCode];
+        }
+        int slot = cells.find(Cells.key(categoryCode, regionCode));
+        if (slot < 0) {
+            return 0L;
+        }
+        return sum ? cells.sums[slot] : cells.counts[slot];
+    }
+
+    /**
+     * Answers a SUM or COUNT over the categories matching a filter, from
+     * the category marginals.
+     * 
+     * @param aggregationType SUM or COUNT
+     * @param filter          the categories to aggregate
+     * @return the aggregated value
+     * @throws UnsupportedAggregationException if the aggregation is not SUM or
+     *                                         COUNT
+     */
+    public long aggregate(AggregationType aggregationType, CategoryFilter filter) {
+        boolean sum = isSum(aggregationType);
+        if (filter.matchesAll()) {
+            return sum ? totalSum : totalCount;
+        }
+        long result = 0;
+        for (int code = 0; code < categorySums.length; code++) {
+            if (filter.matches(categories.decode(code))) {
+                result += sum ? categorySums[code] : categoryCounts[code];
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @param aggregationType an aggregation
+     * @return whether the cube can answer it
+     */
+    public static boolean supports(AggregationType aggregationType) {
+        return aggregationType == AggregationType.SUM || aggregationType == AggregationType.COUNT;
+    }
+
+    /**
+     * @return the categories of the cube, in first-seen order
+     */
+    public List<String> getCategories() {
+        return categories.values();
+    }
+
+    /**
+     * @return the regions of the cube, in first-seen order
+     */
+    public List<String> getRegions() {
+        return regions.values();
+    }
+
+    private static boolean isSum(AggregationType aggregationType) {
+        if (!supports(aggregationType)) {
+            throw new UnsupportedAggregationException(String.valueOf(aggregationType), "SUM, COUNT");
+        }
+        return aggregationType == AggregationType.SUM;
+    }
+
+    /**
+     * Accumulates the cells of a cube while records are loaded, before the
+     * number of categories and regions is known.
+     */
+    static final class Accumulator {
+
+        private Cells cells = new Cells();
+
+        /**
+         * Adds a chunk of dictionary-encoded records.
+         * 
+         * @param values        the values, 0 for malformed ones
+         * @param categoryCodes the category codes
+         * @param regionCodes   the region codes
+         * @param length        the number of records
+         */
+        void add(int[] values, int[] categoryCodes, int[] regionCodes, int length) {
+            for (int i = 0; i < length; i++) {
+                int slot = cells.slot(Cells.key(categoryCodes[i], regionCodes[i]));
+                cells.sums[slot] += values[i];
+                cells.counts[slot]++;
+            }
+        }
+
+        /**
+         * Builds the cube; the accumulator hands its cells over to it and
+         * starts again empty.
+         * 
+         * @param categories the category dictionary of the records
+         * @param regions    the region dictionary of the records
+         * @return the cube of the accumulated records
+         */
+        AggregateCube build(StringDictionary categories, StringDictionary regions) {
+            AggregateCube cube = new AggregateCube(cells, categories, regions);
+            cells = new Cells();
+            return cube;
+        }
+    }
+
+    /**
+     * Open-addressing table of the SUM and COUNT of every (category, region)
+     * pair, keyed by the two codes packed in a long and kept at most half
+     * full.
+     */
+    private static final class Cells {
+
+        private static final long EMPTY = -1L;
+
+        private long[] keys;
+        private long[] sums;
+        private long[] counts;
+        private int size;
+
+        Cells() {
+            allocate(16);
+        }
+
+        static long key(int category, int region) {
+            return ((long) category << 32) | (region & 0xFFFFFFFFL);
+        }
+
+        /**
+         * @param key a packed pair
+         * @return the slot of the pair, or -1 if it never occurred
+         */
+        int find(long key) {
+            int mask = keys.length - 1;
+            for (int slot = hash(key) & mask; keys[slot] != EMPTY; slot = (slot + 1) & mask) {
+                if (keys[slot] == key) {
+                    return slot;
+                }
+            }
+            return -1;
+        }
+
+        /**
+         * @param key a packed pair
+         * @return the slot of the pair, added with zero totals if new
+         */
+        int slot(long key) {
+            int mask = keys.length - 1;
+            int slot = hash(key) & mask;
+            while (keys[slot] != EMPTY) {
+                if (keys[slot] == key) {
+                    return slot;
+                }
+                slot = (slot + 1) & mask;
+            }
+            if (2 * (size + 1) > keys.length) {
+                grow();
+                return slot(key);
+            }
+            keys[slot] = key;
+            size++;
+            return slot;
+        }
+
+        private void grow() {
+            long[] oldKeys = keys;
+            long[] oldSums = sums;
+            long[] oldCounts = counts;
+            allocate(oldKeys.length * 2);
+            int mask = keys.length - 1;
+            for (int old = 0; old < oldKeys.length; old++) {
+                if (oldKeys[old] != EMPTY) {
+                    int slot = hash(oldKeys[old]) & mask;
+                    while (keys[slot] != EMPTY) {
+                        slot = (slot + 1) & mask;
+                    }
+                    keys[slot] = oldKeys[old];
+                    sums[slot] = oldSums[old];
+                    counts[slot] = oldCounts[old];
+                }
+            }
+        }
+
+        private void allocate(int capacity) {
+            keys = new long[capacity];
+            Arrays.fill(keys, EMPTY);
+            sums = new long[capacity];
+            counts = new long[capacity];
+        }
+
+        private static int hash(long key) {
+            return Long.hashCode(key * 0x9E3779B97F4A7C15L);
+        }
+    }
+}
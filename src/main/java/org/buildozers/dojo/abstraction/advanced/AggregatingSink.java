@@ -0,0 +1,16 @@
+package org.buildozers.dojo.abstraction.advanced;
+
+/**
+ * Sink aggregating the records of a category straight from a reader,
+ * without materializing them.
+ */
+class AggregatingSink extends FilteringSink {
+
+    /**
+     * @param filter    the categories to aggregate
+     * @param aggregate the partial receiving the matching records
+     */
+    AggregatingSink(CategoryFilter filter, PartialAggregate aggregate) {
+        super(filter, (id, value, validValue, region, category) -> aggregate.add(value, validValue));
+    }
+}
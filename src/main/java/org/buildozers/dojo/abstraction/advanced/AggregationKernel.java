@@ -0,0 +1,70 @@
+package org.buildozers.dojo.abstraction.advanced;
+
+/**
+ * Aggregation loops over primitive columns.
+ * 
+ * Rows are selected by comparing a dictionary-encoded category column with a
+ * single code; callers combine several codes when a filter matches more than
+ * one category. MIN and MAX return {@link Integer#MAX_VALUE} and
+ * {@link Integer#MIN_VALUE} respectively when no row is selected.
+ * 
+ * @see AggregationKernels#preferred()
+ */
+interface AggregationKernel {
+
+    /**
+     * @param values the value column
+     * @param length the number of rows to aggregate, from index 0
+     * @return the sum of the values
+     */
+    long sum(int[] values, int length);
+
+    /**
+     * @param values the value column
+     * @param codes  the category code column
+     * @param code   the category code to select
+     * @param length the number of rows to aggregate, from index 0
+     * @return the sum of the values of the selected rows
+     */
+    long sum(int[] values, int[] codes, int code, int length);
+
+    /**
+     * @param codes  the category code column
+     * @param code   the category code to select
+     * @param length the number of rows to scan, from index 0
+     * @return the number of selected rows
+     */
+    int count(int[] codes, int code, int length);
+
+    /**
+     * @param values the value column
+     * @param length the number of rows to aggregate, from index 0
+     * @return the smallest value
+     */
+    int min(int[] values, int length);
+
+    /**
+     * @param values the value column
+     * @param codes  the category code column
+     * @param code   the category code to select
+     * @param length the number of rows to aggregate, from index 0
+     * @return the smallest value of the selected rows
+     */
+    int min(int[] values, int[] codes, int code, int length);
+
+    /**
+     * @param values the value column
+     * @param length the number of rows to aggregate, from index 0
+     * @return the largest value
+     */
+    int max(int[] values, int length);
+
+    /**
+     * @param values the value column
+     * @param codes  the category code column
+     * @param code   the category code to select
+     * @param length the number of rows to aggregate, from index 0
+     * @return the largest value of the selected rows
+     */
+    int max(int[] values, int[] codes, int code, int length);
+}
@@ -0,0 +1,46 @@
+package org.buildozers.dojo.abstraction.advanced;
+
+/**
+ * Selects the fastest {@link AggregationKernel} available on this JVM.
+ * 
+ * The SIMD kernel is used when the {@code jdk.incubator.vector} module is
+ * resolved and the preferred vector holds at least four int lanes. Setting
+ * the {@code dojo.vector.disabled} system property forces the scalar kernel.
+ */
+final class AggregationKernels {
+
+    private static final String VECTOR_MODULE = "jdk.incubator.vector";
+    private static final int MINIMUM_LANES = 4;
+
+    private static final AggregationKernel SCALAR = new ScalarAggregationKernel();
+    private static final AggregationKernel PREFERRED = detect();
+
+    private AggregationKernels() {
+        // Utility class
+    }
+
+    /**
+     * @return the SIMD kernel when supported, the scalar kernel otherwise
+     */
+    static AggregationKernel preferred() {
+        return PREFERRED;
+    }
+
+    /**
+     * @return the portable scalar kernel
+     */
+    static AggregationKernel scalar() {
+        return SCALAR;
+    }
+
+    private static AggregationKernel detect() {
+        if (Boolean.getBoolean("dojo.vector.disabled") || ModuleLayer.boot().findModule(VECTOR_MODULE).isEmpty()) {
+            return SCALAR;
+        }
+        try {
+            return VectorAggregationKernel.laneCount() >= MINIMUM_LANES ? new VectorAggregationKernel() : SCALAR;
+        } catch (LinkageError e) {
+            return SCALAR;
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package org.buildozers.dojo.abstraction.advanced;
+
+/**
+ * The aggregations supported by the columnar query engine.
+ * 
+ * {@link DataProcessor#processFileData} only documents SUM and COUNT;
+ * columnar datasets additionally answer MIN and MAX over the value column.
+ */
+public enum AggregationType {
+
+    SUM, COUNT, MIN, MAX;
+
+    /**
+     * Resolves an aggregation from its name.
+     * 
+     * @param aggregationType the aggregation name, case-sensitive like in
+     *                        {@link DataProcessor#processFileData}
+     * @return the matching aggregation
+     * @throws UnsupportedAggregationException if the name is null or unknown
+     */
+    public static AggregationType of(String aggregationType) {
+        for (AggregationType candidate : values()) {
+            if (candidate.name().equals(aggregationType)) {
+                return candidate;
+            }
+        }
+        throw new UnsupportedAggregationException(aggregationType, "SUM, COUNT, MIN, MAX");
+    }
+}
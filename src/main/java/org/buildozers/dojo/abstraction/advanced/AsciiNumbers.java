@@ -0,0 +1,130 @@
+package org.buildozers.dojo.abstraction.advanced;
+
+/**
+ * Allocation-free parsing of decimal numbers straight from input buffers.
+ * 
+ * The parsers accept the same syntax as {@link Long#parseLong(String)}: an
+ * optional sign followed by ASCII digits, without surrounding whitespace.
+ * Instead of throwing {@link NumberFormatException}, they return
+ * {@link #MALFORMED} for empty, non-numeric or overflowing input, so that
+ * skipping bad values costs neither a String nor an exception.
+ */
+final class AsciiNumbers {
+
+    /**
+     * Returned for malformed or out-of-range input. As a consequence the
+     * literal {@code -9223372036854775808} is reported as malformed too.
+     */
+    static final long MALFORMED = Long.MIN_VALUE;
+
+    private static final long MULTIPLY_MIN = Long.MIN_VALUE / 10;
+
+    private AsciiNumbers() {
+        // Utility class
+    }
+
+    /**
+     * Parses an int from the bytes {@code [from, to)}.
+     * 
+     * @param bytes the input buffer
+     * @param from  the index of the first byte
+     * @param to    the index after the last byte
+     * @return the parsed value, or {@link #MALFORMED} if the bytes are not an
+     *         int
+     */
+    static long parseInt(byte[] bytes, int from, int to) {
+        return toInt(parseLong(bytes, from, to));
+    }
+
+    /**
+     * Parses a long from the bytes {@code [from, to)}.
+     * 
+     * @param bytes the input buffer
+     * @param from  the index of the first byte
+     * @param to    the index after the last byte
+     * @return the parsed value, or {@link #MALFORMED} if the bytes are not a
+     *         long
+     */
+    static long parseLong(byte[] bytes, int from, int to) {
+        if (from >= to) {
+            return MALFORMED;
+        }
+        int index = from;
+        boolean negative = bytes[index] == '-';
+        if (negative || bytes[index] == '+') {
+            index++;
+            if (index == to) {
+                return MALFORMED;
+            }
+        }
+        // Accumulate negatively like Long.parseLong, so that MIN_VALUE magnitude fits
+        long limit = negative ? Long.MIN_VALUE : -Long.MAX_VALUE;
+        long result = 0;
+        for (; index < to; index++) {
+            int digit = bytes[index] - '0';
+            if (digit < 0 || digit > 9 || result < MULTIPLY_MIN) {
+                return MALFORMED;
+            }
+            result *= 10;
+            if (result < limit + digit) {
+                return MALFORMED;
+            }
+            result -= digit;
+        }
+        return negative ? result : -result;
+    }
+
+    /**
+     * Parses an int from the characters {@code [from, to)}.
+     * 
+     * @param chars the input buffer
+     * @param from  the index of the first character
+     * @param to    the index after the last character
+     * @return the parsed value, or {@link #MALFORMED} if the characters are
+     *         not an int
+     */
+    static long parseInt(char[] chars, int from, int to) {
+        return toInt(parseLong(chars, from, to));
+    }
+
+    /**
+     * Parses a long from the characters {@code [from, to)}.
+     * 
+     * @param chars the input buffer
+     * @param from  the index of the first character
+     * @param to    the index after the last character
+     * @return the parsed value, or {@link #MALFORMED} if the characters are
+     *         not a long
+     */
+    static long parseLong(char[] chars, int from, int to) {
+        if (from >= to) {
+            return MALFORMED;
+        }
+        int index = from;
+        boolean negative = chars[index] == '-';
+        if (negative || chars[index] == '+') {
+            index++;
+            if (index == to) {
+                return MALFORMED;
+            }
+        }
+        long limit = negative ? Long.MIN_VALUE : -Long.MAX_VALUE;
+        long result = 0;
+        for (; index < to; index++) {
+            int digit = chars[index] - '0';
+            if (digit < 0 || digit > 9 || result < MULTIPLY_MIN) {
+                return MALFORMED;
+            }
+            result *= 10;
+            if (result < limit + digit) {
+                return MALFORMED;
+            }
+            result -= digit;
+        }
+        return negative ? result : -result;
+    }
+
+    private static long toInt(long value) {
+        return value < Integer.MIN_VALUE || value > Integer.MAX_VALUE ? MALFORMED : value;
+    }
+}
@@ -0,0 +1,70 @@
+package org.buildozers.dojo.abstraction.advanced;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Reusable {@link CharSequence} view over a range of ASCII bytes.
+ * 
+ * Readers point a slice at a field of their input buffer and hand it to a
+ * {@link DataRecordSink} without copying; the view is only valid until the
+ * reader moves on.
+ */
+final class AsciiSlice implements CharSequence {
+
+    private byte[] bytes;
+    private int from;
+    private int length;
+
+    /**
+     * Points this slice at the bytes {@code [from, to)}.
+     * 
+     * @param bytes the buffer, expected to hold ASCII characters only
+     * @param from  the index of the first byte
+     * @param to    the index after the last byte
+     * @return this slice
+     */
+    AsciiSlice wrap(byte[] bytes, int from, int to) {
+        this.bytes = bytes;
+        this.from = from;
+        this.length = to - from;
+        return this;
+    }
+
+    /**
+     * @param bytes the buffer
+     * @param from  the index of the first byte
+     * @param to    the index after the last byte
+     * @return whether every byte of the range is 7-bit ASCII
+     */
+    static boolean isAscii(byte[] bytes, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (bytes[i] < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int length() {
+        return length;
+    }
+
+    @Override
+    public char charAt(int index) {
+        if (index < 0 || index >= length) {
+            throw new IndexOutOfBoundsException(index);
+        }
+        return (char) bytes[from + index];
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        return toString().substring(start, end);
+    }
+
+    @Override
+    public String toString() {
+        return new String(bytes, from, length, StandardCharsets.US_ASCII);
+    }
+}
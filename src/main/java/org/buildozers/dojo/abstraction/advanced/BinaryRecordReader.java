@@ -0,0 +1,86 @@
+package org.buildozers.dojo.abstraction.advanced;
+
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Reader of the BINARY record format written by {@link BinaryRecordWriter}.
+ * 
+ * Text fields are read into reusable buffers and handed to the sink as
+ * {@link AsciiSlice} views, so ASCII records cost no allocation.
+ */
+class BinaryRecordReader implements DataRecordReader {
+
+    private final DataInputStream input;
+    private final AsciiSlice regionSlice = new AsciiSlice();
+    private final AsciiSlice categorySlice = new AsciiSlice();
+    private byte[] region = new byte[32];
+    private byte[] category = new byte[32];
+
+    /**
+     * @param input the binary content, closed with this reader
+     * @throws IOException             if the header cannot be read
+     * @throws DataProcessingException if the content is not in the BINARY
+     *                                 format
+     */
+    BinaryRecordReader(InputStream input) throws IOException {
+        this.input = new DataInputStream(input);
+        try {
+            if (this.input.readInt() != BinaryRecordWriter.MAGIC) {
+                throw new DataProcessingException("Not a binary data file");
+            }
+            int version = this.input.readUnsignedByte();
+            if (version != BinaryRecordWriter.VERSION) {
+                throw new DataProcessingException("Unsupported binary data version: " + version);
+            }
+        } catch (EOFException e) {
+            throw new DataProcessingException("Not a binary data file", e);
+        }
+    }
+
+    @Override
+    public int read(DataRecordSink sink, int maxRecords) throws IOException {
+        int read = 0;
+        while (read < maxRecords) {
+            int flags = input.read();
+            if (flags < 0) {
+                return read == 0 ? -1 : read;
+            }
+            try {
+                long id = input.readLong();
+                int value = input.readInt();
+                int regionLength = input.readUnsignedShort();
+                region = readText(region, regionLength);
+                int categoryLength = input.readUnsignedShort();
+                category = readText(category, categoryLength);
+                sink.accept(id, value, (flags & BinaryRecordWriter.VALID_VALUE) != 0,
+                        text(regionSlice, region, regionLength), text(categorySlice, category, categoryLength));
+            } catch (EOFException e) {
+                throw new DataProcessingException("Truncated binary data file", e);
+            }
+            read++;
+        }
+        return read;
+    }
+
+    @Override
+    public void close() throws IOException {
+        input.close();
+    }
+
+    private byte[] readText(byte[] buffer, int length) throws IOException {
+        byte[] target = buffer.length >= length ? buffer : new byte[Math.max(length, buffer.length * 2)];
+        input.readFully(target, 0, length);
+        return target;
+    }
+
+    private static CharSequence text(AsciiSlice slice, byte[] bytes, int length) {
+        if (AsciiSlice.isAscii(bytes, 0, length)) {
+            return slice.wrap(bytes, 0, length);
+        }
+        return new String(bytes, 0, length, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,104 @@
+package org.buildozers.dojo.abstraction.advanced;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Writes records in the compact BINARY format.
+ * 
+ * The file starts with the magic number {@code DOJB} and a version byte,
+ * followed by the records back to back, big-endian:
+ * 
+ * <pre>
+ * flags (1 byte, bit 0 set when the value is valid)
+ * id (8 bytes) | value (4 bytes)
+ * region length (2 bytes) | region (UTF-8)
+ * category length (2 bytes) | category (UTF-8)
+ * </pre>
+ */
+class BinaryRecordWriter implements DataRecordWriter {
+
+    /**
+     * First bytes of a binary data file: "DOJB"
+     */
+    static final int MAGIC = 0x444F4A42;
+
+    /**
+     * Version of the record layout
+     */
+    static final int VERSION = 1;
+
+    /**
+     * Flag set when the record has a valid value
+     */
+    static final int VALID_VALUE = 1;
+
+    private static final int MAX_TEXT_LENGTH = 0xFFFF;
+
+    private final DataOutputStream output;
+    private byte[] text = new byte[64];
+
+    /**
+     * @param output the buffered destination, closed with this writer
+     * @throws IOException if the header cannot be written
+     */
+    BinaryRecordWriter(OutputStream output) throws IOException {
+        this.output = new DataOutputStream(output);
+        this.output.writeInt(MAGIC);
+        this.output.writeByte(VERSION);
+    }
+
+    @Override
+    public void accept(long id, int value, boolean validValue, CharSequence region, CharSequence category) {
+        try {
+            output.writeByte(validValue ? VALID_VALUE : 0);
+            output.writeLong(id);
+            output.writeInt(value);
+            writeText(region);
+            writeText(category);
+        } catch (IOException e) {
+            throw new DataProcessingException("Failed to write binary record", e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        output.close();
+    }
+
+    private void writeText(CharSequence value) throws IOException {
+        int length = value.length();
+        if (!isAscii(value)) {
+            byte[] utf8 = value.toString().getBytes(StandardCharsets.UTF_8);
+            writeLength(utf8.length);
+            output.write(utf8);
+            return;
+        }
+        writeLength(length);
+        if (text.length < length) {
+            text = new byte[Math.max(length, text.length * 2)];
+        }
+        for (int i = 0; i < length; i++) {
+            text[i] = (byte) value.charAt(i);
+        }
+        output.write(text, 0, length);
+    }
+
+    private void writeLength(int length) throws IOException {
+        if (length > MAX_TEXT_LENGTH) {
+            throw new DataProcessingException("Text field too long for the binary format: " + length + " bytes");
+        }
+        output.writeShort(length);
+    }
+
+    private static boolean isAscii(CharSequence value) {
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) >= 0x80) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
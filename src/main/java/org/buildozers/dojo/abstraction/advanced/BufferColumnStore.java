@@ -0,0 +1,292 @@
+package org.buildozers.dojo.abstraction.advanced;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Column store keeping its columns outside the Java heap.
+ * 
+ * With {@link ColumnStorage#DIRECT} every column is a direct byte buffer;
+ * with {@link ColumnStorage#MAPPED} every column is written to a temporary
+ * file and memory-mapped once the store is sealed. Either way the garbage
+ * collector only sees a handful of buffer objects, whatever the number of
+ * rows. Aggregations read fixed-size blocks with bulk copies into reusable
+ * arrays, so the SIMD kernels still apply.
+ * 
+ * A column is limited to 2 GB, i.e. about 268 million rows.
+ */
+class BufferColumnStore implements ColumnStore {
+
+    /**
+     * Number of rows copied per block when aggregating
+     */
+    static final int BLOCK_SIZE = 4096;
+
+    private static final int INITIAL_CAPACITY = 4096;
+    private static final int MAX_ROWS = Integer.MAX_VALUE / Long.BYTES;
+
+    private final ColumnStorage storage;
+    private final Path directory;
+    private final Column[] columns;
+    private int size;
+    private boolean sealed;
+
+    private LongBuffer ids;
+    private IntBuffer values;
+    private IntBuffer categoryCodes;
+    private IntBuffer regionCodes;
+
+    /**
+     * @param storage   either {@link ColumnStorage#DIRECT} or
+     *                  {@link ColumnStorage#MAPPED}
+     * @param directory the folder of the temporary column files, only used
+     *                  by mapped stores
+     */
+    BufferColumnStore(ColumnStorage storage, Path directory) {
+        if (storage == ColumnStorage.HEAP) {
+            throw new IllegalArgumentException("Heap storage is handled by HeapColumnStore");
+        }
+        this.storage = storage;
+        this.directory = directory;
+        this.columns = new Column[] { column("ids", Long.BYTES), column("values", Integer.BYTES),
+                column("categories", Integer.BYTES), column("regions", Integer.BYTES) };
+    }
+
+    @Override
+    public void append(long[] idChunk, int[] valueChunk, int[] categoryChunk, int[] regionChunk, int length) {
+        if (sealed) {
+            throw new IllegalStateException("Column store is sealed");
+        }
+        if ((long) size + length > MAX_ROWS) {
+            throw new DataProcessingException("Off-heap datasets are limited to " + MAX_ROWS + " rows");
+        }
+        columns[0].staging(length).asLongBuffer().put(idChunk, 0, length);
+        columns[1].staging(length).asIntBuffer().put(valueChunk, 0, length);
+        columns[2].staging(length).asIntBuffer().put(categoryChunk, 0, length);
+        columns[3].staging(length).asIntBuffer().put(regionChunk, 0, length);
+        for (Column column : columns) {
+            column.commit(length);
+        }
+        size += length;
+    }
+
+    @Override
+    public void seal() {
+        for (Column column : columns) {
+            column.seal();
+        }
+        ids = columns[0].content.asLongBuffer();
+        values = columns[1].content.asIntBuffer();
+        categoryCodes = columns[2].content.asIntBuffer();
+        regionCodes = columns[3].content.asIntBuffer();
+        sealed = true;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public long id(int row) {
+        return ids.get(row);
+    }
+
+    @Override
+    public int value(int row) {
+        return values.get(row);
+    }
+
+    @Override
+    public int categoryCode(int row) {
+        return categoryCodes.get(row);
+    }
+
+    @Override
+    public int regionCode(int row) {
+        return regionCodes.get(row);
+    }
+
+    @Override
+    public ColumnBlock block(int from, ColumnBlock reuse) {
+        ColumnBlock block = reuse != null && reuse.values.length == BLOCK_SIZE ? reuse : ColumnBlock.allocate(BLOCK_SIZE);
+        int length = Math.min(BLOCK_SIZE, size - from);
+        values.get(from, block.values, 0, length);
+        categoryCodes.get(from, block.categoryCodes, 0, length);
+        regionCodes.get(from, block.regionCodes, 0, length);
+        block.length = length;
+        return block;
+    }
+
+    /**
+     * Drops the column buffers and deletes the temporary column files. The
+     * direct buffers and mappings themselves are freed by the next garbage
+     * collection, as described on {@link ColumnStore#close}.
+     */
+    @Override
+    public void close() {
+        ids = null;
+        values = null;
+        categoryCodes = null;
+        regionCodes = null;
+        for (Column column : columns) {
+            column.close();
+        }
+    }
+
+    private Column column(String name, int width) {
+        return storage == ColumnStorage.DIRECT ? new DirectColumn(width) : new MappedColumn(name, width);
+    }
+
+    /**
+     * One column being appended to, then read through {@link #content}.
+     */
+    private abstract static class Column {
+
+        final int width;
+        ByteBuffer content;
+
+        Column(int width) {
+            this.width = width;
+        }
+
+        /**
+         * @param rows the number of rows about to be written
+         * @return a native-order buffer positioned where the rows must be
+         *         written
+         */
+        abstract ByteBuffer staging(int rows);
+
+        /**
+         * Makes the rows written to the staging buffer part of the column.
+         * 
+         * @param rows the number of rows written
+         */
+        abstract void commit(int rows);
+
+        abstract void seal();
+
+        abstract void close();
+    }
+
+    /**
+     * Column growing inside a direct byte buffer.
+     */
+    private static final class DirectColumn extends Column {
+
+        DirectColumn(int width) {
+            super(width);
+            content = ByteBuffer.allocateDirect(INITIAL_CAPACITY * width).order(ByteOrder.nativeOrder());
+        }
+
+        @Override
+        ByteBuffer staging(int rows) {
+            if (content.remaining() < rows * width) {
+                long capacity = Math.max(2L * content.capacity(), (long) content.position() + (long) rows * width);
+                ByteBuffer grown = ByteBuffer.allocateDirect((int) Math.min(capacity, Integer.MAX_VALUE))
+                        .order(ByteOrder.nativeOrder());
+                content.flip();
+                grown.put(content);
+                content = grown;
+            }
+            return content.slice().order(ByteOrder.nativeOrder());
+        }
+
+        @Override
+        void commit(int rows) {
+            content.position(content.position() + rows * width);
+        }
+
+        @Override
+        void seal() {
+            content = content.flip().slice().order(ByteOrder.nativeOrder()).asReadOnlyBuffer()
+                    .order(ByteOrder.nativeOrder());
+        }
+
+        @Override
+        void close() {
+            content = null;
+        }
+    }
+
+    /**
+     * Column appended to a temporary file, mapped read-only when sealed.
+     */
+    private final class MappedColumn extends Column {
+
+        private final String name;
+        private Path file;
+        private FileChannel channel;
+        private ByteBuffer staging;
+
+        MappedColumn(String name, int width) {
+            super(width);
+            this.name = name;
+        }
+
+        @Override
+        ByteBuffer staging(int rows) {
+            if (staging == null || staging.capacity() < rows * width) {
+                staging = ByteBuffer.allocateDirect(Math.max(rows, INITIAL_CAPACITY) * width).order(ByteOrder.nativeOrder());
+            }
+            staging.clear();
+            return staging;
+        }
+
+        @Override
+        void commit(int rows) {
+            staging.limit(rows * width);
+            try {
+                while (staging.hasRemaining()) {
+                    channel().write(staging);
+                }
+            } catch (IOException e) {
+                throw new DataProcessingException("Failed to write column file " + file, e);
+            }
+        }
+
+        @Override
+        void seal() {
+            try {
+                FileChannel fileChannel = channel();
+                content = fileChannel.map(FileChannel.MapMode.READ_ONLY, 0, fileChannel.size())
+                        .order(ByteOrder.nativeOrder());
+                fileChannel.close();
+                staging = null;
+            } catch (IOException e) {
+                throw new DataProcessingException("Failed to map column file " + file, e);
+            }
+        }
+
+        @Override
+        void close() {
+            content = null;
+            try {
+                if (channel != null) {
+                    channel.close();
+                }
+                if (file != null) {
+                    Files.deleteIfExists(file);
+                }
+            } catch (IOException e) {
+                // The file lives in a temporary folder, leaving it behind is harmless
+            }
+        }
+
+        private FileChannel channel() throws IOException {
+            if (channel == null) {
+                file = Files.createTempFile(directory, "dataset-" + name + "-", ".col");
+                file.toFile().deleteOnExit();
+                channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            }
+            return channel;
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package org.buildozers.dojo.abstraction.advanced;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Cooperative cancellation flag with an optional deadline.
+ * 
+ * Long-running work polls {@link #throwIfCancelled()} at chunk boundaries,
+ * so a query stops within one chunk of being cancelled or reaching its
+ * deadline, and unwinds through its try-with-resources blocks to release
+ * readers and buffers.
+ */
+public class CancellationSignal {
+
+    /**
+     * A signal that is never cancelled and has no deadline.
+     */
+    public static final CancellationSignal NONE = new CancellationSignal(Long.MAX_VALUE) {
+        @Override
+        public void cancel() {
+            // The shared signal cannot be cancelled
+        }
+    };
+
+    private final long deadlineNanos;
+    private volatile boolean cancelled;
+
+    /**
+     * Creates a signal without deadline.
+     */
+    public CancellationSignal() {
+        this(Long.MAX_VALUE);
+    }
+
+    private CancellationSignal(long deadlineNanos) {
+        this.deadlineNanos = deadlineNanos;
+    }
+
+    /**
+     * Creates a signal that expires at the given instant.
+     * 
+     * @param deadline the instant after which the work must stop
+     * @return a signal with that deadline
+     */
+    public static CancellationSignal withDeadline(Instant deadline) {
+        try {
+            long remainingNanos = Duration.between(Instant.now(), deadline).toNanos();
+            return new CancellationSignal(System.nanoTime() + Math.max(0L, remainingNanos));
+        } catch (ArithmeticException e) {
+            // Deadline centuries away, as good as none
+            return new CancellationSignal();
+        }
+    }
+
+    /**
+     * Requests the work to stop at its next check.
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    /**
+     * @return whether the work has been cancelled or its deadline has passed
+     */
+    public boolean isCancelled() {
+        return cancelled || (deadlineNanos != Long.MAX_VALUE && System.nanoTime() - deadlineNanos >= 0);
+    }
+
+    /**
+     * @throws QueryCancelledException if the work has been cancelled or its
+     *                                 deadline has passed
+     */
+    public void throwIfCancelled() {
+        if (cancelled) {
+            throw new QueryCancelledException("Query cancelled");
+        }
+        if (deadlineNanos != Long.MAX_VALUE && System.nanoTime() - deadlineNanos >= 0) {
+            throw new QueryCancelledException("Query deadline exceeded");
+        }
+    }
+}
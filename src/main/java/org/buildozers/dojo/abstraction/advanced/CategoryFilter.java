@@ -0,0 +1,74 @@
+package org.buildozers.dojo.abstraction.advanced;
+
+import java.util.Locale;
+
+/**
+ * Category filter with the semantics of {@link MonolithicDataProcessor},
+ * which every processor shares so that a query returns the same result
+ * whichever answers it.
+ * 
+ * For CSV and JSON, a category matches when it contains the filter,
+ * ignoring case; for XML, only when it equals the filter exactly. A filter
+ * created without a format always applies the CSV and JSON semantics. A null
+ * or empty filter matches everything.
+ */
+public final class CategoryFilter {
+
+    private static final CategoryFilter ALL = new CategoryFilter(null, false);
+
+    private final String needle;
+    private final boolean exact;
+
+    private CategoryFilter(String needle, boolean exact) {
+        this.needle = needle;
+        this.exact = exact;
+    }
+
+    /**
+     * @param categoryFilter the category to filter by, or null/empty for all
+     * @return a filter matching the categories containing it, ignoring case
+     */
+    public static CategoryFilter of(String categoryFilter) {
+        return categoryFilter == null || categoryFilter.isEmpty() ? ALL
+                : new CategoryFilter(categoryFilter.toLowerCase(Locale.ROOT), false);
+    }
+
+    /**
+     * @param categoryFilter the category to filter by, or null/empty for all
+     * @param format         the format of the filtered file, or null if
+     *                       unknown
+     * @return the filter with the semantics of that format
+     */
+    public static CategoryFilter of(String categoryFilter, DataFormat format) {
+        if (format == DataFormat.XML && categoryFilter != null && !categoryFilter.isEmpty()) {
+            return new CategoryFilter(categoryFilter, true);
+        }
+        return of(categoryFilter);
+    }
+
+    /**
+     * @return whether every category matches
+     */
+    public boolean matchesAll() {
+        return needle == null;
+    }
+
+    /**
+     * @param category the category to test
+     * @return whether the category matches the filter
+     */
+    public boolean matches(String category) {
+        if (needle == null) {
+            return true;
+        }
+        return exact ? needle.equals(category) : category.toLowerCase(Locale.ROOT).contains(needle);
+    }
+
+    @Override
+    public String toString() {
+        if (needle == null) {
+            return "*";
+        }
+        return exact ? "=" + needle : needle;
+    }
+}
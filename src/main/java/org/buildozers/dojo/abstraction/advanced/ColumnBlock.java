@@ -0,0 +1,32 @@
+package org.buildozers.dojo.abstraction.advanced;
+
+/**
+ * A run of consecutive rows exposed as plain arrays, the unit the
+ * {@link AggregationKernel}s work on.
+ * 
+ * Heap stores expose their whole arrays as one block; off-heap stores copy
+ * fixed-size blocks into reusable arrays so that the SIMD kernels can run
+ * over them.
+ */
+final class ColumnBlock {
+
+    int[] values;
+    int[] categoryCodes;
+    int[] regionCodes;
+    int length;
+
+    ColumnBlock(int[] values, int[] categoryCodes, int[] regionCodes, int length) {
+        this.values = values;
+        this.categoryCodes = categoryCodes;
+        this.regionCodes = regionCodes;
+        this.length = length;
+    }
+
+    /**
+     * @param capacity the maximum number of rows of the block
+     * @return an empty block with arrays of the given capacity
+     */
+    static ColumnBlock allocate(int capacity) {
+        return new ColumnBlock(new int[capacity], new int[capacity], new int[capacity], 0);
+    }
+}
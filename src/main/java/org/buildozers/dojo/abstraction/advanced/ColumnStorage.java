@@ -0,0 +1,24 @@
+package org.buildozers.dojo.abstraction.advanced;
+
+/**
+ * Where the columns of a {@link ColumnarDataset} live.
+ */
+public enum ColumnStorage {
+
+    /**
+     * Plain Java arrays on the heap; fastest for small datasets.
+     */
+    HEAP,
+
+    /**
+     * Direct byte buffers outside the Java heap, invisible to the garbage
+     * collector apart from a few small buffer objects.
+     */
+    DIRECT,
+
+    /**
+     * Memory-mapped temporary files, paged in by the operating system on
+     * demand; suited to datasets larger than the available memory.
+     */
+    MAPPED
+}
@@ -0,0 +1,78 @@
+package org.buildozers.dojo.abstraction.advanced;
+
+import java.io.Closeable;
+
+/**
+ * Physical storage of the columns of a {@link ColumnarDataset}.
+ * 
+ * A store is filled by appending chunks of rows, then sealed and read
+ * concurrently. Implementations decide whether the columns live on the
+ * heap or outside of it.
+ */
+interface ColumnStore extends Closeable {
+
+    /**
+     * Appends rows; only allowed before {@link #seal()}.
+     * 
+     * @param ids           the id column chunk
+     * @param values        the value column chunk
+     * @param categoryCodes the category code column chunk
+     * @param regionCodes   the region code column chunk
+     * @param length        the number of rows to append from each chunk
+     */
+    void append(long[] ids, int[] values, int[] categoryCodes, int[] regionCodes, int length);
+
+    /**
+     * Freezes the store; it becomes read-only and safe to share.
+     */
+    void seal();
+
+    /**
+     * @return the number of rows
+     */
+    int size();
+
+    /**
+     * @param row the row index
+     * @return the id of the row
+     */
+    long id(int row);
+
+    /**
+     * @param row the row index
+     * @return the value of the row
+     */
+    int value(int row);
+
+    /**
+     * @param row the row index
+     * @return the category code of the row
+     */
+    int categoryCode(int row);
+
+    /**
+     * @param row the row index
+     * @return the region code of the row
+     */
+    int regionCode(int row);
+
+    /**
+     * Exposes the rows starting at {@code from} as a block.
+     * 
+     * @param from  the first row of the block
+     * @param reuse a block previously returned by this method, or null
+     * @return a block of at least one row, unless the store is empty
+     */
+    ColumnBlock block(int from, ColumnBlock reuse);
+
+    /**
+     * Releases the storage; the store must not be used afterwards.
+     * 
+     * Heap storage and temporary files are released right away. Off-heap
+     * buffers and file mappings are only dropped: Java offers no supported
+     * way to free them explicitly, so their native memory is returned when
+     * the next garbage collection reclaims them.
+     */
+    @Override
+    void close();
+}
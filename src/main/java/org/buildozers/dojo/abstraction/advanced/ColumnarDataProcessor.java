@@ -0,0 +1,313 @@
+package org.buildozers.dojo.abstraction.advanced;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Data processor answering queries from cached {@link ColumnarDataset}s.
+ * 
+ * The first query on a file parses it into columns and keeps them; later
+ * queries, from any thread, only run the aggregation kernels. Validation
+ * uses the shared compiled schemas of a {@link DataValidator} and is done
+ * at most once per file. A long-lived instance therefore stays warm: the
+ * parsed datasets, the compiled schemas and the JIT-compiled kernels are
+ * all reused.
+ * 
+ * Besides SUM and COUNT, this processor supports MIN and MAX. Categories
+ * are selected by a {@link CategoryFilter} for the format of the file.
+ * SUM and COUNT are answered from the {@link AggregateCube} of the dataset,
+ * without scanning; MIN and MAX scan the value column.
+ * 
+ * Queries can also run asynchronously with
+ * {@link #processFileDataAsync(String, String, boolean, String, String, Instant)},
+ * which returns a cancellable future and enforces an optional deadline.
+ * 
+ * Datasets are cached as futures, so concurrent queries on a file wait for a
+ * single load, which runs outside of the map lock: loading one file never
+ * blocks queries on others. A failed load is dropped so that the next query
+ * retries it, and queries that were waiting on a load cancelled by its own
+ * caller load the file themselves.
+ * 
+ * {@link #explain} reports whether the dataset came from the cache, the
+ * access path and kernel of the aggregation, and the time of each stage.
+ */
+public class ColumnarDataProcessor implements ExplainableDataProcessor, AutoCloseable {
+
+    private final ConcurrentMap<DatasetKey, CompletableFuture<ColumnarDataset>> datasets = new ConcurrentHashMap<>();
+    private final Set<DatasetKey> validated = ConcurrentHashMap.newKeySet();
+    private final DataValidator validator;
+    private final ColumnStorage storage;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final RowEstimator rowEstimator = new RowEstimator();
+
+    /**
+     * Creates a processor keeping its datasets on the heap.
+     */
+    public ColumnarDataProcessor() {
+        this(ColumnStorage.HEAP);
+    }
+
+    /**
+     * Creates a processor keeping its datasets in the given storage.
+     * 
+     * @param storage where to keep the columns of the cached datasets
+     */
+    public ColumnarDataProcessor(ColumnStorage storage) {
+        this(storage, new DataValidator());
+    }
+
+    /**
+     * Creates a processor sharing a validator with other components.
+     * 
+     * @param storage   where to keep the columns of the cached datasets
+     * @param validator the validator holding the compiled schemas
+     */
+    public ColumnarDataProcessor(ColumnStorage storage, DataValidator validator) {
+        this.storage = storage;
+        this.validator = validator;
+    }
+
+    /**
+     * {@inheritDoc}
+     * 
+     * @throws UnsupportedAggregationException if aggregation type is not one of
+     *                                         SUM, COUNT, MIN or MAX
+     */
+    @Override
+    public long processFileData(String filename, String format, boolean validate,
+            String categoryFilter, String aggregationType) {
+        return query(filename, format, validate, categoryFilter, aggregationType, CancellationSignal.NONE);
+    }
+
+    /**
+     * {@inheritDoc}
+     * 
+     * The profile of a first query on a file reports the streaming load
+     * under {@link ProcessingStage#LOAD}; later queries report a cache hit.
+     */
+    @Override
+    public QueryProfile explain(String filename, String format, boolean validate, String categoryFilter,
+            String aggregationType) {
+        QueryProfile.Builder profile = QueryProfile.builder(getClass().getSimpleName(), filename, format,
+                categoryFilter, aggregationType);
+        AggregationType aggregation = AggregationType.of(aggregationType);
+        DataFormat dataFormat = DataFormat.of(format);
+        DatasetKey key = new DatasetKey(filename, dataFormat);
+
+        long start = System.nanoTime();
+        if (validate && !validated.contains(key)) {
+            validator.validate(filename, dataFormat);
+            validated.add(key);
+            profile.stage(ProcessingStage.VALIDATE, System.nanoTime() - start);
+        }
+
+        ColumnarDataset cached = loaded(datasets.get(key));
+        profile.estimatedRows(cached != null ? cached.size()
+                : rowEstimator.estimate(dataFormat, DataSources.resourceSize(filename)));
+        boolean[] loaded = new boolean[1];
+        start = System.nanoTime();
+        ColumnarDataset dataset = getOrLoad(key, CancellationSignal.NONE, loaded);
+        if (loaded[0]) {
+            profile.stage(ProcessingStage.LOAD, System.nanoTime() - start)
+                    .parseMode(QueryProfile.ParseMode.STREAMING)
+                    .cacheStatus(QueryProfile.CacheStatus.MISS);
+        } else {
+            profile.parseMode(QueryProfile.ParseMode.CACHED).cacheStatus(QueryProfile.CacheStatus.HIT);
+        }
+
+        CategoryFilter filter = CategoryFilter.of(categoryFilter, dataFormat);
+        AggregateCube cube = dataset.getCube();
+        boolean fromCube = AggregateCube.supports(aggregation);
+        start = System.nanoTime();
+        long result = fromCube ? cube.aggregate(aggregation, filter) : dataset.aggregate(aggregation, categoryFilter);
+        profile.stage(ProcessingStage.AGGREGATE, System.nanoTime() - start);
+
+        return profile.indexUsed(fromCube ? "category x region cube" : dataset.accessPath(aggregation, categoryFilter))
+                .rows(fromCube ? 0 : dataset.rowsScanned(aggregation, categoryFilter),
+                        cube.aggregate(AggregationType.COUNT, filter))
+                .build(result);
+    }
+
+    /**
+     * Asynchronous, cancellable variant of {@link #processFileData}.
+     * 
+     * The query runs on its own virtual thread and checks for cancellation
+     * after every chunk of parsed records and every block of aggregated rows.
+     * Cancelling the returned future, or reaching the deadline, makes the
+     * query stop at its next check, close its reader and release any
+     * off-heap storage it allocated; the thread then ends.
+     * 
+     * @param filename        the name of the file to process
+     * @param format          the format of the file ("CSV", "JSON" or "XML")
+     * @param validate        whether to perform validation on the data
+     * @param categoryFilter  the category to filter by, or null/empty for all
+     * @param aggregationType the aggregation ("SUM", "COUNT", "MIN" or "MAX")
+     * @param deadline        the instant after which the query is abandoned,
+     *                        or null for no deadline
+     * @return a future completed with the result, or exceptionally with a
+     *         {@link java.util.concurrent.TimeoutException} once the deadline
+     *         passes, or with the exception that made the query fail
+     */
+    public CompletableFuture<Long> processFileDataAsync(String filename, String format, boolean validate,
+            String categoryFilter, String aggregationType, Instant deadline) {
+        CancellationSignal signal = deadline == null ? new CancellationSignal() : CancellationSignal.withDeadline(deadline);
+        CompletableFuture<Long> future = new CompletableFuture<>();
+        future.whenComplete((result, failure) -> {
+            if (failure != null) {
+                signal.cancel();
+            }
+        });
+        if (deadline != null) {
+            future.orTimeout(Math.max(0L, Duration.between(Instant.now(), deadline).toMillis()), TimeUnit.MILLISECONDS);
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    future.complete(query(filename, format, validate, categoryFilter, aggregationType, signal));
+                } catch (RuntimeException e) {
+                    future.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            future.completeExceptionally(new DataProcessingException("Processor has been closed", e));
+        }
+        return future;
+    }
+
+    /**
+     * Returns the cached dataset of a file, loading it on first use.
+     * 
+     * Concurrent callers asking for the same file wait for a single load.
+     * 
+     * @param filename the name of the file
+     * @param format   the format of the file
+     * @param validate whether the file must have passed validation
+     * @return the cached dataset
+     * @throws DataProcessingException if the file cannot be loaded or is invalid
+     */
+    public ColumnarDataset dataset(String filename, DataFormat format, boolean validate) {
+        return dataset(filename, format, validate, CancellationSignal.NONE);
+    }
+
+    private ColumnarDataset dataset(String filename, DataFormat format, boolean validate, CancellationSignal signal) {
+        DatasetKey key = new DatasetKey(filename, format);
+        if (validate && !validated.contains(key)) {
+            validator.validate(filename, format);
+            validated.add(key);
+            signal.throwIfCancelled();
+        }
+        return getOrLoad(key, signal, new boolean[1]);
+    }
+
+    /**
+     * Returns the cached dataset of a key, or loads it outside of the map
+     * lock if no other caller is loading it already.
+     * 
+     * @param loaded set to true if this call loaded the dataset
+     */
+    private ColumnarDataset getOrLoad(DatasetKey key, CancellationSignal signal, boolean[] loaded) {
+        while (true) {
+            CompletableFuture<ColumnarDataset> future = datasets.get(key);
+            if (future == null) {
+                CompletableFuture<ColumnarDataset> loading = new CompletableFuture<>();
+                future = datasets.putIfAbsent(key, loading);
+                if (future == null) {
+                    loaded[0] = true;
+                    return load(key, loading, signal);
+                }
+            }
+            try {
+                return future.join();
+            } catch (CompletionException e) {
+                if (!(e.getCause() instanceof QueryCancelledException)) {
+                    throw e.getCause() instanceof RuntimeException cause ? cause : e;
+                }
+                // The loading query was cancelled, load for this one instead
+                signal.throwIfCancelled();
+            }
+        }
+    }
+
+    private ColumnarDataset load(DatasetKey key, CompletableFuture<ColumnarDataset> loading, CancellationSignal signal) {
+        try {
+            ColumnarDataset dataset = load(key, signal);
+            loading.complete(dataset);
+            return dataset;
+        } catch (RuntimeException | Error e) {
+            datasets.remove(key, loading);
+            loading.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /**
+     * @return the dataset of a future if loaded successfully, null otherwise
+     */
+    private static ColumnarDataset loaded(CompletableFuture<ColumnarDataset> future) {
+        return future != null && future.isDone() && !future.isCompletedExceptionally() ? future.join() : null;
+    }
+
+    private ColumnarDataset load(DatasetKey key, CancellationSignal signal) {
+        ColumnarDataset dataset = ColumnarDataset.load(key.filename(), key.format(), storage, signal);
+        rowEstimator.observe(key.format(), DataSources.resourceSize(key.filename()), dataset.size());
+        return dataset;
+    }
+
+    private long query(String filename, String format, boolean validate, String categoryFilter,
+            String aggregationType, CancellationSignal signal) {
+        AggregationType aggregation = AggregationType.of(aggregationType);
+        DataFormat dataFormat = DataFormat.of(format);
+        ColumnarDataset dataset = dataset(filename, dataFormat, validate, signal);
+        if (AggregateCube.supports(aggregation)) {
+            return dataset.getCube().aggregate(aggregation, CategoryFilter.of(categoryFilter, dataFormat));
+        }
+        return dataset.aggregate(aggregation, categoryFilter, signal);
+    }
+
+    /**
+     * @return the number of datasets currently cached
+     */
+    public int cachedDatasetCount() {
+        return datasets.size();
+    }
+
+    /**
+     * Drops and closes every cached dataset, for instance after the files
+     * changed; datasets still loading are closed once loaded. Datasets handed
+     * out before must not be used afterwards.
+     */
+    public void clear() {
+        validated.clear();
+        datasets.keySet().forEach(key -> {
+            CompletableFuture<ColumnarDataset> future = datasets.remove(key);
+            if (future != null) {
+                future.thenAccept(ColumnarDataset::close);
+            }
+        });
+    }
+
+    /**
+     * Stops accepting asynchronous queries and releases every cached
+     * dataset.
+     */
+    @Override
+    public void close() {
+        executor.shutdownNow();
+        clear();
+    }
+
+    /**
+     * Cache key of a dataset.
+     */
+    private record DatasetKey(String filename, DataFormat format) {
+    }
+}
@@ -0,0 +1,563 @@
+package org.buildozers.dojo.abstraction.advanced;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Immutable column-oriented copy of a data file.
+ * 
+ * Records are stored as primitive columns (id, value, category code, region
+ * code) with dictionary-encoded text fields, so that aggregations run as
+ * tight loops over {@code int[]} arrays through an {@link AggregationKernel}
+ * instead of walking CSV records, JSON objects or DOM elements.
+ * 
+ * Records whose value was malformed are kept with a value of 0 and flagged,
+ * so that COUNT still includes them while SUM, MIN and MAX skip them, like
+ * the monolithic processor does.
+ * 
+ * While loading, the builder also materializes an {@link AggregateCube} of
+ * SUM and COUNT per category and region, available from {@link #getCube()};
+ * {@link #aggregate} itself always scans the columns.
+ * 
+ * Categories are selected with a {@link CategoryFilter} for the format the
+ * dataset was loaded from, set by {@link Builder#format}.
+ * 
+ * Columns live on the heap by default; a dataset built with
+ * {@link ColumnStorage#DIRECT} or {@link ColumnStorage#MAPPED} keeps them
+ * outside of it (see {@link BufferColumnStore}), which must then be released
+ * with {@link #close()}. Closing while queries run is safe: new queries are
+ * rejected at once, and the columns are released by the last query still
+ * reading them.
+ */
+public class ColumnarDataset implements AutoCloseable {
+
+    private final ColumnStore store;
+    private final int size;
+    private final BitSet malformedValues;
+    private final StringDictionary categories;
+    private final StringDictionary regions;
+    private final AggregationKernel kernel;
+    private final AggregateCube cube;
+    private final DataFormat format;
+    private final AtomicInteger readers = new AtomicInteger();
+    private final AtomicBoolean released = new AtomicBoolean();
+    private volatile boolean closed;
+
+    private ColumnarDataset(Builder builder, AggregationKernel kernel) {
+        this.store = builder.store;
+        this.size = store.size();
+        this.malformedValues = builder.malformedValues.isEmpty() ? null : (BitSet) builder.malformedValues.clone();
+        this.categories = builder.categories;
+        this.regions = builder.regions;
+        this.kernel = kernel;
+        this.cube = builder.cube.build(categories, regions);
+        this.format = builder.format;
+    }
+
+    /**
+     * Loads a data file from the classpath into heap columns.
+     * 
+     * @param filename the name of the file to load
+     * @param format   the format of the file
+     * @return the loaded dataset
+     * @throws DataProcessingException if the file cannot be read or parsed
+     */
+    public static ColumnarDataset load(String filename, DataFormat format) {
+        return load(filename, format, builder());
+    }
+
+    /**
+     * Loads a data file from the classpath into columns of the given storage.
+     * 
+     * @param filename the name of the file to load
+     * @param format   the format of the file
+     * @param storage  where to keep the columns
+     * @return the loaded dataset
+     * @throws DataProcessingException if the file cannot be read or parsed
+     */
+    public static ColumnarDataset load(String filename, DataFormat format, ColumnStorage storage) {
+        return load(filename, format, builder(storage));
+    }
+
+    /**
+     * Loads a data file from the classpath, checking for cancellation after
+     * every chunk of records. A cancelled load releases its reader and any
+     * off-heap storage already allocated.
+     * 
+     * @param filename the name of the file to load
+     * @param format   the format of the file
+     * @param storage  where to keep the columns
+     * @param signal   the cancellation signal of the calling query
+     * @return the loaded dataset
+     * @throws DataProcessingException if the file cannot be read or parsed
+     * @throws QueryCancelledException if the signal fires during the load
+     */
+    public static ColumnarDataset load(String filename, DataFormat format, ColumnStorage storage,
+            CancellationSignal signal) {
+        return load(filename, format, builder(storage), signal);
+    }
+
+    private static ColumnarDataset load(String filename, DataFormat format, Builder builder) {
+        return load(filename, format, builder, CancellationSignal.NONE);
+    }
+
+    private static ColumnarDataset load(String filename, DataFormat format, Builder builder, CancellationSignal signal) {
+        builder.format(format);
+        try (DataRecordReader reader = DataRecordReaders.open(filename, format)) {
+            signal.throwIfCancelled();
+            while (reader.read(builder, DataRecordReader.DEFAULT_CHUNK_SIZE) >= 0) {
+                signal.throwIfCancelled();
+            }
+        } catch (IOException e) {
+            builder.discard();
+            throw new DataProcessingException("Failed to load file: " + filename, e);
+        } catch (RuntimeException e) {
+            builder.discard();
+            throw e;
+        }
+        return builder.build();
+    }
+
+    /**
+     * @return a builder accumulating records into heap columns
+     */
+    public static Builder builder() {
+        return builder(ColumnStorage.HEAP);
+    }
+
+    /**
+     * @param storage where to keep the columns; mapped files are created in
+     *                the default temporary folder
+     * @return a builder accumulating records into columns of that storage
+     */
+    public static Builder builder(ColumnStorage storage) {
+        return builder(storage, Path.of(System.getProperty("java.io.tmpdir")));
+    }
+
+    /**
+     * @param storage   where to keep the columns
+     * @param directory the folder receiving the column files of a
+     *                  {@link ColumnStorage#MAPPED} dataset
+     * @return a builder accumulating records into columns of that storage
+     */
+    public static Builder builder(ColumnStorage storage, Path directory) {
+        return new Builder(storage == ColumnStorage.HEAP ? new HeapColumnStore() : new BufferColumnStore(storage, directory));
+    }
+
+    /**
+     * Aggregates the value column over the records matching a category filter.
+     * 
+     * @param aggregationType the aggregation to compute
+     * @param categoryFilter  the category to filter by, or null/empty for all
+     *                        records
+     * @return the aggregated result; MIN and MAX return 0 when no record
+     *         with a valid value matches
+     * @throws DataProcessingException if the dataset has been closed
+     */
+    public long aggregate(AggregationType aggregationType, String categoryFilter) {
+        return aggregate(aggregationType, categoryFilter, CancellationSignal.NONE);
+    }
+
+    /**
+     * Aggregates the value column, checking for cancellation between blocks
+     * of rows.
+     * 
+     * @param aggregationType the aggregation to compute
+     * @param categoryFilter  the category to filter by, or null/empty for all
+     *                        records
+     * @param signal          the cancellation signal of the calling query
+     * @return the aggregated result; MIN and MAX return 0 when no record
+     *         with a valid value matches
+     * @throws DataProcessingException if the dataset has been closed
+     * @throws QueryCancelledException if the signal fires during the scan
+     */
+    public long aggregate(AggregationType aggregationType, String categoryFilter, CancellationSignal signal) {
+        acquire();
+        try {
+            int[] selectedCodes = matchingCategoryCodes(categoryFilter);
+            boolean unfiltered = selectedCodes.length == categories.size();
+            return switch (aggregationType) {
+                case COUNT -> unfiltered ? size : count(selectedCodes, signal);
+                case SUM -> sum(selectedCodes, unfiltered, signal);
+                case MIN, MAX -> extremum(aggregationType == AggregationType.MIN, selectedCodes, unfiltered, signal);
+            };
+        } finally {
+            release();
+        }
+    }
+
+    /**
+     * Finds the records with the highest or lowest values among those
+     * matching a category filter, in a single scan keeping O(K) records per
+     * group.
+     * 
+     * @param k              the number of records to keep per group
+     * @param order          whether to keep the highest or the lowest values
+     * @param grouping       what to compute a top K per
+     * @param categoryFilter the category to filter by, or null/empty for all
+     *                       records
+     * @return the collector holding the top records
+     * @throws DataProcessingException  if the dataset has been closed
+     * @throws IllegalArgumentException if k is less than 1
+     */
+    public TopKCollector topK(int k, TopKCollector.Order order, TopKCollector.Grouping grouping, String categoryFilter) {
+        TopKCollector top = new TopKCollector(k, order, grouping);
+        acquire();
+        try {
+            boolean[] selected = new boolean[categories.size()];
+            for (int code : matchingCategoryCodes(categoryFilter)) {
+                selected[code] = true;
+            }
+            ColumnBlock block = null;
+            for (int from = 0; from < size; from += block.length) {
+                block = store.block(from, block);
+                for (int i = 0; i < block.length; i++) {
+                    if (selected[block.categoryCodes[i]]) {
+                        top.accept(store.id(from + i), block.values[i], hasValidValue(from + i),
+                                regions.decode(block.regionCodes[i]), categories.decode(block.categoryCodes[i]));
+                    }
+                }
+            }
+            return top;
+        } finally {
+            release();
+        }
+    }
+
+    /**
+     * Describes how {@link #aggregate} finds the rows of a query, for
+     * {@link QueryProfile}s.
+     * 
+     * @param aggregationType the aggregation to compute
+     * @param categoryFilter  the category to filter by, or null/empty for all
+     * @return the access path of the query
+     */
+    String accessPath(AggregationType aggregationType, String categoryFilter) {
+        int matching = matchingCategoryCodes(categoryFilter).length;
+        if (matching == categories.size()) {
+            return aggregationType == AggregationType.COUNT ? "row count" : "full scan, " + kernelFor(aggregationType);
+        }
+        return "category dictionary (" + matching + " of " + categories.size() + " codes), " + kernelFor(aggregationType);
+    }
+
+    /**
+     * @param aggregationType the aggregation to compute
+     * @param categoryFilter  the category to filter by, or null/empty for all
+     * @return the number of rows {@link #aggregate} reads to answer the query
+     */
+    long rowsScanned(AggregationType aggregationType, String categoryFilter) {
+        boolean unfiltered = matchingCategoryCodes(categoryFilter).length == categories.size();
+        return aggregationType == AggregationType.COUNT && unfiltered ? 0 : size;
+    }
+
+    private String kernelFor(AggregationType aggregationType) {
+        boolean extremum = aggregationType == AggregationType.MIN || aggregationType == AggregationType.MAX;
+        return extremum && malformedValues != null ? "scalar loop" : kernel.toString();
+    }
+
+    /**
+     * Returns the SUM and COUNT cube computed while the dataset was loaded.
+     * Unlike the columns, the cube stays readable after {@link #close()}.
+     * 
+     * @return the category × region cube of the dataset
+     */
+    public AggregateCube getCube() {
+        return cube;
+    }
+
+    /**
+     * @return the number of records
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return the distinct categories, in order of first appearance
+     */
+    public List<String> getCategories() {
+        return categories.values();
+    }
+
+    /**
+     * @return the distinct regions, in order of first appearance
+     */
+    public List<String> getRegions() {
+        return regions.values();
+    }
+
+    /**
+     * @param row the row index
+     * @return the identifier of the record
+     */
+    public long getId(int row) {
+        acquire();
+        try {
+            return store.id(row);
+        } finally {
+            release();
+        }
+    }
+
+    /**
+     * @param row the row index
+     * @return the value of the record, 0 if it was malformed
+     */
+    public int getValue(int row) {
+        acquire();
+        try {
+            return store.value(row);
+        } finally {
+            release();
+        }
+    }
+
+    /**
+     * @param row the row index
+     * @return the category of the record
+     */
+    public String getCategory(int row) {
+        acquire();
+        try {
+            return categories.decode(store.categoryCode(row));
+        } finally {
+            release();
+        }
+    }
+
+    /**
+     * @param row the row index
+     * @return the region of the record
+     */
+    public String getRegion(int row) {
+        acquire();
+        try {
+            return regions.decode(store.regionCode(row));
+        } finally {
+            release();
+        }
+    }
+
+    /**
+     * @param row the row index
+     * @return whether the value of the record was well-formed
+     */
+    public boolean hasValidValue(int row) {
+        return malformedValues == null || !malformedValues.get(row);
+    }
+
+    /**
+     * Releases the off-heap memory or mapped files of the dataset, at once
+     * or when the last query reading them completes. Heap datasets are
+     * simply left to the garbage collector.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        if (readers.get() == 0) {
+            releaseStore();
+        }
+    }
+
+    /**
+     * Registers a reader of the columns, which must call {@link #release()}
+     * once done.
+     * 
+     * @throws DataProcessingException if the dataset has been closed
+     */
+    private void acquire() {
+        readers.incrementAndGet();
+        if (closed) {
+            release();
+            throw new DataProcessingException("Dataset has been closed");
+        }
+    }
+
+    private void release() {
+        if (readers.decrementAndGet() == 0 && closed) {
+            releaseStore();
+        }
+    }
+
+    private void releaseStore() {
+        if (released.compareAndSet(false, true)) {
+            store.close();
+        }
+    }
+
+    private int[] matchingCategoryCodes(String categoryFilter) {
+        CategoryFilter filter = CategoryFilter.of(categoryFilter, format);
+        if (filter.matchesAll()) {
+            return allCodes(categories.size());
+        }
+        return categories.values().stream()
+                .filter(filter::matches)
+                .mapToInt(categories::find)
+                .toArray();
+    }
+
+    private long count(int[] selectedCodes, CancellationSignal signal) {
+        long count = 0;
+        ColumnBlock block = null;
+        for (int from = 0; from < size; from += block.length) {
+            signal.throwIfCancelled();
+            block = store.block(from, block);
+            for (int code : selectedCodes) {
+                count += kernel.count(block.categoryCodes, code, block.length);
+            }
+        }
+        return count;
+    }
+
+    private long sum(int[] selectedCodes, boolean unfiltered, CancellationSignal signal) {
+        long sum = 0;
+        ColumnBlock block = null;
+        for (int from = 0; from < size; from += block.length) {
+            signal.throwIfCancelled();
+            block = store.block(from, block);
+            if (unfiltered) {
+                sum += kernel.sum(block.values, block.length);
+                continue;
+            }
+            for (int code : selectedCodes) {
+                sum += kernel.sum(block.values, block.categoryCodes, code, block.length);
+            }
+        }
+        return sum;
+    }
+
+    private long extremum(boolean min, int[] selectedCodes, boolean unfiltered, CancellationSignal signal) {
+        if (malformedValues != null) {
+            return scalarExtremum(min, selectedCodes, signal);
+        }
+        long result = min ? Long.MAX_VALUE : Long.MIN_VALUE;
+        ColumnBlock block = null;
+        for (int from = 0; from < size; from += block.length) {
+            signal.throwIfCancelled();
+            block = store.block(from, block);
+            if (unfiltered) {
+                result = min ? Math.min(result, kernel.min(block.values, block.length))
+                        : Math.max(result, kernel.max(block.values, block.length));
+                continue;
+            }
+            for (int code : selectedCodes) {
+                if (kernel.count(block.categoryCodes, code, block.length) > 0) {
+                    result = min ? Math.min(result, kernel.min(block.values, block.categoryCodes, code, block.length))
+                            : Math.max(result, kernel.max(block.values, block.categoryCodes, code, block.length));
+                }
+            }
+        }
+        return result == Long.MAX_VALUE || result == Long.MIN_VALUE ? 0L : result;
+    }
+
+    private long scalarExtremum(boolean min, int[] selectedCodes, CancellationSignal signal) {
+        boolean[] selected = new boolean[categories.size()];
+        for (int code : selectedCodes) {
+            selected[code] = true;
+        }
+        long result = min ? Long.MAX_VALUE : Long.MIN_VALUE;
+        ColumnBlock block = null;
+        for (int from = 0; from < size; from += block.length) {
+            signal.throwIfCancelled();
+            block = store.block(from, block);
+            for (int i = 0; i < block.length; i++) {
+                if (selected[block.categoryCodes[i]] && !malformedValues.get(from + i)) {
+                    result = min ? Math.min(result, block.values[i]) : Math.max(result, block.values[i]);
+                }
+            }
+        }
+        return result == Long.MAX_VALUE || result == Long.MIN_VALUE ? 0L : result;
+    }
+
+    private static int[] allCodes(int count) {
+        int[] codes = new int[count];
+        Arrays.setAll(codes, code -> code);
+        return codes;
+    }
+
+    /**
+     * Accumulates records into columns.
+     * 
+     * Records are buffered in small heap chunks and flushed to the
+     * {@link ColumnStore}, so building an off-heap dataset never holds more
+     * than one chunk on the heap. A builder is a {@link DataRecordSink}, so
+     * any {@link DataRecordReader} can stream straight into it. It is not
+     * thread-safe and must not be reused once {@link #build()} has been
+     * called.
+     */
+    public static class Builder implements DataRecordSink {
+
+        private static final int CHUNK_SIZE = 4096;
+
+        private final ColumnStore store;
+        private final long[] ids = new long[CHUNK_SIZE];
+        private final int[] values = new int[CHUNK_SIZE];
+        private final int[] categoryCodes = new int[CHUNK_SIZE];
+        private final int[] regionCodes = new int[CHUNK_SIZE];
+        private int buffered;
+        private int size;
+        private final BitSet malformedValues = new BitSet();
+        private final StringDictionary categories = new StringDictionary();
+        private final StringDictionary regions = new StringDictionary();
+        private final AggregateCube.Accumulator cube = new AggregateCube.Accumulator();
+        private DataFormat format;
+
+        Builder(ColumnStore store) {
+            this.store = store;
+        }
+
+        /**
+         * @param format the format the records are read from, which selects
+         *               the semantics of the category filter; none by
+         *               default, filtering as for CSV and JSON
+         * @return this builder
+         */
+        public Builder format(DataFormat format) {
+            this.format = format;
+            return this;
+        }
+
+        @Override
+        public void accept(long id, int value, boolean validValue, CharSequence region, CharSequence category) {
+            if (buffered == CHUNK_SIZE) {
+                flush();
+            }
+            ids[buffered] = id;
+            values[buffered] = validValue ? value : 0;
+            categoryCodes[buffered] = categories.encode(category);
+            regionCodes[buffered] = regions.encode(region);
+            if (!validValue) {
+                malformedValues.set(size);
+            }
+            buffered++;
+            size++;
+        }
+
+        /**
+         * @return a dataset holding the accumulated records
+         */
+        public ColumnarDataset build() {
+            flush();
+            store.seal();
+            return new ColumnarDataset(this, AggregationKernels.preferred());
+        }
+
+        /**
+         * Releases the storage of a dataset that will not be built.
+         */
+        void discard() {
+            store.close();
+        }
+
+        private void flush() {
+            store.append(ids, values, categoryCodes, regionCodes, buffered);
+            cube.add(values, categoryCodes, regionCodes, buffered);
+            buffered = 0;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package org.buildozers.dojo.abstraction.advanced;
+
+import java.nio.ByteBuffer;
+import java.util.stream.IntStream;
+
+/**
+ * Splits CSV content into ranges of whole records that can be parsed in
+ * parallel.
+ * 
+ * A newline only ends a record when it is outside quotes, which depends on
+ * the number of quotes before it. The content is therefore first cut into
+ * equal chunks whose quote parities are counted in parallel; each cut is
+ * then moved forward to the first newline at which the quotes seen since
+ * the start of the content are balanced. Escaped quotes ({@code ""}) count
+ * twice and leave the parity unchanged, as RFC 4180 requires.
+ */
+final class CsvRangeSplitter {
+
+    private CsvRangeSplitter() {
+        // Utility class
+    }
+
+    /**
+     * @param content the CSV content, from index 0 to its limit
+     * @param parts   the wished number of ranges
+     * @return the start offsets of the ranges followed by the content limit;
+     *         consecutive offsets may be equal when a range holds no record
+     */
+    static int[] split(ByteBuffer content, int parts) {
+        int length = content.limit();
+        int[] cuts = new int[parts + 1];
+        for (int part = 0; part <= parts; part++) {
+            cuts[part] = (int) ((long) length * part / parts);
+        }
+        boolean[] oddQuotes = new boolean[parts];
+        IntStream.range(0, parts).parallel().forEach(part -> oddQuotes[part] = countQuotes(content, cuts[part], cuts[part + 1]) % 2 == 1);
+
+        int[] offsets = new int[parts + 1];
+        offsets[parts] = length;
+        boolean insideQuotes = false;
+        for (int part = 1; part < parts; part++) {
+            insideQuotes ^= oddQuotes[part - 1];
+            offsets[part] = Math.max(offsets[part - 1], nextRecordStart(content, cuts[part], length, insideQuotes));
+        }
+        return offsets;
+    }
+
+    private static int countQuotes(ByteBuffer content, int from, int to) {
+        int quotes = 0;
+        for (int i = from; i < to; i++) {
+            if (content.get(i) == '"') {
+                quotes++;
+            }
+        }
+        return quotes;
+    }
+
+    private static int nextRecordStart(ByteBuffer content, int from, int length, boolean insideQuotes) {
+        boolean quoted = insideQuotes;
+        for (int i = from; i < length; i++) {
+            byte current = content.get(i);
+            if (current == '"') {
+                quoted = !quoted;
+            } else if (current == '\n' && !quoted) {
+                return i + 1;
+            }
+        }
+        return length;
+    }
+}
@@ -0,0 +1,287 @@
+package org.buildozers.dojo.abstraction.advanced;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Streaming CSV reader scanning raw bytes.
+ * 
+ * The input is read into a reusable buffer and split into fields in place.
+ * Numeric fields are parsed straight from the buffer with
+ * {@link AsciiNumbers} and text fields are handed to the sink as
+ * {@link AsciiSlice} views, so a record costs no allocation unless a text
+ * field contains non-ASCII characters. Quoting follows RFC 4180, like the
+ * default Apache Commons CSV format used by the monolithic processor.
+ * 
+ * The header line is mandatory and must contain the id, value, region and
+ * category columns, in any order.
+ */
+class CsvRecordReader implements DataRecordReader {
+
+    private static final int INITIAL_BUFFER_SIZE = 64 * 1024;
+    private static final int INITIAL_FIELD_COUNT = 8;
+
+    private final InputStream input;
+    private byte[] buffer = new byte[INITIAL_BUFFER_SIZE];
+    private int position;
+    private int limit;
+    private boolean endOfInput;
+    private long recordNumber;
+
+    private int[] fieldStarts = new int[INITIAL_FIELD_COUNT];
+    private int[] fieldEnds = new int[INITIAL_FIELD_COUNT];
+    private boolean[] fieldEscaped = new boolean[INITIAL_FIELD_COUNT];
+    private int fieldCount;
+
+    private final AsciiSlice regionSlice = new AsciiSlice();
+    private final AsciiSlice categorySlice = new AsciiSlice();
+
+    private final int idColumn;
+    private final int valueColumn;
+    private final int regionColumn;
+    private final int categoryColumn;
+    private final int minimumSize;
+
+    /**
+     * @param input the UTF-8 encoded CSV content, closed with this reader
+     * @throws IOException if the header cannot be read
+     * @throws DataProcessingException if a required column is missing
+     */
+    CsvRecordReader(InputStream input) throws IOException {
+        this.input = input;
+        Map<String, Integer> header = readHeader();
+        this.idColumn = requiredColumn(header, "id");
+        this.valueColumn = requiredColumn(header, "value");
+        this.regionColumn = requiredColumn(header, "region");
+        this.categoryColumn = requiredColumn(header, "category");
+        this.minimumSize = 1 + Math.max(Math.max(idColumn, valueColumn), Math.max(regionColumn, categoryColumn));
+    }
+
+    @Override
+    public int read(DataRecordSink sink, int maxRecords) throws IOException {
+        int read = 0;
+        while (read < maxRecords && nextRecord()) {
+            if (fieldCount < minimumSize) {
+                throw new DataProcessingException("CSV record inconsistency found at line " + recordNumber);
+            }
+            emit(sink);
+            read++;
+        }
+        return read == 0 && maxRecords > 0 ? -1 : read;
+    }
+
+    @Override
+    public void close() throws IOException {
+        input.close();
+    }
+
+    private void emit(DataRecordSink sink) {
+        long id = AsciiNumbers.parseLong(buffer, fieldStarts[idColumn], fieldEnds[idColumn]);
+        long value = AsciiNumbers.parseInt(buffer, fieldStarts[valueColumn], fieldEnds[valueColumn]);
+        boolean validValue = value != AsciiNumbers.MALFORMED;
+        sink.accept(id == AsciiNumbers.MALFORMED ? 0L : id, validValue ? (int) value : 0, validValue,
+                text(regionColumn, regionSlice), text(categoryColumn, categorySlice));
+    }
+
+    private CharSequence text(int column, AsciiSlice slice) {
+        int from = fieldStarts[column];
+        int to = fieldEnds[column];
+        return AsciiSlice.isAscii(buffer, from, to) ? slice.wrap(buffer, from, to)
+                : new String(buffer, from, to - from, StandardCharsets.UTF_8);
+    }
+
+    private Map<String, Integer> readHeader() throws IOException {
+        Map<String, Integer> header = new HashMap<>();
+        if (nextRecord()) {
+            for (int column = 0; column < fieldCount; column++) {
+                String name = new String(buffer, fieldStarts[column], fieldEnds[column] - fieldStarts[column],
+                        StandardCharsets.UTF_8);
+                header.putIfAbsent(column == 0 ? stripByteOrderMark(name) : name, column);
+            }
+        }
+        return header;
+    }
+
+    /**
+     * Splits the next non-empty line into fields.
+     * 
+     * @return false when the input is exhausted
+     */
+    private boolean nextRecord() throws IOException {
+        while (true) {
+            int end = scanRecord(position);
+            while (end < 0) {
+                if (endOfInput) {
+                    if (position >= limit) {
+                        return false;
+                    }
+                    end = finishLastRecord();
+                    break;
+                }
+                if (position == 0 && limit == buffer.length) {
+                    // A single record larger than the buffer
+                    buffer = Arrays.copyOf(buffer, buffer.length * 2);
+                }
+                fill();
+                end = scanRecord(position);
+            }
+            position = end;
+            unescapeFields();
+            if (fieldCount > 1 || fieldEnds[0] > fieldStarts[0]) {
+                recordNumber++;
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Scans one record starting at {@code start}, recording field bounds.
+     * 
+     * @return the index after the record terminator, or -1 if the buffer does
+     *         not hold a complete record yet
+     */
+    private int scanRecord(int start) {
+        fieldCount = 0;
+        int index = start;
+        while (index < limit) {
+            int fieldStart = index;
+            if (buffer[index] == '"') {
+                index = scanQuotedField(index + 1);
+                if (index < 0) {
+                    return -1;
+                }
+            } else {
+                while (index < limit && buffer[index] != ',' && buffer[index] != '\n') {
+                    index++;
+                }
+                if (index == limit) {
+                    return -1;
+                }
+                addField(fieldStart, trimCarriageReturn(fieldStart, index), false);
+            }
+            if (buffer[index] == '\n') {
+                return index + 1;
+            }
+            index++;
+            if (index == limit) {
+                return -1;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Scans a quoted field whose content starts at {@code contentStart}.
+     * 
+     * @return the index of the separator following the field, or -1 if the
+     *         buffer ends first
+     */
+    private int scanQuotedField(int contentStart) {
+        boolean escaped = false;
+        int index = contentStart;
+        while (true) {
+            while (index < limit && buffer[index] != '"') {
+                index++;
+            }
+            if (index + 1 >= limit) {
+                return -1;
+            }
+            if (buffer[index + 1] != '"') {
+                break;
+            }
+            escaped = true;
+            index += 2;
+        }
+        addField(contentStart, index, escaped);
+        int separator = index + 1;
+        if (buffer[separator] == '\r') {
+            if (separator + 1 == limit) {
+                return -1;
+            }
+            separator++;
+        }
+        if (buffer[separator] != ',' && buffer[separator] != '\n') {
+            throw new DataProcessingException("Malformed CSV data after quoted field at record " + (recordNumber + 1));
+        }
+        return separator;
+    }
+
+    /**
+     * Handles a final record without line terminator by appending one.
+     */
+    private int finishLastRecord() {
+        if (limit == buffer.length) {
+            buffer = Arrays.copyOf(buffer, buffer.length + 1);
+        }
+        buffer[limit++] = '\n';
+        int end = scanRecord(position);
+        if (end < 0) {
+            throw new DataProcessingException("Unterminated quoted field at record " + (recordNumber + 1));
+        }
+        return end;
+    }
+
+    private void fill() throws IOException {
+        if (position > 0) {
+            System.arraycopy(buffer, position, buffer, 0, limit - position);
+            limit -= position;
+            position = 0;
+        }
+        int read = input.read(buffer, limit, buffer.length - limit);
+        if (read < 0) {
+            endOfInput = true;
+        } else {
+            limit += read;
+        }
+    }
+
+    private void addField(int start, int end, boolean escaped) {
+        if (fieldCount == fieldStarts.length) {
+            fieldStarts = Arrays.copyOf(fieldStarts, fieldCount * 2);
+            fieldEnds = Arrays.copyOf(fieldEnds, fieldCount * 2);
+            fieldEscaped = Arrays.copyOf(fieldEscaped, fieldCount * 2);
+        }
+        fieldStarts[fieldCount] = start;
+        fieldEnds[fieldCount] = end;
+        fieldEscaped[fieldCount] = escaped;
+        fieldCount++;
+    }
+
+    /**
+     * Collapses doubled quotes in place; the content only gets shorter.
+     */
+    private void unescapeFields() {
+        for (int field = 0; field < fieldCount; field++) {
+            if (fieldEscaped[field]) {
+                int write = fieldStarts[field];
+                for (int read = fieldStarts[field]; read < fieldEnds[field]; read++) {
+                    buffer[write++] = buffer[read];
+                    if (buffer[read] == '"') {
+                        read++;
+                    }
+                }
+                fieldEnds[field] = write;
+            }
+        }
+    }
+
+    private int trimCarriageReturn(int start, int end) {
+        return end > start && buffer[end - 1] == '\r' ? end - 1 : end;
+    }
+
+    private static String stripByteOrderMark(String name) {
+        return name.startsWith("\uFEFF") ? name.substring(1) : name;
+    }
+
+    private static int requiredColumn(Map<String, Integer> header, String name) {
+        Integer index = header.get(name);
+        if (index == null) {
+            throw new DataProcessingException("CSV file is missing required columns (id, value, category, region)");
+        }
+        return index;
+    }
+}
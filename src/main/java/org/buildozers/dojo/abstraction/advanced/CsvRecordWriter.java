@@ -0,0 +1,72 @@
+package org.buildozers.dojo.abstraction.advanced;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Writes records as RFC 4180 CSV with the column order of the bundled
+ * data.csv. Fields are quoted only when they contain a comma, a quote or a
+ * line break.
+ */
+class CsvRecordWriter implements DataRecordWriter {
+
+    private final Writer output;
+
+    /**
+     * @param output the buffered destination, closed with this writer
+     * @throws IOException if the header cannot be written
+     */
+    CsvRecordWriter(Writer output) throws IOException {
+        this.output = output;
+        output.write("id,value,region,category\n");
+    }
+
+    @Override
+    public void accept(long id, int value, boolean validValue, CharSequence region, CharSequence category) {
+        try {
+            output.write(Long.toString(id));
+            output.write(',');
+            if (validValue) {
+                output.write(Integer.toString(value));
+            }
+            output.write(',');
+            writeField(region);
+            output.write(',');
+            writeField(category);
+            output.write('\n');
+        } catch (IOException e) {
+            throw new DataProcessingException("Failed to write CSV record", e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        output.close();
+    }
+
+    private void writeField(CharSequence field) throws IOException {
+        if (!needsQuotes(field)) {
+            output.append(field);
+            return;
+        }
+        output.write('"');
+        for (int i = 0; i < field.length(); i++) {
+            char current = field.charAt(i);
+            if (current == '"') {
+                output.write('"');
+            }
+            output.write(current);
+        }
+        output.write('"');
+    }
+
+    private static boolean needsQuotes(CharSequence field) {
+        for (int i = 0; i < field.length(); i++) {
+            char current = field.charAt(i);
+            if (current == ',' || current == '"' || current == '\n' || current == '\r') {
+                return true;
+            }
+        }
+        return false;
+    }
+}
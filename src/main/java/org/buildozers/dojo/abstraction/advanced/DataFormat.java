@@ -0,0 +1,56 @@
+package org.buildozers.dojo.abstraction.advanced;
+
+import java.util.Locale;
+
+/**
+ * The file formats understood by the data processors.
+ * 
+ * CSV, JSON and XML are the formats of the bundled data files. BINARY is
+ * the compact record format written by {@link DataTranscoder} for systems
+ * that do not need a text format (see {@link DataRecordWriters}).
+ */
+public enum DataFormat {
+
+    CSV, JSON, XML, BINARY;
+
+    /**
+     * Resolves a format from its name as passed to
+     * {@link DataProcessor#processFileData}.
+     * 
+     * @param format the format name, case-insensitive ("CSV", "JSON", "XML"
+     *               or "BINARY")
+     * @return the matching format
+     * @throws DataProcessingException if the format is null or unknown
+     */
+    public static DataFormat of(String format) {
+        if (format != null) {
+            for (DataFormat candidate : values()) {
+                if (candidate.name().equals(format.toUpperCase(Locale.ROOT))) {
+                    return candidate;
+                }
+            }
+        }
+        throw new DataProcessingException("Unsupported data format: " + format);
+    }
+
+    /**
+     * Resolves a format from the extension of a file name: {@code .csv},
+     * {@code .json}, {@code .xml} or {@code .bin}, case-insensitive.
+     * 
+     * @param filename the file name
+     * @return the matching format, or null if the extension is unknown
+     */
+    static DataFormat ofFileName(String filename) {
+        int dot = filename.lastIndexOf('.');
+        if (dot < 0) {
+            return null;
+        }
+        return switch (filename.substring(dot + 1).toLowerCase(Locale.ROOT)) {
+            case "csv" -> CSV;
+            case "json" -> JSON;
+            case "xml" -> XML;
+            case "bin" -> BINARY;
+            default -> null;
+        };
+    }
+}
@@ -0,0 +1,43 @@
+package org.buildozers.dojo.abstraction.advanced;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JDK Flight Recorder event emitted once per processing stage.
+ * 
+ * The event duration is the elapsed time of the stage; the fields describe
+ * the amount of work done. When no recording has the event enabled,
+ * {@link #isEnabled()} returns false and the event is never committed.
+ */
+@Name("org.buildozers.dojo.DataProcessingStage")
+@Label("Data Processing Stage")
+@Category({ "Dojo", "Data Processing" })
+@Description("Timing and volume of one stage of a processFileData call")
+@StackTrace(false)
+class DataProcessingStageEvent extends Event {
+
+    @Label("Stage")
+    String stage;
+
+    @Label("File Name")
+    String filename;
+
+    @Label("Format")
+    String format;
+
+    @Label("Bytes Read")
+    @DataAmount
+    long bytesRead;
+
+    @Label("Records Parsed")
+    long recordsParsed;
+
+    @Label("Records Matched")
+    long recordsMatched;
+}
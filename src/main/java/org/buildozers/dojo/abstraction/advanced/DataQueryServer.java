@@ -0,0 +1,202 @@
+package org.buildozers.dojo.abstraction.advanced;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.json.JSONObject;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Embedded HTTP server answering {@code processFileData} queries from a
+ * long-lived, warm {@link DataProcessor}.
+ * 
+ * The server only listens on the loopback interface and handles every
+ * request on its own virtual thread, so concurrent queries never wait for
+ * each other except while a dataset is first loaded.
+ * 
+ * <pre>
+ * GET /query?file=data.csv&amp;format=CSV&amp;validate=true&amp;category=Electronics&amp;aggregation=SUM
+ * {"file":"data.csv","format":"CSV","category":"Electronics","aggregation":"SUM","result":820,"elapsedMicros":42}
+ * 
+ * GET /query?file=data.csv&amp;format=CSV&amp;category=Electronics&amp;explain=true
+ * {"file":"data.csv",...,"result":820,"elapsedMicros":57,"profile":{"parseMode":"CACHED","cache":"HIT",...}}
+ * 
+ * GET /health
+ * {"status":"UP"}
+ * </pre>
+ * 
+ * Errors are reported as {@code {"error": "..."}} with status 400 for bad
+ * parameters or aggregations, 404 for unknown files and 422 for files that
+ * cannot be processed. Explaining a query requires an
+ * {@link ExplainableDataProcessor}; see {@link QueryProfile#toJson()} for
+ * the profile fields.
+ * 
+ * The JDK server cannot bind Unix domain sockets, hence the loopback-only
+ * TCP listener.
+ */
+public class DataQueryServer implements AutoCloseable {
+
+    private static final int STOP_DELAY_SECONDS = 1;
+
+    private final DataProcessor processor;
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    /**
+     * Creates a server on an ephemeral loopback port; call {@link #start()}
+     * to accept requests.
+     * 
+     * @param processor the processor answering the queries
+     * @throws IOException if the port cannot be bound
+     */
+    public DataQueryServer(DataProcessor processor) throws IOException {
+        this(processor, 0);
+    }
+
+    /**
+     * Creates a server on a loopback port; call {@link #start()} to accept
+     * requests.
+     * 
+     * @param processor the processor answering the queries
+     * @param port      the port to listen on, 0 for an ephemeral port
+     * @throws IOException if the port cannot be bound
+     */
+    public DataQueryServer(DataProcessor processor, int port) throws IOException {
+        this.processor = processor;
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        this.executor = Executors.newVirtualThreadPerTaskExecutor();
+        server.setExecutor(executor);
+        server.createContext("/query", this::handleQuery);
+        server.createContext("/health", exchange -> respond(exchange, 200, new JSONObject().put("status", "UP")));
+    }
+
+    /**
+     * Starts a server backed by a {@link ColumnarDataProcessor} and runs it
+     * until the JVM stops.
+     * 
+     * @param args an optional port number, 8095 by default
+     * @throws IOException if the port cannot be bound
+     */
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 8095;
+        ColumnarDataProcessor processor = new ColumnarDataProcessor();
+        DataQueryServer queryServer = new DataQueryServer(processor, port);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            queryServer.close();
+            processor.close();
+        }));
+        queryServer.start();
+        System.out.println("[INFO] [QUERY_SERVER] Listening on http://localhost:" + queryServer.getPort());
+    }
+
+    /**
+     * Starts accepting requests.
+     */
+    public void start() {
+        server.start();
+    }
+
+    /**
+     * @return the port the server listens on
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Stops accepting requests, lets running ones finish briefly, then
+     * releases the request threads.
+     */
+    @Override
+    public void close() {
+        server.stop(STOP_DELAY_SECONDS);
+        executor.shutdownNow();
+    }
+
+    private void handleQuery(HttpExchange exchange) throws IOException {
+        if (!"GET".equals(exchange.getRequestMethod())) {
+            respond(exchange, 405, error("Only GET is supported"));
+            return;
+        }
+        Map<String, String> parameters = parseQuery(exchange.getRequestURI());
+        String file = parameters.get("file");
+        String format = parameters.get("format");
+        if (file == null || format == null) {
+            respond(exchange, 400, error("Parameters 'file' and 'format' are required"));
+            return;
+        }
+        String category = parameters.get("category");
+        String aggregation = parameters.getOrDefault("aggregation", "SUM");
+        boolean validate = Boolean.parseBoolean(parameters.get("validate"));
+        boolean explain = Boolean.parseBoolean(parameters.get("explain"));
+        if (explain && !(processor instanceof ExplainableDataProcessor)) {
+            respond(exchange, 400, error("This server cannot explain queries"));
+            return;
+        }
+        try {
+            long start = System.nanoTime();
+            QueryProfile profile = explain
+                    ? ((ExplainableDataProcessor) processor).explain(file, format, validate, category, aggregation)
+                    : null;
+            long result = profile != null ? profile.getResult()
+                    : processor.processFileData(file, format, validate, category, aggregation);
+            JSONObject body = new JSONObject()
+                    .put("file", file)
+                    .put("format", format)
+                    .put("category", category == null ? JSONObject.NULL : category)
+                    .put("aggregation", aggregation)
+                    .put("result", result)
+                    .put("elapsedMicros", (System.nanoTime() - start) / 1_000);
+            if (profile != null) {
+                body.put("profile", profile.toJson());
+            }
+            respond(exchange, 200, body);
+        } catch (UnsupportedAggregationException e) {
+            respond(exchange, 400, error(e.getMessage()));
+        } catch (DataProcessingException e) {
+            respond(exchange, e.getCause() instanceof IOException ? 404 : 422, error(e.getMessage()));
+        } catch (RuntimeException e) {
+            respond(exchange, 500, error("Query failed: " + e.getMessage()));
+        }
+    }
+
+    private static Map<String, String> parseQuery(URI uri) {
+        Map<String, String> parameters = new HashMap<>();
+        String query = uri.getRawQuery();
+        if (query == null || query.isEmpty()) {
+            return parameters;
+        }
+        for (String pair : query.split("&")) {
+            int separator = pair.indexOf('=');
+            String name = separator < 0 ? pair : pair.substring(0, separator);
+            String value = separator < 0 ? "" : pair.substring(separator + 1);
+            parameters.putIfAbsent(URLDecoder.decode(name, StandardCharsets.UTF_8),
+                    URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+        return parameters;
+    }
+
+    private static JSONObject error(String message) {
+        return new JSONObject().put("error", message);
+    }
+
+    private static void respond(HttpExchange exchange, int status, JSONObject body) throws IOException {
+        byte[] content = body.toString().getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, content.length);
+        try (OutputStream output = exchange.getResponseBody()) {
+            output.write(content);
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package org.buildozers.dojo.abstraction.advanced;
+
+/**
+ * One record of a data file, as returned by queries listing records rather
+ * than aggregating them, such as {@link TopKCollector}.
+ * 
+ * @param id       the identifier of the record
+ * @param value    the value of the record
+ * @param region   the region of the record
+ * @param category the category of the record
+ */
+public record DataRecord(long id, int value, String region, String category) {
+}
@@ -0,0 +1,47 @@
+package org.buildozers.dojo.abstraction.advanced;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Streaming reader of data records.
+ * 
+ * Unlike the monolithic processor, a reader never materializes the whole
+ * file: records are pushed to a {@link DataRecordSink} in chunks, so memory
+ * use does not depend on the file size and callers can stop between chunks.
+ */
+public interface DataRecordReader extends Closeable {
+
+    /**
+     * Default number of records per chunk.
+     */
+    int DEFAULT_CHUNK_SIZE = 4096;
+
+    /**
+     * Reads at most {@code maxRecords} records into the sink.
+     * 
+     * @param sink       the sink receiving the records
+     * @param maxRecords the maximum number of records to read
+     * @return the number of records read, or -1 when the input is exhausted
+     * @throws IOException if the input cannot be read
+     * @throws DataProcessingException if the input is not well-formed
+     */
+    int read(DataRecordSink sink, int maxRecords) throws IOException;
+
+    /**
+     * Reads all remaining records into the sink.
+     * 
+     * @param sink the sink receiving the records
+     * @return the number of records read
+     * @throws IOException if the input cannot be read
+     * @throws DataProcessingException if the input is not well-formed
+     */
+    default long readAll(DataRecordSink sink) throws IOException {
+        long total = 0;
+        int read;
+        while ((read = read(sink, DEFAULT_CHUNK_SIZE)) >= 0) {
+            total += read;
+        }
+        return total;
+    }
+}
@@ -0,0 +1,69 @@
+package org.buildozers.dojo.abstraction.advanced;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+
+/**
+ * Factory of streaming {@link DataRecordReader}s, one per {@link DataFormat}.
+ */
+public final class DataRecordReaders {
+
+    private DataRecordReaders() {
+        // Utility class
+    }
+
+    /**
+     * Opens a reader over a data file from the classpath.
+     * 
+     * @param filename the name of the file to read
+     * @param format   the format of the file
+     * @return a reader positioned on the first record
+     * @throws IOException if the file cannot be found or read
+     */
+    public static DataRecordReader open(String filename, DataFormat format) throws IOException {
+        return open(DataSources.openResource(filename), format);
+    }
+
+    /**
+     * Opens a reader over a data file from the file system.
+     * 
+     * @param file   the path of the file to read
+     * @param format the format of the file
+     * @return a reader positioned on the first record
+     * @throws IOException if the file cannot be found or read
+     */
+    public static DataRecordReader open(Path file, DataFormat format) throws IOException {
+        return open(DataSources.openFile(file), format);
+    }
+
+    /**
+     * Opens a reader over an input stream.
+     * 
+     * @param input  the UTF-8 encoded content, closed with the returned reader
+     * @param format the format of the content
+     * @return a reader positioned on the first record
+     * @throws IOException if the content cannot be read
+     */
+    public static DataRecordReader open(InputStream input, DataFormat format) throws IOException {
+        try {
+            return switch (format) {
+                case CSV -> new CsvRecordReader(input);
+                case JSON -> new JsonRecordReader(utf8Reader(input));
+                case XML -> new XmlRecordReader(new BufferedInputStream(input));
+                case BINARY -> new BinaryRecordReader(new BufferedInputStream(input));
+            };
+        } catch (IOException | RuntimeException e) {
+            input.close();
+            throw e;
+        }
+    }
+
+    private static BufferedReader utf8Reader(InputStream input) {
+        return new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+    }
+}
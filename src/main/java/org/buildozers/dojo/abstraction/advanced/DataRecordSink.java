@@ -0,0 +1,25 @@
+package org.buildozers.dojo.abstraction.advanced;
+
+/**
+ * Receives the records produced by a {@link DataRecordReader}.
+ * 
+ * Text fields are passed as {@link CharSequence}s that are only valid for
+ * the duration of the call, which lets readers hand out views over their
+ * input buffer instead of allocating a String per field. Sinks that keep a
+ * field must copy it.
+ */
+@FunctionalInterface
+public interface DataRecordSink {
+
+    /**
+     * Accepts one record.
+     * 
+     * @param id         the record identifier
+     * @param value      the record value, 0 when {@code validValue} is false
+     * @param validValue false when the value field was missing or malformed;
+     *                   such records are counted but skipped by SUM, MIN and MAX
+     * @param region     the region of the record
+     * @param category   the category of the record
+     */
+    void accept(long id, int value, boolean validValue, CharSequence region, CharSequence category);
+}
@@ -0,0 +1,25 @@
+package org.buildozers.dojo.abstraction.advanced;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Streaming writer of data records in one {@link DataFormat}.
+ * 
+ * A writer is a {@link DataRecordSink}, so a {@link DataRecordReader} can
+ * feed it directly. Output is buffered and written incrementally; records
+ * with a malformed value are written without value (an empty CSV field, a
+ * JSON null, an empty XML element), which the readers report as malformed
+ * again. Closing the writer completes the document and closes the
+ * underlying stream.
+ */
+public interface DataRecordWriter extends DataRecordSink, Closeable {
+
+    /**
+     * Completes the document, flushes it and closes the underlying stream.
+     * 
+     * @throws IOException if the output cannot be written
+     */
+    @Override
+    void close() throws IOException;
+}
@@ -0,0 +1,52 @@
+package org.buildozers.dojo.abstraction.advanced;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Factory of streaming {@link DataRecordWriter}s, one per {@link DataFormat}.
+ */
+public final class DataRecordWriters {
+
+    /**
+     * Size of the output buffers; records are written out in chunks of
+     * this size
+     */
+    static final int BUFFER_SIZE = 64 * 1024;
+
+    private DataRecordWriters() {
+        // Utility class
+    }
+
+    /**
+     * Opens a writer over an output stream.
+     * 
+     * @param output the stream receiving the UTF-8 encoded document, closed
+     *               with the returned writer
+     * @param format the format to write
+     * @return a writer that has written the start of the document
+     * @throws IOException if the output cannot be written
+     */
+    public static DataRecordWriter open(OutputStream output, DataFormat format) throws IOException {
+        try {
+            return switch (format) {
+                case CSV -> new CsvRecordWriter(utf8Writer(output));
+                case JSON -> new JsonRecordWriter(utf8Writer(output));
+                case XML -> new XmlRecordWriter(new BufferedOutputStream(output, BUFFER_SIZE));
+                case BINARY -> new BinaryRecordWriter(new BufferedOutputStream(output, BUFFER_SIZE));
+            };
+        } catch (IOException | RuntimeException e) {
+            output.close();
+            throw e;
+        }
+    }
+
+    private static Writer utf8Writer(OutputStream output) {
+        return new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8), BUFFER_SIZE);
+    }
+}
@@ -0,0 +1,117 @@
+package org.buildozers.dojo.abstraction.advanced;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+
+/**
+ * Opens the data files processed by the data processors.
+ * 
+ * Files are loaded from the classpath, next to the bundled sample data, or
+ * from the file system for partitioned datasets.
+ */
+final class DataSources {
+
+    /**
+     * Classpath folder holding the data files and their schemas
+     */
+    static final String RESOURCE_FOLDER = "org/buildozers/dojo/abstraction/advanced/";
+
+    private DataSources() {
+        // Utility class
+    }
+
+    /**
+     * Opens a data file from the classpath.
+     * 
+     * @param filename the name of the file, relative to {@link #RESOURCE_FOLDER}
+     * @return an input stream on the file content, to be closed by the caller
+     * @throws IOException if the file cannot be found
+     */
+    static InputStream openResource(String filename) throws IOException {
+        InputStream inputStream = DataSources.class.getClassLoader().getResourceAsStream(RESOURCE_FOLDER + filename);
+        if (inputStream == null) {
+            throw new IOException("File not found: " + filename);
+        }
+        return inputStream;
+    }
+
+    /**
+     * Opens a data file from the file system.
+     * 
+     * @param file the path of the file
+     * @return an input stream on the file content, to be closed by the caller
+     * @throws IOException if the file cannot be found or opened
+     */
+    static InputStream openFile(Path file) throws IOException {
+        try {
+            return Files.newInputStream(file);
+        } catch (NoSuchFileException e) {
+            throw new IOException("File not found: " + file, e);
+        }
+    }
+
+    /**
+     * Returns the size of a data file from the classpath without reading it.
+     * 
+     * @param filename the name of the file, relative to {@link #RESOURCE_FOLDER}
+     * @return the size in bytes, or -1 if the file is missing or packaged in
+     *         an archive
+     */
+    static long resourceSize(String filename) {
+        Path path = resourcePath(filename);
+        if (path == null) {
+            return -1;
+        }
+        try {
+            return Files.size(path);
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Locates a data file from the classpath on the file system, so that it
+     * can be memory-mapped.
+     * 
+     * @param filename the name of the file, relative to {@link #RESOURCE_FOLDER}
+     * @return the path of the file, or null if it is missing or packaged in
+     *         an archive
+     */
+    static Path resourcePath(String filename) {
+        URL url = DataSources.class.getClassLoader().getResource(RESOURCE_FOLDER + filename);
+        if (url == null || !"file".equals(url.getProtocol())) {
+            return null;
+        }
+        try {
+            return Path.of(url.toURI());
+        } catch (URISyntaxException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Resolves a file name against a base directory, refusing names that
+     * would escape it.
+     * 
+     * @param baseDirectory the absolute, normalized base directory
+     * @param filename      the name to resolve
+     * @return the resolved path, inside the base directory
+     * @throws DataProcessingException if the name is null or escapes the base
+     *                                 directory
+     */
+    static Path resolveWithin(Path baseDirectory, String filename) {
+        if (filename == null) {
+            throw new DataProcessingException("File name is required");
+        }
+        Path path = baseDirectory.resolve(filename).normalize();
+        if (!path.startsWith(baseDirectory)) {
+            throw new DataProcessingException("File is outside the base directory: " + filename);
+        }
+        return path;
+    }
+}
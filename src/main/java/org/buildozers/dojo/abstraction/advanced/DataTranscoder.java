@@ -0,0 +1,130 @@
+package org.buildozers.dojo.abstraction.advanced;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Converts data files between formats in a single streaming pass.
+ * 
+ * Records flow from a {@link DataRecordReader} straight into a
+ * {@link DataRecordWriter}, optionally through a category filter, so memory
+ * use does not depend on the size of the file: the readers parse one chunk
+ * at a time and the writers write their output in buffered chunks.
+ * 
+ * Validation checks every record read against the record part of the
+ * bundled JSON schema, whose constraints the XSD schema shares, as it
+ * streams; like the schemas, it also requires at least one record to be
+ * written. The category filter matches categories containing it, ignoring
+ * case, like the query processors.
+ */
+public class DataTranscoder {
+
+    private final ParserContext parsers;
+
+    /**
+     * Creates a transcoder using the shared parser context.
+     */
+    public DataTranscoder() {
+        this(ParserContext.shared());
+    }
+
+    /**
+     * @param parsers the parser context holding the compiled schemas
+     */
+    public DataTranscoder(ParserContext parsers) {
+        this.parsers = parsers;
+    }
+
+    /**
+     * Transcodes a file. The target is written next to its final location
+     * and only moved there once complete, so a failed conversion leaves no
+     * partial file behind.
+     * 
+     * @param source         the file to read
+     * @param sourceFormat   the format of the source
+     * @param target         the file to write, replaced if it exists
+     * @param targetFormat   the format to write
+     * @param categoryFilter the category to keep, or null/empty for all
+     * @param validate       whether to validate the records read
+     * @return the number of records written
+     * @throws DataProcessingException if the source cannot be read or is
+     *                                 invalid, or the target cannot be written
+     */
+    public long transcode(Path source, DataFormat sourceFormat, Path target, DataFormat targetFormat,
+            String categoryFilter, boolean validate) {
+        Path directory = target.toAbsolutePath().getParent();
+        Path partial = null;
+        try {
+            partial = Files.createTempFile(directory, "." + target.getFileName(), ".part");
+            long written;
+            try (InputStream input = DataSources.openFile(source);
+                    OutputStream output = Files.newOutputStream(partial)) {
+                written = transcode(input, sourceFormat, output, targetFormat, categoryFilter, validate);
+            }
+            move(partial, target);
+            return written;
+        } catch (IOException e) {
+            throw new DataProcessingException("Failed to transcode file: " + source, e);
+        } finally {
+            deleteQuietly(partial);
+        }
+    }
+
+    /**
+     * Transcodes a stream. On failure, the output holds the records written
+     * so far.
+     * 
+     * @param input          the content to read, closed on return
+     * @param sourceFormat   the format of the input
+     * @param output         the stream to write, closed on return
+     * @param targetFormat   the format to write
+     * @param categoryFilter the category to keep, or null/empty for all
+     * @param validate       whether to validate the records read
+     * @return the number of records written
+     * @throws IOException             if the input or output fails
+     * @throws DataProcessingException if the input is malformed or invalid
+     */
+    public long transcode(InputStream input, DataFormat sourceFormat, OutputStream output, DataFormat targetFormat,
+            String categoryFilter, boolean validate) throws IOException {
+        try (DataRecordReader reader = DataRecordReaders.open(input, sourceFormat);
+                DataRecordWriter writer = DataRecordWriters.open(output, targetFormat)) {
+            long[] written = new long[1];
+            DataRecordSink sink = new FilteringSink(CategoryFilter.of(categoryFilter, sourceFormat),
+                    (id, value, validValue, region, category) -> {
+                        writer.accept(id, value, validValue, region, category);
+                        written[0]++;
+                    });
+            reader.readAll(validate ? new ValidatingSink(parsers, sink) : sink);
+            if (validate && written[0] == 0) {
+                throw new DataProcessingException("Transcoded data has no records, the schemas require at least one");
+            }
+            return written[0];
+        } finally {
+            output.close();
+        }
+    }
+
+    private static void move(Path partial, Path target) throws IOException {
+        try {
+            Files.move(partial, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(partial, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            // Best effort: the temporary file is hidden and will be overwritten
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package org.buildozers.dojo.abstraction.advanced;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+
+import javax.xml.transform.stream.StreamSource;
+import javax.xml.validation.Validator;
+
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVRecord;
+import org.everit.json.schema.ValidationException;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.json.JSONTokener;
+import org.xml.sax.SAXException;
+
+/**
+ * Validates data files against the bundled schemas.
+ * 
+ * The XSD and JSON schemas are compiled once by a {@link ParserContext} and
+ * shared by every validation; XSD validators are pooled by the context.
+ * The rules are those of the monolithic processor: XSD for XML, JSON Schema
+ * for JSON, and consistent records with the required columns for CSV.
+ * BINARY files are checked record by record against the record part of the
+ * JSON schema.
+ */
+public class DataValidator {
+
+    private static final String[] REQUIRED_CSV_COLUMNS = { "id", "value", "category", "region" };
+
+    private final ParserContext parsers;
+
+    /**
+     * Creates a validator using the shared parser context.
+     */
+    public DataValidator() {
+        this(ParserContext.shared());
+    }
+
+    /**
+     * @param parsers the parser context holding the compiled schemas
+     */
+    public DataValidator(ParserContext parsers) {
+        this.parsers = parsers;
+    }
+
+    /**
+     * Validates a data file from the classpath.
+     * 
+     * @param filename the name of the file to validate
+     * @param format   the format of the file
+     * @throws DataProcessingException if the file cannot be read or is invalid
+     */
+    public void validate(String filename, DataFormat format) {
+        try (InputStream input = DataSources.openResource(filename)) {
+            validate(input, format);
+        } catch (IOException e) {
+            throw new DataProcessingException("Failed to load file: " + filename, e);
+        }
+    }
+
+    /**
+     * Validates a data file from the file system.
+     * 
+     * @param file   the path of the file to validate
+     * @param format the format of the file
+     * @throws DataProcessingException if the file cannot be read or is invalid
+     */
+    public void validate(Path file, DataFormat format) {
+        try (InputStream input = DataSources.openFile(file)) {
+            validate(input, format);
+        } catch (IOException e) {
+            throw new DataProcessingException("Failed to load file: " + file, e);
+        }
+    }
+
+    private void validate(InputStream input, DataFormat format) throws IOException {
+        switch (format) {
+            case CSV -> validateCsv(input);
+            case JSON -> validateJson(input);
+            case XML -> validateXml(input);
+            case BINARY -> validateBinary(input);
+        }
+    }
+
+    private void validateCsv(InputStream input) throws IOException {
+        try (CSVParser parser = ParserContext.CSV_FORMAT.parse(utf8(input))) {
+            for (String column : REQUIRED_CSV_COLUMNS) {
+                if (!parser.getHeaderMap().containsKey(column)) {
+                    throw new DataProcessingException("CSV file is missing required columns (id, value, category, region)");
+                }
+            }
+            for (CSVRecord csvRecord : parser) {
+                if (!csvRecord.isConsistent()) {
+                    throw new DataProcessingException("CSV record inconsistency found at line " + csvRecord.getRecordNumber());
+                }
+            }
+        }
+    }
+
+    private void validateJson(InputStream input) {
+        try {
+            parsers.jsonSchema().validate(new JSONObject(new JSONTokener(utf8(input))));
+        } catch (ValidationException | JSONException e) {
+            throw new DataProcessingException("JSON validation failed against schema", e);
+        }
+    }
+
+    private void validateXml(InputStream input) throws IOException {
+        Validator validator = parsers.borrowXmlValidator();
+        try {
+            validator.validate(new StreamSource(input));
+        } catch (SAXException e) {
+            throw new DataProcessingException("XML validation failed against XSD schema", e);
+        } finally {
+            parsers.release(validator);
+        }
+    }
+
+    private void validateBinary(InputStream input) throws IOException {
+        try (DataRecordReader reader = new BinaryRecordReader(input)) {
+            ValidatingSink sink = new ValidatingSink(parsers, (id, value, validValue, region, category) -> {
+                // Only validated
+            });
+            reader.readAll(sink);
+            if (sink.getRecords() == 0) {
+                throw new DataProcessingException("Binary data file has no records");
+            }
+        }
+    }
+
+    private static Reader utf8(InputStream input) {
+        return new InputStreamReader(input, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,210 @@
+package org.buildozers.dojo.abstraction.advanced;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+import org.buildozers.dojo.abstraction.advanced.QueryProfile.ExecutionMode;
+
+/**
+ * Chooses how to read a file: streamed, memory-mapped or split across
+ * threads, and learns from the outcome of past runs.
+ * 
+ * Files are grouped by format and by size class (powers of two). The
+ * planner keeps, for every group and execution mode, a moving average of
+ * the time spent per byte. Once every applicable mode of a size class has
+ * been measured, the fastest one wins. Size classes not measured yet take
+ * the winner of the nearest measured class, which moves the effective
+ * thresholds to where this host actually crosses over; without any
+ * measurement, default thresholds apply. Classes near a threshold are
+ * explored: each applicable mode is tried a few times before the planner
+ * trusts its averages.
+ * 
+ * Mapping needs a file on the file system of at most 2 GiB. Parallel
+ * execution splits such a mapping and only applies to CSV, whose records
+ * can be split at newlines, and to files of at least
+ * {@link #MIN_PARALLEL_BYTES}. Thread-safe.
+ */
+class ExecutionPlanner {
+
+    /**
+     * Below this size, splitting a file always costs more than it saves
+     */
+    static final long MIN_PARALLEL_BYTES = 256 * 1024L;
+
+    /**
+     * Default size from which CSV files are parsed in parallel
+     */
+    static final long DEFAULT_PARALLEL_THRESHOLD = 4 * 1024 * 1024L;
+
+    /**
+     * Default size from which files are memory-mapped
+     */
+    static final long DEFAULT_MAPPED_THRESHOLD = 16 * 1024 * 1024L;
+
+    /**
+     * Runs measured per mode and size class before the averages are trusted
+     */
+    static final int MIN_SAMPLES = 3;
+
+    /**
+     * Size classes around a default threshold that are explored
+     */
+    private static final int EXPLORATION_RADIUS = 2;
+
+    private static final int SIZE_CLASSES = 64;
+    private static final double SMOOTHING = 0.3;
+
+    private final Map<DataFormat, Estimate[][]> estimates = new EnumMap<>(DataFormat.class);
+    private final int cores;
+
+    /**
+     * Creates a planner for the processors of this host.
+     */
+    ExecutionPlanner() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * @param cores the number of cores parallel execution may use
+     */
+    ExecutionPlanner(int cores) {
+        this.cores = cores;
+        for (DataFormat format : DataFormat.values()) {
+            Estimate[][] modes = new Estimate[ExecutionMode.values().length][SIZE_CLASSES];
+            for (Estimate[] sizeClasses : modes) {
+                for (int sizeClass = 0; sizeClass < SIZE_CLASSES; sizeClass++) {
+                    sizeClasses[sizeClass] = new Estimate();
+                }
+            }
+            estimates.put(format, modes);
+        }
+    }
+
+    /**
+     * @return the number of cores parallel execution may use
+     */
+    int cores() {
+        return cores;
+    }
+
+    /**
+     * Chooses the execution mode of a file.
+     * 
+     * @param format   the format of the file
+     * @param bytes    the size of the file, or a negative value if unknown
+     * @param mappable whether the file can be memory-mapped
+     * @return the mode to run the query with
+     */
+    ExecutionMode plan(DataFormat format, long bytes, boolean mappable) {
+        if (bytes < 0) {
+            return ExecutionMode.SEQUENTIAL;
+        }
+        boolean[] applicable = applicableModes(format, bytes, mappable);
+        int sizeClass = sizeClass(bytes);
+        Estimate[][] modes = estimates.get(format);
+
+        if (nearDefaultThreshold(sizeClass)) {
+            for (ExecutionMode mode : ExecutionMode.values()) {
+                if (applicable[mode.ordinal()] && modes[mode.ordinal()][sizeClass].samples() < MIN_SAMPLES) {
+                    return mode;
+                }
+            }
+        }
+        for (int distance = 0; distance < SIZE_CLASSES; distance++) {
+            ExecutionMode learned = fastest(modes, applicable, sizeClass - distance);
+            if (learned == null) {
+                learned = fastest(modes, applicable, sizeClass + distance);
+            }
+            if (learned != null) {
+                return learned;
+            }
+        }
+        return defaultMode(format, bytes, applicable);
+    }
+
+    /**
+     * Learns from a finished run.
+     * 
+     * @param format the format of the file
+     * @param mode   the mode the run used
+     * @param bytes  the size of the file
+     * @param nanos  the time the run took
+     */
+    void record(DataFormat format, ExecutionMode mode, long bytes, long nanos) {
+        if (bytes > 0) {
+            estimates.get(format)[mode.ordinal()][sizeClass(bytes)].add((double) nanos / bytes);
+        }
+    }
+
+    private boolean[] applicableModes(DataFormat format, long bytes, boolean mappable) {
+        boolean[] applicable = new boolean[ExecutionMode.values().length];
+        applicable[ExecutionMode.SEQUENTIAL.ordinal()] = true;
+        applicable[ExecutionMode.MAPPED.ordinal()] = mappable && bytes <= Integer.MAX_VALUE;
+        applicable[ExecutionMode.PARALLEL.ordinal()] = applicable[ExecutionMode.MAPPED.ordinal()]
+                && format == DataFormat.CSV && cores > 1 && bytes >= MIN_PARALLEL_BYTES;
+        return applicable;
+    }
+
+    private ExecutionMode fastest(Estimate[][] modes, boolean[] applicable, int sizeClass) {
+        if (sizeClass < 0 || sizeClass >= SIZE_CLASSES) {
+            return null;
+        }
+        ExecutionMode fastest = null;
+        double best = Double.MAX_VALUE;
+        for (ExecutionMode mode : ExecutionMode.values()) {
+            if (!applicable[mode.ordinal()]) {
+                continue;
+            }
+            Estimate estimate = modes[mode.ordinal()][sizeClass];
+            if (estimate.samples() < MIN_SAMPLES) {
+                return null;
+            }
+            if (estimate.nanosPerByte() < best) {
+                best = estimate.nanosPerByte();
+                fastest = mode;
+            }
+        }
+        return fastest;
+    }
+
+    private static ExecutionMode defaultMode(DataFormat format, long bytes, boolean[] applicable) {
+        if (applicable[ExecutionMode.PARALLEL.ordinal()] && bytes >= DEFAULT_PARALLEL_THRESHOLD) {
+            return ExecutionMode.PARALLEL;
+        }
+        if (applicable[ExecutionMode.MAPPED.ordinal()] && bytes >= DEFAULT_MAPPED_THRESHOLD) {
+            return ExecutionMode.MAPPED;
+        }
+        return ExecutionMode.SEQUENTIAL;
+    }
+
+    private static boolean nearDefaultThreshold(int sizeClass) {
+        return Math.abs(sizeClass - sizeClass(DEFAULT_PARALLEL_THRESHOLD)) <= EXPLORATION_RADIUS
+                || Math.abs(sizeClass - sizeClass(DEFAULT_MAPPED_THRESHOLD)) <= EXPLORATION_RADIUS;
+    }
+
+    private static int sizeClass(long bytes) {
+        return 63 - Long.numberOfLeadingZeros(Math.max(1, bytes));
+    }
+
+    /**
+     * Moving average of the time per byte of one mode and size class.
+     */
+    private static final class Estimate {
+
+        private int samples;
+        private double nanosPerByte;
+
+        synchronized void add(double observed) {
+            nanosPerByte = samples == 0 ? observed : nanosPerByte + SMOOTHING * (observed - nanosPerByte);
+            samples++;
+        }
+
+        synchronized int samples() {
+            return samples;
+        }
+
+        synchronized double nanosPerByte() {
+            return nanosPerByte;
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package org.buildozers.dojo.abstraction.advanced;
+
+/**
+ * A {@link DataProcessor} able to report how it answers a query.
+ */
+public interface ExplainableDataProcessor extends DataProcessor {
+
+    /**
+     * Runs a query like {@link #processFileData} and profiles it: the
+     * returned profile holds the result along with the execution path the
+     * processor chose, the rows it scanned and the time of each stage.
+     * 
+     * @param filename        the name of the file to process
+     * @param format          the format of the file ("CSV", "JSON" or "XML")
+     * @param validate        whether to perform validation on the data
+     * @param categoryFilter  the category to filter by, or null/empty for all
+     * @param aggregationType the type of aggregation to perform
+     * @return the profile of the query
+     * @throws DataProcessingException if file processing fails
+     * @throws UnsupportedAggregationException if aggregation type is not supported
+     */
+    QueryProfile explain(String filename, String format, boolean validate, String categoryFilter,
+            String aggregationType);
+}
@@ -0,0 +1,55 @@
+package org.buildozers.dojo.abstraction.advanced;
+
+import java.util.Arrays;
+
+/**
+ * Sink forwarding the records of the filtered categories to another sink.
+ * 
+ * Whether a category matches the filter is decided once per distinct
+ * category and remembered by dictionary code, so the per-record cost is a
+ * lookup in a small dictionary rather than a case-insensitive search.
+ */
+class FilteringSink implements DataRecordSink {
+
+    private final CategoryFilter filter;
+    private final DataRecordSink downstream;
+    private final StringDictionary categories = new StringDictionary();
+    private boolean[] matches = new boolean[16];
+    private long scanned;
+
+    /**
+     * @param filter     the categories to forward
+     * @param downstream the sink receiving the matching records
+     */
+    FilteringSink(CategoryFilter filter, DataRecordSink downstream) {
+        this.filter = filter;
+        this.downstream = downstream;
+    }
+
+    @Override
+    public void accept(long id, int value, boolean validValue, CharSequence region, CharSequence category) {
+        scanned++;
+        if (filter.matchesAll() || matches(category)) {
+            downstream.accept(id, value, validValue, region, category);
+        }
+    }
+
+    /**
+     * @return the number of records received, matching or not
+     */
+    long getScanned() {
+        return scanned;
+    }
+
+    private boolean matches(CharSequence category) {
+        int known = categories.size();
+        int code = categories.encode(category);
+        if (code == known) {
+            if (code == matches.length) {
+                matches = Arrays.copyOf(matches, code * 2);
+            }
+            matches[code] = filter.matches(categories.decode(code));
+        }
+        return matches[code];
+    }
+}
@@ -0,0 +1,79 @@
+package org.buildozers.dojo.abstraction.advanced;
+
+import java.util.Arrays;
+
+/**
+ * Column store backed by growable Java arrays.
+ */
+class HeapColumnStore implements ColumnStore {
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private int size;
+    private long[] ids = new long[INITIAL_CAPACITY];
+    private int[] values = new int[INITIAL_CAPACITY];
+    private int[] categoryCodes = new int[INITIAL_CAPACITY];
+    private int[] regionCodes = new int[INITIAL_CAPACITY];
+
+    @Override
+    public void append(long[] idChunk, int[] valueChunk, int[] categoryChunk, int[] regionChunk, int length) {
+        if (size + length > values.length) {
+            grow(Math.max(values.length * 2, size + length));
+        }
+        System.arraycopy(idChunk, 0, ids, size, length);
+        System.arraycopy(valueChunk, 0, values, size, length);
+        System.arraycopy(categoryChunk, 0, categoryCodes, size, length);
+        System.arraycopy(regionChunk, 0, regionCodes, size, length);
+        size += length;
+    }
+
+    @Override
+    public void seal() {
+        grow(size);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public long id(int row) {
+        return ids[row];
+    }
+
+    @Override
+    public int value(int row) {
+        return values[row];
+    }
+
+    @Override
+    public int categoryCode(int row) {
+        return categoryCodes[row];
+    }
+
+    @Override
+    public int regionCode(int row) {
+        return regionCodes[row];
+    }
+
+    @Override
+    public ColumnBlock block(int from, ColumnBlock reuse) {
+        if (from != 0) {
+            throw new IndexOutOfBoundsException("Heap stores expose a single block, requested row " + from);
+        }
+        return new ColumnBlock(values, categoryCodes, regionCodes, size);
+    }
+
+    @Override
+    public void close() {
+        // Nothing to release, the arrays are garbage collected
+    }
+
+    private void grow(int capacity) {
+        ids = Arrays.copyOf(ids, capacity);
+        values = Arrays.copyOf(values, capacity);
+        categoryCodes = Arrays.copyOf(categoryCodes, capacity);
+        regionCodes = Arrays.copyOf(regionCodes, capacity);
+    }
+}
@@ -0,0 +1,113 @@
+package org.buildozers.dojo.abstraction.advanced;
+
+import java.io.IOException;
+import java.io.Reader;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.json.JSONTokener;
+
+/**
+ * Streaming JSON reader for documents shaped like {@code {"data": [ ... ]}}.
+ * 
+ * A {@link JSONTokener} walks the document and only one record object is
+ * materialized at a time, instead of the whole document tree.
+ */
+class JsonRecordReader implements DataRecordReader {
+
+    private final Reader reader;
+    private final JSONTokener tokener;
+    private boolean started;
+    private boolean exhausted;
+
+    /**
+     * @param reader the JSON content, closed with this reader
+     */
+    JsonRecordReader(Reader reader) {
+        this.reader = reader;
+        this.tokener = new JSONTokener(reader);
+    }
+
+    @Override
+    public int read(DataRecordSink sink, int maxRecords) throws IOException {
+        try {
+            if (!started) {
+                started = true;
+                exhausted = !seekDataArray();
+            }
+            if (exhausted) {
+                return -1;
+            }
+            int read = 0;
+            while (read < maxRecords && !exhausted) {
+                emit((JSONObject) tokener.nextValue(), sink);
+                read++;
+                exhausted = nextArraySeparator() == ']';
+            }
+            return read;
+        } catch (JSONException | ClassCastException e) {
+            throw new DataProcessingException("Malformed JSON data: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    /**
+     * Positions the tokener on the first record of the "data" array.
+     * 
+     * @return false if the array is empty
+     */
+    private boolean seekDataArray() {
+        if (tokener.nextClean() != '{') {
+            throw tokener.syntaxError("A JSON object text must begin with '{'");
+        }
+        while (true) {
+            char next = tokener.nextClean();
+            if (next == '}' || next == 0) {
+                throw new DataProcessingException("JSON document has no \"data\" array");
+            }
+            if (next != ',') {
+                tokener.back();
+            }
+            String key = tokener.nextValue().toString();
+            if (tokener.nextClean() != ':') {
+                throw tokener.syntaxError("Expected a ':' after a key");
+            }
+            if ("data".equals(key)) {
+                if (tokener.nextClean() != '[') {
+                    throw tokener.syntaxError("\"data\" must be an array");
+                }
+                if (tokener.nextClean() == ']') {
+                    return false;
+                }
+                tokener.back();
+                return true;
+            }
+            tokener.nextValue();
+        }
+    }
+
+    private char nextArraySeparator() {
+        char separator = tokener.nextClean();
+        if (separator != ',' && separator != ']') {
+            throw tokener.syntaxError("Expected a ',' or ']'");
+        }
+        return separator;
+    }
+
+    private static void emit(JSONObject jsonRecord, DataRecordSink sink) {
+        long id = jsonRecord.optLong("id");
+        Object value = jsonRecord.opt("value");
+        String region = jsonRecord.optString("region");
+        String category = jsonRecord.optString("category");
+        if (value instanceof Integer intValue) {
+            sink.accept(id, intValue, true, region, category);
+        } else {
+            // Malformed values are kept for COUNT but skipped by value aggregations
+            sink.accept(id, 0, false, region, category);
+        }
+    }
+}
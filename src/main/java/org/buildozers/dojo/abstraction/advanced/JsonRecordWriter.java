@@ -0,0 +1,53 @@
+package org.buildozers.dojo.abstraction.advanced;
+
+import java.io.IOException;
+import java.io.Writer;
+
+import org.json.JSONObject;
+
+/**
+ * Writes records in the {@code {"data": [...]}} shape of the bundled
+ * data.json, one record per line.
+ */
+class JsonRecordWriter implements DataRecordWriter {
+
+    private final Writer output;
+    private boolean firstRecord = true;
+
+    /**
+     * @param output the buffered destination, closed with this writer
+     * @throws IOException if the start of the document cannot be written
+     */
+    JsonRecordWriter(Writer output) throws IOException {
+        this.output = output;
+        output.write("{\"data\":[");
+    }
+
+    @Override
+    public void accept(long id, int value, boolean validValue, CharSequence region, CharSequence category) {
+        try {
+            output.write(firstRecord ? "\n" : ",\n");
+            firstRecord = false;
+            output.write("{\"id\":");
+            output.write(Long.toString(id));
+            output.write(",\"value\":");
+            output.write(validValue ? Integer.toString(value) : "null");
+            output.write(",\"region\":");
+            JSONObject.quote(region.toString(), output);
+            output.write(",\"category\":");
+            JSONObject.quote(category.toString(), output);
+            output.write('}');
+        } catch (IOException e) {
+            throw new DataProcessingException("Failed to write JSON record", e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            output.write("\n]}\n");
+        } finally {
+            output.close();
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package org.buildozers.dojo.abstraction.advanced;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free latency histogram with power-of-two nanosecond buckets.
+ * 
+ * Bucket {@code i} counts the samples in {@code [2^(i-1), 2^i)} nanoseconds
+ * (bucket 0 holds zero-length samples),
+ * so percentiles are reported with at most a factor-of-two error, which is
+ * enough to tell a microsecond stage from a millisecond one. Recording is a
+ * couple of {@link LongAdder} increments and never blocks.
+ */
+public class LatencyHistogram {
+
+    private static final int BUCKET_COUNT = Long.SIZE;
+
+    private final LongAdder[] buckets = new LongAdder[BUCKET_COUNT];
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0L);
+
+    public LatencyHistogram() {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Records one sample.
+     * 
+     * @param nanos the elapsed time in nanoseconds, negative values count as 0
+     */
+    public void record(long nanos) {
+        long sample = Math.max(0L, nanos);
+        buckets[BUCKET_COUNT - Long.numberOfLeadingZeros(sample)].increment();
+        count.increment();
+        totalNanos.add(sample);
+        maxNanos.accumulate(sample);
+    }
+
+    /**
+     * @return the number of recorded samples
+     */
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * @return the sum of all recorded samples in nanoseconds
+     */
+    public long getTotalNanos() {
+        return totalNanos.sum();
+    }
+
+    /**
+     * @return the largest recorded sample in nanoseconds
+     */
+    public long getMaxNanos() {
+        return maxNanos.get();
+    }
+
+    /**
+     * Returns an upper bound of the latency below which the given fraction
+     * of samples fall.
+     * 
+     * @param percentile the percentile, between 0 and 100
+     * @return the upper bound of the bucket holding the percentile in
+     *         nanoseconds, or 0 if nothing was recorded
+     */
+    public long getValueAtPercentile(double percentile) {
+        long total = getCount();
+        if (total == 0) {
+            return 0L;
+        }
+        long rank = Math.max(1L, (long) Math.ceil(total * Math.min(100.0, percentile) / 100.0));
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += buckets[i].sum();
+            if (seen >= rank) {
+                return Math.min((1L << i) - 1, getMaxNanos());
+            }
+        }
+        return getMaxNanos();
+    }
+
+    /**
+     * Clears all recorded samples.
+     */
+    public void reset() {
+        for (LongAdder bucket : buckets) {
+            bucket.reset();
+        }
+        count.reset();
+        totalNanos.reset();
+        maxNanos.reset();
+    }
+}
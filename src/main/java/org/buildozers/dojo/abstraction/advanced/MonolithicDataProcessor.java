@@ -8,13 +8,8 @@ import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
 
-import javax.xml.XMLConstants;
 import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
-import javax.xml.parsers.ParserConfigurationException;
 import javax.xml.transform.stream.StreamSource;
-import javax.xml.validation.Schema;
-import javax.xml.validation.SchemaFactory;
 import javax.xml.validation.Validator;
 
 import org.apache.commons.csv.CSVFormat;
@@ -22,7 +17,6 @@ import org.apache.commons.csv.CSVParser;
 import org.apache.commons.csv.CSVRecord;
 import org.apache.commons.io.IOUtils;
 import org.everit.json.schema.ValidationException;
-import org.everit.json.schema.loader.SchemaLoader;
 import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
@@ -40,7 +34,91 @@ import org.xml.sax.SAXException;
  * from the classpath instead of manual BufferedReader/InputStreamReader
  * handling.
  */
-public class MonolithicDataProcessor implements DataProcessor {
+public class MonolithicDataProcessor implements ExplainableDataProcessor {
+
+    /**
+     * Per-stage timings and volumes, also emitted as JFR events
+     */
+    private final ProcessingMetrics metrics;
+
+    /**
+     * Shared CSV format, XML parsers and compiled schemas
+     */
+    private final ParserContext parsers;
+
+    /**
+     * Row estimates learned from the files explained so far
+     */
+    private final RowEstimator rowEstimator = new RowEstimator();
+
+    /**
+     * Creates a processor recording its stages in a private metrics instance.
+     */
+    public MonolithicDataProcessor() {
+        this(new ProcessingMetrics());
+    }
+
+    /**
+     * Creates a processor recording its stages in the given metrics, which
+     * may be shared between processors.
+     * 
+     * @param metrics the metrics to update for every processing stage
+     */
+    public MonolithicDataProcessor(ProcessingMetrics metrics) {
+        this(metrics, ParserContext.shared());
+    }
+
+    /**
+     * Creates a processor with its own parser context.
+     * 
+     * @param metrics the metrics to update for every processing stage
+     * @param parsers the parser context providing formats, parsers and schemas
+     */
+    public MonolithicDataProcessor(ProcessingMetrics metrics, ParserContext parsers) {
+        this.metrics = metrics;
+        this.parsers = parsers;
+    }
+
+    /**
+     * @return the per-stage metrics of this processor
+     */
+    public ProcessingMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * {@inheritDoc}
+     * 
+     * The query runs on a private metrics instance, so that the stages of
+     * this call alone are reported; it is not recorded in
+     * {@link #getMetrics()}. Every format is parsed into an in-memory
+     * document, sequentially, without cache nor index.
+     */
+    @Override
+    public QueryProfile explain(String filename, String format, boolean validate, String categoryFilter,
+            String aggregationType) {
+        QueryProfile.Builder profile = QueryProfile.builder(getClass().getSimpleName(), filename, format,
+                categoryFilter, aggregationType);
+        DataFormat dataFormat = DataFormat.of(format);
+        profile.estimatedRows(rowEstimator.estimate(dataFormat, DataSources.resourceSize(filename)));
+
+        ProcessingMetrics callMetrics = new ProcessingMetrics();
+        long result = new MonolithicDataProcessor(callMetrics, parsers)
+                .processFileData(filename, format, validate, categoryFilter, aggregationType);
+
+        long rowsScanned = 0;
+        for (ProcessingStage processingStage : ProcessingStage.values()) {
+            ProcessingMetrics.StageMetrics stageMetrics = callMetrics.getStage(processingStage);
+            if (stageMetrics.getInvocations() > 0) {
+                profile.stage(processingStage, stageMetrics.getLatency().getTotalNanos());
+            }
+            rowsScanned = Math.max(rowsScanned, stageMetrics.getRecordsParsed());
+        }
+        rowEstimator.observe(dataFormat, callMetrics.getStage(ProcessingStage.LOAD).getBytesRead(), rowsScanned);
+        return profile.parseMode(QueryProfile.ParseMode.DOCUMENT)
+                .rows(rowsScanned, callMetrics.getStage(ProcessingStage.FILTER).getRecordsMatched())
+                .build(result);
+    }
 
     /**
      * This method demonstrates the problems of a monolithic approach:
@@ -74,58 +152,69 @@ public class MonolithicDataProcessor implements DataProcessor {
             if (format.equals("CSV")) {
                 try {
                     // Use Apache Commons CSV for proper CSV parsing
-                    String csvData = loadTextFile(filename);
-                    CSVFormat csvFormat = CSVFormat.DEFAULT.builder().setHeader().setSkipHeaderRecord(true).build();
-                    CSVParser parser = CSVParser.parse(csvData, csvFormat);
+                    String csvData = loadDataFile(filename, format);
+                    CSVFormat csvFormat = ParserContext.CSV_FORMAT;
+
+                    // Commons CSV parses lazily, so records are parsed while they are collected
+                    List<CSVRecord> records = new ArrayList<>();
+                    try (StageTimer parseTimer = stage(ProcessingStage.PARSE, filename, format)) {
+                        for (CSVRecord csvRecord : CSVParser.parse(csvData, csvFormat)) {
+                            records.add(csvRecord);
+                        }
+                        parseTimer.count(0, records.size(), 0);
+                    }
 
                     if (validate) {
                         // Validation using Apache Commons CSV
-                        for (CSVRecord csvRecord : parser) {
-                            if (!csvRecord.isConsistent()) {
-                                throw new DataProcessingException("CSV record inconsistency found at line " + csvRecord.getRecordNumber());
-                            }
-                            // Validate required columns exist
-                            if (!csvRecord.isMapped("id") || !csvRecord.isMapped("value") ||
-                                    !csvRecord.isMapped("category") || !csvRecord.isMapped("region")) {
-                                throw new DataProcessingException("CSV file is missing required columns (id, value, category, region)");
+                        try (StageTimer validateTimer = stage(ProcessingStage.VALIDATE, filename, format)) {
+                            for (CSVRecord csvRecord : records) {
+                                if (!csvRecord.isConsistent()) {
+                                    throw new DataProcessingException("CSV record inconsistency found at line " + csvRecord.getRecordNumber());
+                                }
+                                // Validate required columns exist
+                                if (!csvRecord.isMapped("id") || !csvRecord.isMapped("value") ||
+                                        !csvRecord.isMapped("category") || !csvRecord.isMapped("region")) {
+                                    throw new DataProcessingException("CSV file is missing required columns (id, value, category, region)");
+                                }
                             }
                         }
-
-                        // Re-parse for further processing since parser is consumed
-                        parser = CSVParser.parse(csvData, csvFormat);
                     }
 
                     // Create temporary data structure to store filtered records
                     List<CSVRecord> filteredRecords = new ArrayList<>();
 
-                    if (categoryFilter != null && !categoryFilter.isEmpty()) {
-                        // Filtering using Apache Commons CSV - store matches in temporary structure
-                        for (CSVRecord csvRecord : parser) {
-                            String category = csvRecord.get("category");
-                            if (category.toLowerCase().contains(categoryFilter.toLowerCase())) {
-                                filteredRecords.add(csvRecord);
+                    try (StageTimer filterTimer = stage(ProcessingStage.FILTER, filename, format)) {
+                        if (categoryFilter != null && !categoryFilter.isEmpty()) {
+                            // Filtering using Apache Commons CSV - store matches in temporary structure
+                            for (CSVRecord csvRecord : records) {
+                                String category = csvRecord.get("category");
+                                if (category.toLowerCase().contains(categoryFilter.toLowerCase())) {
+                                    filteredRecords.add(csvRecord);
+                                }
                             }
+                        } else {
+                            // No filter - store all records in temporary structure
+                            filteredRecords.addAll(records);
                         }
-                    } else {
-                        // No filter - store all records in temporary structure
-                        for (CSVRecord csvRecord : parser) {
-                            filteredRecords.add(csvRecord);
-                        }
+                        filterTimer.count(0, 0, filteredRecords.size());
                     }
 
                     // Use temporary data structure for aggregation
-                    if ("SUM".equals(aggregationType)) {
-                        long sum = 0;
-                        for (CSVRecord csvRecord : filteredRecords) {
-                            try {
-                                sum += Integer.parseInt(csvRecord.get("value"));
-                            } catch (NumberFormatException e) {
-                                // Continue processing, skip invalid values
+                    try (StageTimer aggregateTimer = stage(ProcessingStage.AGGREGATE, filename, format)) {
+                        aggregateTimer.count(0, 0, filteredRecords.size());
+                        if ("SUM".equals(aggregationType)) {
+                            long sum = 0;
+                            for (CSVRecord csvRecord : filteredRecords) {
+                                try {
+                                    sum += Integer.parseInt(csvRecord.get("value"));
+                                } catch (NumberFormatException e) {
+                                    // Continue processing, skip invalid values
+                                }
                             }
+                            return sum;
+                        } else if ("COUNT".equals(aggregationType)) {
+                            return filteredRecords.size();
                         }
-                        return sum;
-                    } else if ("COUNT".equals(aggregationType)) {
-                        return filteredRecords.size();
                     }
 
                 } catch (IOException e) {
@@ -133,16 +222,23 @@ public class MonolithicDataProcessor implements DataProcessor {
                 }
 
             } else if (format.equals("JSON")) {
-                String jsonData = loadTextFile(filename);
+                String jsonData = loadDataFile(filename, format);
 
                 try {
-                    // Parse JSON using proper JSON library
-                    JSONObject jsonObject = new JSONObject(jsonData);
+                    // Parse JSON using proper JSON library, which builds the whole tree at once
+                    JSONObject jsonObject;
+                    try (StageTimer parseTimer = stage(ProcessingStage.PARSE, filename, format)) {
+                        jsonObject = new JSONObject(jsonData);
+                        JSONArray parsedRecords = jsonObject.optJSONArray("data");
+                        parseTimer.count(0, parsedRecords != null ? parsedRecords.length() : 0, 0);
+                    }
 
                     // validation
                     if (validate) {
-                        if (!validateJsonAgainstSchema(jsonObject)) {
-                            throw new DataProcessingException("JSON validation failed against schema");
+                        try (StageTimer validateTimer = stage(ProcessingStage.VALIDATE, filename, format)) {
+                            if (!validateJsonAgainstSchema(jsonObject)) {
+                                throw new DataProcessingException("JSON validation failed against schema");
+                            }
                         }
                     }
 
@@ -152,30 +248,36 @@ public class MonolithicDataProcessor implements DataProcessor {
                     List<JSONObject> filteredJsonRecords = new ArrayList<>();
 
                     // Filtering
-                    if (categoryFilter != null && !categoryFilter.isEmpty()) {
-                        for (int i = 0; i < dataArray.length(); i++) {
-                            JSONObject jsonRecord = dataArray.getJSONObject(i);
-                            String category = jsonRecord.getString("category");
-                            if (category.toLowerCase().contains(categoryFilter.toLowerCase())) {
-                                filteredJsonRecords.add(jsonRecord);
+                    try (StageTimer filterTimer = stage(ProcessingStage.FILTER, filename, format)) {
+                        if (categoryFilter != null && !categoryFilter.isEmpty()) {
+                            for (int i = 0; i < dataArray.length(); i++) {
+                                JSONObject jsonRecord = dataArray.getJSONObject(i);
+                                String category = jsonRecord.getString("category");
+                                if (category.toLowerCase().contains(categoryFilter.toLowerCase())) {
+                                    filteredJsonRecords.add(jsonRecord);
+                                }
+                            }
+                        } else {
+                            // No filter - store all records in temporary structure
+                            for (int i = 0; i < dataArray.length(); i++) {
+                                filteredJsonRecords.add(dataArray.getJSONObject(i));
                             }
                         }
-                    } else {
-                        // No filter - store all records in temporary structure
-                        for (int i = 0; i < dataArray.length(); i++) {
-                            filteredJsonRecords.add(dataArray.getJSONObject(i));
-                        }
+                        filterTimer.count(0, 0, filteredJsonRecords.size());
                     }
 
                     // Aggregation
-                    if ("SUM".equals(aggregationType)) {
-                        long sum = 0;
-                        for (JSONObject jsonRecord : filteredJsonRecords) {
-                            sum += jsonRecord.getInt("value");
+                    try (StageTimer aggregateTimer = stage(ProcessingStage.AGGREGATE, filename, format)) {
+                        aggregateTimer.count(0, 0, filteredJsonRecords.size());
+                        if ("SUM".equals(aggregationType)) {
+                            long sum = 0;
+                            for (JSONObject jsonRecord : filteredJsonRecords) {
+                                sum += jsonRecord.getInt("value");
+                            }
+                            return sum;
+                        } else if ("COUNT".equals(aggregationType)) {
+                            return filteredJsonRecords.size();
                         }
-                        return sum;
-                    } else if ("COUNT".equals(aggregationType)) {
-                        return filteredJsonRecords.size();
                     }
 
                 } catch (JSONException e) {
@@ -183,66 +285,82 @@ public class MonolithicDataProcessor implements DataProcessor {
                 }
 
             } else if (format.equals("XML")) {
-                String xmlData = loadTextFile(filename);
+                String xmlData = loadDataFile(filename, format);
 
                 if (validate) {
-                    if (!validateXmlAgainstXsd(xmlData)) {
-                        throw new DataProcessingException("XML validation failed against XSD schema");
+                    try (StageTimer validateTimer = stage(ProcessingStage.VALIDATE, filename, format)) {
+                        if (!validateXmlAgainstXsd(xmlData)) {
+                            throw new DataProcessingException("XML validation failed against XSD schema");
+                        }
                     }
                 }
 
                 // Parse XML into DOM for proper processing
                 try {
-                    DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
-                    factory.setNamespaceAware(true); // Important for namespaced XML
-                    DocumentBuilder builder = factory.newDocumentBuilder();
-                    Document document = builder.parse(new InputSource(new StringReader(xmlData)));
+                    NodeList recordNodes;
+                    try (StageTimer parseTimer = stage(ProcessingStage.PARSE, filename, format)) {
+                        // Pooled namespace-aware builder, configured once by the parser context
+                        DocumentBuilder builder = parsers.borrowDocumentBuilder();
+                        Document document;
+                        try {
+                            document = builder.parse(new InputSource(new StringReader(xmlData)));
+                        } finally {
+                            parsers.release(builder);
+                        }
 
-                    // Get all record elements
-                    NodeList recordNodes = document.getElementsByTagNameNS(XML_NAMESPACE, "record");
+                        // Get all record elements
+                        recordNodes = document.getElementsByTagNameNS(XML_NAMESPACE, "record");
+                        parseTimer.count(0, recordNodes.getLength(), 0);
+                    }
 
                     // Create temporary data structure to store filtered XML elements
                     List<Element> filteredXmlElements = new ArrayList<>();
 
                     // Filtering
-                    if (categoryFilter != null && !categoryFilter.isEmpty()) {
-                        for (int i = 0; i < recordNodes.getLength(); i++) {
-                            Element recordElement = (Element) recordNodes.item(i);
-
-                            // Get category element
-                            NodeList categoryNodes = recordElement
-                                    .getElementsByTagNameNS(XML_NAMESPACE, "category");
-                            if (categoryNodes.getLength() > 0) {
-                                String category = categoryNodes.item(0).getTextContent();
-                                if (categoryFilter.equals(category)) {
-                                    filteredXmlElements.add(recordElement);
+                    try (StageTimer filterTimer = stage(ProcessingStage.FILTER, filename, format)) {
+                        if (categoryFilter != null && !categoryFilter.isEmpty()) {
+                            for (int i = 0; i < recordNodes.getLength(); i++) {
+                                Element recordElement = (Element) recordNodes.item(i);
+
+                                // Get category element
+                                NodeList categoryNodes = recordElement
+                                        .getElementsByTagNameNS(XML_NAMESPACE, "category");
+                                if (categoryNodes.getLength() > 0) {
+                                    String category = categoryNodes.item(0).getTextContent();
+                                    if (categoryFilter.equals(category)) {
+                                        filteredXmlElements.add(recordElement);
+                                    }
                                 }
                             }
+                        } else {
+                            // No filter - store all elements in temporary structure
+                            for (int i = 0; i < recordNodes.getLength(); i++) {
+                                filteredXmlElements.add((Element) recordNodes.item(i));
+                            }
                         }
-                    } else {
-                        // No filter - store all elements in temporary structure
-                        for (int i = 0; i < recordNodes.getLength(); i++) {
-                            filteredXmlElements.add((Element) recordNodes.item(i));
-                        }
+                        filterTimer.count(0, 0, filteredXmlElements.size());
                     }
 
                     // Aggregation
-                    if ("SUM".equals(aggregationType)) {
-                        long sum = 0;
-                        for (Element recordElement : filteredXmlElements) {
-                            String valueText = getElementText(recordElement, "value");
-                            try {
-                                sum += Integer.parseInt(valueText);
-                            } catch (NumberFormatException e) {
-                                // Continue processing, skip invalid values
+                    try (StageTimer aggregateTimer = stage(ProcessingStage.AGGREGATE, filename, format)) {
+                        aggregateTimer.count(0, 0, filteredXmlElements.size());
+                        if ("SUM".equals(aggregationType)) {
+                            long sum = 0;
+                            for (Element recordElement : filteredXmlElements) {
+                                String valueText = getElementText(recordElement, "value");
+                                try {
+                                    sum += Integer.parseInt(valueText);
+                                } catch (NumberFormatException e) {
+                                    // Continue processing, skip invalid values
+                                }
                             }
+                            return sum;
+                        } else if ("COUNT".equals(aggregationType)) {
+                            return filteredXmlElements.size();
                         }
-                        return sum;
-                    } else if ("COUNT".equals(aggregationType)) {
-                        return filteredXmlElements.size();
                     }
 
-                } catch (ParserConfigurationException | SAXException e) {
+                } catch (SAXException e) {
                     throw new DataProcessingException("Failed to parse XML file: " + filename, e);
                 }
             }
@@ -254,26 +372,46 @@ public class MonolithicDataProcessor implements DataProcessor {
     }
 
     /**
-     * Loads a text file from the classpath as a single string.
-     * Uses Apache Commons IO for simplified resource loading.
+     * Loads the data file to process and reports it as the
+     * {@link ProcessingStage#LOAD} stage.
      * 
-     * This helper method is used for loading JSON and XML files that need to be
-     * processed as complete strings rather than line-by-line. Like the CSV loader,
-     * this demonstrates reusable file loading logic that's embedded in the
-     * monolith.
-     * 
-     * @param filename the name of the text file to load from the classpath
+     * @param filename the name of the data file to load from the classpath
+     * @param format   the format of the file, reported with the stage
      * @return the complete file content as a single string
      * @throws IOException if the file cannot be found or read
      */
-    private String loadTextFile(String filename) throws IOException {
-        // Using Apache Commons IO to load resource as string
-        String resourcePath = "org/buildozers/dojo/abstraction/advanced/" + filename;
-        try (var inputStream = getClass().getClassLoader().getResourceAsStream(resourcePath)) {
-            if (inputStream == null) {
-                throw new IOException("File not found: " + filename);
-            }
-            return IOUtils.toString(inputStream, StandardCharsets.UTF_8);
+    private String loadDataFile(String filename, String format) throws IOException {
+        try (StageTimer loadTimer = stage(ProcessingStage.LOAD, filename, format)) {
+            byte[] content = loadResource(filename);
+            loadTimer.count(content.length, 0, 0);
+            return new String(content, StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * Starts timing a processing stage of the current call.
+     * 
+     * @param processingStage the stage about to run
+     * @param filename        the processed file
+     * @param format          the file format
+     * @return the running stage timer
+     */
+    private StageTimer stage(ProcessingStage processingStage, String filename, String format) {
+        return StageTimer.start(metrics, processingStage, filename, format);
+    }
+
+    /**
+     * Loads the raw bytes of a classpath resource, so that the amount of data
+     * read can be reported before decoding.
+     * 
+     * @param filename the name of the file to load from the classpath
+     * @return the complete file content
+     * @throws IOException if the file cannot be found or read
+     */
+    private byte[] loadResource(String filename) throws IOException {
+        // Using Apache Commons IO to load resource as bytes
+        try (var inputStream = DataSources.openResource(filename)) {
+            return IOUtils.toByteArray(inputStream);
         }
     }
 
@@ -287,6 +425,9 @@ public class MonolithicDataProcessor implements DataProcessor {
      * structure,
      * data types, and constraints.
      * 
+     * The schema is compiled once by the parser context and its validators are
+     * pooled, so only the first validation pays for loading it.
+     * 
      * The validation includes:
      * - Structure validation (required elements, proper nesting)
      * - Data type validation (integers, strings, etc.)
@@ -297,19 +438,14 @@ public class MonolithicDataProcessor implements DataProcessor {
      * @return true if the XML is valid according to the XSD schema, false otherwise
      */
     private boolean validateXmlAgainstXsd(String xmlContent) {
+        Validator validator;
+        try {
+            // Pooled validator of the schema compiled once by the parser context
+            validator = parsers.borrowXmlValidator();
+        } catch (DataProcessingException e) {
+            return false;
+        }
         try {
-            // Load XSD schema from classpath using loadTextFile method
-            String schemaContent = loadTextFile("data-schema.xsd");
-
-            // Create schema factory and load schema
-            SchemaFactory factory = SchemaFactory.newInstance(XMLConstants.W3C_XML_SCHEMA_NS_URI);
-            // Disable access to external entities for security (prevents XXE attacks)
-            factory.setProperty(XMLConstants.ACCESS_EXTERNAL_DTD, "");
-            factory.setProperty(XMLConstants.ACCESS_EXTERNAL_SCHEMA, "");
-            Schema schema = factory.newSchema(new StreamSource(new StringReader(schemaContent)));
-
-            // Create validator and validate XML
-            Validator validator = schema.newValidator();
             validator.validate(new StreamSource(new StringReader(xmlContent)));
 
             return true; // Validation successful
@@ -318,6 +454,8 @@ public class MonolithicDataProcessor implements DataProcessor {
             return false;
         } catch (IOException e) {
             return false;
+        } finally {
+            parsers.release(validator);
         }
     }
 
@@ -338,12 +476,8 @@ public class MonolithicDataProcessor implements DataProcessor {
      */
     private boolean validateJsonAgainstSchema(JSONObject jsonObject) {
         try {
-            // Load JSON Schema from classpath using loadTextFile method
-            String schemaContent = loadTextFile("data-schema.json");
-            JSONObject schemaJson = new JSONObject(schemaContent);
-
-            // Create schema loader and load schema
-            org.everit.json.schema.Schema schema = SchemaLoader.load(schemaJson);
+            // Schema compiled once by the parser context
+            org.everit.json.schema.Schema schema = parsers.jsonSchema();
 
             // Execute the validation
             schema.validate(jsonObject);
@@ -351,9 +485,7 @@ public class MonolithicDataProcessor implements DataProcessor {
             return true; // Validation successful
         } catch (ValidationException e) {
             return false;
-        } catch (IOException e) {
-            return false;
-        } catch (JSONException e) {
+        } catch (DataProcessingException e) {
             return false;
         }
     }
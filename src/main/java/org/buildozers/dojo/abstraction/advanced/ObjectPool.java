@@ -0,0 +1,65 @@
+package org.buildozers.dojo.abstraction.advanced;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Small bounded pool of reusable, non thread-safe objects.
+ * 
+ * A pool rather than a {@link ThreadLocal} is used because queries may run
+ * on virtual threads, which are created per task: a thread-local instance
+ * would be rebuilt for nearly every query. Borrowing never blocks; when the
+ * pool is empty a new instance is created, and instances released to a
+ * full pool are dropped.
+ * 
+ * @param <T> the type of the pooled objects
+ */
+final class ObjectPool<T> {
+
+    private final BlockingQueue<T> idle;
+    private final Supplier<T> factory;
+    private final Consumer<T> reset;
+
+    /**
+     * @param capacity the maximum number of idle instances kept
+     * @param factory  creates a new instance when none is idle
+     * @param reset    restores an instance to its initial state on release
+     */
+    ObjectPool(int capacity, Supplier<T> factory, Consumer<T> reset) {
+        this.idle = new ArrayBlockingQueue<>(capacity);
+        this.factory = factory;
+        this.reset = reset;
+    }
+
+    /**
+     * @return an idle instance, or a new one if none is idle
+     */
+    T borrow() {
+        T instance = idle.poll();
+        return instance != null ? instance : factory.get();
+    }
+
+    /**
+     * Returns an instance to the pool. An instance that cannot be reset is
+     * dropped.
+     * 
+     * @param instance an instance obtained from {@link #borrow()}
+     */
+    void release(T instance) {
+        try {
+            reset.accept(instance);
+        } catch (RuntimeException e) {
+            return;
+        }
+        idle.offer(instance);
+    }
+
+    /**
+     * @return the number of idle instances
+     */
+    int idleCount() {
+        return idle.size();
+    }
+}
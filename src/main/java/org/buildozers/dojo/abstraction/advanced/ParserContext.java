@@ -0,0 +1,241 @@
+package org.buildozers.dojo.abstraction.advanced;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+
+import javax.xml.XMLConstants;
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.transform.stream.StreamSource;
+import javax.xml.validation.Schema;
+import javax.xml.validation.SchemaFactory;
+import javax.xml.validation.Validator;
+
+import org.apache.commons.csv.CSVFormat;
+import org.everit.json.schema.ArraySchema;
+import org.everit.json.schema.ObjectSchema;
+import org.everit.json.schema.loader.SchemaLoader;
+import org.json.JSONObject;
+import org.json.JSONTokener;
+import org.xml.sax.SAXException;
+
+/**
+ * Shared, thread-safe parsing infrastructure of the data processors.
+ * 
+ * Looking up and configuring XML factories goes through the service loader
+ * and dominates the cost of processing a small file, as does compiling the
+ * schemas. A context does all of this once: the CSV format is an immutable
+ * constant, the XML factories are configured with secure processing, no
+ * DTDs and no external access when the context is created, and the XSD and
+ * JSON schemas are compiled on first use and then shared. DOM builders and
+ * XSD validators are not thread-safe, so they are pooled. Builders are reset
+ * between uses. Validators are reused without a reset, because
+ * {@code Validator.reset()} would drop their secure-processing settings.
+ * This is safe: they never get an error handler, a resource resolver or any
+ * property besides those settings, and a validation that fails leaves no
+ * state the next {@code validate} call depends on.
+ * 
+ * Most code uses the {@link #shared()} context; a private one can be
+ * created for isolation.
+ */
+public final class ParserContext {
+
+    /**
+     * CSV format of the data files: RFC 4180 with a header line
+     */
+    public static final CSVFormat CSV_FORMAT = CSVFormat.DEFAULT.builder()
+            .setHeader()
+            .setSkipHeaderRecord(true)
+            .build();
+
+    private static final int POOL_CAPACITY = Math.max(4, Runtime.getRuntime().availableProcessors() * 2);
+
+    private final DocumentBuilderFactory documentBuilderFactory;
+    private final XMLInputFactory xmlInputFactory;
+    private final XMLOutputFactory xmlOutputFactory = XMLOutputFactory.newFactory();
+    private final ObjectPool<DocumentBuilder> documentBuilders;
+    private final ObjectPool<Validator> xmlValidators;
+
+    private volatile Schema xmlSchema;
+    private volatile org.everit.json.schema.Schema jsonSchema;
+
+    /**
+     * Creates a context with its own factories, schemas and pools.
+     * 
+     * @throws DataProcessingException if the XML parser cannot be configured
+     */
+    public ParserContext() {
+        this.documentBuilderFactory = createDocumentBuilderFactory();
+        this.xmlInputFactory = createXmlInputFactory();
+        this.documentBuilders = new ObjectPool<>(POOL_CAPACITY, this::newDocumentBuilder, DocumentBuilder::reset);
+        // Validator.reset() drops the JDK's security settings, and the validators
+        // never get a handler or resolver that would need resetting
+        this.xmlValidators = new ObjectPool<>(POOL_CAPACITY, this::newXmlValidator, validator -> { });
+    }
+
+    /**
+     * @return the context shared by the processors of this JVM
+     */
+    public static ParserContext shared() {
+        return SharedHolder.INSTANCE;
+    }
+
+    /**
+     * @return the factory of streaming XML readers; creating readers from it
+     *         is thread-safe
+     */
+    public XMLInputFactory xmlInputFactory() {
+        return xmlInputFactory;
+    }
+
+    /**
+     * @return the factory of streaming XML writers; creating writers from it
+     *         is thread-safe
+     */
+    public XMLOutputFactory xmlOutputFactory() {
+        return xmlOutputFactory;
+    }
+
+    /**
+     * Borrows a namespace-aware DOM builder, to be given back with
+     * {@link #release(DocumentBuilder)}.
+     * 
+     * @return a DOM builder for the calling thread's exclusive use
+     */
+    public DocumentBuilder borrowDocumentBuilder() {
+        return documentBuilders.borrow();
+    }
+
+    /**
+     * @param builder a builder obtained from {@link #borrowDocumentBuilder()}
+     */
+    public void release(DocumentBuilder builder) {
+        documentBuilders.release(builder);
+    }
+
+    /**
+     * Borrows a validator of the bundled XSD schema, to be given back with
+     * {@link #release(Validator)}.
+     * 
+     * @return a validator for the calling thread's exclusive use
+     * @throws DataProcessingException if the schema cannot be loaded
+     */
+    public Validator borrowXmlValidator() {
+        return xmlValidators.borrow();
+    }
+
+    /**
+     * @param validator a validator obtained from {@link #borrowXmlValidator()}
+     */
+    public void release(Validator validator) {
+        xmlValidators.release(validator);
+    }
+
+    /**
+     * @return the compiled XSD schema of the XML data files
+     * @throws DataProcessingException if the schema cannot be loaded
+     */
+    public Schema xmlSchema() {
+        Schema schema = xmlSchema;
+        if (schema == null) {
+            try (InputStream input = DataSources.openResource("data-schema.xsd")) {
+                SchemaFactory factory = SchemaFactory.newInstance(XMLConstants.W3C_XML_SCHEMA_NS_URI);
+                // Disable access to external entities for security (prevents XXE attacks)
+                factory.setProperty(XMLConstants.ACCESS_EXTERNAL_DTD, "");
+                factory.setProperty(XMLConstants.ACCESS_EXTERNAL_SCHEMA, "");
+                schema = factory.newSchema(new StreamSource(input));
+            } catch (IOException | SAXException e) {
+                throw new DataProcessingException("Failed to load schema: data-schema.xsd", e);
+            }
+            xmlSchema = schema;
+        }
+        return schema;
+    }
+
+    /**
+     * @return the compiled JSON schema of the JSON data files
+     * @throws DataProcessingException if the schema cannot be loaded
+     */
+    public org.everit.json.schema.Schema jsonSchema() {
+        org.everit.json.schema.Schema schema = jsonSchema;
+        if (schema == null) {
+            try (InputStream input = DataSources.openResource("data-schema.json")) {
+                JSONObject schemaJson = new JSONObject(new JSONTokener(new InputStreamReader(input, StandardCharsets.UTF_8)));
+                schema = SchemaLoader.load(schemaJson);
+            } catch (IOException | RuntimeException e) {
+                throw new DataProcessingException("Failed to load schema: data-schema.json", e);
+            }
+            jsonSchema = schema;
+        }
+        return schema;
+    }
+
+    /**
+     * Returns the part of the JSON schema describing a single record, which
+     * lets streaming code validate records one at a time. The XSD schema
+     * states the same constraints.
+     * 
+     * @return the compiled schema of one record
+     * @throws DataProcessingException if the schema cannot be loaded
+     */
+    public org.everit.json.schema.Schema recordSchema() {
+        ObjectSchema root = (ObjectSchema) jsonSchema();
+        return ((ArraySchema) root.getPropertySchemas().get("data")).getAllItemSchema();
+    }
+
+    private DocumentBuilder newDocumentBuilder() {
+        try {
+            return documentBuilderFactory.newDocumentBuilder();
+        } catch (ParserConfigurationException e) {
+            throw new DataProcessingException("Failed to create XML parser", e);
+        }
+    }
+
+    private Validator newXmlValidator() {
+        Validator validator = xmlSchema().newValidator();
+        try {
+            validator.setProperty(XMLConstants.ACCESS_EXTERNAL_DTD, "");
+            validator.setProperty(XMLConstants.ACCESS_EXTERNAL_SCHEMA, "");
+        } catch (SAXException e) {
+            throw new DataProcessingException("Failed to create XML validator", e);
+        }
+        return validator;
+    }
+
+    private static DocumentBuilderFactory createDocumentBuilderFactory() {
+        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+        factory.setNamespaceAware(true); // Important for namespaced XML
+        try {
+            // Secure processing, and no DTDs at all (prevents XXE attacks)
+            factory.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, true);
+            factory.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true);
+        } catch (ParserConfigurationException e) {
+            throw new DataProcessingException("Failed to configure XML parser", e);
+        }
+        factory.setAttribute(XMLConstants.ACCESS_EXTERNAL_DTD, "");
+        factory.setAttribute(XMLConstants.ACCESS_EXTERNAL_SCHEMA, "");
+        factory.setXIncludeAware(false);
+        factory.setExpandEntityReferences(false);
+        return factory;
+    }
+
+    private static XMLInputFactory createXmlInputFactory() {
+        XMLInputFactory factory = XMLInputFactory.newFactory();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, true);
+        return factory;
+    }
+
+    /**
+     * Lazily creates the shared context on first use
+     */
+    private static final class SharedHolder {
+        private static final ParserContext INSTANCE = new ParserContext();
+    }
+}
@@ -0,0 +1,78 @@
+package org.buildozers.dojo.abstraction.advanced;
+
+/**
+ * Mergeable running state of the SUM, COUNT, MIN and MAX aggregations.
+ * 
+ * A partial aggregate is filled by one reader, possibly over a single file
+ * or partition, and can then be merged with the partials of other readers
+ * to answer a query spanning all of them. Records with a malformed value
+ * are counted but skipped by SUM, MIN and MAX, like in the monolithic
+ * processor.
+ * 
+ * Instances are not thread-safe; each reader fills its own and the results
+ * are merged afterwards.
+ */
+public final class PartialAggregate {
+
+    private long count;
+    private long sum;
+    private int min = Integer.MAX_VALUE;
+    private int max = Integer.MIN_VALUE;
+    private boolean hasValues;
+
+    /**
+     * Adds one matching record.
+     * 
+     * @param value      the record value
+     * @param validValue false when the value is malformed
+     */
+    public void add(int value, boolean validValue) {
+        count++;
+        if (validValue) {
+            sum += value;
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+            hasValues = true;
+        }
+    }
+
+    /**
+     * Merges the records of another partial into this one.
+     * 
+     * @param other the partial to merge, left unchanged
+     * @return this partial
+     */
+    public PartialAggregate merge(PartialAggregate other) {
+        count += other.count;
+        sum += other.sum;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+        hasValues |= other.hasValues;
+        return this;
+    }
+
+    /**
+     * @return the number of matching records, malformed values included
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Returns the result of an aggregation over the records added so far.
+     * 
+     * MIN and MAX are 0 when no valid value was added, like on an empty
+     * {@link ColumnarDataset}.
+     * 
+     * @param aggregationType the aggregation to answer
+     * @return the aggregated value
+     */
+    public long result(AggregationType aggregationType) {
+        return switch (aggregationType) {
+            case SUM -> sum;
+            case COUNT -> count;
+            case MIN -> hasValues ? min : 0L;
+            case MAX -> hasValues ? max : 0L;
+        };
+    }
+}
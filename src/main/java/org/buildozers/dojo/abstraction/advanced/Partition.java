@@ -0,0 +1,44 @@
+package org.buildozers.dojo.abstraction.advanced;
+
+import java.nio.file.Path;
+import java.util.Map;
+
+/**
+ * One data file of a partitioned dataset.
+ * 
+ * @param file   the path of the file
+ * @param format the format of the file, taken from its extension
+ * @param values the partition values of the file, by key, taken from the
+ *               {@code key=value} directories leading to it
+ */
+public record Partition(Path file, DataFormat format, Map<String, String> values) {
+
+    /**
+     * Partition key holding the category of every record of a partition
+     */
+    public static final String CATEGORY_KEY = "category";
+
+    /**
+     * Partition key holding the region of every record of a partition
+     */
+    public static final String REGION_KEY = "region";
+
+    /**
+     * Creates a partition with an immutable copy of its values.
+     */
+    public Partition {
+        values = Map.copyOf(values);
+    }
+
+    /**
+     * Tells whether the partition may hold records of the filtered
+     * categories. A partition not partitioned by category always may.
+     * 
+     * @param filter the category filter of a query
+     * @return false if no record of the partition can match the filter
+     */
+    public boolean mayMatch(CategoryFilter filter) {
+        String category = values.get(CATEGORY_KEY);
+        return category == null || filter.matches(category);
+    }
+}
@@ -0,0 +1,102 @@
+package org.buildozers.dojo.abstraction.advanced;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Partition metadata of a dataset stored as a directory tree.
+ * 
+ * The tree follows the usual {@code key=value} layout, for example
+ * {@code category=Electronics/region=North/part-0001.csv}: every directory
+ * named {@code key=value} on the way to a data file gives that file a
+ * partition value. Other directories are traversed without adding values,
+ * and files whose name starts with a dot or an underscore are ignored, as
+ * are files without a {@code .csv}, {@code .json}, {@code .xml} or
+ * {@code .bin} extension.
+ * 
+ * The tree is walked once, by {@link #discover(Path)}; the catalog is then
+ * immutable and can be shared by concurrent queries.
+ */
+public final class PartitionCatalog {
+
+    private final Path root;
+    private final List<Partition> partitions;
+
+    private PartitionCatalog(Path root, List<Partition> partitions) {
+        this.root = root;
+        this.partitions = partitions;
+    }
+
+    /**
+     * Walks a partitioned dataset directory.
+     * 
+     * @param root the root directory of the dataset
+     * @return the partitions found under the root, in path order
+     * @throws DataProcessingException if the directory cannot be walked
+     */
+    public static PartitionCatalog discover(Path root) {
+        try (Stream<Path> files = Files.walk(root)) {
+            List<Partition> partitions = files
+                    .filter(Files::isRegularFile)
+                    .sorted()
+                    .map(file -> toPartition(root, file))
+                    .filter(partition -> partition != null)
+                    .toList();
+            return new PartitionCatalog(root, partitions);
+        } catch (IOException e) {
+            throw new DataProcessingException("Failed to load file: " + root, e);
+        }
+    }
+
+    /**
+     * @return the root directory of the dataset
+     */
+    public Path getRoot() {
+        return root;
+    }
+
+    /**
+     * @return every partition of the dataset
+     */
+    public List<Partition> getPartitions() {
+        return partitions;
+    }
+
+    /**
+     * Prunes the partitions a query does not need to open.
+     * 
+     * @param filter the category filter of the query
+     * @param format the format of the files to query
+     * @return the partitions of the given format that may match the filter
+     */
+    public List<Partition> select(CategoryFilter filter, DataFormat format) {
+        return partitions.stream()
+                .filter(partition -> partition.format() == format && partition.mayMatch(filter))
+                .toList();
+    }
+
+    private static Partition toPartition(Path root, Path file) {
+        String name = file.getFileName().toString();
+        DataFormat format = DataFormat.ofFileName(name);
+        if (format == null || name.startsWith(".") || name.startsWith("_")) {
+            return null;
+        }
+        Map<String, String> values = new LinkedHashMap<>();
+        Path directory = root.relativize(file).getParent();
+        if (directory != null) {
+            for (Path segment : directory) {
+                String directoryName = segment.toString();
+                int separator = directoryName.indexOf('=');
+                if (separator > 0) {
+                    values.put(directoryName.substring(0, separator), directoryName.substring(separator + 1));
+                }
+            }
+        }
+        return new Partition(file, format, values);
+    }
+}
@@ -0,0 +1,168 @@
+package org.buildozers.dojo.abstraction.advanced;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Data processor over partitioned datasets stored on the file system.
+ * 
+ * The filename of a query names a dataset directory under the base
+ * directory of the processor, laid out as described by
+ * {@link PartitionCatalog}. The partition metadata of each dataset is
+ * discovered on the first query and cached; later queries only open the
+ * files whose partition values can match their category filter, and stream
+ * them into a {@link PartialAggregate} without materializing the records.
+ * The records of an opened partition are still filtered by their own
+ * category column.
+ * 
+ * This processor supports SUM, COUNT, MIN and MAX, and selects categories
+ * with the {@link CategoryFilter} of the dataset format. Validation checks
+ * each opened partition once against the bundled schemas.
+ * 
+ * {@link #explain} reports whether the catalog was cached and how many
+ * partitions were pruned.
+ */
+public class PartitionedDataProcessor implements ExplainableDataProcessor {
+
+    private final ConcurrentMap<Path, PartitionCatalog> catalogs = new ConcurrentHashMap<>();
+    private final Set<Path> validated = ConcurrentHashMap.newKeySet();
+    private final Path baseDirectory;
+    private final DataValidator validator;
+    private final RowEstimator rowEstimator = new RowEstimator();
+
+    /**
+     * @param baseDirectory the directory holding the dataset directories
+     */
+    public PartitionedDataProcessor(Path baseDirectory) {
+        this(baseDirectory, new DataValidator());
+    }
+
+    /**
+     * @param baseDirectory the directory holding the dataset directories
+     * @param validator     the validator holding the compiled schemas
+     */
+    public PartitionedDataProcessor(Path baseDirectory, DataValidator validator) {
+        this.baseDirectory = baseDirectory.toAbsolutePath().normalize();
+        this.validator = validator;
+    }
+
+    /**
+     * {@inheritDoc}
+     * 
+     * @param filename the dataset directory, relative to the base directory
+     * @param format   the format of the partition files to query; files of
+     *                 other formats are ignored
+     * @throws UnsupportedAggregationException if aggregation type is not one of
+     *                                         SUM, COUNT, MIN or MAX
+     */
+    @Override
+    public long processFileData(String filename, String format, boolean validate,
+            String categoryFilter, String aggregationType) {
+        return explain(filename, format, validate, categoryFilter, aggregationType).getResult();
+    }
+
+    /**
+     * {@inheritDoc}
+     * 
+     * The single streaming pass reading, filtering and aggregating the
+     * partitions is reported under {@link ProcessingStage#LOAD}.
+     */
+    @Override
+    public QueryProfile explain(String filename, String format, boolean validate, String categoryFilter,
+            String aggregationType) {
+        QueryProfile.Builder profile = QueryProfile.builder(getClass().getSimpleName(), filename, format,
+                categoryFilter, aggregationType);
+        DataFormat dataFormat = DataFormat.of(format);
+        AggregationType aggregation = AggregationType.of(aggregationType);
+        CategoryFilter filter = CategoryFilter.of(categoryFilter, dataFormat);
+
+        boolean cached = catalogs.containsKey(resolve(filename));
+        PartitionCatalog catalog = catalog(filename);
+        List<Partition> selected = catalog.select(filter, dataFormat);
+        int total = (int) catalog.getPartitions().stream().filter(partition -> partition.format() == dataFormat).count();
+        profile.cacheStatus(cached ? QueryProfile.CacheStatus.HIT : QueryProfile.CacheStatus.MISS)
+                .indexUsed(filter.matchesAll() ? "none" : "partition pruning on " + Partition.CATEGORY_KEY)
+                .partitions(total, selected.size())
+                .estimatedRows(estimateRows(selected));
+
+        PartialAggregate aggregate = new PartialAggregate();
+        long scanned = 0;
+        for (Partition partition : selected) {
+            long start = System.nanoTime();
+            if (validate && !validated.contains(partition.file())) {
+                validator.validate(partition.file(), dataFormat);
+                validated.add(partition.file());
+                profile.stage(ProcessingStage.VALIDATE, System.nanoTime() - start);
+                start = System.nanoTime();
+            }
+            AggregatingSink sink = new AggregatingSink(filter, aggregate);
+            aggregate(partition, sink);
+            profile.stage(ProcessingStage.LOAD, System.nanoTime() - start);
+            rowEstimator.observe(dataFormat, sizeOf(partition), sink.getScanned());
+            scanned += sink.getScanned();
+        }
+        return profile.rows(scanned, aggregate.getCount()).build(aggregate.result(aggregation));
+    }
+
+    /**
+     * Returns the cached partition metadata of a dataset, discovering it on
+     * first access.
+     * 
+     * @param filename the dataset directory, relative to the base directory
+     * @return the partition catalog of the dataset
+     * @throws DataProcessingException if the directory is outside the base
+     *                                 directory or cannot be walked
+     */
+    public PartitionCatalog catalog(String filename) {
+        return catalogs.computeIfAbsent(resolve(filename), PartitionCatalog::discover);
+    }
+
+    /**
+     * Forgets the partition metadata of a dataset, so that the next query
+     * discovers partitions added or removed since.
+     * 
+     * @param filename the dataset directory, relative to the base directory
+     */
+    public void refresh(String filename) {
+        Path root = resolve(filename);
+        catalogs.remove(root);
+        validated.removeIf(file -> file.startsWith(root));
+    }
+
+    private Path resolve(String filename) {
+        return DataSources.resolveWithin(baseDirectory, filename);
+    }
+
+    private long estimateRows(List<Partition> partitions) {
+        long rows = 0;
+        for (Partition partition : partitions) {
+            long estimate = rowEstimator.estimate(partition.format(), sizeOf(partition));
+            if (estimate < 0) {
+                return -1;
+            }
+            rows += estimate;
+        }
+        return rows;
+    }
+
+    private static long sizeOf(Partition partition) {
+        try {
+            return Files.size(partition.file());
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+
+    private static void aggregate(Partition partition, AggregatingSink sink) {
+        try (DataRecordReader reader = DataRecordReaders.open(partition.file(), partition.format())) {
+            reader.readAll(sink);
+        } catch (IOException e) {
+            throw new DataProcessingException("Failed to load file: " + partition.file(), e);
+        }
+    }
+}
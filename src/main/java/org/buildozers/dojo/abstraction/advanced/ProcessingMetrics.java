@@ -0,0 +1,139 @@
+package org.buildozers.dojo.abstraction.advanced;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-stage counters and latency histograms for data processing.
+ * 
+ * Every {@link ProcessingStage} gets its own {@link StageMetrics}, updated
+ * with contention-free {@link LongAdder}s so that concurrent processors can
+ * share one instance. Metrics can be switched off at runtime; together with
+ * a disabled JFR event, a stage then costs a single volatile read.
+ */
+public class ProcessingMetrics {
+
+    private final Map<ProcessingStage, StageMetrics> stages = new EnumMap<>(ProcessingStage.class);
+    private volatile boolean enabled;
+
+    /**
+     * Creates an enabled metrics instance.
+     */
+    public ProcessingMetrics() {
+        this(true);
+    }
+
+    /**
+     * Creates a metrics instance.
+     * 
+     * @param enabled whether stages are recorded from the start
+     */
+    public ProcessingMetrics(boolean enabled) {
+        this.enabled = enabled;
+        for (ProcessingStage stage : ProcessingStage.values()) {
+            stages.put(stage, new StageMetrics());
+        }
+    }
+
+    /**
+     * @return whether stages are currently recorded
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Switches recording on or off; already recorded values are kept.
+     * 
+     * @param enabled whether stages should be recorded
+     */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * @param stage the processing stage
+     * @return the metrics of that stage
+     */
+    public StageMetrics getStage(ProcessingStage stage) {
+        return stages.get(stage);
+    }
+
+    /**
+     * Clears the metrics of every stage.
+     */
+    public void reset() {
+        stages.values().forEach(StageMetrics::reset);
+    }
+
+    void record(ProcessingStage stage, long elapsedNanos, long bytesRead, long recordsParsed, long recordsMatched) {
+        stages.get(stage).record(elapsedNanos, bytesRead, recordsParsed, recordsMatched);
+    }
+
+    /**
+     * Counters and latency histogram of a single processing stage.
+     */
+    public static class StageMetrics {
+
+        private final LongAdder invocations = new LongAdder();
+        private final LongAdder bytesRead = new LongAdder();
+        private final LongAdder recordsParsed = new LongAdder();
+        private final LongAdder recordsMatched = new LongAdder();
+        private final LatencyHistogram latency = new LatencyHistogram();
+
+        StageMetrics() {
+        }
+
+        void record(long elapsedNanos, long bytes, long parsed, long matched) {
+            invocations.increment();
+            bytesRead.add(bytes);
+            recordsParsed.add(parsed);
+            recordsMatched.add(matched);
+            latency.record(elapsedNanos);
+        }
+
+        void reset() {
+            invocations.reset();
+            bytesRead.reset();
+            recordsParsed.reset();
+            recordsMatched.reset();
+            latency.reset();
+        }
+
+        /**
+         * @return how many times the stage ran
+         */
+        public long getInvocations() {
+            return invocations.sum();
+        }
+
+        /**
+         * @return the total number of bytes read by the stage
+         */
+        public long getBytesRead() {
+            return bytesRead.sum();
+        }
+
+        /**
+         * @return the total number of records parsed by the stage
+         */
+        public long getRecordsParsed() {
+            return recordsParsed.sum();
+        }
+
+        /**
+         * @return the total number of records that matched the filter
+         */
+        public long getRecordsMatched() {
+            return recordsMatched.sum();
+        }
+
+        /**
+         * @return the elapsed time distribution of the stage
+         */
+        public LatencyHistogram getLatency() {
+            return latency;
+        }
+    }
+}
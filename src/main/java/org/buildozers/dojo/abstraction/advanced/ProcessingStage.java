@@ -0,0 +1,36 @@
+package org.buildozers.dojo.abstraction.advanced;
+
+/**
+ * The successive stages a data processing call goes through.
+ * 
+ * Each stage is timed and reported separately so that a slow
+ * {@code processFileData} call can be attributed to the part of the
+ * pipeline that actually caused it.
+ */
+public enum ProcessingStage {
+
+    /**
+     * Reading the raw bytes of the file.
+     */
+    LOAD,
+
+    /**
+     * Checking the data against its schema or structural rules.
+     */
+    VALIDATE,
+
+    /**
+     * Turning the raw content into records (CSV parser, JSON object, DOM).
+     */
+    PARSE,
+
+    /**
+     * Selecting the records matching the category filter.
+     */
+    FILTER,
+
+    /**
+     * Computing the requested aggregation over the selected records.
+     */
+    AGGREGATE
+}
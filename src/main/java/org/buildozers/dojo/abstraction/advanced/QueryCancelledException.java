@@ -0,0 +1,12 @@
+package org.buildozers.dojo.abstraction.advanced;
+
+/**
+ * Exception thrown when a query stops early because it was cancelled or
+ * ran past its deadline.
+ */
+public class QueryCancelledException extends DataProcessingException {
+
+    public QueryCancelledException(String message) {
+        super(message);
+    }
+}
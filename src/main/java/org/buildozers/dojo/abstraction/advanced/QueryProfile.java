@@ -0,0 +1,392 @@
+package org.buildozers.dojo.abstraction.advanced;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+
+import org.json.JSONObject;
+
+/**
+ * Execution profile of one query, as returned by
+ * {@link ExplainableDataProcessor#explain}.
+ * 
+ * Besides the result, a profile tells which execution path the processor
+ * chose and what it cost: how the file was parsed, whether a cache or an
+ * index was used, how many partitions were pruned, how many rows were
+ * expected, scanned and matched, and how long each {@link ProcessingStage}
+ * took. Stages that run fused in a single streaming pass are reported
+ * under the first of them.
+ */
+public final class QueryProfile {
+
+    /**
+     * How the data was turned into records.
+     */
+    public enum ParseMode {
+
+        /**
+         * Records were read one chunk at a time, in constant memory.
+         */
+        STREAMING,
+
+        /**
+         * The whole document was materialized first (DOM, JSON tree or list
+         * of parsed records).
+         */
+        DOCUMENT,
+
+        /**
+         * Nothing was parsed; the records came from a cache.
+         */
+        CACHED
+    }
+
+    /**
+     * How the file was read and the work spread over threads.
+     */
+    public enum ExecutionMode {
+
+        /**
+         * One thread streamed the file.
+         */
+        SEQUENTIAL,
+
+        /**
+         * One thread read the file through a memory mapping.
+         */
+        MAPPED,
+
+        /**
+         * Several threads each read a range of the file.
+         */
+        PARALLEL
+    }
+
+    /**
+     * Whether the query was answered from cached data or metadata.
+     */
+    public enum CacheStatus {
+        HIT, MISS, NOT_CACHED
+    }
+
+    private final String processor;
+    private final String filename;
+    private final String format;
+    private final String categoryFilter;
+    private final String aggregationType;
+    private final long result;
+    private final ParseMode parseMode;
+    private final ExecutionMode executionMode;
+    private final CacheStatus cacheStatus;
+    private final String indexUsed;
+    private final int partitionsTotal;
+    private final int partitionsScanned;
+    private final long estimatedRows;
+    private final long rowsScanned;
+    private final long rowsMatched;
+    private final Map<ProcessingStage, Long> stageNanos;
+    private final long totalNanos;
+
+    private QueryProfile(Builder builder) {
+        this.processor = builder.processor;
+        this.filename = builder.filename;
+        this.format = builder.format;
+        this.categoryFilter = builder.categoryFilter;
+        this.aggregationType = builder.aggregationType;
+        this.result = builder.result;
+        this.parseMode = builder.parseMode;
+        this.executionMode = builder.executionMode;
+        this.cacheStatus = builder.cacheStatus;
+        this.indexUsed = builder.indexUsed;
+        this.partitionsTotal = builder.partitionsTotal;
+        this.partitionsScanned = builder.partitionsScanned;
+        this.estimatedRows = builder.estimatedRows;
+        this.rowsScanned = builder.rowsScanned;
+        this.rowsMatched = builder.rowsMatched;
+        this.stageNanos = Collections.unmodifiableMap(new EnumMap<>(builder.stageNanos));
+        this.totalNanos = System.nanoTime() - builder.startNanos;
+    }
+
+    /**
+     * Starts profiling a query; the total time runs from this call to
+     * {@link Builder#build()}.
+     * 
+     * @param processor       the name of the processor running the query
+     * @param filename        the queried file
+     * @param format          the queried format
+     * @param categoryFilter  the category filter, or null
+     * @param aggregationType the aggregation
+     * @return a builder collecting the profile
+     */
+    static Builder builder(String processor, String filename, String format, String categoryFilter,
+            String aggregationType) {
+        return new Builder(processor, filename, format, categoryFilter, aggregationType);
+    }
+
+    /**
+     * @return the simple name of the processor that ran the query
+     */
+    public String getProcessor() {
+        return processor;
+    }
+
+    /**
+     * @return the queried file or dataset
+     */
+    public String getFilename() {
+        return filename;
+    }
+
+    /**
+     * @return the queried format
+     */
+    public String getFormat() {
+        return format;
+    }
+
+    /**
+     * @return the category filter, or null for none
+     */
+    public String getCategoryFilter() {
+        return categoryFilter;
+    }
+
+    /**
+     * @return the aggregation
+     */
+    public String getAggregationType() {
+        return aggregationType;
+    }
+
+    /**
+     * @return the result of the query, as {@code processFileData} returns it
+     */
+    public long getResult() {
+        return result;
+    }
+
+    /**
+     * @return how the data was parsed
+     */
+    public ParseMode getParseMode() {
+        return parseMode;
+    }
+
+    /**
+     * @return whether the query ran on one thread or several
+     */
+    public ExecutionMode getExecutionMode() {
+        return executionMode;
+    }
+
+    /**
+     * @return whether cached data or metadata answered the query
+     */
+    public CacheStatus getCacheStatus() {
+        return cacheStatus;
+    }
+
+    /**
+     * @return the index or access structure used to find the matching rows,
+     *         or "none" for a plain scan
+     */
+    public String getIndexUsed() {
+        return indexUsed;
+    }
+
+    /**
+     * @return the number of files making up the queried data
+     */
+    public int getPartitionsTotal() {
+        return partitionsTotal;
+    }
+
+    /**
+     * @return the number of files actually opened
+     */
+    public int getPartitionsScanned() {
+        return partitionsScanned;
+    }
+
+    /**
+     * @return the number of files skipped thanks to their partition values
+     */
+    public int getPartitionsPruned() {
+        return partitionsTotal - partitionsScanned;
+    }
+
+    /**
+     * @return the number of rows the processor expected to scan, or -1 if
+     *         it had no estimate
+     */
+    public long getEstimatedRows() {
+        return estimatedRows;
+    }
+
+    /**
+     * @return the number of rows actually scanned
+     */
+    public long getRowsScanned() {
+        return rowsScanned;
+    }
+
+    /**
+     * @return the number of rows matching the category filter
+     */
+    public long getRowsMatched() {
+        return rowsMatched;
+    }
+
+    /**
+     * @return the time spent in each stage, in nanoseconds; stages that did
+     *         not run are absent
+     */
+    public Map<ProcessingStage, Long> getStageNanos() {
+        return stageNanos;
+    }
+
+    /**
+     * @return the total time of the query, in nanoseconds
+     */
+    public long getTotalNanos() {
+        return totalNanos;
+    }
+
+    /**
+     * @return the profile as a JSON object, stage times in microseconds
+     */
+    public JSONObject toJson() {
+        JSONObject stages = new JSONObject();
+        stageNanos.forEach((stage, nanos) -> stages.put(stage.name(), nanos / 1_000));
+        return new JSONObject()
+                .put("processor", processor)
+                .put("file", filename)
+                .put("format", format)
+                .put("category", categoryFilter == null ? JSONObject.NULL : categoryFilter)
+                .put("aggregation", aggregationType)
+                .put("result", result)
+                .put("parseMode", parseMode.name())
+                .put("executionMode", executionMode.name())
+                .put("cache", cacheStatus.name())
+                .put("index", indexUsed)
+                .put("partitionsTotal", partitionsTotal)
+                .put("partitionsScanned", partitionsScanned)
+                .put("partitionsPruned", getPartitionsPruned())
+                .put("estimatedRows", estimatedRows)
+                .put("rowsScanned", rowsScanned)
+                .put("rowsMatched", rowsMatched)
+                .put("stageMicros", stages)
+                .put("totalMicros", totalNanos / 1_000);
+    }
+
+    /**
+     * @return a human-readable, multi-line rendering of the profile
+     */
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder()
+                .append(aggregationType).append(" of ").append(filename).append(" (").append(format).append(")")
+                .append(categoryFilter == null || categoryFilter.isEmpty() ? "" : " where category ~ " + categoryFilter)
+                .append(" = ").append(result).append('\n')
+                .append("  processor:  ").append(processor).append('\n')
+                .append("  execution:  ").append(parseMode).append(", ").append(executionMode)
+                .append(", cache ").append(cacheStatus).append('\n')
+                .append("  index:      ").append(indexUsed).append('\n')
+                .append("  partitions: ").append(partitionsScanned).append(" of ").append(partitionsTotal)
+                .append(" scanned, ").append(getPartitionsPruned()).append(" pruned").append('\n')
+                .append("  rows:       ").append(estimatedRows < 0 ? "?" : String.valueOf(estimatedRows))
+                .append(" estimated, ").append(rowsScanned).append(" scanned, ")
+                .append(rowsMatched).append(" matched").append('\n');
+        stageNanos.forEach((stage, nanos) -> text.append("  ").append(String.format("%-11s ", stage.name().toLowerCase(Locale.ROOT) + ":"))
+                .append(nanos / 1_000).append(" us").append('\n'));
+        return text.append("  total:      ").append(totalNanos / 1_000).append(" us").toString();
+    }
+
+    /**
+     * Collects the profile of a running query.
+     */
+    static final class Builder {
+
+        private final long startNanos = System.nanoTime();
+        private final String processor;
+        private final String filename;
+        private final String format;
+        private final String categoryFilter;
+        private final String aggregationType;
+        private final Map<ProcessingStage, Long> stageNanos = new EnumMap<>(ProcessingStage.class);
+        private long result;
+        private ParseMode parseMode = ParseMode.STREAMING;
+        private ExecutionMode executionMode = ExecutionMode.SEQUENTIAL;
+        private CacheStatus cacheStatus = CacheStatus.NOT_CACHED;
+        private String indexUsed = "none";
+        private int partitionsTotal = 1;
+        private int partitionsScanned = 1;
+        private long estimatedRows = -1;
+        private long rowsScanned;
+        private long rowsMatched;
+
+        private Builder(String processor, String filename, String format, String categoryFilter,
+                String aggregationType) {
+            this.processor = processor;
+            this.filename = filename;
+            this.format = format;
+            this.categoryFilter = categoryFilter;
+            this.aggregationType = aggregationType;
+        }
+
+        Builder parseMode(ParseMode mode) {
+            this.parseMode = mode;
+            return this;
+        }
+
+        Builder executionMode(ExecutionMode mode) {
+            this.executionMode = mode;
+            return this;
+        }
+
+        Builder cacheStatus(CacheStatus status) {
+            this.cacheStatus = status;
+            return this;
+        }
+
+        Builder indexUsed(String index) {
+            this.indexUsed = index;
+            return this;
+        }
+
+        Builder partitions(int total, int scanned) {
+            this.partitionsTotal = total;
+            this.partitionsScanned = scanned;
+            return this;
+        }
+
+        Builder estimatedRows(long rows) {
+            this.estimatedRows = rows;
+            return this;
+        }
+
+        Builder rows(long scanned, long matched) {
+            this.rowsScanned = scanned;
+            this.rowsMatched = matched;
+            return this;
+        }
+
+        /**
+         * Adds time to a stage, which may run several times per query.
+         * 
+         * @param stage the stage
+         * @param nanos the time spent, in nanoseconds
+         * @return this builder
+         */
+        Builder stage(ProcessingStage stage, long nanos) {
+            stageNanos.merge(stage, nanos, Long::sum);
+            return this;
+        }
+
+        QueryProfile build(long queryResult) {
+            this.result = queryResult;
+            return new QueryProfile(this);
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package org.buildozers.dojo.abstraction.advanced;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Estimates the number of records of a file from its size.
+ * 
+ * The average record size of each format starts from a rough default and
+ * is then learned from the files actually parsed, so estimates improve as
+ * a processor runs. Thread-safe.
+ */
+class RowEstimator {
+
+    private static final Map<DataFormat, Long> DEFAULT_BYTES_PER_ROW = Map.of(
+            DataFormat.CSV, 24L,
+            DataFormat.JSON, 80L,
+            DataFormat.XML, 150L,
+            DataFormat.BINARY, 40L);
+
+    private final Map<DataFormat, LongAdder> bytes = new EnumMap<>(DataFormat.class);
+    private final Map<DataFormat, LongAdder> rows = new EnumMap<>(DataFormat.class);
+
+    RowEstimator() {
+        for (DataFormat format : DataFormat.values()) {
+            bytes.put(format, new LongAdder());
+            rows.put(format, new LongAdder());
+        }
+    }
+
+    /**
+     * Learns from a parsed file.
+     * 
+     * @param format    the format of the file
+     * @param fileBytes the size of the file
+     * @param fileRows  the number of records it held
+     */
+    void observe(DataFormat format, long fileBytes, long fileRows) {
+        if (fileBytes > 0 && fileRows > 0) {
+            bytes.get(format).add(fileBytes);
+            rows.get(format).add(fileRows);
+        }
+    }
+
+    /**
+     * @param format    the format of the file
+     * @param fileBytes the size of the file, or a negative value if unknown
+     * @return the estimated number of records, or -1 if the size is unknown
+     */
+    long estimate(DataFormat format, long fileBytes) {
+        if (fileBytes < 0) {
+            return -1;
+        }
+        long learnedRows = rows.get(format).sum();
+        long learnedBytes = bytes.get(format).sum();
+        long bytesPerRow = learnedRows > 0 ? Math.max(1, learnedBytes / learnedRows) : DEFAULT_BYTES_PER_ROW.get(format);
+        return fileBytes / bytesPerRow;
+    }
+}
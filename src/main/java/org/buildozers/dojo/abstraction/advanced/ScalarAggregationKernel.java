@@ -0,0 +1,84 @@
+package org.buildozers.dojo.abstraction.advanced;
+
+/**
+ * Plain loop implementation of the aggregation kernels, used when the
+ * Vector API is not available.
+ */
+class ScalarAggregationKernel implements AggregationKernel {
+
+    @Override
+    public long sum(int[] values, int length) {
+        long sum = 0;
+        for (int i = 0; i < length; i++) {
+            sum += values[i];
+        }
+        return sum;
+    }
+
+    @Override
+    public long sum(int[] values, int[] codes, int code, int length) {
+        long sum = 0;
+        for (int i = 0; i < length; i++) {
+            if (codes[i] == code) {
+                sum += values[i];
+            }
+        }
+        return sum;
+    }
+
+    @Override
+    public int count(int[] codes, int code, int length) {
+        int count = 0;
+        for (int i = 0; i < length; i++) {
+            if (codes[i] == code) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public int min(int[] values, int length) {
+        int min = Integer.MAX_VALUE;
+        for (int i = 0; i < length; i++) {
+            min = Math.min(min, values[i]);
+        }
+        return min;
+    }
+
+    @Override
+    public int min(int[] values, int[] codes, int code, int length) {
+        int min = Integer.MAX_VALUE;
+        for (int i = 0; i < length; i++) {
+            if (codes[i] == code) {
+                min = Math.min(min, values[i]);
+            }
+        }
+        return min;
+    }
+
+    @Override
+    public int max(int[] values, int length) {
+        int max = Integer.MIN_VALUE;
+        for (int i = 0; i < length; i++) {
+            max = Math.max(max, values[i]);
+        }
+        return max;
+    }
+
+    @Override
+    public int max(int[] values, int[] codes, int code, int length) {
+        int max = Integer.MIN_VALUE;
+        for (int i = 0; i < length; i++) {
+            if (codes[i] == code) {
+                max = Math.max(max, values[i]);
+            }
+        }
+        return max;
+    }
+
+    @Override
+    public String toString() {
+        return "scalar kernel";
+    }
+}
@@ -0,0 +1,110 @@
+package org.buildozers.dojo.abstraction.advanced;
+
+import jdk.jfr.EventType;
+
+/**
+ * Times one processing stage and reports it to both the
+ * {@link ProcessingMetrics} and JDK Flight Recorder.
+ * 
+ * A timer is meant for try-with-resources: the stage is reported when the
+ * timer is closed, with the amounts of work counted so far, so a stage that
+ * fails is still timed and still emits its JFR event.
+ * 
+ * When neither metrics nor the JFR event are enabled, {@link #start} returns
+ * a shared no-op timer and nothing is measured or allocated.
+ * 
+ * <pre>{@code
+ * try (StageTimer timer = StageTimer.start(metrics, ProcessingStage.PARSE, filename, format)) {
+ *     // ... parse ...
+ *     timer.count(0, parsedCount, 0);
+ * }
+ * }</pre>
+ */
+class StageTimer implements AutoCloseable {
+
+    private static final StageTimer NOOP = new StageTimer(null, null, null, 0L);
+    private static final EventType EVENT_TYPE = EventType.getEventType(DataProcessingStageEvent.class);
+
+    private final ProcessingMetrics metrics;
+    private final ProcessingStage stage;
+    private final DataProcessingStageEvent event;
+    private final long startNanos;
+    private long bytesRead;
+    private long recordsParsed;
+    private long recordsMatched;
+    private boolean stopped;
+
+    private StageTimer(ProcessingMetrics metrics, ProcessingStage stage,
+            DataProcessingStageEvent event, long startNanos) {
+        this.metrics = metrics;
+        this.stage = stage;
+        this.event = event;
+        this.startNanos = startNanos;
+    }
+
+    /**
+     * Starts timing a stage.
+     * 
+     * @param metrics  the metrics to update, only used when enabled
+     * @param stage    the stage being timed
+     * @param filename the processed file, reported in the JFR event
+     * @param format   the file format, reported in the JFR event
+     * @return a running timer, or a no-op timer if recording is disabled
+     */
+    static StageTimer start(ProcessingMetrics metrics, ProcessingStage stage, String filename, String format) {
+        boolean eventEnabled = EVENT_TYPE.isEnabled();
+        boolean metricsEnabled = metrics.isEnabled();
+        if (!eventEnabled && !metricsEnabled) {
+            return NOOP;
+        }
+        DataProcessingStageEvent event = null;
+        if (eventEnabled) {
+            event = new DataProcessingStageEvent();
+            event.stage = stage.name();
+            event.filename = filename;
+            event.format = format;
+            event.begin();
+        }
+        return new StageTimer(metricsEnabled ? metrics : null, stage, event, System.nanoTime());
+    }
+
+    /**
+     * Sets the amounts of work done by the stage, reported when the timer is
+     * closed.
+     * 
+     * @param bytesRead      number of bytes read during the stage
+     * @param recordsParsed  number of records parsed during the stage
+     * @param recordsMatched number of records selected during the stage
+     */
+    void count(long bytesRead, long recordsParsed, long recordsMatched) {
+        if (this == NOOP) {
+            return;
+        }
+        this.bytesRead = bytesRead;
+        this.recordsParsed = recordsParsed;
+        this.recordsMatched = recordsMatched;
+    }
+
+    /**
+     * Stops the timer and reports the stage, once; later calls do nothing.
+     */
+    @Override
+    public void close() {
+        if (this == NOOP || stopped) {
+            return;
+        }
+        stopped = true;
+        if (metrics != null) {
+            metrics.record(stage, System.nanoTime() - startNanos, bytesRead, recordsParsed, recordsMatched);
+        }
+        if (event != null) {
+            event.end();
+            if (event.shouldCommit()) {
+                event.bytesRead = bytesRead;
+                event.recordsParsed = recordsParsed;
+                event.recordsMatched = recordsMatched;
+                event.commit();
+            }
+        }
+    }
+}
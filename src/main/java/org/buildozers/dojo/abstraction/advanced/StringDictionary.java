@@ -0,0 +1,80 @@
+package org.buildozers.dojo.abstraction.advanced;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Dictionary encoding of a low-cardinality text column.
+ * 
+ * Each distinct value gets a dense integer code in insertion order. Lookups
+ * accept any {@link CharSequence} and only allocate a String the first time
+ * a value is seen, so readers can pass views over their input buffer.
+ */
+class StringDictionary {
+
+    /**
+     * Up to this size, lookups compare characters linearly instead of hashing
+     */
+    private static final int LINEAR_SCAN_LIMIT = 16;
+
+    private final List<String> values = new ArrayList<>();
+    private final Map<String, Integer> codes = new HashMap<>();
+
+    /**
+     * Returns the code of a value, adding it to the dictionary if needed.
+     * 
+     * @param value the value to encode
+     * @return the code of the value
+     */
+    int encode(CharSequence value) {
+        int code = find(value);
+        if (code >= 0) {
+            return code;
+        }
+        String copy = value.toString();
+        values.add(copy);
+        codes.put(copy, values.size() - 1);
+        return values.size() - 1;
+    }
+
+    /**
+     * @param value the value to look up
+     * @return the code of the value, or -1 if it is not in the dictionary
+     */
+    int find(CharSequence value) {
+        if (values.size() > LINEAR_SCAN_LIMIT) {
+            return codes.getOrDefault(value.toString(), -1);
+        }
+        for (int code = 0; code < values.size(); code++) {
+            if (CharSequence.compare(values.get(code), value) == 0) {
+                return code;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @param code a code returned by {@link #encode}
+     * @return the value of the code
+     */
+    String decode(int code) {
+        return values.get(code);
+    }
+
+    /**
+     * @return the number of distinct values
+     */
+    int size() {
+        return values.size();
+    }
+
+    /**
+     * @return the distinct values, indexed by code
+     */
+    List<String> values() {
+        return Collections.unmodifiableList(values);
+    }
+}
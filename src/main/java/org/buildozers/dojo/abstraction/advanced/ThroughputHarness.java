@@ -0,0 +1,392 @@
+package org.buildozers.dojo.abstraction.advanced;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Phaser;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Load-test harness running a mix of queries against {@link DataProcessor}s
+ * from many threads at once.
+ * 
+ * Each of the N workers, on a platform or a virtual thread, runs the mix
+ * for a number of warm-up rounds, waits for the others, then runs it for a
+ * number of measured rounds, starting at a different query so that the
+ * formats are interleaved. Workers either share one processor, which is
+ * what checks its thread safety, or each get their own.
+ * 
+ * Every result is compared with the one a separate processor computed
+ * sequentially beforehand: a difference is reported as a mismatch, an
+ * exception as an error. Run it with increasing thread counts to check
+ * that the queries per second grow with them. A worker that fails outright,
+ * for instance because its processor cannot be created, leaves the
+ * synchronization without holding the others back, and makes the run fail
+ * as soon as it does, cancelling the other workers.
+ * 
+ * <pre>
+ * ThroughputReport report = ThroughputHarness.builder(ColumnarDataProcessor::new)
+ *         .threads(64)
+ *         .threadMode(ThroughputHarness.ThreadMode.VIRTUAL)
+ *         .queries(ThroughputHarness.defaultQueries())
+ *         .build()
+ *         .run();
+ * </pre>
+ */
+public final class ThroughputHarness {
+
+    /**
+     * The kind of threads running the workers.
+     */
+    public enum ThreadMode {
+        PLATFORM, VIRTUAL
+    }
+
+    /**
+     * One query of the mix, with the arguments of
+     * {@link DataProcessor#processFileData}.
+     * 
+     * @param filename        the name of the file to process
+     * @param format          the format of the file
+     * @param validate        whether to validate the file
+     * @param categoryFilter  the category to filter by, or null for none
+     * @param aggregationType the aggregation to perform
+     */
+    public record Query(String filename, String format, boolean validate, String categoryFilter,
+            String aggregationType) {
+
+        public Query {
+            Objects.requireNonNull(filename, "filename");
+            Objects.requireNonNull(format, "format");
+            Objects.requireNonNull(aggregationType, "aggregationType");
+        }
+
+        long runOn(DataProcessor processor) {
+            return processor.processFileData(filename, format, validate, categoryFilter, aggregationType);
+        }
+    }
+
+    private final Supplier<? extends DataProcessor> processors;
+    private final boolean sharedInstance;
+    private final int threads;
+    private final ThreadMode threadMode;
+    private final List<Query> queries;
+    private final int warmupRounds;
+    private final int measuredRounds;
+
+    private ThroughputHarness(Builder builder) {
+        this.processors = builder.processors;
+        this.sharedInstance = builder.sharedInstance;
+        this.threads = builder.threads;
+        this.threadMode = builder.threadMode;
+        this.queries = List.copyOf(builder.queries);
+        this.warmupRounds = builder.warmupRounds;
+        this.measuredRounds = builder.measuredRounds;
+    }
+
+    /**
+     * Starts configuring a harness.
+     * 
+     * @param processors creates the processors under test: called once when
+     *                   they are shared, once per worker otherwise, plus
+     *                   once for the expected results
+     * @return a builder defaulting to one shared processor, as many platform
+     *         threads as cores, the {@link #defaultQueries()}, 5 warm-up and
+     *         50 measured rounds
+     */
+    public static Builder builder(Supplier<? extends DataProcessor> processors) {
+        return new Builder(processors);
+    }
+
+    /**
+     * @return a mix of validated and unvalidated queries over the bundled
+     *         CSV, JSON and XML files, limited to SUM and COUNT so that every
+     *         processor supports them
+     */
+    public static List<Query> defaultQueries() {
+        return List.of(
+                new Query("data.csv", "CSV", false, "Electronics", "SUM"),
+                new Query("data.json", "JSON", false, "Clothing", "COUNT"),
+                new Query("data.xml", "XML", false, null, "SUM"),
+                new Query("data.csv", "CSV", true, null, "COUNT"),
+                new Query("data.json", "JSON", true, "Books", "SUM"),
+                new Query("data.xml", "XML", true, "Electronics", "COUNT"));
+    }
+
+    /**
+     * Runs the load test.
+     * 
+     * @return the measurements of the measured rounds
+     * @throws DataProcessingException if a query fails when computing the
+     *                                 expected results, or the workers are
+     *                                 interrupted
+     */
+    public ThroughputReport run() {
+        long[] expected = expectedResults();
+        DataProcessor shared = sharedInstance ? processors.get() : null;
+        LatencyHistogram latencies = new LatencyHistogram();
+        LongAdder errors = new LongAdder();
+        LongAdder mismatches = new LongAdder();
+        AtomicReference<Throwable> firstError = new AtomicReference<>();
+        long[] startNanos = new long[1];
+        long[][] startGc = new long[1][];
+        Phaser measuring = new Phaser(threads) {
+            @Override
+            protected boolean onAdvance(int phase, int registeredParties) {
+                startGc[0] = gcTotals();
+                startNanos[0] = System.nanoTime();
+                return true;
+            }
+        };
+        try (ExecutorService executor = threadMode == ThreadMode.VIRTUAL
+                ? Executors.newVirtualThreadPerTaskExecutor()
+                : Executors.newFixedThreadPool(threads)) {
+            ExecutorCompletionService<Object> completion = new ExecutorCompletionService<>(executor);
+            List<Future<Object>> workers = new ArrayList<>(threads);
+            for (int worker = 0; worker < threads; worker++) {
+                int offset = worker;
+                workers.add(completion.submit(() -> {
+                    DataProcessor processor = null;
+                    try {
+                        processor = shared != null ? shared : processors.get();
+                        runRounds(processor, offset, warmupRounds, expected, null, null, null, null);
+                    } catch (RuntimeException | Error e) {
+                        // Stop counting this worker, so the others still start measuring
+                        measuring.arriveAndDeregister();
+                        close(shared == null ? processor : null);
+                        throw e;
+                    }
+                    try {
+                        // Interruptible, as a cancelled worker that never started never arrives
+                        measuring.awaitAdvanceInterruptibly(measuring.arrive());
+                        runRounds(processor, offset, measuredRounds, expected, latencies, errors, mismatches,
+                                firstError);
+                    } finally {
+                        if (shared == null) {
+                            close(processor);
+                        }
+                    }
+                    return null;
+                }));
+            }
+            try {
+                for (int i = 0; i < threads; i++) {
+                    completion.take().get();
+                }
+            } finally {
+                workers.forEach(worker -> worker.cancel(true));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DataProcessingException("Load test interrupted", e);
+        } catch (ExecutionException e) {
+            throw new DataProcessingException("Load test worker failed: " + e.getCause().getMessage(), e.getCause());
+        } finally {
+            close(shared);
+        }
+        long elapsedNanos = System.nanoTime() - startNanos[0];
+        long[] endGc = gcTotals();
+        return new ThroughputReport(threads, threadMode, sharedInstance, latencies, errors.sum(), mismatches.sum(),
+                firstError.get(), elapsedNanos, endGc[0] - startGc[0][0], endGc[1] - startGc[0][1]);
+    }
+
+    private long[] expectedResults() {
+        DataProcessor reference = processors.get();
+        try {
+            long[] expected = new long[queries.size()];
+            for (int i = 0; i < expected.length; i++) {
+                try {
+                    expected[i] = queries.get(i).runOn(reference);
+                } catch (RuntimeException e) {
+                    throw new DataProcessingException("Query failed before the load test: " + queries.get(i), e);
+                }
+            }
+            return expected;
+        } finally {
+            close(reference);
+        }
+    }
+
+    private void runRounds(DataProcessor processor, int offset, int rounds, long[] expected,
+            LatencyHistogram latencies, LongAdder errors, LongAdder mismatches, AtomicReference<Throwable> firstError) {
+        for (int round = 0; round < rounds && !Thread.currentThread().isInterrupted(); round++) {
+            for (int i = 0; i < expected.length; i++) {
+                int query = (offset + i) % expected.length;
+                long start = System.nanoTime();
+                try {
+                    long result = queries.get(query).runOn(processor);
+                    if (latencies != null) {
+                        latencies.record(System.nanoTime() - start);
+                        if (result != expected[query]) {
+                            mismatches.increment();
+                        }
+                    }
+                } catch (RuntimeException e) {
+                    if (errors == null) {
+                        // Warm-up failures show up again in the measured rounds
+                        continue;
+                    }
+                    latencies.record(System.nanoTime() - start);
+                    errors.increment();
+                    firstError.compareAndSet(null, e);
+                }
+            }
+        }
+    }
+
+    private static long[] gcTotals() {
+        long collections = 0;
+        long millis = 0;
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            collections += Math.max(0L, collector.getCollectionCount());
+            millis += Math.max(0L, collector.getCollectionTime());
+        }
+        return new long[] { collections, millis };
+    }
+
+    private static void close(DataProcessor processor) {
+        if (processor instanceof AutoCloseable closeable) {
+            try {
+                closeable.close();
+            } catch (Exception e) {
+                throw new DataProcessingException("Failed to close processor", e);
+            }
+        }
+    }
+
+    /**
+     * Runs the default query mix against a shared
+     * {@link ColumnarDataProcessor} and a {@link MonolithicDataProcessor} per
+     * thread, on platform and virtual threads, with
+     * 1, 2, 4... threads up to twice the number of cores, and prints one
+     * report per run with its speedup over one thread.
+     * 
+     * @param args an optional number of measured rounds, 200 by default
+     */
+    public static void main(String[] args) {
+        int rounds = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+        int maxThreads = 2 * Runtime.getRuntime().availableProcessors();
+        List<Builder> setups = List.of(
+                builder(ColumnarDataProcessor::new).sharedInstance(true),
+                builder(MonolithicDataProcessor::new).sharedInstance(false));
+        for (Builder setup : setups) {
+            for (ThreadMode mode : ThreadMode.values()) {
+                double single = 0;
+                for (int threads = 1; threads <= maxThreads; threads *= 2) {
+                    ThroughputReport report = setup.threads(threads).threadMode(mode).measuredRounds(rounds).build().run();
+                    single = threads == 1 ? report.getQueriesPerSecond() : single;
+                    System.out.printf("[INFO] [THROUGHPUT] %s %s, speedup %.2fx%n",
+                            setup.processorName(), report, report.getQueriesPerSecond() / single);
+                }
+            }
+        }
+    }
+
+    /**
+     * Configures a {@link ThroughputHarness}.
+     */
+    public static final class Builder {
+
+        private final Supplier<? extends DataProcessor> processors;
+        private boolean sharedInstance = true;
+        private int threads = Runtime.getRuntime().availableProcessors();
+        private ThreadMode threadMode = ThreadMode.PLATFORM;
+        private List<Query> queries = defaultQueries();
+        private int warmupRounds = 5;
+        private int measuredRounds = 50;
+
+        private Builder(Supplier<? extends DataProcessor> processors) {
+            this.processors = Objects.requireNonNull(processors, "processors");
+        }
+
+        /**
+         * @param sharedInstance whether all workers share one processor
+         * @return this builder
+         */
+        public Builder sharedInstance(boolean sharedInstance) {
+            this.sharedInstance = sharedInstance;
+            return this;
+        }
+
+        /**
+         * @param threads the number of workers, at least 1
+         * @return this builder
+         */
+        public Builder threads(int threads) {
+            if (threads < 1) {
+                throw new IllegalArgumentException("At least one thread is required: " + threads);
+            }
+            this.threads = threads;
+            return this;
+        }
+
+        /**
+         * @param threadMode the kind of threads running the workers
+         * @return this builder
+         */
+        public Builder threadMode(ThreadMode threadMode) {
+            this.threadMode = Objects.requireNonNull(threadMode, "threadMode");
+            return this;
+        }
+
+        /**
+         * @param queries the query mix, not empty
+         * @return this builder
+         */
+        public Builder queries(List<Query> queries) {
+            if (queries.isEmpty()) {
+                throw new IllegalArgumentException("At least one query is required");
+            }
+            this.queries = List.copyOf(queries);
+            return this;
+        }
+
+        /**
+         * @param warmupRounds the number of unmeasured runs of the mix per
+         *                     worker
+         * @return this builder
+         */
+        public Builder warmupRounds(int warmupRounds) {
+            this.warmupRounds = Math.max(0, warmupRounds);
+            return this;
+        }
+
+        /**
+         * @param measuredRounds the number of measured runs of the mix per
+         *                       worker, at least 1
+         * @return this builder
+         */
+        public Builder measuredRounds(int measuredRounds) {
+            if (measuredRounds < 1) {
+                throw new IllegalArgumentException("At least one measured round is required: " + measuredRounds);
+            }
+            this.measuredRounds = measuredRounds;
+            return this;
+        }
+
+        /**
+         * @return a harness with the current settings
+         */
+        public ThroughputHarness build() {
+            return new ThroughputHarness(this);
+        }
+
+        private String processorName() {
+            DataProcessor processor = processors.get();
+            try {
+                return processor.getClass().getSimpleName() + (sharedInstance ? " (shared)" : " (per thread)");
+            } finally {
+                close(processor);
+            }
+        }
+    }
+}
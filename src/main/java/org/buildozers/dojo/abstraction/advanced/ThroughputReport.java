@@ -0,0 +1,199 @@
+package org.buildozers.dojo.abstraction.advanced;
+
+import java.util.Locale;
+
+import org.json.JSONObject;
+
+/**
+ * Measurements of one {@link ThroughputHarness} run.
+ * 
+ * Latencies come from a {@link LatencyHistogram}, so percentiles are upper
+ * bounds within a factor of two. GC activity adds up all the collectors of
+ * the JVM over the measured rounds, including collections caused by other
+ * threads.
+ */
+public final class ThroughputReport {
+
+    private final int threads;
+    private final ThroughputHarness.ThreadMode threadMode;
+    private final boolean sharedInstance;
+    private final long queries;
+    private final long errors;
+    private final long mismatches;
+    private final Throwable firstError;
+    private final long elapsedNanos;
+    private final long p50Nanos;
+    private final long p99Nanos;
+    private final long p999Nanos;
+    private final long maxNanos;
+    private final long gcCount;
+    private final long gcMillis;
+
+    ThroughputReport(int threads, ThroughputHarness.ThreadMode threadMode, boolean sharedInstance,
+            LatencyHistogram latencies, long errors, long mismatches, Throwable firstError, long elapsedNanos,
+            long gcCount, long gcMillis) {
+        this.threads = threads;
+        this.threadMode = threadMode;
+        this.sharedInstance = sharedInstance;
+        this.queries = latencies.getCount();
+        this.errors = errors;
+        this.mismatches = mismatches;
+        this.firstError = firstError;
+        this.elapsedNanos = Math.max(1L, elapsedNanos);
+        this.p50Nanos = latencies.getValueAtPercentile(50.0);
+        this.p99Nanos = latencies.getValueAtPercentile(99.0);
+        this.p999Nanos = latencies.getValueAtPercentile(99.9);
+        this.maxNanos = latencies.getMaxNanos();
+        this.gcCount = gcCount;
+        this.gcMillis = gcMillis;
+    }
+
+    /**
+     * @return the number of workers
+     */
+    public int getThreads() {
+        return threads;
+    }
+
+    /**
+     * @return the kind of threads running the workers
+     */
+    public ThroughputHarness.ThreadMode getThreadMode() {
+        return threadMode;
+    }
+
+    /**
+     * @return whether all workers shared one processor
+     */
+    public boolean isSharedInstance() {
+        return sharedInstance;
+    }
+
+    /**
+     * @return the number of measured queries, failed ones included
+     */
+    public long getQueries() {
+        return queries;
+    }
+
+    /**
+     * @return the number of measured queries that threw an exception
+     */
+    public long getErrors() {
+        return errors;
+    }
+
+    /**
+     * @return the number of measured queries whose result differed from the
+     *         one computed sequentially
+     */
+    public long getMismatches() {
+        return mismatches;
+    }
+
+    /**
+     * @return the first exception thrown by a measured query, or null
+     */
+    public Throwable getFirstError() {
+        return firstError;
+    }
+
+    /**
+     * @return whether every measured query succeeded with the expected
+     *         result
+     */
+    public boolean isConsistent() {
+        return errors == 0 && mismatches == 0;
+    }
+
+    /**
+     * @return the wall-clock time of the measured rounds in nanoseconds
+     */
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /**
+     * @return the measured queries per second of wall-clock time
+     */
+    public double getQueriesPerSecond() {
+        return queries * 1_000_000_000.0 / elapsedNanos;
+    }
+
+    /**
+     * @return the median latency in nanoseconds
+     */
+    public long getP50Nanos() {
+        return p50Nanos;
+    }
+
+    /**
+     * @return the 99th percentile latency in nanoseconds
+     */
+    public long getP99Nanos() {
+        return p99Nanos;
+    }
+
+    /**
+     * @return the 99.9th percentile latency in nanoseconds
+     */
+    public long getP999Nanos() {
+        return p999Nanos;
+    }
+
+    /**
+     * @return the largest latency in nanoseconds
+     */
+    public long getMaxNanos() {
+        return maxNanos;
+    }
+
+    /**
+     * @return the number of garbage collections during the measured rounds
+     */
+    public long getGcCount() {
+        return gcCount;
+    }
+
+    /**
+     * @return the accumulated collection time during the measured rounds in
+     *         milliseconds
+     */
+    public long getGcMillis() {
+        return gcMillis;
+    }
+
+    /**
+     * @return the report as a JSON object, with latencies in microseconds
+     */
+    public JSONObject toJson() {
+        return new JSONObject()
+                .put("threads", threads)
+                .put("threadMode", threadMode.name())
+                .put("sharedInstance", sharedInstance)
+                .put("queries", queries)
+                .put("errors", errors)
+                .put("mismatches", mismatches)
+                .put("elapsedMicros", elapsedNanos / 1_000)
+                .put("queriesPerSecond", Math.round(getQueriesPerSecond()))
+                .put("p50Micros", p50Nanos / 1_000)
+                .put("p99Micros", p99Nanos / 1_000)
+                .put("p999Micros", p999Nanos / 1_000)
+                .put("maxMicros", maxNanos / 1_000)
+                .put("gcCount", gcCount)
+                .put("gcMillis", gcMillis);
+    }
+
+    /**
+     * @return a one-line summary of the report
+     */
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT,
+                "%d %s threads: %d queries, %.0f q/s, p50 %d us, p99 %d us, p999 %d us, max %d us, "
+                        + "%d GCs (%d ms), %d errors, %d mismatches",
+                threads, threadMode.name().toLowerCase(Locale.ROOT), queries, getQueriesPerSecond(),
+                p50Nanos / 1_000, p99Nanos / 1_000, p999Nanos / 1_000, maxNanos / 1_000, gcCount, gcMillis,
+                errors, mismatches);
+    }
+}
@@ -0,0 +1,188 @@
+package org.buildozers.dojo.abstraction.advanced;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Sink keeping the K records with the highest or lowest value, overall or
+ * per category or region.
+ * 
+ * Each group keeps a heap of at most K records whose root is the worst of
+ * them, so a record is compared with that root only and allocates nothing
+ * unless it enters the top: memory is O(K) per group whatever the number
+ * of records streamed. Records with a malformed value are skipped, like in
+ * MIN and MAX. Among records with equal values, the first ones received
+ * win, so results are deterministic.
+ * 
+ * Collectors filled from different sources, for instance in parallel, can
+ * be combined with {@link #merge}. A collector is not thread-safe.
+ * 
+ * <pre>
+ * TopKCollector top = new TopKCollector(3, TopKCollector.Order.HIGHEST, TopKCollector.Grouping.CATEGORY);
+ * reader.readAll(top);
+ * top.getTopByGroup(); // {Electronics=[...], Clothing=[...], Books=[...]}
+ * </pre>
+ */
+public class TopKCollector implements DataRecordSink {
+
+    /**
+     * Which end of the value range to keep.
+     */
+    public enum Order {
+        HIGHEST, LOWEST
+    }
+
+    /**
+     * What the top K records are computed per.
+     */
+    public enum Grouping {
+
+        /**
+         * One top K over all records, keyed by the empty string.
+         */
+        NONE,
+
+        /**
+         * One top K per category.
+         */
+        CATEGORY,
+
+        /**
+         * One top K per region.
+         */
+        REGION
+    }
+
+    private final int k;
+    private final Order order;
+    private final Grouping grouping;
+    private final Comparator<Ranked> best;
+    private final StringDictionary groupNames = new StringDictionary();
+    private final List<PriorityQueue<Ranked>> groups = new ArrayList<>();
+    private long received;
+
+    /**
+     * @param k        the number of records to keep per group, at least 1
+     * @param order    whether to keep the highest or the lowest values
+     * @param grouping what to compute a top K per
+     * @throws IllegalArgumentException if k is less than 1
+     */
+    public TopKCollector(int k, Order order, Grouping grouping) {
+        if (k < 1) {
+            throw new IllegalArgumentException("K must be at least 1: " + k);
+        }
+        this.k = k;
+        this.order = order;
+        this.grouping = grouping;
+        Comparator<Ranked> byValue = Comparator.comparingInt(ranked -> ranked.dataRecord().value());
+        this.best = (order == Order.HIGHEST ? byValue.reversed() : byValue)
+                .thenComparingLong(Ranked::sequence);
+    }
+
+    @Override
+    public void accept(long id, int value, boolean validValue, CharSequence region, CharSequence category) {
+        long sequence = received++;
+        if (!validValue) {
+            return;
+        }
+        PriorityQueue<Ranked> heap = group(switch (grouping) {
+            case NONE -> "";
+            case CATEGORY -> category;
+            case REGION -> region;
+        });
+        if (heap.size() == k && !better(value, heap.peek().dataRecord().value())) {
+            return;
+        }
+        offer(heap, new Ranked(new DataRecord(id, value, region.toString(), category.toString()), sequence));
+    }
+
+    /**
+     * Adds the records kept by another collector, as if they had been
+     * received after those of this one.
+     * 
+     * @param other a collector with the same K, order and grouping
+     * @throws IllegalArgumentException if the collectors differ
+     */
+    public void merge(TopKCollector other) {
+        if (other.k != k || other.order != order || other.grouping != grouping) {
+            throw new IllegalArgumentException("Cannot merge top " + other.k + " " + other.order + " by "
+                    + other.grouping + " into top " + k + " " + order + " by " + grouping);
+        }
+        long offset = received;
+        for (int code = 0; code < other.groups.size(); code++) {
+            PriorityQueue<Ranked> heap = group(other.groupNames.decode(code));
+            for (Ranked ranked : other.groups.get(code)) {
+                offer(heap, new Ranked(ranked.dataRecord(), offset + ranked.sequence()));
+            }
+        }
+        received += other.received;
+    }
+
+    /**
+     * @return the K best records over all groups, best first
+     */
+    public List<DataRecord> getTop() {
+        List<Ranked> all = new ArrayList<>();
+        groups.forEach(all::addAll);
+        return sorted(all, k);
+    }
+
+    /**
+     * @return the K best records of each group, best first, by group in
+     *         order of first appearance; with {@link Grouping#NONE}, the
+     *         single group is keyed by the empty string
+     */
+    public Map<String, List<DataRecord>> getTopByGroup() {
+        Map<String, List<DataRecord>> top = new LinkedHashMap<>();
+        for (int code = 0; code < groups.size(); code++) {
+            top.put(groupNames.decode(code), sorted(groups.get(code), k));
+        }
+        return top;
+    }
+
+    /**
+     * @return the number of records received, malformed ones included
+     */
+    public long getReceived() {
+        return received;
+    }
+
+    private PriorityQueue<Ranked> group(CharSequence name) {
+        int code = groupNames.encode(name);
+        if (code == groups.size()) {
+            // The root is the worst record kept
+            groups.add(new PriorityQueue<>(Math.min(k, 1024) + 1, best.reversed()));
+        }
+        return groups.get(code);
+    }
+
+    private void offer(PriorityQueue<Ranked> heap, Ranked ranked) {
+        if (heap.size() < k) {
+            heap.add(ranked);
+        } else if (best.compare(ranked, heap.peek()) < 0) {
+            heap.poll();
+            heap.add(ranked);
+        }
+    }
+
+    private boolean better(int value, int worstKept) {
+        return order == Order.HIGHEST ? value > worstKept : value < worstKept;
+    }
+
+    private List<DataRecord> sorted(Iterable<Ranked> candidates, int limit) {
+        List<Ranked> ranked = new ArrayList<>();
+        candidates.forEach(ranked::add);
+        ranked.sort(best);
+        return ranked.stream().limit(limit).map(Ranked::dataRecord).toList();
+    }
+
+    /**
+     * A kept record and its arrival order, which breaks ties.
+     */
+    private record Ranked(DataRecord dataRecord, long sequence) {
+    }
+}
@@ -0,0 +1,321 @@
+package org.buildozers.dojo.abstraction.advanced;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+import org.buildozers.dojo.abstraction.advanced.QueryProfile.ExecutionMode;
+
+/**
+ * Data processor aggregating over the union of several files, whatever
+ * their formats, for instance yesterday's CSV export and today's XML feed.
+ * 
+ * Every source is validated and streamed by its own
+ * {@link DataRecordReader} on its own virtual thread, into its own
+ * {@link PartialAggregate}; the partial aggregates are merged once all
+ * sources are read, so the reads overlap instead of following each other.
+ * The union keeps duplicates: a source listed twice counts twice.
+ * 
+ * Through {@link DataProcessor#processFileData}, the filename lists the
+ * sources separated by commas, and the format is either one format for all
+ * of them, a comma-separated list of one format per source, or
+ * {@value #AUTO_FORMAT} to infer each format from the file extension:
+ * 
+ * <pre>
+ * processor.processFileData("export.csv,feed.xml", "AUTO", true, "Electronics", "SUM");
+ * processor.processFileData("export.csv,feed.xml", "CSV,XML", true, "Electronics", "SUM");
+ * </pre>
+ * 
+ * Files are read from the classpath, or from a base directory when one is
+ * given. This processor supports SUM, COUNT, MIN and MAX, and filters each
+ * source with the {@link CategoryFilter} of its format. If a source fails, the
+ * query fails with its error and the other reads are interrupted.
+ * {@link #topK} lists the records with the highest or lowest values of the
+ * union instead of aggregating them.
+ */
+public class UnionDataProcessor implements ExplainableDataProcessor {
+
+    /**
+     * Separator of the file names and formats of the sources
+     */
+    public static final String SOURCE_SEPARATOR = ",";
+
+    /**
+     * Format name asking to infer the format of each source from its file
+     * extension
+     */
+    public static final String AUTO_FORMAT = "AUTO";
+
+    /**
+     * One file of a union.
+     * 
+     * @param filename the name of the file
+     * @param format   the format of the file
+     */
+    public record Source(String filename, DataFormat format) {
+
+        public Source {
+            Objects.requireNonNull(filename, "filename");
+            Objects.requireNonNull(format, "format");
+        }
+
+        /**
+         * Creates a source whose format is given by its file extension.
+         * 
+         * @param filename the name of the file, ending with {@code .csv},
+         *                 {@code .json}, {@code .xml} or {@code .bin}
+         * @return the source
+         * @throws DataProcessingException if the extension is unknown
+         */
+        public static Source of(String filename) {
+            DataFormat format = DataFormat.ofFileName(filename);
+            if (format == null) {
+                throw new DataProcessingException("Cannot infer the data format of: " + filename);
+            }
+            return new Source(filename, format);
+        }
+    }
+
+    private final Path baseDirectory;
+    private final DataValidator validator;
+
+    /**
+     * Creates a processor reading its files from the classpath.
+     */
+    public UnionDataProcessor() {
+        this(null, new DataValidator());
+    }
+
+    /**
+     * Creates a processor reading its files from a directory.
+     * 
+     * @param baseDirectory the directory holding the data files
+     */
+    public UnionDataProcessor(Path baseDirectory) {
+        this(baseDirectory.toAbsolutePath().normalize(), new DataValidator());
+    }
+
+    /**
+     * @param baseDirectory the directory holding the data files, or null for
+     *                      the classpath
+     * @param validator     the validator holding the compiled schemas
+     */
+    UnionDataProcessor(Path baseDirectory, DataValidator validator) {
+        this.baseDirectory = baseDirectory;
+        this.validator = validator;
+    }
+
+    /**
+     * {@inheritDoc}
+     * 
+     * @param filename the names of the sources, separated by commas
+     * @param format   one format for all sources, one per source separated
+     *                 by commas, or {@value #AUTO_FORMAT}
+     * @throws UnsupportedAggregationException if aggregation type is not one of
+     *                                         SUM, COUNT, MIN or MAX
+     */
+    @Override
+    public long processFileData(String filename, String format, boolean validate,
+            String categoryFilter, String aggregationType) {
+        return explain(filename, format, validate, categoryFilter, aggregationType).getResult();
+    }
+
+    /**
+     * Aggregates over the union of several sources.
+     * 
+     * @param sources         the files to read, at least one
+     * @param validate        whether to validate each source
+     * @param categoryFilter  the category to filter by, or null/empty for none
+     * @param aggregationType the aggregation to perform
+     * @return the aggregate of the matching records of all sources
+     * @throws DataProcessingException         if a source cannot be read or is
+     *                                         invalid
+     * @throws UnsupportedAggregationException if aggregation type is not one of
+     *                                         SUM, COUNT, MIN or MAX
+     */
+    public long processFiles(List<Source> sources, boolean validate, String categoryFilter, String aggregationType) {
+        return explain(sources, validate, categoryFilter, aggregationType).getResult();
+    }
+
+    /**
+     * {@inheritDoc}
+     * 
+     * @param filename the names of the sources, separated by commas
+     * @param format   one format for all sources, one per source separated
+     *                 by commas, or {@value #AUTO_FORMAT}
+     */
+    @Override
+    public QueryProfile explain(String filename, String format, boolean validate, String categoryFilter,
+            String aggregationType) {
+        return explain(sources(filename, format), validate, categoryFilter, aggregationType);
+    }
+
+    /**
+     * Aggregates over the union of several sources and reports how.
+     * 
+     * The sources are reported as partitions, all of them scanned. Reads of
+     * different sources overlap, so validating, reading, filtering and
+     * aggregating are reported together under {@link ProcessingStage#LOAD}
+     * as the wall-clock time of the union.
+     * 
+     * @param sources         the files to read, at least one
+     * @param validate        whether to validate each source
+     * @param categoryFilter  the category to filter by, or null/empty for none
+     * @param aggregationType the aggregation to perform
+     * @return the profile of the query, holding its result
+     * @throws DataProcessingException         if a source cannot be read or is
+     *                                         invalid
+     * @throws UnsupportedAggregationException if aggregation type is not one of
+     *                                         SUM, COUNT, MIN or MAX
+     */
+    public QueryProfile explain(List<Source> sources, boolean validate, String categoryFilter,
+            String aggregationType) {
+        if (sources.isEmpty()) {
+            throw new DataProcessingException("At least one source is required");
+        }
+        QueryProfile.Builder profile = QueryProfile.builder(getClass().getSimpleName(),
+                sources.stream().map(Source::filename).collect(Collectors.joining(SOURCE_SEPARATOR)),
+                sources.stream().map(source -> source.format().name()).collect(Collectors.joining(SOURCE_SEPARATOR)),
+                categoryFilter, aggregationType);
+        AggregationType aggregation = AggregationType.of(aggregationType);
+
+        long start = System.nanoTime();
+        List<AggregatingSink> sinks = new ArrayList<>(sources.size());
+        List<PartialAggregate> partials = new ArrayList<>(sources.size());
+        for (int i = 0; i < sources.size(); i++) {
+            partials.add(new PartialAggregate());
+            sinks.add(new AggregatingSink(CategoryFilter.of(categoryFilter, sources.get(i).format()), partials.get(i)));
+        }
+        readAll(sources, validate, sinks);
+
+        PartialAggregate union = new PartialAggregate();
+        long scanned = 0;
+        for (int i = 0; i < sources.size(); i++) {
+            union.merge(partials.get(i));
+            scanned += sinks.get(i).getScanned();
+        }
+        return profile.stage(ProcessingStage.LOAD, System.nanoTime() - start)
+                .executionMode(sources.size() == 1 ? ExecutionMode.SEQUENTIAL : ExecutionMode.PARALLEL)
+                .partitions(sources.size(), sources.size())
+                .rows(scanned, union.getCount())
+                .build(union.result(aggregation));
+    }
+
+    /**
+     * Finds the records with the highest or lowest values over the union of
+     * several sources. Each source streams in parallel into its own
+     * {@link TopKCollector}, so memory stays O(K) per group and source
+     * whatever the size of the files; the collectors are merged in source
+     * order, so ties go to the earlier source.
+     * 
+     * @param sources        the files to read, at least one
+     * @param validate       whether to validate each source
+     * @param categoryFilter the category to filter by, or null/empty for none
+     * @param k              the number of records to keep per group
+     * @param order          whether to keep the highest or the lowest values
+     * @param grouping       what to compute a top K per
+     * @return the collector holding the top records of the union
+     * @throws DataProcessingException  if a source cannot be read or is
+     *                                  invalid
+     * @throws IllegalArgumentException if k is less than 1
+     */
+    public TopKCollector topK(List<Source> sources, boolean validate, String categoryFilter, int k,
+            TopKCollector.Order order, TopKCollector.Grouping grouping) {
+        if (sources.isEmpty()) {
+            throw new DataProcessingException("At least one source is required");
+        }
+        List<TopKCollector> collectors = new ArrayList<>(sources.size());
+        List<FilteringSink> sinks = new ArrayList<>(sources.size());
+        for (int i = 0; i < sources.size(); i++) {
+            collectors.add(new TopKCollector(k, order, grouping));
+            sinks.add(new FilteringSink(CategoryFilter.of(categoryFilter, sources.get(i).format()), collectors.get(i)));
+        }
+        readAll(sources, validate, sinks);
+        TopKCollector union = collectors.get(0);
+        for (int i = 1; i < collectors.size(); i++) {
+            union.merge(collectors.get(i));
+        }
+        return union;
+    }
+
+    private void readAll(List<Source> sources, boolean validate, List<? extends DataRecordSink> sinks) {
+        if (sources.size() == 1) {
+            read(sources.get(0), validate, sinks.get(0));
+        } else {
+            readInParallel(sources, validate, sinks);
+        }
+    }
+
+    private void readInParallel(List<Source> sources, boolean validate, List<? extends DataRecordSink> sinks) {
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            // Reads are awaited in completion order, so that the first failure stops the others
+            ExecutorCompletionService<Void> completion = new ExecutorCompletionService<>(executor);
+            List<Future<Void>> reads = new ArrayList<>(sources.size());
+            for (int i = 0; i < sources.size(); i++) {
+                Source source = sources.get(i);
+                DataRecordSink sink = sinks.get(i);
+                reads.add(completion.submit(() -> read(source, validate, sink), null));
+            }
+            try {
+                for (int i = 0; i < reads.size(); i++) {
+                    completion.take().get();
+                }
+            } catch (ExecutionException e) {
+                reads.forEach(read -> read.cancel(true));
+                if (e.getCause() instanceof RuntimeException failure) {
+                    throw failure;
+                }
+                throw new DataProcessingException("Failed to read source: " + e.getCause().getMessage(), e.getCause());
+            } catch (InterruptedException e) {
+                reads.forEach(read -> read.cancel(true));
+                Thread.currentThread().interrupt();
+                throw new DataProcessingException("Union query interrupted", e);
+            }
+        }
+    }
+
+    private void read(Source source, boolean validate, DataRecordSink sink) {
+        Path path = baseDirectory != null ? DataSources.resolveWithin(baseDirectory, source.filename()) : null;
+        if (validate) {
+            if (path != null) {
+                validator.validate(path, source.format());
+            } else {
+                validator.validate(source.filename(), source.format());
+            }
+        }
+        try (DataRecordReader reader = path != null ? DataRecordReaders.open(path, source.format())
+                : DataRecordReaders.open(source.filename(), source.format())) {
+            reader.readAll(sink);
+        } catch (IOException e) {
+            throw new DataProcessingException("Failed to load file: " + source.filename(), e);
+        }
+    }
+
+    private static List<Source> sources(String filename, String format) {
+        if (filename == null || filename.isBlank()) {
+            throw new DataProcessingException("At least one source is required");
+        }
+        String[] filenames = filename.split(SOURCE_SEPARATOR);
+        String[] formats = format == null ? new String[] { AUTO_FORMAT } : format.split(SOURCE_SEPARATOR);
+        if (formats.length != 1 && formats.length != filenames.length) {
+            throw new DataProcessingException("Expected one format or " + filenames.length + " formats, got: " + format);
+        }
+        List<Source> sources = new ArrayList<>(filenames.length);
+        for (int i = 0; i < filenames.length; i++) {
+            String name = filenames[i].trim();
+            String formatName = formats[formats.length == 1 ? 0 : i].trim();
+            sources.add(AUTO_FORMAT.equals(formatName.toUpperCase(Locale.ROOT)) ? Source.of(name)
+                    : new Source(name, DataFormat.of(formatName)));
+        }
+        return sources;
+    }
+}
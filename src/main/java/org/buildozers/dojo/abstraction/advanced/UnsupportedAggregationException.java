@@ -6,6 +6,10 @@ package org.buildozers.dojo.abstraction.advanced;
 public class UnsupportedAggregationException extends RuntimeException {
     
     public UnsupportedAggregationException(String aggregationType) {
-        super("Unsupported aggregation type: " + aggregationType + ". Supported types are: SUM, COUNT");
+        this(aggregationType, "SUM, COUNT");
+    }
+
+    public UnsupportedAggregationException(String aggregationType, String supportedTypes) {
+        super("Unsupported aggregation type: " + aggregationType + ". Supported types are: " + supportedTypes);
     }
 }
@@ -0,0 +1,52 @@
+package org.buildozers.dojo.abstraction.advanced;
+
+import org.everit.json.schema.Schema;
+import org.everit.json.schema.ValidationException;
+import org.json.JSONObject;
+
+/**
+ * Sink checking every record against the record schema of the bundled
+ * JSON schema before forwarding it, so that data can be validated while it
+ * streams, in constant memory, whatever its format.
+ */
+class ValidatingSink implements DataRecordSink {
+
+    private final Schema recordSchema;
+    private final DataRecordSink downstream;
+    private long records;
+
+    /**
+     * @param parsers    the parser context holding the compiled schemas
+     * @param downstream the sink receiving the valid records
+     */
+    ValidatingSink(ParserContext parsers, DataRecordSink downstream) {
+        this.recordSchema = parsers.recordSchema();
+        this.downstream = downstream;
+    }
+
+    @Override
+    public void accept(long id, int value, boolean validValue, CharSequence region, CharSequence category) {
+        records++;
+        JSONObject dataRecord = new JSONObject()
+                .put("id", id)
+                .put("region", region.toString())
+                .put("category", category.toString());
+        if (validValue) {
+            dataRecord.put("value", value);
+        }
+        try {
+            recordSchema.validate(dataRecord);
+        } catch (ValidationException e) {
+            throw new DataProcessingException("Record " + records + " failed validation against schema: "
+                    + e.getMessage(), e);
+        }
+        downstream.accept(id, value, validValue, region, category);
+    }
+
+    /**
+     * @return the number of records validated so far
+     */
+    long getRecords() {
+        return records;
+    }
+}
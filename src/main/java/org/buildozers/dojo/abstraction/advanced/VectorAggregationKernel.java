@@ -0,0 +1,156 @@
+package org.buildozers.dojo.abstraction.advanced;
+
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorShape;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * SIMD implementation of the aggregation kernels on top of the incubating
+ * Vector API ({@code --add-modules jdk.incubator.vector}).
+ * 
+ * Category filtering is done with lane masks instead of branches. Sums are
+ * widened to long lanes before accumulation so that they cannot overflow,
+ * and the tail of each column is handled by the scalar kernel.
+ */
+class VectorAggregationKernel implements AggregationKernel {
+
+    private static final VectorSpecies<Integer> INTS = IntVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Long> LONGS = VectorSpecies.of(long.class,
+            VectorShape.forBitSize(INTS.vectorBitSize()));
+
+    /**
+     * @return the number of int lanes processed per iteration
+     */
+    static int laneCount() {
+        return INTS.length();
+    }
+
+    @Override
+    public String toString() {
+        return "vector kernel (" + INTS.length() + " int lanes)";
+    }
+
+    @Override
+    public long sum(int[] values, int length) {
+        LongVector low = LongVector.zero(LONGS);
+        LongVector high = LongVector.zero(LONGS);
+        int upper = INTS.loopBound(length);
+        for (int i = 0; i < upper; i += INTS.length()) {
+            IntVector vector = IntVector.fromArray(INTS, values, i);
+            low = low.add(widen(vector, 0));
+            high = high.add(widen(vector, 1));
+        }
+        long sum = low.add(high).reduceLanes(VectorOperators.ADD);
+        for (int i = upper; i < length; i++) {
+            sum += values[i];
+        }
+        return sum;
+    }
+
+    @Override
+    public long sum(int[] values, int[] codes, int code, int length) {
+        LongVector low = LongVector.zero(LONGS);
+        LongVector high = LongVector.zero(LONGS);
+        IntVector zero = IntVector.zero(INTS);
+        int upper = INTS.loopBound(length);
+        for (int i = 0; i < upper; i += INTS.length()) {
+            VectorMask<Integer> selected = IntVector.fromArray(INTS, codes, i).eq(code);
+            IntVector vector = zero.blend(IntVector.fromArray(INTS, values, i), selected);
+            low = low.add(widen(vector, 0));
+            high = high.add(widen(vector, 1));
+        }
+        return low.add(high).reduceLanes(VectorOperators.ADD) + scalarSum(values, codes, code, upper, length);
+    }
+
+    @Override
+    public int count(int[] codes, int code, int length) {
+        int count = 0;
+        int upper = INTS.loopBound(length);
+        for (int i = 0; i < upper; i += INTS.length()) {
+            count += IntVector.fromArray(INTS, codes, i).eq(code).trueCount();
+        }
+        for (int i = upper; i < length; i++) {
+            count += codes[i] == code ? 1 : 0;
+        }
+        return count;
+    }
+
+    @Override
+    public int min(int[] values, int length) {
+        IntVector min = IntVector.broadcast(INTS, Integer.MAX_VALUE);
+        int upper = INTS.loopBound(length);
+        for (int i = 0; i < upper; i += INTS.length()) {
+            min = min.min(IntVector.fromArray(INTS, values, i));
+        }
+        int result = min.reduceLanes(VectorOperators.MIN);
+        for (int i = upper; i < length; i++) {
+            result = Math.min(result, values[i]);
+        }
+        return result;
+    }
+
+    @Override
+    public int min(int[] values, int[] codes, int code, int length) {
+        IntVector min = IntVector.broadcast(INTS, Integer.MAX_VALUE);
+        int upper = INTS.loopBound(length);
+        for (int i = 0; i < upper; i += INTS.length()) {
+            VectorMask<Integer> selected = IntVector.fromArray(INTS, codes, i).eq(code);
+            min = min.lanewise(VectorOperators.MIN, IntVector.fromArray(INTS, values, i), selected);
+        }
+        int result = min.reduceLanes(VectorOperators.MIN);
+        for (int i = upper; i < length; i++) {
+            if (codes[i] == code) {
+                result = Math.min(result, values[i]);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public int max(int[] values, int length) {
+        IntVector max = IntVector.broadcast(INTS, Integer.MIN_VALUE);
+        int upper = INTS.loopBound(length);
+        for (int i = 0; i < upper; i += INTS.length()) {
+            max = max.max(IntVector.fromArray(INTS, values, i));
+        }
+        int result = max.reduceLanes(VectorOperators.MAX);
+        for (int i = upper; i < length; i++) {
+            result = Math.max(result, values[i]);
+        }
+        return result;
+    }
+
+    @Override
+    public int max(int[] values, int[] codes, int code, int length) {
+        IntVector max = IntVector.broadcast(INTS, Integer.MIN_VALUE);
+        int upper = INTS.loopBound(length);
+        for (int i = 0; i < upper; i += INTS.length()) {
+            VectorMask<Integer> selected = IntVector.fromArray(INTS, codes, i).eq(code);
+            max = max.lanewise(VectorOperators.MAX, IntVector.fromArray(INTS, values, i), selected);
+        }
+        int result = max.reduceLanes(VectorOperators.MAX);
+        for (int i = upper; i < length; i++) {
+            if (codes[i] == code) {
+                result = Math.max(result, values[i]);
+            }
+        }
+        return result;
+    }
+
+    private static LongVector widen(IntVector vector, int part) {
+        return (LongVector) vector.convertShape(VectorOperators.I2L, LONGS, part);
+    }
+
+    private static long scalarSum(int[] values, int[] codes, int code, int from, int to) {
+        long sum = 0;
+        for (int i = from; i < to; i++) {
+            if (codes[i] == code) {
+                sum += values[i];
+            }
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,134 @@
+package org.buildozers.dojo.abstraction.advanced;
+
+import static org.buildozers.dojo.abstraction.advanced.DataProcessor.XML_NAMESPACE;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+/**
+ * Streaming XML reader built on StAX.
+ * 
+ * Records are read element by element from the {@link DataProcessor#XML_NAMESPACE}
+ * namespace, without building a DOM tree. The id and value elements are
+ * parsed from the parser's character buffer with {@link AsciiNumbers}
+ * instead of going through a String. The StAX factory comes from the shared
+ * {@link ParserContext}, which disables DTDs and external entities to
+ * prevent XXE attacks.
+ */
+class XmlRecordReader implements DataRecordReader {
+
+    private final InputStream input;
+    private final XMLStreamReader xml;
+    private char[] text = new char[64];
+
+    private long id;
+    private int value;
+    private boolean validValue;
+    private String region;
+    private String category;
+
+    /**
+     * @param input the XML content, closed with this reader
+     * @throws DataProcessingException if the XML prolog cannot be read
+     */
+    XmlRecordReader(InputStream input) {
+        this.input = input;
+        try {
+            this.xml = ParserContext.shared().xmlInputFactory().createXMLStreamReader(input);
+        } catch (XMLStreamException e) {
+            throw new DataProcessingException("Malformed XML data: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public int read(DataRecordSink sink, int maxRecords) throws IOException {
+        try {
+            int read = 0;
+            while (read < maxRecords && xml.hasNext()) {
+                int event = xml.next();
+                if (event == XMLStreamConstants.START_ELEMENT && XML_NAMESPACE.equals(xml.getNamespaceURI())) {
+                    startElement(xml.getLocalName());
+                } else if (event == XMLStreamConstants.END_ELEMENT && isRecordElement()) {
+                    sink.accept(id, value, validValue, region, category);
+                    read++;
+                }
+            }
+            return read == 0 && !xml.hasNext() ? -1 : read;
+        } catch (XMLStreamException e) {
+            throw new DataProcessingException("Malformed XML data: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            xml.close();
+        } catch (XMLStreamException e) {
+            throw new IOException(e);
+        } finally {
+            input.close();
+        }
+    }
+
+    private void startElement(String localName) throws XMLStreamException {
+        switch (localName) {
+            case "record" -> {
+                id = 0;
+                value = 0;
+                validValue = false;
+                region = "";
+                category = "";
+            }
+            case "id" -> {
+                long parsedId = parseNumber(false);
+                id = parsedId == AsciiNumbers.MALFORMED ? 0L : parsedId;
+            }
+            case "value" -> {
+                long parsedValue = parseNumber(true);
+                validValue = parsedValue != AsciiNumbers.MALFORMED;
+                value = validValue ? (int) parsedValue : 0;
+            }
+            case "region" -> region = xml.getElementText();
+            case "category" -> category = xml.getElementText();
+            default -> {
+                // Container elements, nothing to capture
+            }
+        }
+    }
+
+    /**
+     * Parses the text content of the current element, which the parser may
+     * deliver in several chunks. Like {@code Integer.parseInt}, it accepts no
+     * surrounding whitespace.
+     * 
+     * @param asInt whether the number must fit in an int
+     * @return the parsed number, or {@link AsciiNumbers#MALFORMED}; malformed
+     *         values are kept for COUNT but skipped by value aggregations
+     */
+    private long parseNumber(boolean asInt) throws XMLStreamException {
+        int length = 0;
+        for (int event = xml.next(); event != XMLStreamConstants.END_ELEMENT; event = xml.next()) {
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                throw new DataProcessingException("Unexpected element inside a numeric field: " + xml.getLocalName());
+            }
+            if (xml.hasText() && event != XMLStreamConstants.COMMENT) {
+                int chunk = xml.getTextLength();
+                if (length + chunk > text.length) {
+                    text = Arrays.copyOf(text, Math.max(text.length * 2, length + chunk));
+                }
+                System.arraycopy(xml.getTextCharacters(), xml.getTextStart(), text, length, chunk);
+                length += chunk;
+            }
+        }
+        return asInt ? AsciiNumbers.parseInt(text, 0, length) : AsciiNumbers.parseLong(text, 0, length);
+    }
+
+    private boolean isRecordElement() {
+        return "record".equals(xml.getLocalName()) && XML_NAMESPACE.equals(xml.getNamespaceURI());
+    }
+}
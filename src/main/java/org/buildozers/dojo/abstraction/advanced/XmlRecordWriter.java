@@ -0,0 +1,75 @@
+package org.buildozers.dojo.abstraction.advanced;
+
+import static org.buildozers.dojo.abstraction.advanced.DataProcessor.XML_NAMESPACE;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+
+/**
+ * Writes records in the {@link DataProcessor#XML_NAMESPACE} namespace,
+ * with the element layout of the bundled data.xml, through a StAX writer
+ * from the shared {@link ParserContext}.
+ */
+class XmlRecordWriter implements DataRecordWriter {
+
+    private final OutputStream output;
+    private final XMLStreamWriter xml;
+
+    /**
+     * @param output the buffered destination, closed with this writer
+     * @throws IOException if the start of the document cannot be written
+     */
+    XmlRecordWriter(OutputStream output) throws IOException {
+        this.output = output;
+        try {
+            this.xml = ParserContext.shared().xmlOutputFactory().createXMLStreamWriter(output, "UTF-8");
+            xml.writeStartDocument("UTF-8", "1.0");
+            xml.writeCharacters("\n");
+            xml.setDefaultNamespace(XML_NAMESPACE);
+            xml.writeStartElement(XML_NAMESPACE, "data");
+            xml.writeDefaultNamespace(XML_NAMESPACE);
+        } catch (XMLStreamException e) {
+            throw new IOException("Failed to start XML document", e);
+        }
+    }
+
+    @Override
+    public void accept(long id, int value, boolean validValue, CharSequence region, CharSequence category) {
+        try {
+            xml.writeCharacters("\n    ");
+            xml.writeStartElement(XML_NAMESPACE, "record");
+            writeElement("id", Long.toString(id));
+            writeElement("value", validValue ? Integer.toString(value) : "");
+            writeElement("region", region.toString());
+            writeElement("category", category.toString());
+            xml.writeEndElement();
+        } catch (XMLStreamException e) {
+            throw new DataProcessingException("Failed to write XML record", e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            xml.writeCharacters("\n");
+            xml.writeEndElement();
+            xml.writeEndDocument();
+            xml.writeCharacters("\n");
+            xml.flush();
+            xml.close();
+        } catch (XMLStreamException e) {
+            throw new IOException("Failed to end XML document", e);
+        } finally {
+            output.close();
+        }
+    }
+
+    private void writeElement(String localName, String text) throws XMLStreamException {
+        xml.writeStartElement(XML_NAMESPACE, localName);
+        xml.writeCharacters(text);
+        xml.writeEndElement();
+    }
+}
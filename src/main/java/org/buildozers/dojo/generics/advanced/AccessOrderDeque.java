@@ -0,0 +1,57 @@
+package org.buildozers.dojo.generics.advanced;
+
+/**
+ * Intrusive doubly-linked list of {@link CacheNode}s, least recently used
+ * first, linking the nodes through their own fields so that moving a node
+ * allocates nothing.
+ *
+ * A node belongs to at most one deque at a time. Not thread-safe.
+ *
+ * @param <K> the type of the keys
+ * @param <V> the type of the values
+ */
+final class AccessOrderDeque<K, V> {
+
+    private CacheNode<K, V> first;
+    private CacheNode<K, V> last;
+
+    /**
+     * @return the least recently used node, or null if empty
+     */
+    CacheNode<K, V> peekFirst() {
+        return first;
+    }
+
+    void addLast(CacheNode<K, V> node) {
+        node.previous = last;
+        node.next = null;
+        if (last == null) {
+            first = node;
+        } else {
+            last.next = node;
+        }
+        last = node;
+    }
+
+    void remove(CacheNode<K, V> node) {
+        if (node.previous == null) {
+            first = node.next;
+        } else {
+            node.previous.next = node.next;
+        }
+        if (node.next == null) {
+            last = node.previous;
+        } else {
+            node.next.previous = node.previous;
+        }
+        node.previous = null;
+        node.next = null;
+    }
+
+    void moveToBack(CacheNode<K, V> node) {
+        if (node != last) {
+            remove(node);
+            addLast(node);
+        }
+    }
+}
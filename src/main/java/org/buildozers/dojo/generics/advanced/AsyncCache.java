@@ -1,76 +1,1236 @@
 package org.buildozers.dojo.generics.advanced;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
+import java.util.function.ToIntBiFunction;
+
+import org.buildozers.dojo.generics.advanced.CacheStats.EvictionCause;
 
 /**
- * Advanced generic cache with complex type relationships.
- * 
- * KATA TASK: Implement proper generic bounds for:
- * - Covariant and contravariant type relationships
- * - Multiple type parameters with complex bounds
- * - Generic method type inference
- * - Intersection types and recursive bounds
+ * Asynchronous cache storing the futures of its values.
+ *
+ * Values are kept as {@link CompletableFuture}s in a concurrent map, so a
+ * value still loading is already cached: concurrent
+ * {@link #getOrCompute(Object, Function)} calls for the same missing key all
+ * receive the future of a single load instead of each calling the backend.
+ * A load that fails, or completes with null, is removed from the cache once
+ * it completes, so that a later call loads again; its callers still see the
+ * failure.
+ *
+ * A cache created by {@link #builder()} with a maximum size evicts entries
+ * with a W-TinyLFU policy (see {@link BoundedPolicy}), which keeps
+ * frequently used entries through scans of keys used once. Reads and writes
+ * are recorded in buffers and replayed into the policy in batches by
+ * whichever thread gets the eviction lock without waiting, so reads never
+ * block and the size can briefly exceed the maximum under contention; an
+ * unbounded cache, created with {@code new AsyncCache<>()}, keeps no policy
+ * at all. A cache with a weigher and a maximum weight bounds the total
+ * weight of its values instead of their number; a value is weighed once
+ * loaded, stored or transformed, and weighs nothing while it loads.
+ *
+ * A bounded cache can also keep an off-heap tier (see {@link OffHeapTier}):
+ * values evicted to stay within the maximum are then serialized by a
+ * {@link CacheCodec} into direct memory instead of being dropped, and a
+ * later miss on their key promotes them back to the heap without calling
+ * the loader. Only values that never expire are demoted.
+ *
+ * Any cache can also keep a disk tier (see {@link DiskTier}): closing the
+ * cache saves its values, on heap or off-heap, to memory-mapped segment
+ * files, and a cache later built on the same directory reads them back one
+ * by one as their keys miss, so a restarted process starts warm.
+ *
+ * Values loaded by {@link #getWithRefresh} expire after their time to live.
+ * Expired entries are never returned, and are removed by a
+ * {@link TimerWheel} when the cache next runs its maintenance, on a write
+ * or {@link #cleanUp()}. They can also be refreshed ahead of expiry: reads
+ * past the refresh delay keep getting the current value while a single
+ * background reload replaces it.
+ *
+ * Loaded values are also indexed by their class, so that
+ * {@link #evictByType} visits the matching entries only; the index follows
+ * the values as they are loaded, replaced, transformed and evicted.
+ *
+ * Hits, misses, loads, evictions and latencies are recorded in striped
+ * counters unless disabled by {@link Builder#recordStats(boolean)}, and
+ * read with {@link #getStats()}.
+ *
+ * The futures returned are the cached ones: cancelling one cancels the load
+ * for every caller waiting on it and evicts it.
+ *
+ * <pre>
+ * AsyncCache&lt;String, User&gt; users = AsyncCache.builder().maximumSize(10_000).build();
+ * CompletableFuture&lt;User&gt; user = users.getOrCompute("user123", id -&gt; fetchUserAsync(id));
+ * </pre>
+ *
+ * @param <K> the type of the keys
+ * @param <V> the type of the values
  */
-public class AsyncCache {
-    
+public class AsyncCache<K, V> implements AutoCloseable {
+
+    private static final long UNBOUNDED = -1;
+    private static final long NEVER = Long.MAX_VALUE;
+
+    private final ConcurrentMap<K, CacheNode<K, V>> entries = new ConcurrentHashMap<>();
+    private final BoundedPolicy<K, V> policy;
+    private final ReadBuffer<CacheNode<K, V>> readBuffer;
+    private final Queue<Runnable> writeBuffer = new ConcurrentLinkedQueue<>();
+    private final ConcurrentMap<K, CompletableFuture<V>> refreshes = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Class<?>, Set<CacheNode<K, V>>> typeIndex = new ConcurrentHashMap<>();
+    private final ReentrantLock evictionLock = new ReentrantLock();
+    private final LongSupplier ticker;
+    private final long origin;
+    private final TimerWheel<K, V> timerWheel;
+    private final StatsCounter stats;
+    private final ToIntBiFunction<? super K, ? super V> weigher;
+    private final OffHeapTier<K> offHeapTier;
+    private final CacheCodec<V> codec;
+    private final DiskTier<K> diskTier;
+    private final CacheCodec<V> diskCodec;
+
+    /**
+     * Creates an unbounded cache.
+     */
+    public AsyncCache() {
+        this(builder());
+    }
+
+    @SuppressWarnings("unchecked")
+    private AsyncCache(Builder<? super K, ? super V> builder) {
+        this.weigher = (ToIntBiFunction<? super K, ? super V>) builder.weigher;
+        if (weigher != null) {
+            this.policy = new BoundedPolicy<>(builder.maximumWeight, true, this::onEviction);
+            this.readBuffer = new ReadBuffer<>();
+        } else if (builder.maximumSize != UNBOUNDED) {
+            this.policy = new BoundedPolicy<>(builder.maximumSize, false, this::onEviction);
+            this.readBuffer = new ReadBuffer<>();
+        } else {
+            this.policy = null;
+            this.readBuffer = null;
+        }
+        this.ticker = builder.ticker;
+        this.origin = ticker.getAsLong();
+        this.timerWheel = new TimerWheel<>(0L, this::expire);
+        this.stats = builder.recordStats ? new StatsCounter() : null;
+        this.codec = (CacheCodec<V>) builder.codec;
+        this.offHeapTier = codec != null ? new OffHeapTier<>(builder.offHeapCapacity) : null;
+        this.diskCodec = (CacheCodec<V>) builder.diskCodec;
+        this.diskTier = diskCodec != null
+                ? new DiskTier<>(builder.diskDirectory, (CacheCodec<K>) builder.diskKeyCodec)
+                : null;
+    }
+
+    /**
+     * Starts configuring a cache.
+     *
+     * @return a builder of unbounded caches
+     */
+    public static Builder<Object, Object> builder() {
+        return new Builder<>();
+    }
+
+    /**
+     * Gets the value of a key, loading it if it is neither cached nor
+     * already loading.
+     *
+     * @param key    the key
+     * @param loader starts loading the value of a missing key; only called
+     *               when no other load of the key is in flight
+     * @return the future of the cached or loading value
+     */
+    public CompletableFuture<V> getOrCompute(K key,
+            Function<? super K, ? extends CompletableFuture<? extends V>> loader) {
+        return get(key, loader, NEVER, NEVER);
+    }
+
+    /**
+     * Gets the value of a key, loading it if needed, and transforms it for
+     * this caller only; the cached value is left unchanged.
+     *
+     * @param <R>         the type of the transformed value
+     * @param key         the key
+     * @param loader      starts loading the value of a missing key
+     * @param transformer derives the result from the value
+     * @return the future of the transformed value
+     */
+    public <R> CompletableFuture<R> getOrCompute(K key,
+            Function<? super K, ? extends CompletableFuture<? extends V>> loader,
+            Function<? super V, ? extends R> transformer) {
+        return getOrCompute(key, loader).thenApply(transformer);
+    }
+
+    /**
+     * Gets the future of a key without loading it.
+     *
+     * @param key the key
+     * @return the future of the cached or loading value, or null if absent
+     *         or expired
+     */
+    public CompletableFuture<V> getIfPresent(K key) {
+        CacheNode<K, V> node = entries.get(key);
+        if (node == null && hasLowerTiers()) {
+            V demoted = promote(key);
+            if (demoted != null) {
+                return getOrCompute(key, present -> CompletableFuture.completedFuture(demoted));
+            }
+        }
+        if (node == null || isExpired(node)) {
+            if (stats != null) {
+                stats.recordMiss();
+            }
+            return null;
+        }
+        if (stats != null) {
+            stats.recordHit();
+        }
+        afterRead(node);
+        return node.future;
+    }
+
+    /**
+     * Stores a value that never expires, replacing any cached or loading
+     * one; callers already waiting on a replaced load still receive its
+     * result.
+     *
+     * @param key      the key
+     * @param value    the value, not null
+     * @param callback notified with the value once it is stored, or null
+     */
+    public void put(K key, V value, Consumer<? super V> callback) {
+        Objects.requireNonNull(key, "key");
+        Objects.requireNonNull(value, "value");
+        CompletableFuture<V> future = CompletableFuture.completedFuture(value);
+        CacheNode<K, V> added = newNode(key, future);
+        boolean[] wasExpiring = new boolean[1];
+        CacheNode<K, V> node = entries.compute(key, (present, current) -> {
+            if (current == null) {
+                forgetStored(key);
+                return added;
+            }
+            wasExpiring[0] = current.expiresAt != NEVER;
+            current.future = future;
+            current.source = future;
+            current.expiresAt = NEVER;
+            current.refreshAt = NEVER;
+            return current;
+        });
+        if (node == added) {
+            afterWrite(() -> addToPolicy(added));
+        } else if (wasExpiring[0]) {
+            afterWrite(() -> reschedule(node));
+        } else {
+            afterRead(node);
+        }
+        indexOnCompletion(node, future);
+        if (callback != null) {
+            callback.accept(value);
+        }
+    }
+
+    /**
+     * Stores a value that never expires, replacing any cached or loading
+     * one.
+     *
+     * @param key   the key
+     * @param value the value, not null
+     */
+    public void put(K key, V value) {
+        put(key, value, null);
+    }
+
+    /**
+     * Gets the values of several keys, loading all the missing ones with a
+     * single call of a bulk loader.
+     *
+     * Each missing key is first cached as loading, as by
+     * {@link #getOrCompute(Object, Function)}, so concurrent calls for a key
+     * already requested by another batch share its pending value instead of
+     * loading it again. Keys left out of the loaded map complete with null
+     * and are not cached; if the bulk load fails, every key it was loading
+     * fails and is evicted.
+     *
+     * @param keys       the keys
+     * @param bulkLoader starts loading the values of the missing keys, given
+     *                   as an unmodifiable set; only called if some key is
+     *                   missing
+     * @return the future of each key, in the iteration order of the keys
+     */
+    public Map<K, CompletableFuture<V>> batchGet(Collection<? extends K> keys,
+            Function<? super Set<K>, ? extends CompletableFuture<? extends Map<? extends K, ? extends V>>> bulkLoader) {
+        Objects.requireNonNull(bulkLoader, "bulkLoader");
+        Map<K, CompletableFuture<V>> futures = new LinkedHashMap<>();
+        Map<K, CacheNode<K, V>> missing = new LinkedHashMap<>();
+        boolean[] added = new boolean[1];
+        long start = stats != null ? now() : 0L;
+        for (K key : keys) {
+            if (!futures.containsKey(key)) {
+                CacheNode<K, V> node = findOrAdd(key, added);
+                futures.put(key, node.future);
+                recordGet(start, node.future);
+                if (added[0]) {
+                    missing.put(key, node);
+                }
+            }
+        }
+        if (!missing.isEmpty()) {
+            loadAll(missing, futures, bulkLoader);
+        }
+        return futures;
+    }
+
+    /**
+     * Replaces the cached value of a key with a transformation of it, once
+     * it is available. The transformation keeps the expiration time of the
+     * value, and is evicted if it fails.
+     *
+     * @param key         the key
+     * @param transformer derives the new value from the current one
+     * @return the future of the new value, or null if the key is absent or
+     *         expired
+     */
+    public CompletableFuture<V> transform(K key, Function<? super V, ? extends V> transformer) {
+        Objects.requireNonNull(transformer, "transformer");
+        CacheNode<K, V> node = entries.get(key);
+        if (node == null || isExpired(node) && removeIf(node, this::isExpired, EvictionCause.EXPIRED)) {
+            return null;
+        }
+        CacheNode<K, V> transformed = entries.computeIfPresent(key, (present, current) -> {
+            if (isExpired(current)) {
+                return current;
+            }
+            current.future = current.future.thenApply(transformer);
+            return current;
+        });
+        if (transformed == null || isExpired(transformed)) {
+            return null;
+        }
+        CompletableFuture<V> future = transformed.future;
+        evictOnFailure(transformed, future);
+        indexOnCompletion(transformed, future);
+        afterRead(transformed);
+        return future;
+    }
+
+    /**
+     * Gets the value of a key, loading it if it is missing or expired. A
+     * value loaded by this method expires once its time to live has passed
+     * since it was loaded, and is never returned afterwards; values stored
+     * otherwise keep their own expiration.
+     *
+     * @param key             the key
+     * @param refreshSupplier starts loading the value of a missing or expired
+     *                        key
+     * @param ttlMillis       how long a loaded value may be served, in
+     *                        milliseconds
+     * @return the future of the cached or loading value
+     * @throws IllegalArgumentException if the time to live is not positive
+     */
+    public CompletableFuture<V> getWithRefresh(K key,
+            Function<? super K, ? extends CompletableFuture<? extends V>> refreshSupplier, long ttlMillis) {
+        return getWithRefresh(key, refreshSupplier, ttlMillis, ttlMillis);
+    }
+
+    /**
+     * Gets the value of a key as by
+     * {@link #getWithRefresh(Object, Function, long)}, reloading it ahead of
+     * its expiration: once a value loaded by this method is older than the
+     * refresh delay, reads still return it at once but start a reload in the
+     * background, which replaces the value and restarts its time to live when
+     * it succeeds. At most one reload of a key runs at a time; a failed
+     * reload leaves the current value to expire.
+     *
+     * @param key                the key
+     * @param refreshSupplier    starts loading the value of a key
+     * @param ttlMillis          how long a loaded value may be served, in
+     *                           milliseconds
+     * @param refreshAfterMillis how long before a read reloads the value in
+     *                           the background, in milliseconds; a delay
+     *                           equal to the time to live never refreshes
+     *                           ahead
+     * @return the future of the cached or loading value
+     * @throws IllegalArgumentException if the time to live is not positive,
+     *                                  or the refresh delay is not between 1
+     *                                  and the time to live
+     */
+    public CompletableFuture<V> getWithRefresh(K key,
+            Function<? super K, ? extends CompletableFuture<? extends V>> refreshSupplier, long ttlMillis,
+            long refreshAfterMillis) {
+        if (ttlMillis <= 0) {
+            throw new IllegalArgumentException("Time to live must be positive: " + ttlMillis);
+        }
+        if (refreshAfterMillis <= 0 || refreshAfterMillis > ttlMillis) {
+            throw new IllegalArgumentException(
+                    "Refresh delay must be between 1 and the time to live " + ttlMillis + ": " + refreshAfterMillis);
+        }
+        return get(key, refreshSupplier, TimeUnit.MILLISECONDS.toNanos(ttlMillis),
+                TimeUnit.MILLISECONDS.toNanos(refreshAfterMillis));
+    }
+
+    /**
+     * Evicts every loaded value that is an instance of a type.
+     *
+     * Only the entries indexed under the type or its subclasses are visited,
+     * so the cost grows with the number of matching values and of distinct
+     * value classes, not with the size of the cache.
+     *
+     * @param type the type of the values to evict, subclasses included
+     * @return the number of values evicted
+     */
+    public int evictByType(Class<? extends V> type) {
+        int evicted = 0;
+        for (Map.Entry<Class<?>, Set<CacheNode<K, V>>> indexed : typeIndex.entrySet()) {
+            if (!type.isAssignableFrom(indexed.getKey())) {
+                continue;
+            }
+            for (CacheNode<K, V> node : indexed.getValue()) {
+                CompletableFuture<V> future = node.future;
+                if (future.isDone() && !future.isCompletedExceptionally() && type.isInstance(future.getNow(null))
+                        && removeIf(node, current -> current.future == future, EvictionCause.EXPLICIT)) {
+                    evicted++;
+                }
+            }
+        }
+        return evicted;
+    }
+
+    /**
+     * Removes a key, whether loaded, loading, demoted or saved.
+     *
+     * @param key the key
+     */
+    public void invalidate(K key) {
+        forgetStored(key);
+        CacheNode<K, V> node = entries.remove(key);
+        if (node != null) {
+            retire(node);
+            if (stats != null) {
+                stats.recordEviction(EvictionCause.EXPLICIT);
+            }
+        }
+    }
+
+    /**
+     * Removes every key.
+     */
+    public void invalidateAll() {
+        entries.keySet().forEach(this::invalidate);
+        if (offHeapTier != null) {
+            offHeapTier.clear();
+        }
+        if (diskTier != null) {
+            diskTier.clear();
+        }
+    }
+
+    /**
+     * @return the number of cached or loading keys, including expired ones
+     *         not cleaned up yet, but not the demoted or saved ones
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Runs the maintenance of the cache now, waiting for the eviction lock
+     * if needed: replays the buffered reads and writes into the eviction
+     * policy and removes the expired entries. This is otherwise done as a
+     * side effect of using the cache.
+     */
+    public void cleanUp() {
+        evictionLock.lock();
+        try {
+            maintenance();
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * Takes a snapshot of the statistics recorded since the cache was
+     * created; the snapshot does not change afterwards.
+     *
+     * @return the statistics, or {@link CacheStats#empty()} if they are not
+     *         recorded
+     */
+    public CacheStats getStats() {
+        return stats != null ? stats.snapshot() : CacheStats.empty();
+    }
+
+    /**
+     * Saves the values that never expire to the disk tier, if any, along
+     * with the saved values not read since the cache was built, so that a
+     * cache built on the same directory starts with them. Does nothing
+     * without a disk tier. The cache keeps working in memory afterwards, but
+     * saves nothing more.
+     *
+     * @throws UncheckedIOException if the values cannot be saved
+     */
+    @Override
+    public void close() {
+        if (diskTier == null) {
+            return;
+        }
+        try {
+            diskTier.save(sink -> {
+                for (CacheNode<K, V> node : entries.values()) {
+                    V value = storedValue(node);
+                    byte[] bytes = value != null ? encode(diskCodec, value) : null;
+                    if (bytes != null) {
+                        sink.accept(node.key, bytes);
+                    }
+                }
+                if (offHeapTier != null) {
+                    offHeapTier.forEach((key, demoted) -> {
+                        V value = decode(codec, demoted);
+                        byte[] bytes = value != null ? encode(diskCodec, value) : null;
+                        if (bytes != null) {
+                            sink.accept(key, bytes);
+                        }
+                    });
+                }
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot save the cache", e);
+        }
+    }
+
+    private CompletableFuture<V> get(K key, Function<? super K, ? extends CompletableFuture<? extends V>> loader,
+            long ttlNanos, long refreshNanos) {
+        long start = stats != null ? now() : 0L;
+        boolean[] added = new boolean[1];
+        CacheNode<K, V> node = findOrAdd(key, added);
+        CompletableFuture<V> future = node.future;
+        if (added[0]) {
+            load(node, loader, ttlNanos, refreshNanos);
+        } else if (ttlNanos != NEVER && isRefreshDue(node)) {
+            refresh(node, future, loader, ttlNanos, refreshNanos);
+        }
+        recordGet(start, future);
+        return future;
+    }
+
+    /**
+     * Finds the live node of a key, or maps a new loading node if the key is
+     * missing or expired.
+     *
+     * @param added set to whether the returned node was added, and must be
+     *              loaded by the caller
+     */
+    private CacheNode<K, V> findOrAdd(K key, boolean[] added) {
+        Objects.requireNonNull(key, "key");
+        added[0] = false;
+        for (;;) {
+            CacheNode<K, V> node = entries.get(key);
+            if (node == null) {
+                CacheNode<K, V> loading = newNode(key, new CompletableFuture<>());
+                node = entries.putIfAbsent(key, loading);
+                if (node == null) {
+                    afterWrite(() -> addToPolicy(loading));
+                    added[0] = true;
+                    if (stats != null) {
+                        stats.recordMiss();
+                    }
+                    return loading;
+                }
+            }
+            if (!isExpired(node)) {
+                afterRead(node);
+                if (stats != null) {
+                    stats.recordHit();
+                }
+                return node;
+            }
+            removeIf(node, this::isExpired, EvictionCause.EXPIRED);
+        }
+    }
+
+    private void loadAll(Map<K, CacheNode<K, V>> missing, Map<K, CompletableFuture<V>> futures,
+            Function<? super Set<K>, ? extends CompletableFuture<? extends Map<? extends K, ? extends V>>> bulkLoader) {
+        for (CacheNode<K, V> node : missing.values()) {
+            evictOnFailure(node, futures.get(node.key));
+            indexOnCompletion(node, futures.get(node.key));
+        }
+        Set<K> keys = new LinkedHashSet<>(missing.keySet());
+        if (hasLowerTiers()) {
+            for (CacheNode<K, V> node : missing.values()) {
+                V demoted = promote(node.key);
+                if (demoted != null) {
+                    futures.get(node.key).complete(demoted);
+                    keys.remove(node.key);
+                }
+            }
+            if (keys.isEmpty()) {
+                return;
+            }
+        }
+        long start = stats != null ? now() : 0L;
+        startLoading(Collections.unmodifiableSet(keys), bulkLoader).whenComplete((values, failure) -> {
+            recordLoad(start, failure == null && values != null);
+            for (K key : keys) {
+                CompletableFuture<V> loading = futures.get(key);
+                if (failure != null) {
+                    loading.completeExceptionally(unwrap(failure));
+                } else if (values == null) {
+                    loading.completeExceptionally(new NullPointerException("Bulk loader returned no values"));
+                } else {
+                    loading.complete(values.get(key));
+                }
+            }
+        });
+    }
+
+    private void load(CacheNode<K, V> node,
+            Function<? super K, ? extends CompletableFuture<? extends V>> loader, long ttlNanos, long refreshNanos) {
+        CompletableFuture<V> loading = node.future;
+        evictOnFailure(node, loading);
+        indexOnCompletion(node, loading);
+        V demoted = promote(node.key);
+        if (demoted != null && ttlNanos == NEVER) {
+            loading.complete(demoted);
+            return;
+        }
+        long start = stats != null ? now() : 0L;
+        startLoading(node.key, loader).whenComplete((value, failure) -> {
+            recordLoad(start, failure == null && value != null);
+            if (failure != null) {
+                loading.completeExceptionally(unwrap(failure));
+                return;
+            }
+            if (ttlNanos != NEVER && value != null) {
+                startExpiring(node, loading, loading, ttlNanos, refreshNanos);
+            }
+            loading.complete(value);
+        });
+    }
+
+    /**
+     * Reloads the value of a node in the background, unless a reload of its
+     * key is already running; the current value is served until the reload
+     * succeeds.
+     */
+    private void refresh(CacheNode<K, V> node, CompletableFuture<V> current,
+            Function<? super K, ? extends CompletableFuture<? extends V>> loader, long ttlNanos, long refreshNanos) {
+        if (!current.isDone() || current.isCompletedExceptionally()) {
+            return;
+        }
+        CompletableFuture<V> refreshing = new CompletableFuture<>();
+        if (refreshes.putIfAbsent(node.key, refreshing) != null) {
+            return;
+        }
+        long start = stats != null ? now() : 0L;
+        startLoading(node.key, loader).whenComplete((value, failure) -> {
+            refreshes.remove(node.key, refreshing);
+            recordLoad(start, failure == null && value != null);
+            if (failure == null && value != null) {
+                startExpiring(node, current, CompletableFuture.completedFuture(value), ttlNanos, refreshNanos);
+            }
+        });
+    }
+
+    private static <K, V> CompletableFuture<? extends V> startLoading(K key,
+            Function<? super K, ? extends CompletableFuture<? extends V>> loader) {
+        CompletableFuture<? extends V> source;
+        try {
+            source = loader.apply(key);
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        if (source == null) {
+            return CompletableFuture.failedFuture(new NullPointerException("Loader returned no future for key " + key));
+        }
+        return source;
+    }
+
+    private static Throwable unwrap(Throwable failure) {
+        return failure instanceof CompletionException && failure.getCause() != null ? failure.getCause() : failure;
+    }
+
+    /**
+     * Sets the value and expiration times of a loaded node, unless its value
+     * was replaced meanwhile; checked atomically with the replacements. A
+     * load transformed while pending keeps its transformation, which then
+     * expires with the loaded value.
+     */
+    private void startExpiring(CacheNode<K, V> node, CompletableFuture<V> expected, CompletableFuture<V> loaded,
+            long ttlNanos, long refreshNanos) {
+        boolean[] expiring = new boolean[1];
+        entries.computeIfPresent(node.key, (key, current) -> {
+            boolean transformedLoad = loaded == expected && current.source == expected;
+            if (current == node && (current.future == expected || transformedLoad)) {
+                long loadedAt = now();
+                if (current.future == expected) {
+                    current.future = loaded;
+                    current.source = loaded;
+                }
+                current.expiresAt = saturatedAdd(loadedAt, ttlNanos);
+                current.refreshAt = refreshNanos < ttlNanos ? saturatedAdd(loadedAt, refreshNanos) : NEVER;
+                expiring[0] = true;
+            }
+            return current;
+        });
+        if (expiring[0]) {
+            afterWrite(() -> reschedule(node));
+            if (loaded != expected) {
+                indexOnCompletion(node, loaded);
+            }
+        }
+    }
+
+    /**
+     * Creates a node, which weighs nothing until its value is weighed if the
+     * cache has a weigher.
+     */
+    private CacheNode<K, V> newNode(K key, CompletableFuture<V> future) {
+        CacheNode<K, V> node = new CacheNode<>(key, future);
+        if (weigher != null) {
+            node.weight = 0;
+        }
+        return node;
+    }
+
+    /**
+     * Indexes the value of a node by its class once available and, if the
+     * cache has a weigher, updates the weight of the node in the policy,
+     * unless the node holds another value by then. A value the weigher
+     * rejects is evicted.
+     */
+    private void indexOnCompletion(CacheNode<K, V> node, CompletableFuture<V> future) {
+        future.thenAccept(value -> {
+            if (value == null) {
+                return;
+            }
+            index(node, future, value.getClass());
+            if (weigher == null) {
+                return;
+            }
+            int weight;
+            try {
+                weight = weigher.applyAsInt(node.key, value);
+            } catch (RuntimeException e) {
+                weight = -1;
+            }
+            if (weight < 0) {
+                removeIf(node, current -> current.future == future, null);
+                return;
+            }
+            int newWeight = weight;
+            afterWrite(() -> {
+                if (!node.retired && node.future == future) {
+                    policy.onUpdate(node, newWeight);
+                }
+            });
+        });
+    }
+
+    /**
+     * Moves a node to the index of the class of its value, atomically with
+     * the replacements and removals of the node, so that a removed node is
+     * never indexed again.
+     */
+    private void index(CacheNode<K, V> node, CompletableFuture<V> future, Class<?> type) {
+        entries.computeIfPresent(node.key, (key, current) -> {
+            if (current == node && current.future == future && current.indexedType != type) {
+                unindex(current);
+                typeIndex.compute(type, (indexed, nodes) -> {
+                    Set<CacheNode<K, V>> added = nodes != null ? nodes : ConcurrentHashMap.newKeySet();
+                    added.add(current);
+                    return added;
+                });
+                current.indexedType = type;
+            }
+            return current;
+        });
+    }
+
+    /**
+     * Removes a node from the index, and drops the set of its class once
+     * empty so that classes no longer cached are not kept reachable.
+     */
+    private void unindex(CacheNode<K, V> node) {
+        Class<?> type = node.indexedType;
+        if (type != null) {
+            typeIndex.computeIfPresent(type, (indexed, nodes) -> {
+                nodes.remove(node);
+                return nodes.isEmpty() ? null : nodes;
+            });
+        }
+    }
+
+    private void evictOnFailure(CacheNode<K, V> node, CompletableFuture<V> future) {
+        future.whenComplete((value, failure) -> {
+            if (failure != null || value == null) {
+                removeIf(node, current -> current.future == future, null);
+            }
+        });
+    }
+
+    /**
+     * Removes a node from the map if it is still mapped and meets a
+     * condition, checked atomically with the removal.
+     *
+     * @param cause the eviction to record, null for a failed load
+     */
+    private boolean removeIf(CacheNode<K, V> node, Predicate<? super CacheNode<K, V>> condition,
+            EvictionCause cause) {
+        boolean[] removed = new boolean[1];
+        entries.computeIfPresent(node.key, (key, current) -> {
+            if (current == node && condition.test(current)) {
+                removed[0] = true;
+                return null;
+            }
+            return current;
+        });
+        if (removed[0]) {
+            retire(node);
+            if (stats != null && cause != null) {
+                stats.recordEviction(cause);
+            }
+        }
+        return removed[0];
+    }
+
+    private void retire(CacheNode<K, V> node) {
+        node.retired = true;
+        unindex(node);
+        afterWrite(() -> {
+            timerWheel.deschedule(node);
+            if (policy != null) {
+                policy.onRemove(node);
+            }
+        });
+    }
+
+    private void addToPolicy(CacheNode<K, V> node) {
+        if (!node.retired && policy != null) {
+            policy.onAdd(node);
+        }
+    }
+
+    private void reschedule(CacheNode<K, V> node) {
+        if (node.retired) {
+            return;
+        }
+        if (node.expiresAt == NEVER) {
+            timerWheel.deschedule(node);
+        } else if (!isExpired(node) || !expire(node)) {
+            timerWheel.schedule(node);
+        }
+    }
+
+    /**
+     * Removes an evicted node from the map; called by the policy under the
+     * eviction lock.
+     *
+     * The value is encoded outside the map, then demoted and removed in one
+     * step, so that neither a miss can load the key in between nor a store
+     * or transformation replace the value being demoted. If the value was
+     * replaced while it was encoded, the current one is encoded again.
+     */
+    private void onEviction(CacheNode<K, V> node) {
+        timerWheel.deschedule(node);
+        boolean[] removed = new boolean[1];
+        boolean[] replaced = new boolean[1];
+        do {
+            CompletableFuture<V> future = node.future;
+            byte[] bytes = offHeapTier != null && !node.retired ? demotedBytes(node) : null;
+            replaced[0] = false;
+            entries.computeIfPresent(node.key, (key, current) -> {
+                if (current != node) {
+                    return current;
+                }
+                if (current.future != future) {
+                    replaced[0] = true;
+                    return current;
+                }
+                if (bytes != null) {
+                    offHeapTier.store(key, bytes);
+                }
+                removed[0] = true;
+                return null;
+            });
+        } while (replaced[0]);
+        if (removed[0]) {
+            node.retired = true;
+            unindex(node);
+            if (stats != null) {
+                stats.recordEviction(EvictionCause.SIZE);
+            }
+        }
+    }
+
     /**
-     * Gets value from cache or computes it asynchronously.
-     * TASK: Add proper generic bounds for async operations
+     * @return the serialized value of an evicted node, or null if it cannot
+     *         be kept off-heap
      */
-    public Object getOrCompute(Object key, Object supplier) {
-        // Implementation would check cache first, then compute
-        return CompletableFuture.completedFuture(new Object());
+    private byte[] demotedBytes(CacheNode<K, V> node) {
+        V value = storedValue(node);
+        return value != null ? encode(codec, value) : null;
     }
-    
+
     /**
-     * Puts value in cache with callback.
-     * TASK: Add proper generic bounds for callback pattern
+     * Takes the value of a key out of the off-heap tier, or else out of the
+     * disk tier.
+     *
+     * @return the value, or null if no tier holds the key or its value
+     *         cannot be decoded
      */
-    public void put(Object key, Object value, Object callback) {
-        // Implementation would store and notify
+    private V promote(K key) {
+        V value = offHeapTier != null ? decode(codec, offHeapTier.remove(key)) : null;
+        if (value == null && diskTier != null) {
+            value = decode(diskCodec, diskTier.remove(key));
+        }
+        return value;
+    }
+
+    private void forgetStored(K key) {
+        if (offHeapTier != null) {
+            offHeapTier.remove(key);
+        }
+        if (diskTier != null) {
+            diskTier.remove(key);
+        }
     }
-    
+
+    private boolean hasLowerTiers() {
+        return offHeapTier != null || diskTier != null;
+    }
+
     /**
-     * Batch operation with multiple keys and suppliers.
-     * TASK: Add proper bounds for batch operations with collections
+     * @return the value of a node if it can be kept outside the heap: loaded,
+     *         not null and never expiring; null otherwise
      */
-    public Object batchGet(Object keys, Object defaultSupplier) {
-        // Would return Map<K, CompletableFuture<V>>
-        return new Object();
+    private V storedValue(CacheNode<K, V> node) {
+        CompletableFuture<V> future = node.future;
+        if (node.expiresAt != NEVER || !future.isDone() || future.isCompletedExceptionally()) {
+            return null;
+        }
+        return future.getNow(null);
+    }
+
+    private static <V> byte[] encode(CacheCodec<V> codec, V value) {
+        try {
+            return codec.encode(value);
+        } catch (RuntimeException e) {
+            return null;
+        }
     }
-    
+
+    private static <V> V decode(CacheCodec<V> codec, byte[] bytes) {
+        if (bytes == null) {
+            return null;
+        }
+        try {
+            return codec.decode(bytes);
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
     /**
-     * Transform cached values.
-     * TASK: Add bounds for value transformation
+     * Removes an expired node from the map; called by the timer wheel under
+     * the eviction lock.
+     *
+     * @return false if the node is still mapped and not expired
      */
-    public Object transform(Object key, Object transformer) {
-        // Would apply transformation to cached value
-        return new Object();
+    private boolean expire(CacheNode<K, V> node) {
+        if (node.retired || node.expiresAt == NEVER) {
+            return true;
+        }
+        boolean[] removed = new boolean[1];
+        CacheNode<K, V> current = entries.computeIfPresent(node.key, (key, mapped) -> {
+            if (mapped == node && isExpired(mapped)) {
+                removed[0] = true;
+                return null;
+            }
+            return mapped;
+        });
+        if (removed[0]) {
+            node.retired = true;
+            unindex(node);
+            if (policy != null) {
+                policy.onRemove(node);
+            }
+            if (stats != null) {
+                stats.recordEviction(EvictionCause.EXPIRED);
+            }
+            return true;
+        }
+        return current != node;
     }
-    
+
+    private void recordLoad(long start, boolean success) {
+        if (stats != null) {
+            stats.recordLoad(success, now() - start);
+        }
+    }
+
     /**
-     * Cache with expiration and refresh.
-     * TASK: Add proper bounds for refresh callback
+     * Records the latency of a lookup once its future completes.
      */
-    public Object getWithRefresh(Object key, Object refreshSupplier, long ttlMillis) {
-        // Would handle TTL and refresh logic
-        return new Object();
+    private void recordGet(long start, CompletableFuture<V> future) {
+        if (stats == null) {
+            return;
+        }
+        if (future.isDone()) {
+            stats.recordGet(now() - start);
+        } else {
+            future.whenComplete((value, failure) -> stats.recordGet(now() - start));
+        }
     }
-    
+
+    private boolean isRefreshDue(CacheNode<K, V> node) {
+        long refreshAt = node.refreshAt;
+        return refreshAt != NEVER && refreshAt - now() <= 0;
+    }
+
+    private boolean isExpired(CacheNode<K, V> node) {
+        long expiresAt = node.expiresAt;
+        return expiresAt != NEVER && expiresAt - now() <= 0;
+    }
+
+    private long now() {
+        return ticker.getAsLong() - origin;
+    }
+
+    private static long saturatedAdd(long a, long b) {
+        long sum = a + b;
+        return ((a ^ sum) & (b ^ sum)) < 0 || sum == NEVER ? NEVER - 1 : sum;
+    }
+
+    private void afterRead(CacheNode<K, V> node) {
+        if (policy != null && !readBuffer.offer(node)) {
+            tryDrain();
+        }
+    }
+
+    private void afterWrite(Runnable task) {
+        writeBuffer.add(task);
+        tryDrain();
+    }
+
     /**
-     * Type-safe cache eviction by type.
-     * TASK: Add bounds to evict all values of certain type
+     * Runs the maintenance if no other thread is doing so. The lock holder
+     * checks the write buffer again after unlocking, so a write added while
+     * it was draining is never left behind.
      */
-    public void evictByType(Object type) {
-        // Would evict all cached values of specified type
+    private void tryDrain() {
+        if (evictionLock.isHeldByCurrentThread()) {
+            return;
+        }
+        while (evictionLock.tryLock()) {
+            try {
+                maintenance();
+            } finally {
+                evictionLock.unlock();
+            }
+            if (writeBuffer.isEmpty()) {
+                return;
+            }
+        }
     }
-    
+
+    private void maintenance() {
+        if (policy != null) {
+            readBuffer.drainTo(policy::onAccess);
+        }
+        Runnable task;
+        while ((task = writeBuffer.poll()) != null) {
+            task.run();
+        }
+        timerWheel.advance(now());
+    }
+
     /**
-     * Generic cache statistics.
-     * TASK: Add proper generic bounds for statistics collection
+     * Configures an {@link AsyncCache}.
+     *
+     * The type parameters only bound those of the caches built, which are
+     * inferred at {@link #build()}: {@code AsyncCache<String, User> users =
+     * AsyncCache.builder().maximumSize(100).build();}
+     *
+     * @param <K> the bound of the key type
+     * @param <V> the bound of the value type
      */
-    public Object getStats() {
-        // Would return CacheStats<K, V> object
-        return new Object();
+    public static final class Builder<K, V> {
+
+        private long maximumSize = UNBOUNDED;
+        private long maximumWeight = UNBOUNDED;
+        private ToIntBiFunction<?, ?> weigher;
+        private CacheCodec<?> codec;
+        private long offHeapCapacity;
+        private Path diskDirectory;
+        private CacheCodec<?> diskKeyCodec;
+        private CacheCodec<?> diskCodec;
+        private LongSupplier ticker = System::nanoTime;
+        private boolean recordStats = true;
+
+        private Builder() {
+        }
+
+        /**
+         * Bounds the number of entries, evicting the least valuable ones
+         * beyond it.
+         *
+         * @param maximumSize the maximum number of entries, at least 1
+         * @return this builder
+         * @throws IllegalArgumentException if the maximum is less than 1
+         */
+        public Builder<K, V> maximumSize(long maximumSize) {
+            if (maximumSize < 1) {
+                throw new IllegalArgumentException("Maximum size must be at least 1: " + maximumSize);
+            }
+            this.maximumSize = maximumSize;
+            return this;
+        }
+
+        /**
+         * Bounds the total weight of the values, as given by the
+         * {@link #weigher(ToIntBiFunction) weigher}, evicting the least
+         * valuable entries beyond it. Cannot be combined with a maximum size.
+         *
+         * @param maximumWeight the maximum total weight, at least 1
+         * @return this builder
+         * @throws IllegalArgumentException if the maximum is less than 1
+         */
+        public Builder<K, V> maximumWeight(long maximumWeight) {
+            if (maximumWeight < 1) {
+                throw new IllegalArgumentException("Maximum weight must be at least 1: " + maximumWeight);
+            }
+            this.maximumWeight = maximumWeight;
+            return this;
+        }
+
+        /**
+         * Sets how much each value counts towards the
+         * {@link #maximumWeight(long) maximum weight}, for example its size
+         * in bytes. The weigher is called once a value is loaded, stored or
+         * transformed, and must return a weight of 0 or more; a value it
+         * fails on is not cached.
+         *
+         * @param <K1>    the type of the keys
+         * @param <V1>    the type of the values
+         * @param weigher returns the weight of the value of a key
+         * @return this builder, bound to the types the weigher accepts
+         */
+        @SuppressWarnings("unchecked")
+        public <K1 extends K, V1 extends V> Builder<K1, V1> weigher(ToIntBiFunction<? super K1, ? super V1> weigher) {
+            this.weigher = Objects.requireNonNull(weigher, "weigher");
+            return (Builder<K1, V1>) this;
+        }
+
+        /**
+         * Adds an off-heap tier keeping the values evicted to stay within
+         * the maximum size or weight, serialized by a codec, until it holds
+         * a given number of bytes; the values demoted longest ago are then
+         * dropped.
+         *
+         * @param <K1>     the type of the keys
+         * @param <V1>     the type of the values
+         * @param codec    serializes the values
+         * @param capacity the maximum number of bytes held off-heap, at
+         *                 least 1
+         * @return this builder, bound to the type the codec serializes
+         * @throws IllegalArgumentException if the capacity is less than 1
+         */
+        @SuppressWarnings("unchecked")
+        public <K1 extends K, V1 extends V> Builder<K1, V1> offHeapTier(CacheCodec<V1> codec, long capacity) {
+            if (capacity < 1) {
+                throw new IllegalArgumentException("Off-heap capacity must be at least 1: " + capacity);
+            }
+            this.codec = Objects.requireNonNull(codec, "codec");
+            this.offHeapCapacity = capacity;
+            return (Builder<K1, V1>) this;
+        }
+
+        /**
+         * Adds a disk tier saving the values to a directory when the cache
+         * is {@link AsyncCache#close() closed}, and reading those saved by a
+         * previous cache back as their keys miss. Values that expire are
+         * never saved. A snapshot found corrupt or written by an
+         * incompatible version is discarded, and the cache starts cold.
+         *
+         * @param <K1>       the type of the keys
+         * @param <V1>       the type of the values
+         * @param directory  the directory of the snapshot, dedicated to this
+         *                   cache
+         * @param keyCodec   serializes the keys
+         * @param valueCodec serializes the values
+         * @return this builder, bound to the types the codecs serialize
+         */
+        @SuppressWarnings("unchecked")
+        public <K1 extends K, V1 extends V> Builder<K1, V1> diskTier(Path directory, CacheCodec<K1> keyCodec,
+                CacheCodec<V1> valueCodec) {
+            this.diskDirectory = Objects.requireNonNull(directory, "directory");
+            this.diskKeyCodec = Objects.requireNonNull(keyCodec, "keyCodec");
+            this.diskCodec = Objects.requireNonNull(valueCodec, "valueCodec");
+            return (Builder<K1, V1>) this;
+        }
+
+        /**
+         * Sets the clock measuring times to live, {@link System#nanoTime()}
+         * by default.
+         *
+         * @param ticker returns the current time in nanoseconds
+         * @return this builder
+         */
+        public Builder<K, V> ticker(LongSupplier ticker) {
+            this.ticker = Objects.requireNonNull(ticker, "ticker");
+            return this;
+        }
+
+        /**
+         * Enables or disables the recording of {@link CacheStats}, enabled
+         * by default; a cache without statistics skips every counter and
+         * clock read they need.
+         *
+         * @param recordStats whether to record statistics
+         * @return this builder
+         */
+        public Builder<K, V> recordStats(boolean recordStats) {
+            this.recordStats = recordStats;
+            return this;
+        }
+
+        /**
+         * @param <K1> the type of the keys
+         * @param <V1> the type of the values
+         * @return a new cache, empty unless a disk tier holds saved values
+         * @throws UncheckedIOException  if the directory of the disk tier
+         *                               cannot be used
+         * @throws IllegalStateException if a weigher and a maximum weight are
+         *                               not set together, a maximum weight
+         *                               is combined with a maximum size, or
+         *                               an off-heap tier has no maximum
+         */
+        public <K1 extends K, V1 extends V> AsyncCache<K1, V1> build() {
+            if ((weigher == null) != (maximumWeight == UNBOUNDED)) {
+                throw new IllegalStateException("A weigher and a maximum weight must be set together");
+            }
+            if (maximumWeight != UNBOUNDED && maximumSize != UNBOUNDED) {
+                throw new IllegalStateException("A maximum size cannot be combined with a maximum weight");
+            }
+            if (codec != null && maximumSize == UNBOUNDED && maximumWeight == UNBOUNDED) {
+                throw new IllegalStateException("An off-heap tier requires a maximum size or weight");
+            }
+            return new AsyncCache<>(this);
+        }
     }
 }
@@ -0,0 +1,211 @@
+package org.buildozers.dojo.generics.advanced;
+
+import java.util.function.Consumer;
+
+/**
+ * W-TinyLFU eviction policy of a size-bounded {@link AsyncCache}.
+ *
+ * New entries enter a small LRU window, about 1% of the capacity, which
+ * absorbs bursts of new keys. Entries leaving the window become candidates
+ * for the main space, a segmented LRU made of a probation and a protected
+ * region, the latter holding about 80% of it: an entry read while on
+ * probation is promoted to protected, and the least recently used
+ * protected entries are demoted back to probation.
+ *
+ * When the cache is full, a candidate is only admitted if the
+ * {@link FrequencySketch} says its key was used more often recently than
+ * the key of the probation victim it would replace; otherwise the
+ * candidate itself is evicted. A scan of keys used once therefore never
+ * pushes out frequently used entries, unlike with a plain LRU.
+ *
+ * Every region is bounded by the total weight of its nodes, which is their
+ * count unless the cache has a weigher. The weight of a node can change
+ * while it is in the policy, when its value is loaded or replaced. With a
+ * weigher the maximum says nothing about the number of entries, so the
+ * sketch starts small and grows with the number of nodes.
+ *
+ * Not thread-safe: {@link AsyncCache} calls it under its eviction lock.
+ *
+ * @param <K> the type of the keys
+ * @param <V> the type of the values
+ */
+final class BoundedPolicy<K, V> {
+
+    private static final int WINDOW_PERCENT = 1;
+    private static final int PROTECTED_PERCENT = 80;
+    private static final long INITIAL_WEIGHTED_SKETCH_CAPACITY = 64;
+
+    private final long maximum;
+    private final long windowMaximum;
+    private final long protectedMaximum;
+    private final FrequencySketch<K> sketch;
+    private final AccessOrderDeque<K, V> window = new AccessOrderDeque<>();
+    private final AccessOrderDeque<K, V> probation = new AccessOrderDeque<>();
+    private final AccessOrderDeque<K, V> protectedQueue = new AccessOrderDeque<>();
+    private final Consumer<CacheNode<K, V>> evictionListener;
+    private final boolean weighted;
+    private long size;
+    private long weightedSize;
+    private long windowWeight;
+    private long protectedWeight;
+
+    /**
+     * @param maximum          the maximum total weight of the cache
+     * @param weighted         whether nodes have weights other than 1
+     * @param evictionListener removes an evicted node from the cache
+     */
+    BoundedPolicy(long maximum, boolean weighted, Consumer<CacheNode<K, V>> evictionListener) {
+        this.maximum = maximum;
+        this.windowMaximum = Math.max(1L, maximum * WINDOW_PERCENT / 100);
+        this.protectedMaximum = (maximum - windowMaximum) * PROTECTED_PERCENT / 100;
+        this.sketch = new FrequencySketch<>(weighted ? Math.min(maximum, INITIAL_WEIGHTED_SKETCH_CAPACITY) : maximum);
+        this.evictionListener = evictionListener;
+        this.weighted = weighted;
+    }
+
+    /**
+     * Adds a new node to the window, then evicts as needed.
+     *
+     * @param node the node just inserted in the map
+     */
+    void onAdd(CacheNode<K, V> node) {
+        if (weighted) {
+            sketch.ensureCapacity(size + 1);
+        }
+        sketch.increment(node.key);
+        node.queue = CacheNode.Queue.WINDOW;
+        window.addLast(node);
+        windowWeight += node.weight;
+        weightedSize += node.weight;
+        size++;
+        evict();
+    }
+
+    /**
+     * Changes the weight of a node, then evicts as needed.
+     *
+     * @param node   the node, ignored if no longer in the policy
+     * @param weight its new weight
+     */
+    void onUpdate(CacheNode<K, V> node, int weight) {
+        if (!node.isLinked()) {
+            return;
+        }
+        int delta = weight - node.weight;
+        node.weight = weight;
+        weightedSize += delta;
+        if (node.queue == CacheNode.Queue.WINDOW) {
+            windowWeight += delta;
+        } else if (node.queue == CacheNode.Queue.PROTECTED) {
+            protectedWeight += delta;
+            demoteProtected();
+        }
+        evict();
+    }
+
+    /**
+     * Records a read of a node.
+     *
+     * @param node the node read
+     */
+    void onAccess(CacheNode<K, V> node) {
+        if (!node.isLinked()) {
+            return;
+        }
+        sketch.increment(node.key);
+        switch (node.queue) {
+            case WINDOW -> window.moveToBack(node);
+            case PROBATION -> {
+                probation.remove(node);
+                node.queue = CacheNode.Queue.PROTECTED;
+                protectedQueue.addLast(node);
+                protectedWeight += node.weight;
+                demoteProtected();
+            }
+            case PROTECTED -> protectedQueue.moveToBack(node);
+        }
+    }
+
+    /**
+     * Forgets a node removed from the map by the cache.
+     *
+     * @param node the removed node
+     */
+    void onRemove(CacheNode<K, V> node) {
+        if (node.isLinked()) {
+            unlink(node);
+        }
+    }
+
+    /**
+     * @return the total weight of the nodes in the policy
+     */
+    long weightedSize() {
+        return weightedSize;
+    }
+
+    private void evict() {
+        CacheNode<K, V> candidate = null;
+        while (windowWeight > windowMaximum) {
+            CacheNode<K, V> node = window.peekFirst();
+            window.remove(node);
+            windowWeight -= node.weight;
+            node.queue = CacheNode.Queue.PROBATION;
+            probation.addLast(node);
+            if (candidate == null) {
+                candidate = node;
+            }
+        }
+        while (weightedSize > maximum) {
+            CacheNode<K, V> victim = probation.peekFirst();
+            if (candidate != null && victim != null && victim != candidate) {
+                if (sketch.frequency(candidate.key) > sketch.frequency(victim.key)) {
+                    evictNode(victim);
+                } else {
+                    CacheNode<K, V> nextCandidate = candidate.next;
+                    evictNode(candidate);
+                    candidate = nextCandidate;
+                }
+                continue;
+            }
+            CacheNode<K, V> oldest = victim != null ? victim
+                    : protectedQueue.peekFirst() != null ? protectedQueue.peekFirst() : window.peekFirst();
+            if (oldest == candidate) {
+                candidate = candidate.next;
+            }
+            evictNode(oldest);
+        }
+    }
+
+    private void demoteProtected() {
+        while (protectedWeight > protectedMaximum) {
+            CacheNode<K, V> node = protectedQueue.peekFirst();
+            protectedQueue.remove(node);
+            protectedWeight -= node.weight;
+            node.queue = CacheNode.Queue.PROBATION;
+            probation.addLast(node);
+        }
+    }
+
+    private void evictNode(CacheNode<K, V> node) {
+        unlink(node);
+        evictionListener.accept(node);
+    }
+
+    private void unlink(CacheNode<K, V> node) {
+        switch (node.queue) {
+            case WINDOW -> {
+                window.remove(node);
+                windowWeight -= node.weight;
+            }
+            case PROBATION -> probation.remove(node);
+            case PROTECTED -> {
+                protectedQueue.remove(node);
+                protectedWeight -= node.weight;
+            }
+        }
+        weightedSize -= node.weight;
+        size--;
+        node.queue = null;
+    }
+}
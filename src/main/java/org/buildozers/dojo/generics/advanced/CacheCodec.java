@@ -0,0 +1,44 @@
+package org.buildozers.dojo.generics.advanced;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Serializes the values an {@link AsyncCache} moves to its off-heap tier.
+ *
+ * Both methods may be called concurrently. A value that fails to encode is
+ * dropped instead of demoted, and a value that fails to decode is loaded
+ * again.
+ *
+ * @param <V> the type of the values
+ */
+public interface CacheCodec<V> {
+
+    /**
+     * @param value the value, not null
+     * @return the serialized value
+     */
+    byte[] encode(V value);
+
+    /**
+     * @param bytes a value serialized by {@link #encode(Object)}
+     * @return the value
+     */
+    V decode(byte[] bytes);
+
+    /**
+     * @return a codec of strings in UTF-8
+     */
+    static CacheCodec<String> utf8() {
+        return new CacheCodec<>() {
+            @Override
+            public byte[] encode(String value) {
+                return value.getBytes(StandardCharsets.UTF_8);
+            }
+
+            @Override
+            public String decode(byte[] bytes) {
+                return new String(bytes, StandardCharsets.UTF_8);
+            }
+        };
+    }
+}
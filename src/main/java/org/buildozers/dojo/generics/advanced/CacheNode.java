@@ -0,0 +1,80 @@
+package org.buildozers.dojo.generics.advanced;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Entry of an {@link AsyncCache}: the future of a value, its expiration
+ * and refresh times, and the bookkeeping of the eviction policy and timer
+ * wheel.
+ *
+ * The future and times are read without locking; the policy and timer
+ * fields are only accessed under the eviction lock of the cache.
+ *
+ * @param <K> the type of the key
+ * @param <V> the type of the value
+ */
+final class CacheNode<K, V> {
+
+    /**
+     * The region of the policy holding a node.
+     */
+    enum Queue {
+        WINDOW, PROBATION, PROTECTED
+    }
+
+    final K key;
+    volatile CompletableFuture<V> future;
+
+    /**
+     * Future of the load or store that produced the value, from which the
+     * current future derives through transformations; only changed while
+     * the node is locked in the map
+     */
+    volatile CompletableFuture<V> source;
+
+    /**
+     * Set once the node has left the map, so that pending policy tasks
+     * ignore it
+     */
+    volatile boolean retired;
+
+    /**
+     * Time after which the value must not be served, in nanoseconds of the
+     * cache clock, or {@link Long#MAX_VALUE} if it never expires
+     */
+    volatile long expiresAt = Long.MAX_VALUE;
+
+    /**
+     * Time after which a read starts reloading the value in the background,
+     * in nanoseconds of the cache clock, or {@link Long#MAX_VALUE} if it is
+     * never refreshed ahead of its expiration
+     */
+    volatile long refreshAt = Long.MAX_VALUE;
+
+    /**
+     * Class of the value under which the cache indexes the node, or null
+     * while it is not indexed; only changed while the node is locked in the
+     * map
+     */
+    volatile Class<?> indexedType;
+
+    Queue queue;
+    int weight = 1;
+    CacheNode<K, V> previous;
+    CacheNode<K, V> next;
+    CacheNode<K, V> timerPrevious;
+    CacheNode<K, V> timerNext;
+
+    CacheNode(K key, CompletableFuture<V> future) {
+        this.key = key;
+        this.future = future;
+        this.source = future;
+    }
+
+    /**
+     * @return whether the node is currently in a region of the policy
+     */
+    boolean isLinked() {
+        return queue != null;
+    }
+}
@@ -0,0 +1,205 @@
+package org.buildozers.dojo.generics.advanced;
+
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Immutable snapshot of the statistics of an {@link AsyncCache}.
+ *
+ * A hit is a lookup answered by a cached or loading value, a miss one that
+ * had to start a load; a load succeeds when it completes with a value, and
+ * fails when it completes exceptionally or with null. Evictions are counted
+ * by {@link EvictionCause}; failed loads are dropped but not counted as
+ * evictions. Load times run from the call of the loader to the completion
+ * of its future, get latencies from the lookup to the completion of the
+ * future it returned, so waiting on a load shows in them.
+ *
+ * A cache built without statistics reports {@link #empty()}.
+ */
+public final class CacheStats {
+
+    /**
+     * Why an entry left the cache.
+     */
+    public enum EvictionCause {
+        /** Removed by the eviction policy to stay within the maximum size */
+        SIZE,
+        /** Removed after its time to live */
+        EXPIRED,
+        /** Removed by an invalidation or {@link AsyncCache#evictByType} */
+        EXPLICIT
+    }
+
+    private static final CacheStats EMPTY = new CacheStats(0, 0, 0, 0, new EnumMap<>(EvictionCause.class),
+            Histogram.EMPTY, Histogram.EMPTY);
+
+    private final long hitCount;
+    private final long missCount;
+    private final long loadSuccessCount;
+    private final long loadFailureCount;
+    private final Map<EvictionCause, Long> evictionCounts;
+    private final Histogram loadTimes;
+    private final Histogram getLatencies;
+
+    CacheStats(long hitCount, long missCount, long loadSuccessCount, long loadFailureCount,
+            Map<EvictionCause, Long> evictionCounts, Histogram loadTimes, Histogram getLatencies) {
+        this.hitCount = hitCount;
+        this.missCount = missCount;
+        this.loadSuccessCount = loadSuccessCount;
+        this.loadFailureCount = loadFailureCount;
+        this.evictionCounts = evictionCounts;
+        this.loadTimes = loadTimes;
+        this.getLatencies = getLatencies;
+    }
+
+    /**
+     * @return statistics with every count at zero
+     */
+    public static CacheStats empty() {
+        return EMPTY;
+    }
+
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    public long getMissCount() {
+        return missCount;
+    }
+
+    /**
+     * @return the number of lookups, hits and misses
+     */
+    public long getRequestCount() {
+        return hitCount + missCount;
+    }
+
+    /**
+     * @return the fraction of lookups that were hits, 1 if there was none
+     */
+    public double getHitRate() {
+        long requests = getRequestCount();
+        return requests == 0 ? 1.0 : (double) hitCount / requests;
+    }
+
+    public long getLoadSuccessCount() {
+        return loadSuccessCount;
+    }
+
+    public long getLoadFailureCount() {
+        return loadFailureCount;
+    }
+
+    /**
+     * @param cause the cause
+     * @return the number of entries evicted for this cause
+     */
+    public long getEvictionCount(EvictionCause cause) {
+        return evictionCounts.getOrDefault(cause, 0L);
+    }
+
+    /**
+     * @return the number of entries evicted for any cause
+     */
+    public long getEvictionCount() {
+        return evictionCounts.values().stream().mapToLong(Long::longValue).sum();
+    }
+
+    /**
+     * @return the times taken by loads, successful or not
+     */
+    public Histogram getLoadTimes() {
+        return loadTimes;
+    }
+
+    /**
+     * @return the latencies of lookups, until their value was available
+     */
+    public Histogram getGetLatencies() {
+        return getLatencies;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+                "CacheStats[hits=%d, misses=%d, hitRate=%.3f, loadSuccesses=%d, loadFailures=%d, evictions=%s, "
+                        + "loadP99=%dns, getP99=%dns]",
+                hitCount, missCount, getHitRate(), loadSuccessCount, loadFailureCount, evictionCounts,
+                loadTimes.getValueAtPercentile(99), getLatencies.getValueAtPercentile(99));
+    }
+
+    /**
+     * Snapshot of a latency distribution, with power-of-two nanosecond
+     * buckets: bucket {@code i} counts the samples in
+     * {@code [2^(i-1), 2^i)} nanoseconds, bucket 0 the zero-length ones, so
+     * percentiles are reported with at most a factor-of-two error.
+     */
+    public static final class Histogram {
+
+        static final int BUCKET_COUNT = Long.SIZE;
+
+        private static final Histogram EMPTY = new Histogram(new long[BUCKET_COUNT], 0L, 0L);
+
+        private final long[] buckets;
+        private final long count;
+        private final long totalNanos;
+        private final long maxNanos;
+
+        Histogram(long[] buckets, long totalNanos, long maxNanos) {
+            this.buckets = buckets;
+            this.count = Arrays.stream(buckets).sum();
+            this.totalNanos = totalNanos;
+            this.maxNanos = maxNanos;
+        }
+
+        static int bucketOf(long nanos) {
+            return BUCKET_COUNT - Long.numberOfLeadingZeros(nanos);
+        }
+
+        /**
+         * @return the number of samples
+         */
+        public long getCount() {
+            return count;
+        }
+
+        /**
+         * @return the mean of the samples in nanoseconds, 0 if there was
+         *         none
+         */
+        public double getMeanNanos() {
+            return count == 0 ? 0.0 : (double) totalNanos / count;
+        }
+
+        /**
+         * @return the largest sample in nanoseconds
+         */
+        public long getMaxNanos() {
+            return maxNanos;
+        }
+
+        /**
+         * Returns an upper bound of the latency below which the given
+         * fraction of samples fall.
+         *
+         * @param percentile the percentile, between 0 and 100
+         * @return the upper bound of the bucket holding the percentile in
+         *         nanoseconds, or 0 if there was no sample
+         */
+        public long getValueAtPercentile(double percentile) {
+            if (count == 0) {
+                return 0L;
+            }
+            long rank = Math.max(1L, (long) Math.ceil(count * Math.min(100.0, percentile) / 100.0));
+            long seen = 0;
+            for (int i = 0; i < BUCKET_COUNT; i++) {
+                seen += buckets[i];
+                if (seen >= rank) {
+                    return Math.min((1L << i) - 1, maxNanos);
+                }
+            }
+            return maxNanos;
+        }
+    }
+}
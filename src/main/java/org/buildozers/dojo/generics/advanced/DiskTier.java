@@ -0,0 +1,387 @@
+package org.buildozers.dojo.generics.advanced;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Persistent tier of an {@link AsyncCache}, saving its values when it is
+ * closed so that a cache built later on the same directory starts warm.
+ *
+ * A snapshot is made of segment files holding the serialized values one
+ * after the other, at most {@link #SEGMENT_SIZE} bytes each, and of an
+ * index file mapping every serialized key to the segment, offset, length and
+ * CRC-32 of its value. Every file starts with a magic number, a format
+ * version and the id of its snapshot, and the index ends with the CRC-32 of
+ * its content; the index is written last and moved into place atomically,
+ * so a snapshot interrupted while saving is never read.
+ *
+ * Opening the tier reads the index and maps the segments, so values are
+ * only read from disk when their key misses. An index that is truncated,
+ * fails its checksum, belongs to another format or points outside its
+ * segments discards the whole snapshot, and a value that fails its checksum
+ * is discarded alone. The index is deleted once read: a process that stops
+ * without saving restarts cold rather than from a snapshot older than the
+ * invalidations it made.
+ *
+ * Thread-safe: every operation runs under a lock.
+ *
+ * @param <K> the type of the keys
+ */
+final class DiskTier<K> {
+
+    static final long SEGMENT_SIZE = 1L << 30;
+
+    private static final int MAGIC = 0x41435354;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 2 * Integer.BYTES + Long.BYTES;
+    private static final String INDEX_FILE = "index.dat";
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".dat";
+
+    private record Location(int segment, long offset, int length, int checksum) {
+    }
+
+    private final Path directory;
+    private final CacheCodec<K> keyCodec;
+    private final long segmentSize;
+    private final Map<K, Location> index = new HashMap<>();
+    private final List<MappedByteBuffer> segments = new ArrayList<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private boolean discarded;
+
+    /**
+     * Opens the tier, reading the snapshot saved in a directory if any.
+     *
+     * @param directory the directory of the snapshot, created if needed
+     * @param keyCodec  serializes the keys
+     * @throws UncheckedIOException if the directory cannot be used
+     */
+    DiskTier(Path directory, CacheCodec<K> keyCodec) {
+        this(directory, keyCodec, SEGMENT_SIZE);
+    }
+
+    DiskTier(Path directory, CacheCodec<K> keyCodec, long segmentSize) {
+        this.directory = directory;
+        this.keyCodec = keyCodec;
+        this.segmentSize = segmentSize;
+        try {
+            Files.createDirectories(directory);
+            open();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open the cache directory " + directory, e);
+        }
+    }
+
+    /**
+     * Removes the saved value of a key.
+     *
+     * @param key the key
+     * @return the serialized value, or null if the snapshot does not hold
+     *         the key or its value is corrupt
+     */
+    byte[] remove(K key) {
+        lock.lock();
+        try {
+            Location location = index.remove(key);
+            return location != null ? read(location) : null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Forgets every saved value.
+     */
+    void clear() {
+        lock.lock();
+        try {
+            index.clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return the number of saved values not read yet
+     */
+    int size() {
+        lock.lock();
+        try {
+            return index.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return whether a snapshot was found corrupt or incompatible when
+     *         opening, and discarded
+     */
+    boolean isDiscarded() {
+        return discarded;
+    }
+
+    /**
+     * Saves a new snapshot: the entries given by a source, then the values
+     * of the current snapshot that were neither read nor given again. The
+     * first value given for a key wins. The tier is empty afterwards.
+     *
+     * @param source gives the entries to save, as serialized keys and
+     *               values, to the consumer it is passed
+     * @throws IOException if the snapshot cannot be written, in which case
+     *                     the next opening starts cold
+     */
+    void save(Consumer<BiConsumer<K, byte[]>> source) throws IOException {
+        lock.lock();
+        try (SnapshotWriter writer = new SnapshotWriter()) {
+            try {
+                source.accept(writer::write);
+                for (Map.Entry<K, Location> entry : index.entrySet()) {
+                    byte[] bytes = read(entry.getValue());
+                    if (bytes != null) {
+                        writer.write(entry.getKey(), bytes);
+                    }
+                }
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            writer.commit();
+            index.clear();
+            segments.clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void open() throws IOException {
+        Path indexFile = directory.resolve(INDEX_FILE);
+        long snapshotId = 0L;
+        if (Files.exists(indexFile)) {
+            try {
+                snapshotId = readIndex(Files.readAllBytes(indexFile));
+            } catch (IOException | RuntimeException e) {
+                index.clear();
+                segments.clear();
+                discarded = true;
+            } finally {
+                Files.deleteIfExists(indexFile);
+            }
+        }
+        deleteSegmentsExcept(discarded ? 0L : snapshotId);
+    }
+
+    /**
+     * Reads an index and maps its segments.
+     *
+     * @return the id of the snapshot
+     * @throws IOException if the index or a segment is corrupt or
+     *                     incompatible
+     */
+    private long readIndex(byte[] content) throws IOException {
+        if (content.length < HEADER_SIZE + 2 * Integer.BYTES + Long.BYTES) {
+            throw new IOException("Truncated cache index");
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(content);
+        long checksumOffset = content.length - (long) Long.BYTES;
+        if (buffer.getLong((int) checksumOffset) != checksum(content, 0, (int) checksumOffset)) {
+            throw new IOException("Cache index checksum mismatch");
+        }
+        long snapshotId = readHeader(buffer);
+        int segmentCount = buffer.getInt();
+        int entryCount = buffer.getInt();
+        for (int i = 0; i < segmentCount; i++) {
+            try (FileChannel channel = FileChannel.open(segmentPath(snapshotId, i), StandardOpenOption.READ)) {
+                MappedByteBuffer segment = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                if (readHeader(segment) != snapshotId) {
+                    throw new IOException("Cache segment " + i + " belongs to another snapshot");
+                }
+                segments.add(segment);
+            }
+        }
+        for (int i = 0; i < entryCount; i++) {
+            byte[] key = new byte[buffer.getInt()];
+            buffer.get(key);
+            Location location = new Location(buffer.getInt(), buffer.getLong(), buffer.getInt(), buffer.getInt());
+            if (location.segment() < 0 || location.segment() >= segments.size() || location.offset() < HEADER_SIZE
+                    || location.length() < 0
+                    || location.offset() + location.length() > segments.get(location.segment()).capacity()) {
+                throw new IOException("Cache index entry " + i + " points outside its segments");
+            }
+            index.put(keyCodec.decode(key), location);
+        }
+        if (buffer.position() != checksumOffset) {
+            throw new IOException("Unexpected bytes at the end of the cache index");
+        }
+        return snapshotId;
+    }
+
+    private static long readHeader(ByteBuffer buffer) throws IOException {
+        if (buffer.remaining() < HEADER_SIZE || buffer.getInt() != MAGIC) {
+            throw new IOException("Not a cache file");
+        }
+        int version = buffer.getInt();
+        if (version != VERSION) {
+            throw new IOException("Unsupported cache file version " + version);
+        }
+        return buffer.getLong();
+    }
+
+    private byte[] read(Location location) {
+        byte[] bytes = new byte[location.length()];
+        segments.get(location.segment()).get((int) location.offset(), bytes);
+        return (int) checksum(bytes, 0, bytes.length) == location.checksum() ? bytes : null;
+    }
+
+    private static long checksum(byte[] bytes, int offset, int length) {
+        CRC32 crc = new CRC32();
+        crc.update(bytes, offset, length);
+        return crc.getValue();
+    }
+
+    private Path segmentPath(long snapshotId, int segment) {
+        return directory.resolve(SEGMENT_PREFIX + Long.toHexString(snapshotId) + "-" + segment + SEGMENT_SUFFIX);
+    }
+
+    /**
+     * Deletes the segment files of other snapshots; files that cannot be
+     * deleted, for example because they are still mapped, are left for the
+     * next opening.
+     */
+    private void deleteSegmentsExcept(long snapshotId) throws IOException {
+        String kept = SEGMENT_PREFIX + Long.toHexString(snapshotId) + "-";
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.toList()) {
+                String name = file.getFileName().toString();
+                if (name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX) && !name.startsWith(kept)) {
+                    try {
+                        Files.deleteIfExists(file);
+                    } catch (IOException e) {
+                        // retried at the next opening
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes the files of a new snapshot; segments are written under the
+     * id of the snapshot, so they never overwrite those of the snapshot
+     * being read.
+     */
+    private final class SnapshotWriter implements AutoCloseable {
+
+        private final long snapshotId = ThreadLocalRandom.current().nextLong(1L, Long.MAX_VALUE);
+        private final Map<K, Location> written = new LinkedHashMap<>();
+        private FileChannel channel;
+        private DataOutputStream output;
+        private int segmentCount;
+        private long position;
+
+        void write(K key, byte[] bytes) {
+            if (written.containsKey(key) || bytes.length > segmentSize - HEADER_SIZE) {
+                return;
+            }
+            try {
+                if (output == null || position + bytes.length > segmentSize) {
+                    startSegment();
+                }
+                output.write(bytes);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            written.put(key, new Location(segmentCount - 1, position, bytes.length,
+                    (int) checksum(bytes, 0, bytes.length)));
+            position += bytes.length;
+        }
+
+        void commit() throws IOException {
+            closeSegment();
+            Path temporary = directory.resolve(INDEX_FILE + ".tmp");
+            try (FileChannel indexChannel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                byte[] content = indexContent();
+                indexChannel.write(ByteBuffer.wrap(content));
+                indexChannel.force(true);
+            }
+            Files.move(temporary, directory.resolve(INDEX_FILE), StandardCopyOption.ATOMIC_MOVE,
+                    StandardCopyOption.REPLACE_EXISTING);
+            deleteSegmentsExcept(snapshotId);
+        }
+
+        @Override
+        public void close() throws IOException {
+            closeSegment();
+        }
+
+        private byte[] indexContent() throws IOException {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream index = new DataOutputStream(bytes);
+            writeHeader(index);
+            index.writeInt(segmentCount);
+            index.writeInt(written.size());
+            for (Map.Entry<K, Location> entry : written.entrySet()) {
+                byte[] key = keyCodec.encode(entry.getKey());
+                Location location = entry.getValue();
+                index.writeInt(key.length);
+                index.write(key);
+                index.writeInt(location.segment());
+                index.writeLong(location.offset());
+                index.writeInt(location.length());
+                index.writeInt(location.checksum());
+            }
+            index.flush();
+            long checksum = checksum(bytes.toByteArray(), 0, bytes.size());
+            index.writeLong(checksum);
+            index.flush();
+            return bytes.toByteArray();
+        }
+
+        private void startSegment() throws IOException {
+            closeSegment();
+            channel = FileChannel.open(segmentPath(snapshotId, segmentCount), StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+            output = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel)));
+            writeHeader(output);
+            segmentCount++;
+            position = HEADER_SIZE;
+        }
+
+        private void closeSegment() throws IOException {
+            if (output != null) {
+                output.flush();
+                channel.force(true);
+                output.close();
+                output = null;
+                channel = null;
+            }
+        }
+
+        private void writeHeader(DataOutputStream stream) throws IOException {
+            stream.writeInt(MAGIC);
+            stream.writeInt(VERSION);
+            stream.writeLong(snapshotId);
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package org.buildozers.dojo.generics.advanced;
+
+/**
+ * Count-min sketch estimating how often keys were seen recently, in a few
+ * bits per cached entry.
+ *
+ * Every key maps to four 4-bit counters, one in each of four rows spread
+ * over a single {@code long[]}; its frequency is the smallest of them, so
+ * collisions can only overestimate it. Once the number of increments reaches
+ * ten times the capacity, every counter is halved, so the sketch forgets
+ * old popularity and keys that stop being used fade out.
+ *
+ * Not thread-safe: {@link AsyncCache} only uses it under its eviction lock.
+ *
+ * @param <E> the type of the counted keys
+ */
+final class FrequencySketch<E> {
+
+    private static final long[] SEEDS = {
+            0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L };
+    private static final long RESET_MASK = 0x7777777777777777L;
+    private static final long ONE_MASK = 0x1111111111111111L;
+    private static final int MAXIMUM_CAPACITY = 1 << 30;
+
+    private long[] table;
+    private int tableMask;
+    private int sampleSize;
+    private int size;
+
+    /**
+     * @param capacity the number of keys whose frequencies should stay
+     *                 accurate, usually the maximum size of the cache
+     */
+    FrequencySketch(long capacity) {
+        this.table = new long[0];
+        ensureCapacity(capacity);
+    }
+
+    /**
+     * Grows the sketch to keep the frequencies of more keys accurate,
+     * forgetting every count; does nothing if it is already large enough.
+     *
+     * @param capacity the number of keys whose frequencies should stay
+     *                 accurate
+     */
+    void ensureCapacity(long capacity) {
+        int maximum = (int) Math.min(Math.max(capacity, 1L), MAXIMUM_CAPACITY);
+        int length = Math.max(8, Integer.highestOneBit(maximum - 1) << 1);
+        if (length <= table.length) {
+            return;
+        }
+        this.table = new long[length];
+        this.tableMask = length - 1;
+        this.sampleSize = (int) Math.min(10L * maximum, Integer.MAX_VALUE);
+        this.size = 0;
+    }
+
+    /**
+     * @param e the key
+     * @return the estimated number of recent occurrences of the key, from 0
+     *         to 15
+     */
+    int frequency(E e) {
+        int hash = spread(e.hashCode());
+        int start = (hash & 3) << 2;
+        int frequency = Integer.MAX_VALUE;
+        for (int i = 0; i < 4; i++) {
+            int index = indexOf(hash, i);
+            int count = (int) ((table[index] >>> ((start + i) << 2)) & 0xfL);
+            frequency = Math.min(frequency, count);
+        }
+        return frequency;
+    }
+
+    /**
+     * Records an occurrence of a key, halving every counter once enough
+     * occurrences were recorded.
+     *
+     * @param e the key
+     */
+    void increment(E e) {
+        int hash = spread(e.hashCode());
+        int start = (hash & 3) << 2;
+        boolean added = false;
+        for (int i = 0; i < 4; i++) {
+            added |= incrementAt(indexOf(hash, i), start + i);
+        }
+        if (added && ++size == sampleSize) {
+            reset();
+        }
+    }
+
+    private boolean incrementAt(int index, int counter) {
+        int offset = counter << 2;
+        long mask = 0xfL << offset;
+        if ((table[index] & mask) != mask) {
+            table[index] += 1L << offset;
+            return true;
+        }
+        return false;
+    }
+
+    private void reset() {
+        int odd = 0;
+        for (int i = 0; i < table.length; i++) {
+            odd += Long.bitCount(table[i] & ONE_MASK);
+            table[i] = (table[i] >>> 1) & RESET_MASK;
+        }
+        size = (size >>> 1) - (odd >>> 2);
+    }
+
+    private int indexOf(int hash, int row) {
+        long h = (hash + SEEDS[row]) * SEEDS[row];
+        h += h >>> 32;
+        return ((int) h) & tableMask;
+    }
+
+    private static int spread(int x) {
+        x = ((x >>> 16) ^ x) * 0x45d9f3b;
+        x = ((x >>> 16) ^ x) * 0x45d9f3b;
+        return (x >>> 16) ^ x;
+    }
+}
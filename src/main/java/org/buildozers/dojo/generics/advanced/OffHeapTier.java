@@ -0,0 +1,171 @@
+package org.buildozers.dojo.generics.advanced;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
+
+/**
+ * Second tier of an {@link AsyncCache}, holding serialized values outside
+ * the Java heap.
+ *
+ * Values are appended to a ring of large direct buffers, the slabs, which
+ * are allocated on first use. Once the last slab is full, the oldest one is
+ * recycled and every value it held is dropped, so the tier forgets its
+ * least recently demoted values first and never exceeds its capacity.
+ * Removing a value only forgets its location: the space stays used until
+ * its slab is recycled. Only the keys and locations stay on the heap, a few
+ * objects per entry whatever the size of the value, so the garbage
+ * collector never traces the values themselves.
+ *
+ * Thread-safe: every operation copies bytes under a lock, while encoding
+ * and decoding are left to the caller, outside of it.
+ *
+ * @param <K> the type of the keys
+ */
+final class OffHeapTier<K> {
+
+    private static final int MINIMUM_SLAB_SIZE = 4 * 1024;
+    private static final int MAXIMUM_SLAB_SIZE = 64 * 1024 * 1024;
+    private static final int MINIMUM_SLAB_COUNT = 8;
+
+    private record Location(int slab, int offset, int length) {
+    }
+
+    private final ByteBuffer[] slabs;
+    private final List<List<K>> slabKeys;
+    private final int slabSize;
+    private final Map<K, Location> index = new HashMap<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private int currentSlab;
+    private int position;
+
+    /**
+     * @param capacity the maximum number of bytes held off-heap
+     */
+    OffHeapTier(long capacity) {
+        this.slabSize = (int) Math.min(MAXIMUM_SLAB_SIZE, Math.max(MINIMUM_SLAB_SIZE, capacity / MINIMUM_SLAB_COUNT));
+        int slabCount = (int) Math.max(1L, capacity / slabSize);
+        this.slabs = new ByteBuffer[slabCount];
+        this.slabKeys = new ArrayList<>(slabCount);
+        for (int i = 0; i < slabCount; i++) {
+            slabKeys.add(new ArrayList<>());
+        }
+    }
+
+    /**
+     * Stores the serialized value of a key, replacing any previous one,
+     * unless it is larger than a slab.
+     *
+     * @param key   the key
+     * @param bytes the serialized value
+     * @return whether the value was stored
+     */
+    boolean store(K key, byte[] bytes) {
+        if (bytes.length > slabSize) {
+            remove(key);
+            return false;
+        }
+        lock.lock();
+        try {
+            if (position + bytes.length > slabSize || slabs[currentSlab] == null) {
+                recycle(slabs[currentSlab] == null ? currentSlab : (currentSlab + 1) % slabs.length);
+            }
+            slabs[currentSlab].put(position, bytes);
+            index.put(key, new Location(currentSlab, position, bytes.length));
+            slabKeys.get(currentSlab).add(key);
+            position += bytes.length;
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Removes the value of a key.
+     *
+     * @param key the key
+     * @return the serialized value, or null if the tier does not hold the
+     *         key
+     */
+    byte[] remove(K key) {
+        lock.lock();
+        try {
+            Location location = index.remove(key);
+            if (location == null) {
+                return null;
+            }
+            byte[] bytes = new byte[location.length()];
+            slabs[location.slab()].get(location.offset(), bytes);
+            return bytes;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Passes every value held to a consumer, under the lock of the tier.
+     *
+     * @param consumer receives each key and serialized value
+     */
+    void forEach(BiConsumer<? super K, byte[]> consumer) {
+        lock.lock();
+        try {
+            for (Map.Entry<K, Location> entry : index.entrySet()) {
+                Location location = entry.getValue();
+                byte[] bytes = new byte[location.length()];
+                slabs[location.slab()].get(location.offset(), bytes);
+                consumer.accept(entry.getKey(), bytes);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Forgets every value; the slabs are kept for reuse.
+     */
+    void clear() {
+        lock.lock();
+        try {
+            index.clear();
+            slabKeys.forEach(List::clear);
+            position = 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return the number of values held
+     */
+    int size() {
+        lock.lock();
+        try {
+            return index.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Makes a slab current and empty, dropping the values it held.
+     */
+    private void recycle(int slab) {
+        for (K key : slabKeys.get(slab)) {
+            Location location = index.get(key);
+            if (location != null && location.slab() == slab) {
+                index.remove(key);
+            }
+        }
+        slabKeys.get(slab).clear();
+        if (slabs[slab] == null) {
+            slabs[slab] = ByteBuffer.allocateDirect(slabSize);
+        }
+        currentSlab = slab;
+        position = 0;
+    }
+}
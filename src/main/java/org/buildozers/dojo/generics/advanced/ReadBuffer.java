@@ -0,0 +1,94 @@
+package org.buildozers.dojo.generics.advanced;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * Lossy, striped buffer of the entries read from an {@link AsyncCache}.
+ *
+ * Readers record an access with a single compare-and-set on the ring of
+ * their stripe, chosen from their thread, and never wait: when the ring is
+ * full the access is dropped, which only makes the eviction policy slightly
+ * less accurate. The rings are emptied in batches by the thread holding the
+ * eviction lock, which replays the accesses into the policy.
+ *
+ * @param <E> the type of the buffered elements
+ */
+final class ReadBuffer<E> {
+
+    /**
+     * Capacity of each ring
+     */
+    static final int RING_SIZE = 16;
+
+    private static final int RING_MASK = RING_SIZE - 1;
+
+    private final Ring<E>[] rings;
+    private final int stripeMask;
+
+    ReadBuffer() {
+        int stripes = Integer.highestOneBit(Math.max(1, Runtime.getRuntime().availableProcessors() - 1)) << 1;
+        this.rings = newRings(stripes);
+        for (int i = 0; i < stripes; i++) {
+            rings[i] = new Ring<>();
+        }
+        this.stripeMask = stripes - 1;
+    }
+
+    /**
+     * Records an element, unless the ring of the calling thread is full or
+     * contended.
+     *
+     * @param e the element
+     * @return false if the ring was full, so the buffer should be drained
+     */
+    boolean offer(E e) {
+        long probe = Thread.currentThread().threadId() * 0x9e3779b97f4a7c15L;
+        Ring<E> ring = rings[(int) (probe >>> 32) & stripeMask];
+        long tail = ring.tail.get();
+        if (tail - ring.head >= RING_SIZE) {
+            return false;
+        }
+        if (ring.tail.compareAndSet(tail, tail + 1)) {
+            ring.elements.lazySet((int) (tail & RING_MASK), e);
+        }
+        return true;
+    }
+
+    /**
+     * Empties every ring into a consumer. Must be called by one thread at a
+     * time.
+     *
+     * @param consumer receives the buffered elements
+     */
+    void drainTo(Consumer<? super E> consumer) {
+        for (Ring<E> ring : rings) {
+            long head = ring.head;
+            long tail = ring.tail.get();
+            for (; head < tail; head++) {
+                int index = (int) (head & RING_MASK);
+                E e = ring.elements.get(index);
+                if (e == null) {
+                    // Claimed but not yet published; drained next time
+                    break;
+                }
+                ring.elements.lazySet(index, null);
+                consumer.accept(e);
+            }
+            ring.head = head;
+        }
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private static <E> Ring<E>[] newRings(int length) {
+        return new Ring[length];
+    }
+
+    private static final class Ring<E> {
+
+        final AtomicReferenceArray<E> elements = new AtomicReferenceArray<>(RING_SIZE);
+        final AtomicLong tail = new AtomicLong();
+        volatile long head;
+    }
+}
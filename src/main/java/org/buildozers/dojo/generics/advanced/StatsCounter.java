@@ -0,0 +1,92 @@
+package org.buildozers.dojo.generics.advanced;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.buildozers.dojo.generics.advanced.CacheStats.EvictionCause;
+import org.buildozers.dojo.generics.advanced.CacheStats.Histogram;
+
+/**
+ * Records the statistics of an {@link AsyncCache}.
+ *
+ * Every counter is a {@link LongAdder}, which spreads concurrent increments
+ * over cells instead of contending on one value, so recording never blocks
+ * and stays off the critical path of hot keys. A snapshot sums about 140
+ * adders, cheap enough to take every second; it is not atomic, so counts
+ * recorded while it is taken may be partly missing.
+ */
+final class StatsCounter {
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder loadSuccesses = new LongAdder();
+    private final LongAdder loadFailures = new LongAdder();
+    private final LongAdder[] evictions = adders(EvictionCause.values().length);
+    private final Recorder loadTimes = new Recorder();
+    private final Recorder getLatencies = new Recorder();
+
+    void recordHit() {
+        hits.increment();
+    }
+
+    void recordMiss() {
+        misses.increment();
+    }
+
+    void recordLoad(boolean success, long nanos) {
+        (success ? loadSuccesses : loadFailures).increment();
+        loadTimes.record(nanos);
+    }
+
+    void recordEviction(EvictionCause cause) {
+        evictions[cause.ordinal()].increment();
+    }
+
+    void recordGet(long nanos) {
+        getLatencies.record(nanos);
+    }
+
+    CacheStats snapshot() {
+        Map<EvictionCause, Long> evictionCounts = new EnumMap<>(EvictionCause.class);
+        for (EvictionCause cause : EvictionCause.values()) {
+            evictionCounts.put(cause, evictions[cause.ordinal()].sum());
+        }
+        return new CacheStats(hits.sum(), misses.sum(), loadSuccesses.sum(), loadFailures.sum(), evictionCounts,
+                loadTimes.snapshot(), getLatencies.snapshot());
+    }
+
+    private static LongAdder[] adders(int count) {
+        LongAdder[] adders = new LongAdder[count];
+        for (int i = 0; i < count; i++) {
+            adders[i] = new LongAdder();
+        }
+        return adders;
+    }
+
+    /**
+     * Lock-free recorder of a {@link Histogram}.
+     */
+    private static final class Recorder {
+
+        private final LongAdder[] buckets = adders(Histogram.BUCKET_COUNT);
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0L);
+
+        void record(long nanos) {
+            long sample = Math.max(0L, nanos);
+            buckets[Histogram.bucketOf(sample)].increment();
+            totalNanos.add(sample);
+            maxNanos.accumulate(sample);
+        }
+
+        Histogram snapshot() {
+            long[] counts = new long[buckets.length];
+            for (int i = 0; i < buckets.length; i++) {
+                counts[i] = buckets[i].sum();
+            }
+            return new Histogram(counts, totalNanos.sum(), maxNanos.get());
+        }
+    }
+}
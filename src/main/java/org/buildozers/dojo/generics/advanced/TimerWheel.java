@@ -0,0 +1,162 @@
+package org.buildozers.dojo.generics.advanced;
+
+import java.util.function.Predicate;
+
+/**
+ * Hierarchical timer wheel expiring {@link CacheNode}s in O(1) per node.
+ *
+ * Each wheel is an array of buckets covering a power-of-two span of time:
+ * 64 buckets of about one second, 64 of about one minute, 32 of about one
+ * hour, 4 of about one day, and one overflow bucket. A node is linked into
+ * the bucket of the coarsest wheel that still tells its deadline apart from
+ * now, through fields of the node itself, so scheduling, rescheduling and
+ * descheduling are constant-time unlinks with no allocation and no task per
+ * node.
+ *
+ * {@link #advance(long)} only visits the buckets whose span the clock
+ * crossed since the previous call: nodes found due are handed to the expirer,
+ * the others cascade to a finer wheel. A node is therefore visited at most
+ * once per wheel on its way to expiry, and nothing is ever scanned in full.
+ * Time is measured in nanoseconds from an arbitrary non-negative origin.
+ *
+ * Not thread-safe: {@link AsyncCache} only uses it under its eviction lock.
+ *
+ * @param <K> the type of the keys
+ * @param <V> the type of the values
+ */
+final class TimerWheel<K, V> {
+
+    private static final int[] BUCKETS = { 64, 64, 32, 4, 1 };
+    private static final long[] SPANS = {
+            1L << 30, // 1.07 s
+            1L << 36, // 1.14 min
+            1L << 42, // 1.22 h
+            1L << 47, // 1.63 d
+            4L << 47, // 6.5 d
+            4L << 47 };
+    private static final int[] SHIFTS = new int[SPANS.length];
+
+    static {
+        for (int i = 0; i < SPANS.length; i++) {
+            SHIFTS[i] = Long.numberOfTrailingZeros(SPANS[i]);
+        }
+    }
+
+    private final CacheNode<K, V>[][] wheels;
+    private final Predicate<CacheNode<K, V>> expirer;
+    private long nanos;
+
+    /**
+     * @param nanos   the current time
+     * @param expirer removes a due node from the cache, returning false if
+     *                the node must stay scheduled at its current deadline
+     */
+    TimerWheel(long nanos, Predicate<CacheNode<K, V>> expirer) {
+        this.nanos = nanos;
+        this.expirer = expirer;
+        this.wheels = newWheels(BUCKETS.length);
+        for (int i = 0; i < BUCKETS.length; i++) {
+            wheels[i] = newBuckets(BUCKETS[i]);
+            for (int j = 0; j < BUCKETS[i]; j++) {
+                CacheNode<K, V> sentinel = new CacheNode<>(null, null);
+                sentinel.timerPrevious = sentinel;
+                sentinel.timerNext = sentinel;
+                wheels[i][j] = sentinel;
+            }
+        }
+    }
+
+    /**
+     * Schedules a node at its {@link CacheNode#expiresAt} time, first
+     * descheduling it if needed.
+     *
+     * @param node the node
+     */
+    void schedule(CacheNode<K, V> node) {
+        deschedule(node);
+        CacheNode<K, V> sentinel = bucketOf(node.expiresAt);
+        node.timerPrevious = sentinel.timerPrevious;
+        node.timerNext = sentinel;
+        sentinel.timerPrevious.timerNext = node;
+        sentinel.timerPrevious = node;
+    }
+
+    /**
+     * Removes a node from the wheel, if scheduled.
+     *
+     * @param node the node
+     */
+    void deschedule(CacheNode<K, V> node) {
+        if (node.timerNext != null) {
+            node.timerNext.timerPrevious = node.timerPrevious;
+            node.timerPrevious.timerNext = node.timerNext;
+            node.timerNext = null;
+            node.timerPrevious = null;
+        }
+    }
+
+    /**
+     * Moves the clock forward, expiring the nodes that became due.
+     *
+     * @param currentNanos the current time
+     */
+    void advance(long currentNanos) {
+        long previousNanos = nanos;
+        if (currentNanos <= previousNanos) {
+            return;
+        }
+        nanos = currentNanos;
+        for (int i = 0; i < BUCKETS.length; i++) {
+            long previousTicks = previousNanos >>> SHIFTS[i];
+            long delta = (currentNanos >>> SHIFTS[i]) - previousTicks;
+            if (delta <= 0) {
+                break;
+            }
+            expire(i, previousTicks, delta);
+        }
+    }
+
+    private void expire(int index, long previousTicks, long delta) {
+        CacheNode<K, V>[] wheel = wheels[index];
+        int mask = wheel.length - 1;
+        int steps = (int) Math.min(1 + delta, wheel.length);
+        int start = (int) (previousTicks & mask);
+        for (int i = start; i < start + steps; i++) {
+            CacheNode<K, V> sentinel = wheel[i & mask];
+            CacheNode<K, V> node = sentinel.timerNext;
+            sentinel.timerPrevious = sentinel;
+            sentinel.timerNext = sentinel;
+            while (node != sentinel) {
+                CacheNode<K, V> next = node.timerNext;
+                node.timerPrevious = null;
+                node.timerNext = null;
+                if (node.expiresAt - nanos > 0 || !expirer.test(node)) {
+                    schedule(node);
+                }
+                node = next;
+            }
+        }
+    }
+
+    private CacheNode<K, V> bucketOf(long time) {
+        long duration = time - nanos;
+        int last = wheels.length - 1;
+        for (int i = 0; i < last; i++) {
+            if (duration < SPANS[i + 1]) {
+                long ticks = time >>> SHIFTS[i];
+                return wheels[i][(int) (ticks & (wheels[i].length - 1))];
+            }
+        }
+        return wheels[last][0];
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private static <K, V> CacheNode<K, V>[][] newWheels(int length) {
+        return new CacheNode[length][];
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private static <K, V> CacheNode<K, V>[] newBuckets(int length) {
+        return new CacheNode[length];
+    }
+}
@@ -0,0 +1,230 @@
+package org.buildozers.dojo.abstraction.advanced;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.EnumSet;
+import java.util.Set;
+
+import org.buildozers.dojo.abstraction.advanced.QueryProfile.ExecutionMode;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+@DisplayName("AdaptiveDataProcessor Tests")
+class AdaptiveDataProcessorTest {
+
+    private static final long MIB = 1024 * 1024L;
+
+    @TempDir
+    Path directory;
+
+    @Nested
+    @DisplayName("Query Tests")
+    class QueryTests {
+
+        @Test
+        @DisplayName("Should stream small bundled files sequentially")
+        void shouldStreamSmallFiles() {
+            // Given
+            AdaptiveDataProcessor processor = new AdaptiveDataProcessor();
+
+            // When
+            QueryProfile profile = processor.explain("data.csv", "CSV", true, "Electronics", "SUM");
+
+            // Then
+            assertThat(profile.getResult()).isEqualTo(820L);
+            assertThat(profile.getExecutionMode()).isEqualTo(ExecutionMode.SEQUENTIAL);
+            assertThat(profile.getRowsScanned()).isEqualTo(10L);
+        }
+
+        @Test
+        @DisplayName("Should return the same results as the columnar processor")
+        void shouldMatchColumnarProcessor() {
+            AdaptiveDataProcessor processor = new AdaptiveDataProcessor();
+            try (ColumnarDataProcessor columnar = new ColumnarDataProcessor()) {
+                for (String[] file : new String[][] { { "data.csv", "CSV" }, { "data.json", "JSON" }, { "data.xml", "XML" } }) {
+                    for (String aggregation : new String[] { "SUM", "COUNT", "MIN", "MAX" }) {
+                        for (String filter : new String[] { null, "Electronics", "books" }) {
+                            assertThat(processor.processFileData(file[0], file[1], false, filter, aggregation))
+                                    .as(file[0] + " " + aggregation + " " + filter)
+                                    .isEqualTo(columnar.processFileData(file[0], file[1], false, filter, aggregation));
+                        }
+                    }
+                }
+            }
+        }
+
+        @Test
+        @DisplayName("Should skip XML values padded with whitespace like the monolithic processor")
+        void shouldSkipPaddedXmlValues() throws IOException {
+            // Given
+            Files.writeString(directory.resolve("padded.xml"), """
+                    <data xmlns="http://buildozers.org/dojo/data">
+                        <record><id>1</id><value> 5 </value><region>North</region><category>Books</category></record>
+                        <record><id>2</id><value>7</value><region>North</region><category>Books</category></record>
+                    </data>
+                    """);
+            AdaptiveDataProcessor processor = new AdaptiveDataProcessor(directory);
+
+            // When & Then
+            assertThat(processor.processFileData("padded.xml", "XML", false, null, "SUM")).isEqualTo(7L);
+            assertThat(processor.processFileData("padded.xml", "XML", false, null, "COUNT")).isEqualTo(2L);
+        }
+
+        @Test
+        @DisplayName("Should throw DataProcessingException for a missing file")
+        void shouldFailOnMissingFile() {
+            assertThatThrownBy(() -> new AdaptiveDataProcessor().processFileData("missing.csv", "CSV", false, null, "SUM"))
+                    .isInstanceOf(DataProcessingException.class)
+                    .hasMessageContaining("Failed to load file")
+                    .hasCauseInstanceOf(IOException.class);
+        }
+    }
+
+    @Nested
+    @DisplayName("Execution Mode Tests")
+    class ExecutionModeTests {
+
+        @Test
+        @DisplayName("Should give the same results in every execution mode")
+        void shouldGiveSameResultsInEveryMode() throws IOException {
+            // Given
+            writeLargeCsv("large.csv", 40_000, -1);
+
+            for (String aggregation : new String[] { "SUM", "COUNT", "MIN", "MAX" }) {
+                for (String filter : new String[] { null, "Electronics", "quoted" }) {
+                    // When
+                    long sequential = forced(ExecutionMode.SEQUENTIAL).processFileData("large.csv", "CSV", false, filter, aggregation);
+                    long mapped = forced(ExecutionMode.MAPPED).processFileData("large.csv", "CSV", false, filter, aggregation);
+                    long parallel = forced(ExecutionMode.PARALLEL).processFileData("large.csv", "CSV", false, filter, aggregation);
+
+                    // Then
+                    assertThat(mapped).as(aggregation + " " + filter).isEqualTo(sequential);
+                    assertThat(parallel).as(aggregation + " " + filter).isEqualTo(sequential);
+                }
+            }
+            assertThat(forced(ExecutionMode.PARALLEL).processFileData("large.csv", "CSV", false, null, "COUNT"))
+                    .isEqualTo(40_000L);
+        }
+
+        @Test
+        @DisplayName("Should report the same error line in parallel as sequentially")
+        void shouldReportSameErrorInParallel() throws IOException {
+            // Given
+            writeLargeCsv("broken.csv", 40_000, 31_000);
+
+            // When / Then
+            assertThatThrownBy(() -> forced(ExecutionMode.PARALLEL).processFileData("broken.csv", "CSV", false, null, "SUM"))
+                    .isInstanceOf(DataProcessingException.class)
+                    .hasMessage("CSV record inconsistency found at line 31002");
+        }
+
+        @Test
+        @DisplayName("Should explore every mode near the thresholds then keep the fastest")
+        void shouldExploreAndLearn() throws IOException {
+            // Given
+            writeLargeCsv("learned.csv", 60_000, -1);
+            AdaptiveDataProcessor processor = new AdaptiveDataProcessor(directory, new DataValidator(), new ExecutionPlanner(4));
+            Set<ExecutionMode> modes = EnumSet.noneOf(ExecutionMode.class);
+
+            // When
+            for (int run = 0; run < 3 * ExecutionPlanner.MIN_SAMPLES; run++) {
+                modes.add(processor.explain("learned.csv", "CSV", false, null, "COUNT").getExecutionMode());
+            }
+            QueryProfile learned = processor.explain("learned.csv", "CSV", false, null, "COUNT");
+
+            // Then
+            assertThat(modes).containsExactlyInAnyOrder(ExecutionMode.values());
+            assertThat(learned.getResult()).isEqualTo(60_000L);
+        }
+    }
+
+    @Nested
+    @DisplayName("Planner Tests")
+    class PlannerTests {
+
+        @Test
+        @DisplayName("Should apply default thresholds before any run")
+        void shouldApplyDefaultThresholds() {
+            // Given
+            ExecutionPlanner planner = new ExecutionPlanner(8);
+
+            // Then
+            assertThat(planner.plan(DataFormat.CSV, 10_000, true)).isEqualTo(ExecutionMode.SEQUENTIAL);
+            assertThat(planner.plan(DataFormat.CSV, 1024 * MIB, true)).isEqualTo(ExecutionMode.PARALLEL);
+            assertThat(planner.plan(DataFormat.XML, 1024 * MIB, true)).isEqualTo(ExecutionMode.MAPPED);
+            assertThat(planner.plan(DataFormat.CSV, 1024 * MIB, false)).isEqualTo(ExecutionMode.SEQUENTIAL);
+            assertThat(planner.plan(DataFormat.CSV, -1, true)).isEqualTo(ExecutionMode.SEQUENTIAL);
+            assertThat(new ExecutionPlanner(1).plan(DataFormat.CSV, 1024 * MIB, true)).isEqualTo(ExecutionMode.MAPPED);
+        }
+
+        @Test
+        @DisplayName("Should move the thresholds to what past runs measured")
+        void shouldLearnThresholds() {
+            // Given
+            ExecutionPlanner planner = new ExecutionPlanner(8);
+            for (int run = 0; run < ExecutionPlanner.MIN_SAMPLES; run++) {
+                planner.record(DataFormat.CSV, ExecutionMode.SEQUENTIAL, MIB, 1_000_000);
+                planner.record(DataFormat.CSV, ExecutionMode.MAPPED, MIB, 2_000_000);
+                planner.record(DataFormat.CSV, ExecutionMode.PARALLEL, MIB, 3_000_000);
+            }
+
+            // Then
+            assertThat(planner.plan(DataFormat.CSV, MIB, true)).isEqualTo(ExecutionMode.SEQUENTIAL);
+            assertThat(planner.plan(DataFormat.CSV, 1024 * MIB, true)).isEqualTo(ExecutionMode.SEQUENTIAL);
+            assertThat(planner.plan(DataFormat.JSON, 1024 * MIB, true)).isEqualTo(ExecutionMode.MAPPED);
+        }
+
+        @Test
+        @DisplayName("Should explore untried modes near the default thresholds")
+        void shouldExploreNearThresholds() {
+            // Given
+            ExecutionPlanner planner = new ExecutionPlanner(8);
+            long bytes = 4 * MIB;
+
+            // When
+            ExecutionMode first = planner.plan(DataFormat.CSV, bytes, true);
+            for (int run = 0; run < ExecutionPlanner.MIN_SAMPLES; run++) {
+                planner.record(DataFormat.CSV, first, bytes, 1_000_000);
+            }
+            ExecutionMode second = planner.plan(DataFormat.CSV, bytes, true);
+
+            // Then
+            assertThat(first).isEqualTo(ExecutionMode.SEQUENTIAL);
+            assertThat(second).isEqualTo(ExecutionMode.MAPPED);
+        }
+    }
+
+    private AdaptiveDataProcessor forced(ExecutionMode mode) {
+        return new AdaptiveDataProcessor(directory, new DataValidator(), new ExecutionPlanner(4) {
+            @Override
+            ExecutionMode plan(DataFormat format, long bytes, boolean mappable) {
+                return mode;
+            }
+        });
+    }
+
+    /**
+     * Writes a CSV file whose records contain quoted fields with commas,
+     * escaped quotes and newlines, optionally with one short record.
+     */
+    private void writeLargeCsv(String name, int records, int brokenRecord) throws IOException {
+        String[] categories = { "Electronics", "Clothing", "Books", "\"Books, \"\"quoted\"\"\nand split\"" };
+        StringBuilder csv = new StringBuilder("id,value,region,category\r\n");
+        for (int i = 0; i < records; i++) {
+            if (i == brokenRecord) {
+                csv.append(i).append(",1\n");
+                continue;
+            }
+            csv.append(i).append(',').append((i * 37) % 1000 - 100).append(',')
+                    .append(i % 2 == 0 ? "North" : "\"South\"").append(',')
+                    .append(categories[i % categories.length]).append('\n');
+        }
+        Files.writeString(directory.resolve(name), csv);
+    }
+}
@@ -0,0 +1,126 @@
+package org.buildozers.dojo.abstraction.advanced;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("AggregateCube Tests")
+class AggregateCubeTest {
+
+    private AggregateCube cube;
+
+    @BeforeEach
+    void setUp() {
+        cube = ColumnarDataset.load("data.csv", DataFormat.CSV).getCube();
+    }
+
+    @Nested
+    @DisplayName("Exact Match Tests")
+    class ExactMatchTests {
+
+        @Test
+        @DisplayName("Should answer a (category, region) cell")
+        void shouldAnswerCell() {
+            assertThat(cube.get(AggregationType.SUM, "Electronics", "North")).isEqualTo(300L);
+            assertThat(cube.get(AggregationType.COUNT, "Electronics", "North")).isEqualTo(2L);
+            assertThat(cube.get(AggregationType.SUM, "Books", "South")).isZero();
+        }
+
+        @Test
+        @DisplayName("Should answer the marginal totals")
+        void shouldAnswerMarginals() {
+            assertThat(cube.get(AggregationType.SUM, "Electronics", null)).isEqualTo(820L);
+            assertThat(cube.get(AggregationType.COUNT, "Clothing", null)).isEqualTo(3L);
+            assertThat(cube.get(AggregationType.SUM, null, "South")).isEqualTo(455L);
+            assertThat(cube.get(AggregationType.SUM, null, null)).isEqualTo(1525L);
+            assertThat(cube.get(AggregationType.COUNT, null, null)).isEqualTo(10L);
+        }
+
+        @Test
+        @DisplayName("Should return 0 for unknown categories and regions")
+        void shouldReturnZeroForUnknownValues() {
+            assertThat(cube.get(AggregationType.SUM, "Toys", null)).isZero();
+            assertThat(cube.get(AggregationType.COUNT, "Books", "Nowhere")).isZero();
+            assertThat(cube.get(AggregationType.SUM, "electronics", null)).isZero();
+        }
+
+        @Test
+        @DisplayName("Should reject aggregations other than SUM and COUNT")
+        void shouldRejectOtherAggregations() {
+            assertThatThrownBy(() -> cube.get(AggregationType.MIN, null, null))
+                    .isInstanceOf(UnsupportedAggregationException.class)
+                    .hasMessageContaining("Supported types are: SUM, COUNT");
+        }
+    }
+
+    @Nested
+    @DisplayName("Filter Tests")
+    class FilterTests {
+
+        @Test
+        @DisplayName("Should match a scan of the columns for contains filters")
+        void shouldMatchColumnScan() {
+            ColumnarDataset dataset = ColumnarDataset.load("data.json", DataFormat.JSON);
+            for (AggregationType aggregation : new AggregationType[] { AggregationType.SUM, AggregationType.COUNT }) {
+                for (String filter : new String[] { null, "", "Electronics", "clothing", "o", "Toys" }) {
+                    assertThat(dataset.getCube().aggregate(aggregation, CategoryFilter.of(filter)))
+                            .as(aggregation + " " + filter)
+                            .isEqualTo(dataset.aggregate(aggregation, filter));
+                }
+            }
+        }
+
+        @Test
+        @DisplayName("Should count malformed values but skip them in SUM")
+        void shouldHandleMalformedValues() {
+            // Given
+            ColumnarDataset.Builder builder = ColumnarDataset.builder();
+            builder.accept(1, 10, true, "North", "Books");
+            builder.accept(2, 0, false, "North", "Books");
+            builder.accept(3, -5, true, "South", "Books");
+            AggregateCube malformed = builder.build().getCube();
+
+            // Then
+            assertThat(malformed.get(AggregationType.COUNT, "Books", "North")).isEqualTo(2L);
+            assertThat(malformed.get(AggregationType.SUM, "Books", null)).isEqualTo(5L);
+        }
+
+        @Test
+        @DisplayName("Should grow with many categories and regions")
+        void shouldGrowWithCardinality() {
+            // Given
+            ColumnarDataset.Builder builder = ColumnarDataset.builder();
+            for (int i = 0; i < 5_000; i++) {
+                builder.accept(i, 1, true, "region-" + (i % 37), "category-" + (i % 53));
+            }
+            AggregateCube large = builder.build().getCube();
+
+            // Then
+            assertThat(large.getCategories()).hasSize(53);
+            assertThat(large.getRegions()).hasSize(37);
+            assertThat(large.get(AggregationType.COUNT, null, null)).isEqualTo(5_000L);
+            assertThat(large.get(AggregationType.COUNT, "category-0", "region-0")).isEqualTo(3L);
+        }
+
+        @Test
+        @DisplayName("Should only hold the pairs that occur when both cardinalities are high")
+        void shouldStaySparseWithHighCardinality() {
+            // Given
+            ColumnarDataset.Builder builder = ColumnarDataset.builder();
+            for (int i = 0; i < 70_000; i++) {
+                builder.accept(i, i, true, "region-" + i, "category-" + i);
+            }
+            AggregateCube sparse = builder.build().getCube();
+
+            // Then
+            assertThat(sparse.get(AggregationType.SUM, "category-69999", "region-69999")).isEqualTo(69_999L);
+            assertThat(sparse.get(AggregationType.COUNT, "category-69999", "region-0")).isZero();
+            assertThat(sparse.get(AggregationType.COUNT, null, "region-42")).isEqualTo(1L);
+            assertThat(sparse.get(AggregationType.SUM, null, null)).isEqualTo(69_999L * 70_000 / 2);
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package org.buildozers.dojo.abstraction.advanced;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("AggregationKernel Tests")
+class AggregationKernelTest {
+
+    private final AggregationKernel scalar = new ScalarAggregationKernel();
+    private final AggregationKernel vector = new VectorAggregationKernel();
+
+    @Test
+    @DisplayName("Should select the vector kernel when the incubator module is present")
+    void shouldSelectVectorKernel() {
+        assertThat(AggregationKernels.preferred()).isInstanceOf(
+                VectorAggregationKernel.laneCount() >= 4 ? VectorAggregationKernel.class : ScalarAggregationKernel.class);
+    }
+
+    @Test
+    @DisplayName("Should give the same results as the scalar kernel for every length")
+    void shouldMatchScalarKernel() {
+        // Given
+        Random random = new Random(42);
+        int[] values = random.ints(1000, -1_000_000, 1_000_000).toArray();
+        int[] codes = random.ints(1000, 0, 3).toArray();
+
+        for (int length = 0; length <= 100; length++) {
+            // Then
+            assertThat(vector.sum(values, length)).isEqualTo(scalar.sum(values, length));
+            assertThat(vector.min(values, length)).isEqualTo(scalar.min(values, length));
+            assertThat(vector.max(values, length)).isEqualTo(scalar.max(values, length));
+            for (int code = 0; code < 4; code++) {
+                assertThat(vector.sum(values, codes, code, length)).isEqualTo(scalar.sum(values, codes, code, length));
+                assertThat(vector.count(codes, code, length)).isEqualTo(scalar.count(codes, code, length));
+                assertThat(vector.min(values, codes, code, length)).isEqualTo(scalar.min(values, codes, code, length));
+                assertThat(vector.max(values, codes, code, length)).isEqualTo(scalar.max(values, codes, code, length));
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Should not overflow when summing large values")
+    void shouldNotOverflowWhenSumming() {
+        // Given
+        int[] values = new int[257];
+        int[] codes = new int[257];
+        Arrays.fill(values, Integer.MAX_VALUE);
+
+        // Then
+        assertThat(vector.sum(values, values.length)).isEqualTo(257L * Integer.MAX_VALUE);
+        assertThat(vector.sum(values, codes, 0, values.length)).isEqualTo(257L * Integer.MAX_VALUE);
+    }
+}
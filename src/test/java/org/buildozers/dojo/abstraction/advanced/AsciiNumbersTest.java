@@ -0,0 +1,56 @@
+package org.buildozers.dojo.abstraction.advanced;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("AsciiNumbers Tests")
+class AsciiNumbersTest {
+
+    @Test
+    @DisplayName("Should parse the same ints as Integer.parseInt")
+    void shouldParseInts() {
+        for (String text : new String[] { "0", "7", "-42", "+15", "2147483647", "-2147483648", "0012" }) {
+            assertThat(parseInt(text)).as(text).isEqualTo(Integer.parseInt(text));
+            assertThat(AsciiNumbers.parseInt(text.toCharArray(), 0, text.length())).as(text).isEqualTo(Integer.parseInt(text));
+        }
+    }
+
+    @Test
+    @DisplayName("Should parse longs up to the long range")
+    void shouldParseLongs() {
+        assertThat(parseLong("9223372036854775807")).isEqualTo(Long.MAX_VALUE);
+        assertThat(parseLong("-9223372036854775807")).isEqualTo(-Long.MAX_VALUE);
+        assertThat(parseLong("123")).isEqualTo(123L);
+    }
+
+    @Test
+    @DisplayName("Should report malformed and overflowing numbers instead of throwing")
+    void shouldReportMalformedNumbers() {
+        for (String text : new String[] { "", "-", "+", "abc", "12a", " 12", "1.5", "2147483648", "-2147483649" }) {
+            assertThat(parseInt(text)).as(text).isEqualTo(AsciiNumbers.MALFORMED);
+        }
+        assertThat(parseLong("9223372036854775808")).isEqualTo(AsciiNumbers.MALFORMED);
+        assertThat(parseLong("99999999999999999999")).isEqualTo(AsciiNumbers.MALFORMED);
+    }
+
+    @Test
+    @DisplayName("Should only parse the requested range of the buffer")
+    void shouldParseRange() {
+        byte[] bytes = "1,250,North".getBytes(StandardCharsets.US_ASCII);
+        assertThat(AsciiNumbers.parseInt(bytes, 2, 5)).isEqualTo(250L);
+    }
+
+    private static long parseInt(String text) {
+        byte[] bytes = text.getBytes(StandardCharsets.US_ASCII);
+        return AsciiNumbers.parseInt(bytes, 0, bytes.length);
+    }
+
+    private static long parseLong(String text) {
+        byte[] bytes = text.getBytes(StandardCharsets.US_ASCII);
+        return AsciiNumbers.parseLong(bytes, 0, bytes.length);
+    }
+}
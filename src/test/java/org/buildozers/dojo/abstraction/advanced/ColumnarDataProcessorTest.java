@@ -0,0 +1,204 @@
+package org.buildozers.dojo.abstraction.advanced;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("ColumnarDataProcessor Tests")
+class ColumnarDataProcessorTest {
+
+    private ColumnarDataProcessor processor;
+
+    @BeforeEach
+    void setUp() {
+        processor = new ColumnarDataProcessor();
+    }
+
+    @AfterEach
+    void tearDown() {
+        processor.close();
+    }
+
+    @Nested
+    @DisplayName("Query Tests")
+    class QueryTests {
+
+        @Test
+        @DisplayName("Should return the same results as the monolithic processor")
+        void shouldMatchMonolithicProcessor() {
+            DataProcessor monolith = new MonolithicDataProcessor();
+            String[][] files = { { "data.csv", "CSV" }, { "data.json", "JSON" }, { "data.xml", "XML" } };
+            for (String[] file : files) {
+                for (String aggregation : new String[] { "SUM", "COUNT" }) {
+                    for (String filter : new String[] { null, "Electronics", "Clothing", "Books", "electronics", "Book" }) {
+                        assertThat(processor.processFileData(file[0], file[1], true, filter, aggregation))
+                                .as(file[0] + " " + aggregation + " " + filter)
+                                .isEqualTo(monolith.processFileData(file[0], file[1], true, filter, aggregation));
+                    }
+                }
+            }
+        }
+
+        @Test
+        @DisplayName("Should support MIN and MAX aggregations")
+        void shouldSupportMinAndMax() {
+            assertThat(processor.processFileData("data.json", "JSON", false, "Clothing", "MIN")).isEqualTo(125L);
+            assertThat(processor.processFileData("data.json", "JSON", false, "Clothing", "MAX")).isEqualTo(180L);
+        }
+
+        @Test
+        @DisplayName("Should reject unsupported aggregation types")
+        void shouldRejectUnsupportedAggregation() {
+            assertThatThrownBy(() -> processor.processFileData("data.csv", "CSV", false, null, "AVERAGE"))
+                    .isInstanceOf(UnsupportedAggregationException.class)
+                    .hasMessageContaining("Unsupported aggregation type: AVERAGE");
+        }
+    }
+
+    @Nested
+    @DisplayName("Cache Tests")
+    class CacheTests {
+
+        @Test
+        @DisplayName("Should parse each file once and reuse it")
+        void shouldReuseCachedDatasets() {
+            // When
+            ColumnarDataset first = processor.dataset("data.csv", DataFormat.CSV, false);
+            processor.processFileData("data.csv", "CSV", true, "Books", "SUM");
+            processor.processFileData("data.xml", "XML", false, "Books", "SUM");
+
+            // Then
+            assertThat(processor.dataset("data.csv", DataFormat.CSV, true)).isSameAs(first);
+            assertThat(processor.cachedDatasetCount()).isEqualTo(2);
+        }
+
+        @Test
+        @DisplayName("Should reject invalid files when validation is requested")
+        void shouldRejectInvalidFiles() {
+            assertThatThrownBy(() -> processor.processFileData("invalid-data.json", "JSON", true, null, "COUNT"))
+                    .isInstanceOf(DataProcessingException.class)
+                    .hasMessageContaining("JSON validation failed against schema");
+            assertThat(processor.processFileData("invalid-data.json", "JSON", false, null, "COUNT")).isEqualTo(1L);
+        }
+
+        @Test
+        @DisplayName("Should load a dataset once under concurrent queries")
+        void shouldServeConcurrentQueries() throws Exception {
+            // Given
+            ExecutorService executor = Executors.newFixedThreadPool(8);
+            List<Future<Long>> results = new ArrayList<>();
+
+            // When
+            for (int i = 0; i < 64; i++) {
+                results.add(executor.submit(() -> processor.processFileData("data.xml", "XML", true, "Electronics", "SUM")));
+            }
+
+            // Then
+            for (Future<Long> result : results) {
+                assertThat(result.get()).isEqualTo(820L);
+            }
+            executor.shutdown();
+            assertThat(processor.cachedDatasetCount()).isEqualTo(1);
+        }
+
+        @Test
+        @DisplayName("Should load again a dataset whose first load was cancelled")
+        void shouldReloadAfterCancelledLoad() {
+            // Given
+            CompletableFuture<Long> expired = processor.processFileDataAsync("data.xml", "XML", false, null, "SUM",
+                    Instant.now().minusSeconds(1));
+            assertThatThrownBy(expired::join).isInstanceOf(CompletionException.class);
+
+            // When
+            long sum = processor.processFileData("data.xml", "XML", false, "Electronics", "SUM");
+
+            // Then
+            assertThat(sum).isEqualTo(820L);
+            assertThat(processor.cachedDatasetCount()).isEqualTo(1);
+        }
+    }
+
+    @Nested
+    @DisplayName("Cancellation Tests")
+    class CancellationTests {
+
+        @Test
+        @DisplayName("Should complete an asynchronous query before its deadline")
+        void shouldCompleteAsyncQuery() throws Exception {
+            // When
+            CompletableFuture<Long> result = processor.processFileDataAsync("data.csv", "CSV", true, "Electronics", "SUM",
+                    Instant.now().plusSeconds(30));
+
+            // Then
+            assertThat(result.get(10, TimeUnit.SECONDS)).isEqualTo(820L);
+        }
+
+        @Test
+        @DisplayName("Should fail a query whose deadline has already passed")
+        void shouldFailExpiredQuery() {
+            // When
+            CompletableFuture<Long> result = processor.processFileDataAsync("data.csv", "CSV", false, null, "COUNT",
+                    Instant.now().minusSeconds(1));
+
+            // Then
+            assertThatThrownBy(result::join)
+                    .isInstanceOf(CompletionException.class)
+                    .cause()
+                    .isInstanceOfAny(TimeoutException.class, QueryCancelledException.class);
+        }
+
+        @Test
+        @DisplayName("Should stop loading and release storage once cancelled")
+        void shouldStopLoadingWhenCancelled() {
+            // Given
+            CancellationSignal signal = new CancellationSignal();
+            signal.cancel();
+
+            // When & Then
+            assertThatThrownBy(() -> ColumnarDataset.load("data.csv", DataFormat.CSV, ColumnStorage.DIRECT, signal))
+                    .isInstanceOf(QueryCancelledException.class)
+                    .hasMessage("Query cancelled");
+            assertThat(processor.cachedDatasetCount()).isZero();
+        }
+
+        @Test
+        @DisplayName("Should stop aggregating once the deadline has passed")
+        void shouldStopAggregatingAfterDeadline() {
+            // Given
+            ColumnarDataset dataset = processor.dataset("data.csv", DataFormat.CSV, false);
+            CancellationSignal expired = CancellationSignal.withDeadline(Instant.now().minusMillis(1));
+
+            // When & Then
+            assertThatThrownBy(() -> dataset.aggregate(AggregationType.SUM, null, expired))
+                    .isInstanceOf(QueryCancelledException.class)
+                    .hasMessage("Query deadline exceeded");
+        }
+
+        @Test
+        @DisplayName("Should report a cancelled future")
+        void shouldCancelFuture() {
+            // When
+            CompletableFuture<Long> result = processor.processFileDataAsync("data.xml", "XML", true, null, "SUM", null);
+            result.cancel(true);
+
+            // Then
+            assertThat(result).isCancelled();
+        }
+    }
+}
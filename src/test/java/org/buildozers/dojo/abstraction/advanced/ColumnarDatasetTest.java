@@ -0,0 +1,202 @@
+package org.buildozers.dojo.abstraction.advanced;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+@DisplayName("ColumnarDataset Tests")
+class ColumnarDatasetTest {
+
+    @Nested
+    @DisplayName("Loading Tests")
+    class LoadingTests {
+
+        @Test
+        @DisplayName("Should load the same records from every format")
+        void shouldLoadSameRecordsFromEveryFormat() {
+            // When
+            ColumnarDataset csv = ColumnarDataset.load("data.csv", DataFormat.CSV);
+            ColumnarDataset json = ColumnarDataset.load("data.json", DataFormat.JSON);
+            ColumnarDataset xml = ColumnarDataset.load("data.xml", DataFormat.XML);
+
+            // Then
+            for (ColumnarDataset dataset : new ColumnarDataset[] { csv, json, xml }) {
+                assertThat(dataset.size()).isEqualTo(10);
+                assertThat(dataset.getCategories()).containsExactly("Electronics", "Clothing", "Books");
+                assertThat(dataset.getRegions()).containsExactlyInAnyOrder("North", "South", "East", "West");
+                assertThat(dataset.getId(4)).isEqualTo(5L);
+                assertThat(dataset.getValue(4)).isEqualTo(300);
+                assertThat(dataset.getRegion(4)).isEqualTo("West");
+                assertThat(dataset.getCategory(4)).isEqualTo("Electronics");
+            }
+        }
+
+        @Test
+        @DisplayName("Should throw DataProcessingException for a missing file")
+        void shouldThrowForMissingFile() {
+            assertThatThrownBy(() -> ColumnarDataset.load("nonexistent.csv", DataFormat.CSV))
+                    .isInstanceOf(DataProcessingException.class)
+                    .hasMessageContaining("Failed to load file")
+                    .hasCauseInstanceOf(java.io.IOException.class);
+        }
+    }
+
+    @Nested
+    @DisplayName("Aggregation Tests")
+    class AggregationTests {
+
+        private final ColumnarDataset dataset = ColumnarDataset.load("data.csv", DataFormat.CSV);
+
+        @Test
+        @DisplayName("Should match the monolithic processor for SUM and COUNT")
+        void shouldMatchMonolithicProcessor() {
+            DataProcessor monolith = new MonolithicDataProcessor();
+            for (String filter : new String[] { null, "", "Electronics", "clothing", "Book", "Unknown" }) {
+                for (String aggregation : new String[] { "SUM", "COUNT" }) {
+                    assertThat(dataset.aggregate(AggregationType.of(aggregation), filter))
+                            .as(aggregation + " " + filter)
+                            .isEqualTo(monolith.processFileData("data.csv", "CSV", false, filter, aggregation));
+                }
+            }
+        }
+
+        @Test
+        @DisplayName("Should compute MIN and MAX with and without filter")
+        void shouldComputeMinAndMax() {
+            assertThat(dataset.aggregate(AggregationType.MIN, null)).isEqualTo(75L);
+            assertThat(dataset.aggregate(AggregationType.MAX, null)).isEqualTo(300L);
+            assertThat(dataset.aggregate(AggregationType.MIN, "Electronics")).isEqualTo(100L);
+            assertThat(dataset.aggregate(AggregationType.MAX, "Books")).isEqualTo(95L);
+            assertThat(dataset.aggregate(AggregationType.MAX, "Unknown")).isZero();
+        }
+
+        @Test
+        @DisplayName("Should count malformed values but skip them in value aggregations")
+        void shouldSkipMalformedValues() {
+            // Given
+            ColumnarDataset.Builder builder = ColumnarDataset.builder();
+            builder.accept(1, 10, true, "North", "Books");
+            builder.accept(2, 0, false, "North", "Books");
+            builder.accept(3, -5, true, "South", "Books");
+            ColumnarDataset withMalformed = builder.build();
+
+            // Then
+            assertThat(withMalformed.aggregate(AggregationType.COUNT, "Books")).isEqualTo(3L);
+            assertThat(withMalformed.aggregate(AggregationType.SUM, "Books")).isEqualTo(5L);
+            assertThat(withMalformed.aggregate(AggregationType.MAX, "Books")).isEqualTo(10L);
+            assertThat(withMalformed.aggregate(AggregationType.MIN, null)).isEqualTo(-5L);
+            assertThat(withMalformed.hasValidValue(1)).isFalse();
+        }
+
+        @Test
+        @DisplayName("Should reject unknown aggregation types")
+        void shouldRejectUnknownAggregation() {
+            assertThatThrownBy(() -> AggregationType.of("AVERAGE"))
+                    .isInstanceOf(UnsupportedAggregationException.class)
+                    .hasMessageContaining("Supported types are: SUM, COUNT, MIN, MAX");
+        }
+    }
+
+    @Nested
+    @DisplayName("Off-heap Storage Tests")
+    class OffHeapStorageTests {
+
+        @TempDir
+        Path directory;
+
+        @Test
+        @DisplayName("Should give the same results whatever the storage")
+        void shouldGiveSameResultsWhateverTheStorage() {
+            // Given
+            ColumnarDataset heap = fill(ColumnarDataset.builder(ColumnStorage.HEAP));
+
+            for (ColumnStorage storage : ColumnStorage.values()) {
+                // When
+                try (ColumnarDataset dataset = fill(ColumnarDataset.builder(storage, directory))) {
+                    // Then
+                    assertThat(dataset.size()).as(storage.name()).isEqualTo(heap.size());
+                    for (AggregationType aggregation : AggregationType.values()) {
+                        for (String filter : new String[] { null, "Category 3", "Category" }) {
+                            assertThat(dataset.aggregate(aggregation, filter)).as(storage + " " + aggregation + " " + filter)
+                                    .isEqualTo(heap.aggregate(aggregation, filter));
+                        }
+                    }
+                    assertThat(dataset.getId(9_999)).isEqualTo(9_999L);
+                    assertThat(dataset.getCategory(9_999)).isEqualTo(heap.getCategory(9_999));
+                    assertThat(dataset.getRegion(9_999)).isEqualTo(heap.getRegion(9_999));
+                }
+            }
+        }
+
+        @Test
+        @DisplayName("Should load bundled files into direct buffers")
+        void shouldLoadIntoDirectBuffers() {
+            try (ColumnarDataset dataset = ColumnarDataset.load("data.xml", DataFormat.XML, ColumnStorage.DIRECT)) {
+                assertThat(dataset.aggregate(AggregationType.SUM, "Electronics")).isEqualTo(820L);
+            }
+        }
+
+        @Test
+        @DisplayName("Should delete mapped column files and reject queries once closed")
+        void shouldReleaseMappedFilesOnClose() throws IOException {
+            // Given
+            ColumnarDataset dataset = fill(ColumnarDataset.builder(ColumnStorage.MAPPED, directory));
+            assertThat(countFiles()).isEqualTo(4);
+
+            // When
+            dataset.close();
+
+            // Then
+            assertThat(countFiles()).isZero();
+            assertThatThrownBy(() -> dataset.aggregate(AggregationType.SUM, null))
+                    .isInstanceOf(DataProcessingException.class)
+                    .hasMessageContaining("closed");
+        }
+
+        @Test
+        @DisplayName("Should finish a running scan before releasing the columns of a closed dataset")
+        void shouldReleaseColumnsAfterRunningScans() throws IOException {
+            // Given
+            ColumnarDataset dataset = fill(ColumnarDataset.builder(ColumnStorage.MAPPED, directory));
+            long expected = fill(ColumnarDataset.builder(ColumnStorage.HEAP)).aggregate(AggregationType.SUM, null);
+            CancellationSignal closingSignal = new CancellationSignal() {
+                @Override
+                public void throwIfCancelled() {
+                    dataset.close();
+                }
+            };
+
+            // When
+            long sum = dataset.aggregate(AggregationType.SUM, null, closingSignal);
+
+            // Then
+            assertThat(sum).isEqualTo(expected);
+            assertThat(countFiles()).isZero();
+            assertThatThrownBy(() -> dataset.getValue(0))
+                    .isInstanceOf(DataProcessingException.class)
+                    .hasMessageContaining("closed");
+        }
+
+        private long countFiles() throws IOException {
+            try (Stream<Path> files = Files.list(directory)) {
+                return files.count();
+            }
+        }
+
+        private ColumnarDataset fill(ColumnarDataset.Builder builder) {
+            for (int i = 0; i < 10_000; i++) {
+                builder.accept(i, (i * 7919) % 1000 - 500, i % 97 != 0, i % 2 == 0 ? "North" : "South", "Category " + i % 5);
+            }
+            return builder.build();
+        }
+    }
+}
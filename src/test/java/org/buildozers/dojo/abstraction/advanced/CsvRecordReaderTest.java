@@ -0,0 +1,90 @@
+package org.buildozers.dojo.abstraction.advanced;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("CsvRecordReader Tests")
+class CsvRecordReaderTest {
+
+    @Test
+    @DisplayName("Should read records with columns in any order")
+    void shouldReadRecordsWithReorderedColumns() throws IOException {
+        assertThat(readAll("category,region,value,id\nBooks,East,75,4\nClothing,South,150,2\n"))
+                .containsExactly("4|75|true|East|Books", "2|150|true|South|Clothing");
+    }
+
+    @Test
+    @DisplayName("Should handle quotes, CRLF, empty lines and a missing final newline")
+    void shouldHandleCsvSyntax() throws IOException {
+        assertThat(readAll("id,value,region,category\r\n1,\"10\",\"North\",\"Home \"\"& Garden\"\"\"\r\n\r\n2,20,\"a,b\",Books"))
+                .containsExactly("1|10|true|North|Home \"& Garden\"", "2|20|true|a,b|Books");
+    }
+
+    @Test
+    @DisplayName("Should flag malformed values and keep non-ASCII text")
+    void shouldFlagMalformedValues() throws IOException {
+        assertThat(readAll("id,value,region,category\n1,abc,Nörth,Books\n2,99999999999,South,Books\n"))
+                .containsExactly("1|0|false|Nörth|Books", "2|0|false|South|Books");
+    }
+
+    @Test
+    @DisplayName("Should read inputs larger than the scan buffer")
+    void shouldReadLargeInputs() throws IOException {
+        // Given
+        StringBuilder csv = new StringBuilder("id,value,region,category\n");
+        for (int i = 0; i < 20_000; i++) {
+            csv.append(i).append(',').append(i % 100).append(",North,\"Category ").append(i % 7).append("\"\n");
+        }
+
+        // When
+        ColumnarDataset.Builder builder = ColumnarDataset.builder();
+        try (DataRecordReader reader = reader(csv.toString())) {
+            reader.readAll(builder);
+        }
+        ColumnarDataset dataset = builder.build();
+
+        // Then
+        assertThat(dataset.size()).isEqualTo(20_000);
+        assertThat(dataset.getCategories()).hasSize(7);
+        assertThat(dataset.aggregate(AggregationType.SUM, null)).isEqualTo(200L * 4950);
+        assertThat(dataset.getId(19_999)).isEqualTo(19_999L);
+    }
+
+    @Test
+    @DisplayName("Should reject files without the required columns")
+    void shouldRejectMissingColumns() {
+        assertThatThrownBy(() -> reader("id,value,region\n1,2,North\n"))
+                .isInstanceOf(DataProcessingException.class)
+                .hasMessageContaining("missing required columns");
+    }
+
+    @Test
+    @DisplayName("Should reject records with too few fields")
+    void shouldRejectInconsistentRecords() {
+        assertThatThrownBy(() -> readAll("id,value,region,category\n1,2,North\n"))
+                .isInstanceOf(DataProcessingException.class)
+                .hasMessageContaining("inconsistency found at line 2");
+    }
+
+    private static List<String> readAll(String csv) throws IOException {
+        List<String> records = new ArrayList<>();
+        try (DataRecordReader reader = reader(csv)) {
+            reader.readAll((id, value, validValue, region, category) ->
+                    records.add(id + "|" + value + "|" + validValue + "|" + region + "|" + category));
+        }
+        return records;
+    }
+
+    private static DataRecordReader reader(String csv) throws IOException {
+        return new CsvRecordReader(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)));
+    }
+}
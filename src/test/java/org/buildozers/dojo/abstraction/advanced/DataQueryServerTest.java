@@ -0,0 +1,111 @@
+package org.buildozers.dojo.abstraction.advanced;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import org.json.JSONObject;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("DataQueryServer Tests")
+class DataQueryServerTest {
+
+    private ColumnarDataProcessor processor;
+    private DataQueryServer server;
+    private HttpClient client;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        processor = new ColumnarDataProcessor();
+        server = new DataQueryServer(processor);
+        server.start();
+        client = HttpClient.newHttpClient();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.close();
+        processor.close();
+    }
+
+    @Test
+    @DisplayName("Should answer a query with a JSON result")
+    void shouldAnswerQuery() throws Exception {
+        // When
+        HttpResponse<String> response = get("/query?file=data.csv&format=CSV&validate=true&category=Electronics&aggregation=SUM");
+
+        // Then
+        assertThat(response.statusCode()).isEqualTo(200);
+        assertThat(response.headers().firstValue("Content-Type")).hasValueSatisfying(type -> assertThat(type).contains("json"));
+        JSONObject body = new JSONObject(response.body());
+        assertThat(body.getLong("result")).isEqualTo(820L);
+        assertThat(body.getString("aggregation")).isEqualTo("SUM");
+    }
+
+    @Test
+    @DisplayName("Should serve concurrent queries from the warm dataset")
+    void shouldServeConcurrentQueries() {
+        // When
+        List<CompletableFuture<HttpResponse<String>>> responses = new ArrayList<>();
+        for (int i = 0; i < 32; i++) {
+            responses.add(client.sendAsync(request("/query?file=data.json&format=JSON&category=Clothing&aggregation=COUNT"),
+                    HttpResponse.BodyHandlers.ofString()));
+        }
+
+        // Then
+        for (CompletableFuture<HttpResponse<String>> response : responses) {
+            assertThat(new JSONObject(response.join().body()).getLong("result")).isEqualTo(3L);
+        }
+        assertThat(processor.cachedDatasetCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should map errors to HTTP status codes")
+    void shouldMapErrorsToStatusCodes() throws Exception {
+        assertThat(get("/query?file=data.csv").statusCode()).isEqualTo(400);
+        assertThat(get("/query?file=data.csv&format=CSV&aggregation=AVERAGE").statusCode()).isEqualTo(400);
+        assertThat(get("/query?file=missing.csv&format=CSV").statusCode()).isEqualTo(404);
+        assertThat(get("/query?file=invalid-data.json&format=JSON&validate=true").statusCode()).isEqualTo(422);
+        assertThat(new JSONObject(get("/query?file=missing.csv&format=CSV").body()).getString("error"))
+                .contains("missing.csv");
+    }
+
+    @Test
+    @DisplayName("Should add the query profile when explaining")
+    void shouldExplainQuery() throws Exception {
+        // Given
+        get("/query?file=data.csv&format=CSV");
+
+        // When
+        HttpResponse<String> response = get("/query?file=data.csv&format=CSV&category=Electronics&explain=true");
+
+        // Then
+        JSONObject body = new JSONObject(response.body());
+        assertThat(body.getLong("result")).isEqualTo(820L);
+        assertThat(body.getJSONObject("profile").getString("cache")).isEqualTo("HIT");
+        assertThat(body.getJSONObject("profile").getLong("rowsMatched")).isEqualTo(4L);
+    }
+
+    @Test
+    @DisplayName("Should report its health")
+    void shouldReportHealth() throws Exception {
+        assertThat(new JSONObject(get("/health").body()).getString("status")).isEqualTo("UP");
+    }
+
+    private HttpResponse<String> get(String path) throws Exception {
+        return client.send(request(path), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private HttpRequest request(String path) {
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + server.getPort() + path)).GET().build();
+    }
+}
@@ -0,0 +1,202 @@
+package org.buildozers.dojo.abstraction.advanced;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+@DisplayName("DataTranscoder Tests")
+class DataTranscoderTest {
+
+    private final DataTranscoder transcoder = new DataTranscoder();
+
+    @TempDir
+    Path directory;
+
+    @Nested
+    @DisplayName("Conversion Tests")
+    class ConversionTests {
+
+        @Test
+        @DisplayName("Should keep the same records across every pair of formats")
+        void shouldConvertBetweenEveryFormat() throws IOException {
+            for (DataFormat from : DataFormat.values()) {
+                for (DataFormat to : DataFormat.values()) {
+                    // Given
+                    Path source = bundled(from);
+                    Path target = directory.resolve(from + "-to-" + to + "." + to.name().toLowerCase());
+
+                    // When
+                    long written = transcoder.transcode(source, from, target, to, null, true);
+
+                    // Then
+                    ColumnarDataset dataset = load(target, to);
+                    assertThat(written).as(from + " -> " + to).isEqualTo(10L);
+                    assertThat(dataset.size()).isEqualTo(10);
+                    assertThat(dataset.aggregate(AggregationType.SUM, "Electronics")).isEqualTo(820L);
+                    assertThat(dataset.aggregate(AggregationType.COUNT, "Clothing")).isEqualTo(3L);
+                    assertThat(dataset.aggregate(AggregationType.SUM, null)).isEqualTo(1525L);
+                    assertThat(dataset.getRegion(4)).isEqualTo("West");
+                }
+            }
+        }
+
+        @Test
+        @DisplayName("Should only write the records of the filtered category")
+        void shouldFilterByCategory() throws IOException {
+            // Given
+            Path target = directory.resolve("electronics.json");
+
+            // When
+            long written = transcoder.transcode(bundled(DataFormat.CSV), DataFormat.CSV, target, DataFormat.JSON,
+                    "electronics", false);
+
+            // Then
+            assertThat(written).isEqualTo(4L);
+            assertThat(load(target, DataFormat.JSON).getCategories()).containsExactly("Electronics");
+            assertThat(load(target, DataFormat.JSON).aggregate(AggregationType.SUM, null)).isEqualTo(820L);
+        }
+
+        @Test
+        @DisplayName("Should preserve malformed values, quoting and non-ASCII text")
+        void shouldPreserveUnusualRecords() throws IOException {
+            // Given
+            String csv = "id,value,region,category\n1,oops,\"North, upper\",Électronique\n2,-7,\"Say \"\"hi\"\"\",Books\n";
+
+            for (DataFormat to : DataFormat.values()) {
+                // When
+                byte[] content = transcode(csv.getBytes(StandardCharsets.UTF_8), DataFormat.CSV, to);
+                ColumnarDataset.Builder builder = ColumnarDataset.builder();
+                try (DataRecordReader reader = DataRecordReaders.open(new ByteArrayInputStream(content), to)) {
+                    reader.readAll(builder);
+                }
+                ColumnarDataset dataset = builder.build();
+
+                // Then
+                assertThat(dataset.size()).as(to.name()).isEqualTo(2);
+                assertThat(dataset.hasValidValue(0)).as(to.name()).isFalse();
+                assertThat(dataset.getRegion(0)).as(to.name()).isEqualTo("North, upper");
+                assertThat(dataset.getCategory(0)).as(to.name()).isEqualTo("Électronique");
+                assertThat(dataset.getRegion(1)).as(to.name()).isEqualTo("Say \"hi\"");
+                assertThat(dataset.getValue(1)).as(to.name()).isEqualTo(-7);
+                assertThat(dataset.aggregate(AggregationType.COUNT, null)).as(to.name()).isEqualTo(2L);
+            }
+        }
+
+        @Test
+        @DisplayName("Should write XML that validates against the bundled schema")
+        void shouldWriteSchemaValidXml() throws IOException {
+            // Given
+            Path target = directory.resolve("data.xml");
+
+            // When
+            transcoder.transcode(bundled(DataFormat.BINARY), DataFormat.BINARY, target, DataFormat.XML, null, true);
+
+            // Then
+            new DataValidator().validate(target, DataFormat.XML);
+            new DataValidator().validate(bundled(DataFormat.BINARY), DataFormat.BINARY);
+        }
+
+        @Test
+        @DisplayName("Should start binary files with the format magic")
+        void shouldWriteBinaryMagic() throws IOException {
+            // When
+            byte[] content = transcode(Files.readAllBytes(bundled(DataFormat.CSV)), DataFormat.CSV, DataFormat.BINARY);
+
+            // Then
+            assertThat(new String(content, 0, 4, StandardCharsets.US_ASCII)).isEqualTo("DOJB");
+            assertThatThrownBy(() -> transcode("nope".getBytes(StandardCharsets.US_ASCII), DataFormat.BINARY,
+                    DataFormat.CSV))
+                    .isInstanceOf(DataProcessingException.class);
+        }
+    }
+
+    @Nested
+    @DisplayName("Validation Tests")
+    class ValidationTests {
+
+        @Test
+        @DisplayName("Should reject records breaking the schema and leave no target behind")
+        void shouldRejectInvalidRecords() {
+            // Given
+            Path target = directory.resolve("invalid.csv");
+
+            // When / Then
+            assertThatThrownBy(() -> transcoder.transcode(DataSources.resourcePath("invalid-data.json"),
+                    DataFormat.JSON, target, DataFormat.CSV, null, true))
+                    .isInstanceOf(DataProcessingException.class)
+                    .hasMessageContaining("failed validation");
+            assertThat(target).doesNotExist();
+            assertThat(countFiles()).isZero();
+        }
+
+        @Test
+        @DisplayName("Should reject an unknown category only when validating")
+        void shouldValidateOnlyWhenAsked() throws IOException {
+            // Given
+            byte[] csv = "id,value,region,category\n1,10,North,Toys\n".getBytes(StandardCharsets.UTF_8);
+
+            // When / Then
+            assertThat(transcode(csv, DataFormat.CSV, DataFormat.JSON)).isNotEmpty();
+            assertThatThrownBy(() -> transcoder.transcode(new ByteArrayInputStream(csv), DataFormat.CSV,
+                    new ByteArrayOutputStream(), DataFormat.JSON, null, true))
+                    .isInstanceOf(DataProcessingException.class)
+                    .hasMessageContaining("Record 1");
+        }
+
+        @Test
+        @DisplayName("Should reject validated output without any record")
+        void shouldRejectEmptyValidatedOutput() {
+            assertThatThrownBy(() -> transcoder.transcode(bundled(DataFormat.CSV), DataFormat.CSV,
+                    directory.resolve("empty.xml"), DataFormat.XML, "Unknown", true))
+                    .isInstanceOf(DataProcessingException.class)
+                    .hasMessageContaining("no records");
+        }
+
+        private long countFiles() {
+            try (Stream<Path> files = Files.list(directory)) {
+                return files.count();
+            } catch (IOException e) {
+                throw new AssertionError(e);
+            }
+        }
+    }
+
+    private Path bundled(DataFormat format) throws IOException {
+        if (format != DataFormat.BINARY) {
+            return DataSources.resourcePath("data." + format.name().toLowerCase());
+        }
+        Path binary = directory.resolve("bundled.bin");
+        if (!Files.exists(binary)) {
+            transcoder.transcode(bundled(DataFormat.CSV), DataFormat.CSV, binary, DataFormat.BINARY, null, true);
+        }
+        return binary;
+    }
+
+    private byte[] transcode(byte[] content, DataFormat from, DataFormat to) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        transcoder.transcode(new ByteArrayInputStream(content), from, output, to, null, false);
+        return output.toByteArray();
+    }
+
+    private static ColumnarDataset load(Path file, DataFormat format) throws IOException {
+        ColumnarDataset.Builder builder = ColumnarDataset.builder();
+        try (InputStream input = Files.newInputStream(file);
+                DataRecordReader reader = DataRecordReaders.open(input, format)) {
+            reader.readAll(builder);
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,128 @@
+package org.buildozers.dojo.abstraction.advanced;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.validation.Validator;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+
+@DisplayName("ParserContext Tests")
+class ParserContextTest {
+
+    @Nested
+    @DisplayName("Reuse Tests")
+    class ReuseTests {
+
+        @Test
+        @DisplayName("Should share one context between processors")
+        void shouldShareContext() {
+            assertThat(ParserContext.shared()).isSameAs(ParserContext.shared());
+        }
+
+        @Test
+        @DisplayName("Should compile each schema only once")
+        void shouldCompileSchemasOnce() {
+            // Given
+            ParserContext parsers = new ParserContext();
+
+            // When / Then
+            assertThat(parsers.xmlSchema()).isSameAs(parsers.xmlSchema());
+            assertThat(parsers.jsonSchema()).isSameAs(parsers.jsonSchema());
+        }
+
+        @Test
+        @DisplayName("Should reuse released document builders and validators")
+        void shouldReusePooledInstances() {
+            // Given
+            ParserContext parsers = new ParserContext();
+            DocumentBuilder builder = parsers.borrowDocumentBuilder();
+            Validator validator = parsers.borrowXmlValidator();
+
+            // When
+            parsers.release(builder);
+            parsers.release(validator);
+
+            // Then
+            assertThat(parsers.borrowDocumentBuilder()).isSameAs(builder);
+            assertThat(parsers.borrowXmlValidator()).isSameAs(validator);
+        }
+
+        @Test
+        @DisplayName("Should hand out distinct builders to concurrent borrowers")
+        void shouldNotShareBorrowedInstances() {
+            // Given
+            ParserContext parsers = new ParserContext();
+
+            // When
+            DocumentBuilder first = parsers.borrowDocumentBuilder();
+            DocumentBuilder second = parsers.borrowDocumentBuilder();
+
+            // Then
+            assertThat(first).isNotSameAs(second);
+        }
+    }
+
+    @Nested
+    @DisplayName("Security Tests")
+    class SecurityTests {
+
+        @Test
+        @DisplayName("Should reject XML documents declaring a DTD")
+        void shouldRejectDoctype() {
+            // Given
+            String xml = "<?xml version=\"1.0\"?><!DOCTYPE data [<!ENTITY xxe SYSTEM \"file:///etc/passwd\">]>"
+                    + "<data>&xxe;</data>";
+            ParserContext parsers = new ParserContext();
+            DocumentBuilder builder = parsers.borrowDocumentBuilder();
+
+            // When / Then
+            assertThatThrownBy(() -> builder.parse(new InputSource(new StringReader(xml))))
+                    .isInstanceOf(SAXException.class);
+            parsers.release(builder);
+        }
+    }
+
+    @Nested
+    @DisplayName("Concurrency Tests")
+    class ConcurrencyTests {
+
+        @Test
+        @DisplayName("Should process files concurrently through the shared context")
+        void shouldProcessConcurrently() throws Exception {
+            // Given
+            DataProcessor processor = new MonolithicDataProcessor(new ProcessingMetrics(false));
+            List<Future<Long>> results = new ArrayList<>();
+
+            // When
+            try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (int i = 0; i < 60; i++) {
+                    String[] file = switch (i % 3) {
+                        case 0 -> new String[] { "data.csv", "CSV" };
+                        case 1 -> new String[] { "data.json", "JSON" };
+                        default -> new String[] { "data.xml", "XML" };
+                    };
+                    results.add(executor.submit(
+                            () -> processor.processFileData(file[0], file[1], true, "Electronics", "SUM")));
+                }
+            }
+
+            // Then
+            for (Future<Long> result : results) {
+                assertThat(result.get()).isEqualTo(820L);
+            }
+        }
+    }
+}
@@ -0,0 +1,214 @@
+package org.buildozers.dojo.abstraction.advanced;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+@DisplayName("PartitionedDataProcessor Tests")
+class PartitionedDataProcessorTest {
+
+    private static final String HEADER = "id,value,region,category\n";
+
+    @TempDir
+    Path baseDirectory;
+
+    private PartitionedDataProcessor processor;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        // Same records as data.csv, split by category and region
+        writePart("category=Electronics/region=North/part-0001.csv", "1,100,North,Electronics\n3,200,North,Electronics\n");
+        writePart("category=Electronics/region=West/part-0001.csv", "5,300,West,Electronics\n");
+        writePart("category=Electronics/region=East/part-0001.csv", "8,220,East,Electronics\n");
+        writePart("category=Clothing/region=South/part-0001.csv", "2,150,South,Clothing\n6,125,South,Clothing\n");
+        writePart("category=Clothing/region=South/part-0002.csv", "10,180,South,Clothing\n");
+        writePart("category=Books/region=East/part-0001.csv", "4,75,East,Books\n");
+        writePart("category=Books/region=North/part-0001.csv", "7,80,North,Books\n");
+        writePart("category=Books/region=West/part-0001.csv", "9,95,West,Books\n");
+        processor = new PartitionedDataProcessor(baseDirectory);
+    }
+
+    @Nested
+    @DisplayName("Query Tests")
+    class QueryTests {
+
+        @Test
+        @DisplayName("Should return the same results as the unpartitioned file")
+        void shouldMatchUnpartitionedFile() {
+            ColumnarDataProcessor columnar = new ColumnarDataProcessor();
+            for (String aggregation : new String[] { "SUM", "COUNT", "MIN", "MAX" }) {
+                for (String filter : new String[] { null, "Electronics", "Clothing", "Books", "o" }) {
+                    assertThat(processor.processFileData("sales", "CSV", true, filter, aggregation))
+                            .as(aggregation + " " + filter)
+                            .isEqualTo(columnar.processFileData("data.csv", "CSV", true, filter, aggregation));
+                }
+            }
+            columnar.close();
+        }
+
+        @Test
+        @DisplayName("Should match partition values ignoring case")
+        void shouldMatchPartitionValuesIgnoringCase() {
+            // When
+            long result = processor.processFileData("sales", "CSV", false, "electronics", "SUM");
+
+            // Then
+            assertThat(result).isEqualTo(820L);
+        }
+
+        @Test
+        @DisplayName("Should only read files of the queried format")
+        void shouldOnlyReadQueriedFormat() throws IOException {
+            // Given
+            writeFile("sales/category=Electronics/region=North/part-0002.json",
+                    "{\"data\":[{\"id\":11,\"value\":1000,\"region\":\"North\",\"category\":\"Electronics\"}]}");
+
+            // When
+            long csvSum = processor.processFileData("sales", "CSV", false, "Electronics", "SUM");
+            long jsonSum = processor.processFileData("sales", "JSON", false, "Electronics", "SUM");
+
+            // Then
+            assertThat(csvSum).isEqualTo(820L);
+            assertThat(jsonSum).isEqualTo(1000L);
+        }
+
+        @Test
+        @DisplayName("Should reject unsupported aggregation types")
+        void shouldRejectUnsupportedAggregation() {
+            assertThatThrownBy(() -> processor.processFileData("sales", "CSV", false, null, "AVG"))
+                    .isInstanceOf(UnsupportedAggregationException.class);
+        }
+
+        @Test
+        @DisplayName("Should reject dataset directories outside the base directory")
+        void shouldRejectDirectoryTraversal() {
+            assertThatThrownBy(() -> processor.processFileData("../elsewhere", "CSV", false, null, "SUM"))
+                    .isInstanceOf(DataProcessingException.class)
+                    .hasMessageContaining("outside the base directory");
+        }
+
+        @Test
+        @DisplayName("Should fail on a missing dataset directory")
+        void shouldFailOnMissingDirectory() {
+            assertThatThrownBy(() -> processor.processFileData("missing", "CSV", false, null, "SUM"))
+                    .isInstanceOf(DataProcessingException.class)
+                    .hasMessageContaining("Failed to load file")
+                    .hasCauseInstanceOf(IOException.class);
+        }
+    }
+
+    @Nested
+    @DisplayName("Partition Pruning Tests")
+    class PartitionPruningTests {
+
+        @Test
+        @DisplayName("Should parse partition values from the directory layout")
+        void shouldParsePartitionValues() {
+            // When
+            PartitionCatalog catalog = processor.catalog("sales");
+
+            // Then
+            assertThat(catalog.getPartitions()).hasSize(8);
+            assertThat(catalog.getPartitions().get(0).values())
+                    .isEqualTo(Map.of("category", "Books", "region", "East"));
+            assertThat(catalog.getPartitions()).allMatch(partition -> partition.format() == DataFormat.CSV);
+        }
+
+        @Test
+        @DisplayName("Should only select the partitions matching the category filter")
+        void shouldSelectMatchingPartitions() {
+            // When
+            PartitionCatalog catalog = processor.catalog("sales");
+
+            // Then
+            assertThat(catalog.select(CategoryFilter.of("Clothing"), DataFormat.CSV)).hasSize(2);
+            assertThat(catalog.select(CategoryFilter.of(null), DataFormat.CSV)).hasSize(8);
+            assertThat(catalog.select(CategoryFilter.of("Toys"), DataFormat.CSV)).isEmpty();
+        }
+
+        @Test
+        @DisplayName("Should not open pruned partitions")
+        void shouldNotOpenPrunedPartitions() throws IOException {
+            // Given
+            writePart("category=Books/region=South/part-0001.csv", "11,not-a-row\n");
+
+            // When
+            long electronics = processor.processFileData("sales", "CSV", true, "Electronics", "SUM");
+
+            // Then
+            assertThat(electronics).isEqualTo(820L);
+            assertThatThrownBy(() -> processor.processFileData("sales", "CSV", false, "Books", "SUM"))
+                    .isInstanceOf(DataProcessingException.class)
+                    .hasMessageContaining("inconsistency");
+        }
+
+        @Test
+        @DisplayName("Should explain how many partitions were pruned")
+        void shouldExplainPruning() {
+            // When
+            QueryProfile first = processor.explain("sales", "CSV", false, "Clothing", "COUNT");
+            QueryProfile second = processor.explain("sales", "CSV", false, "Clothing", "COUNT");
+
+            // Then
+            assertThat(first.getResult()).isEqualTo(3L);
+            assertThat(first.getCacheStatus()).isEqualTo(QueryProfile.CacheStatus.MISS);
+            assertThat(second.getCacheStatus()).isEqualTo(QueryProfile.CacheStatus.HIT);
+            assertThat(first.getPartitionsTotal()).isEqualTo(8);
+            assertThat(first.getPartitionsScanned()).isEqualTo(2);
+            assertThat(first.getPartitionsPruned()).isEqualTo(6);
+            assertThat(first.getRowsScanned()).isEqualTo(3L);
+            assertThat(first.getParseMode()).isEqualTo(QueryProfile.ParseMode.STREAMING);
+        }
+
+        @Test
+        @DisplayName("Should open every file of a directory without partition values")
+        void shouldOpenUnpartitionedFiles() throws IOException {
+            // Given
+            writeFile("flat/part-0001.csv", HEADER + "1,100,North,Electronics\n2,150,South,Clothing\n");
+
+            // When
+            long result = processor.processFileData("flat", "CSV", false, "Electronics", "SUM");
+
+            // Then
+            assertThat(result).isEqualTo(100L);
+        }
+
+        @Test
+        @DisplayName("Should discover partitions once until refreshed")
+        void shouldCacheCatalogUntilRefreshed() throws IOException {
+            // Given
+            PartitionCatalog catalog = processor.catalog("sales");
+            writePart("category=Toys/region=North/part-0001.csv", "11,40,North,Toys\n");
+
+            // When
+            long beforeRefresh = processor.processFileData("sales", "CSV", false, "Toys", "SUM");
+            processor.refresh("sales");
+            long afterRefresh = processor.processFileData("sales", "CSV", false, "Toys", "SUM");
+
+            // Then
+            assertThat(processor.catalog("sales")).isNotSameAs(catalog);
+            assertThat(beforeRefresh).isZero();
+            assertThat(afterRefresh).isEqualTo(40L);
+        }
+    }
+
+    private void writePart(String partition, String records) throws IOException {
+        writeFile("sales/" + partition, HEADER + records);
+    }
+
+    private void writeFile(String relativePath, String content) throws IOException {
+        Path file = baseDirectory.resolve(relativePath);
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, content);
+    }
+}
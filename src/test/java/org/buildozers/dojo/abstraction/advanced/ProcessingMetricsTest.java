@@ -0,0 +1,154 @@
+package org.buildozers.dojo.abstraction.advanced;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+@DisplayName("ProcessingMetrics Tests")
+class ProcessingMetricsTest {
+
+    @Nested
+    @DisplayName("Stage Metrics Tests")
+    class StageMetricsTests {
+
+        @Test
+        @DisplayName("Should record every stage of a validated CSV query")
+        void shouldRecordEveryStageOfCsvQuery() {
+            // Given
+            ProcessingMetrics metrics = new ProcessingMetrics();
+            DataProcessor processor = new MonolithicDataProcessor(metrics);
+
+            // When
+            processor.processFileData("data.csv", "CSV", true, "Electronics", "SUM");
+
+            // Then
+            for (ProcessingStage stage : ProcessingStage.values()) {
+                assertThat(metrics.getStage(stage).getInvocations()).as(stage.name()).isEqualTo(1);
+                assertThat(metrics.getStage(stage).getLatency().getCount()).as(stage.name()).isEqualTo(1);
+            }
+            assertThat(metrics.getStage(ProcessingStage.LOAD).getBytesRead()).isPositive();
+            assertThat(metrics.getStage(ProcessingStage.PARSE).getRecordsParsed()).isEqualTo(10);
+            assertThat(metrics.getStage(ProcessingStage.FILTER).getRecordsMatched()).isEqualTo(4);
+        }
+
+        @Test
+        @DisplayName("Should record a stage that fails")
+        void shouldRecordFailingStage() {
+            // Given
+            ProcessingMetrics metrics = new ProcessingMetrics();
+            DataProcessor processor = new MonolithicDataProcessor(metrics);
+
+            // When
+            assertThatThrownBy(() -> processor.processFileData("missing.csv", "CSV", false, null, "SUM"))
+                    .isInstanceOf(DataProcessingException.class);
+
+            // Then
+            assertThat(metrics.getStage(ProcessingStage.LOAD).getInvocations()).isEqualTo(1);
+            assertThat(metrics.getStage(ProcessingStage.PARSE).getInvocations()).isZero();
+        }
+
+        @Test
+        @DisplayName("Should not record anything when metrics are disabled")
+        void shouldNotRecordWhenDisabled() {
+            // Given
+            ProcessingMetrics metrics = new ProcessingMetrics(false);
+            DataProcessor processor = new MonolithicDataProcessor(metrics);
+
+            // When
+            processor.processFileData("data.json", "JSON", true, "Clothing", "COUNT");
+
+            // Then
+            for (ProcessingStage stage : ProcessingStage.values()) {
+                assertThat(metrics.getStage(stage).getInvocations()).as(stage.name()).isZero();
+            }
+        }
+
+        @Test
+        @DisplayName("Should skip the validation stage when validation is off")
+        void shouldSkipValidationStage() {
+            // Given
+            ProcessingMetrics metrics = new ProcessingMetrics();
+            DataProcessor processor = new MonolithicDataProcessor(metrics);
+
+            // When
+            processor.processFileData("data.xml", "XML", false, "Books", "COUNT");
+
+            // Then
+            assertThat(metrics.getStage(ProcessingStage.VALIDATE).getInvocations()).isZero();
+            assertThat(metrics.getStage(ProcessingStage.PARSE).getRecordsParsed()).isEqualTo(10);
+            assertThat(metrics.getStage(ProcessingStage.AGGREGATE).getRecordsMatched()).isEqualTo(3);
+        }
+    }
+
+    @Nested
+    @DisplayName("Latency Histogram Tests")
+    class LatencyHistogramTests {
+
+        @Test
+        @DisplayName("Should report percentiles within a factor of two")
+        void shouldReportPercentiles() {
+            // Given
+            LatencyHistogram histogram = new LatencyHistogram();
+
+            // When
+            for (int i = 1; i <= 100; i++) {
+                histogram.record(i * 1_000L);
+            }
+
+            // Then
+            assertThat(histogram.getCount()).isEqualTo(100);
+            assertThat(histogram.getMaxNanos()).isEqualTo(100_000L);
+            assertThat(histogram.getValueAtPercentile(50)).isBetween(50_000L, 100_000L);
+            assertThat(histogram.getValueAtPercentile(100)).isEqualTo(100_000L);
+        }
+
+        @Test
+        @DisplayName("Should return zero for an empty histogram")
+        void shouldReturnZeroWhenEmpty() {
+            assertThat(new LatencyHistogram().getValueAtPercentile(99)).isZero();
+        }
+    }
+
+    @Nested
+    @DisplayName("Flight Recorder Tests")
+    class FlightRecorderTests {
+
+        @Test
+        @DisplayName("Should emit one JFR event per stage when the event is enabled")
+        void shouldEmitJfrEvents() throws Exception {
+            // Given
+            DataProcessor processor = new MonolithicDataProcessor(new ProcessingMetrics(false));
+            Path dump = Files.createTempFile("data-processing", ".jfr");
+
+            // When
+            try (Recording recording = new Recording()) {
+                recording.enable(DataProcessingStageEvent.class).withThreshold(Duration.ZERO);
+                recording.start();
+                processor.processFileData("data.csv", "CSV", false, "Books", "SUM");
+                recording.stop();
+                recording.dump(dump);
+            }
+
+            // Then
+            List<RecordedEvent> events = RecordingFile.readAllEvents(dump).stream()
+                    .filter(event -> event.getEventType().getName().equals("org.buildozers.dojo.DataProcessingStage"))
+                    .filter(event -> "CSV".equals(event.getString("format")))
+                    .toList();
+            Files.deleteIfExists(dump);
+            assertThat(events).extracting(event -> event.getString("stage"))
+                    .contains("LOAD", "PARSE", "FILTER", "AGGREGATE");
+        }
+    }
+}
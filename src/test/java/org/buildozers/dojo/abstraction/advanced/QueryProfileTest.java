@@ -0,0 +1,132 @@
+package org.buildozers.dojo.abstraction.advanced;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.json.JSONObject;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("QueryProfile Tests")
+class QueryProfileTest {
+
+    @Nested
+    @DisplayName("Monolithic Processor Tests")
+    class MonolithicProcessorTests {
+
+        @Test
+        @DisplayName("Should profile a document-parsed query")
+        void shouldProfileDocumentQuery() {
+            // Given
+            MonolithicDataProcessor processor = new MonolithicDataProcessor();
+
+            // When
+            QueryProfile profile = processor.explain("data.csv", "CSV", true, "Electronics", "SUM");
+
+            // Then
+            assertThat(profile.getResult()).isEqualTo(820L);
+            assertThat(profile.getParseMode()).isEqualTo(QueryProfile.ParseMode.DOCUMENT);
+            assertThat(profile.getExecutionMode()).isEqualTo(QueryProfile.ExecutionMode.SEQUENTIAL);
+            assertThat(profile.getCacheStatus()).isEqualTo(QueryProfile.CacheStatus.NOT_CACHED);
+            assertThat(profile.getRowsScanned()).isEqualTo(10L);
+            assertThat(profile.getRowsMatched()).isEqualTo(4L);
+            assertThat(profile.getStageNanos()).containsKeys(ProcessingStage.LOAD, ProcessingStage.VALIDATE,
+                    ProcessingStage.PARSE, ProcessingStage.FILTER, ProcessingStage.AGGREGATE);
+        }
+
+        @Test
+        @DisplayName("Should learn row estimates from explained files")
+        void shouldLearnRowEstimates() {
+            // Given
+            MonolithicDataProcessor processor = new MonolithicDataProcessor();
+
+            // When
+            processor.explain("data.xml", "XML", false, null, "COUNT");
+            QueryProfile profile = processor.explain("data.xml", "XML", false, null, "COUNT");
+
+            // Then
+            assertThat(profile.getRowsScanned()).isEqualTo(10L);
+            assertThat(profile.getEstimatedRows()).isEqualTo(10L);
+        }
+
+        @Test
+        @DisplayName("Should not record explained queries in the processor metrics")
+        void shouldNotRecordExplainedQueries() {
+            // Given
+            MonolithicDataProcessor processor = new MonolithicDataProcessor();
+
+            // When
+            processor.explain("data.json", "JSON", false, null, "SUM");
+
+            // Then
+            assertThat(processor.getMetrics().getStage(ProcessingStage.PARSE).getInvocations()).isZero();
+        }
+    }
+
+    @Nested
+    @DisplayName("Columnar Processor Tests")
+    class ColumnarProcessorTests {
+
+        @Test
+        @DisplayName("Should report a cache miss then a cache hit")
+        void shouldReportCacheStatus() {
+            try (ColumnarDataProcessor processor = new ColumnarDataProcessor()) {
+                // When
+                QueryProfile first = processor.explain("data.json", "JSON", true, "Clothing", "COUNT");
+                QueryProfile second = processor.explain("data.json", "JSON", true, "Clothing", "COUNT");
+
+                // Then
+                assertThat(first.getResult()).isEqualTo(3L);
+                assertThat(first.getCacheStatus()).isEqualTo(QueryProfile.CacheStatus.MISS);
+                assertThat(first.getParseMode()).isEqualTo(QueryProfile.ParseMode.STREAMING);
+                assertThat(first.getStageNanos()).containsKeys(ProcessingStage.VALIDATE, ProcessingStage.LOAD);
+                assertThat(second.getCacheStatus()).isEqualTo(QueryProfile.CacheStatus.HIT);
+                assertThat(second.getParseMode()).isEqualTo(QueryProfile.ParseMode.CACHED);
+                assertThat(second.getStageNanos()).containsOnlyKeys(ProcessingStage.AGGREGATE);
+                assertThat(second.getEstimatedRows()).isEqualTo(10L);
+            }
+        }
+
+        @Test
+        @DisplayName("Should report the index used by each aggregation")
+        void shouldReportIndexUse() {
+            try (ColumnarDataProcessor processor = new ColumnarDataProcessor()) {
+                // When
+                QueryProfile scanned = processor.explain("data.csv", "CSV", false, "Books", "MAX");
+                QueryProfile summed = processor.explain("data.csv", "CSV", false, "Books", "SUM");
+
+                // Then
+                assertThat(scanned.getIndexUsed()).startsWith("category dictionary (1 of 3 codes)");
+                assertThat(scanned.getRowsScanned()).isEqualTo(10L);
+                assertThat(scanned.getRowsMatched()).isEqualTo(3L);
+                assertThat(summed.getIndexUsed()).isEqualTo("category x region cube");
+                assertThat(summed.getRowsScanned()).isZero();
+                assertThat(summed.getRowsMatched()).isEqualTo(3L);
+            }
+        }
+    }
+
+    @Nested
+    @DisplayName("Rendering Tests")
+    class RenderingTests {
+
+        @Test
+        @DisplayName("Should render the profile as text and JSON")
+        void shouldRenderProfile() {
+            // Given
+            QueryProfile profile = new MonolithicDataProcessor().explain("data.csv", "CSV", false, "Books", "COUNT");
+
+            // When
+            String text = profile.toString();
+            JSONObject json = profile.toJson();
+
+            // Then
+            assertThat(text).contains("COUNT of data.csv (CSV) where category ~ Books = 3")
+                    .contains("DOCUMENT, SEQUENTIAL, cache NOT_CACHED")
+                    .contains("1 of 1 scanned, 0 pruned");
+            assertThat(json.getLong("result")).isEqualTo(3L);
+            assertThat(json.getString("parseMode")).isEqualTo("DOCUMENT");
+            assertThat(json.getJSONObject("stageMicros").has("PARSE")).isTrue();
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package org.buildozers.dojo.abstraction.advanced;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.json.JSONObject;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("ThroughputHarness Tests")
+class ThroughputHarnessTest {
+
+    @Nested
+    @DisplayName("Thread Safety Tests")
+    class ThreadSafetyTests {
+
+        @Test
+        @DisplayName("Should run a shared columnar processor on many virtual threads")
+        void shouldRunSharedColumnarProcessorOnVirtualThreads() {
+            // When
+            ThroughputReport report = ThroughputHarness.builder(ColumnarDataProcessor::new)
+                    .threads(32)
+                    .threadMode(ThroughputHarness.ThreadMode.VIRTUAL)
+                    .warmupRounds(1)
+                    .measuredRounds(5)
+                    .build()
+                    .run();
+
+            // Then
+            assertThat(report.getFirstError()).isNull();
+            assertThat(report.isConsistent()).isTrue();
+            assertThat(report.getQueries()).isEqualTo(32L * 5 * ThroughputHarness.defaultQueries().size());
+            assertThat(report.getQueriesPerSecond()).isPositive();
+        }
+
+        @Test
+        @DisplayName("Should run shared streaming processors on platform threads")
+        void shouldRunSharedStreamingProcessors() {
+            for (ThroughputHarness.Builder builder : List.of(
+                    ThroughputHarness.builder(MonolithicDataProcessor::new),
+                    ThroughputHarness.builder(AdaptiveDataProcessor::new))) {
+                // When
+                ThroughputReport report = builder.threads(8).warmupRounds(1).measuredRounds(3).build().run();
+
+                // Then
+                assertThat(report.getFirstError()).isNull();
+                assertThat(report.isConsistent()).isTrue();
+            }
+        }
+
+        @Test
+        @DisplayName("Should give every worker its own processor when not shared")
+        void shouldCreateProcessorPerWorker() {
+            // Given
+            AtomicInteger created = new AtomicInteger();
+
+            // When
+            ThroughputReport report = ThroughputHarness.builder(() -> {
+                created.incrementAndGet();
+                return new MonolithicDataProcessor();
+            }).sharedInstance(false).threads(4).warmupRounds(0).measuredRounds(1).build().run();
+
+            // Then
+            assertThat(report.isConsistent()).isTrue();
+            assertThat(report.isSharedInstance()).isFalse();
+            assertThat(created).hasValue(1 + 4);
+        }
+
+        @Test
+        @DisplayName("Should fail promptly when a single worker fails during warm-up")
+        void shouldFailPromptlyWhenOneWorkerFails() {
+            // Given
+            AtomicInteger created = new AtomicInteger();
+            ThroughputHarness harness = ThroughputHarness.builder(() -> {
+                if (created.incrementAndGet() == 2) {
+                    throw new IllegalStateException("No processor for this worker");
+                }
+                return new MonolithicDataProcessor();
+            }).sharedInstance(false).threads(4).warmupRounds(3).measuredRounds(1).build();
+
+            // When & Then
+            assertTimeoutPreemptively(Duration.ofSeconds(30), () -> assertThatThrownBy(harness::run)
+                    .isInstanceOf(DataProcessingException.class)
+                    .hasMessageContaining("No processor for this worker"));
+        }
+    }
+
+    @Nested
+    @DisplayName("Reporting Tests")
+    class ReportingTests {
+
+        private final List<ThroughputHarness.Query> queries = List.of(
+                new ThroughputHarness.Query("data.csv", "CSV", false, "Electronics", "SUM"));
+
+        @Test
+        @DisplayName("Should count results differing from the sequential ones")
+        void shouldCountMismatches() {
+            // Given
+            AtomicInteger calls = new AtomicInteger();
+            DataProcessor flaky = (file, format, validate, category, aggregation) ->
+                    calls.incrementAndGet() % 2 == 0 ? 0L : 820L;
+
+            // When
+            ThroughputReport report = ThroughputHarness.builder(() -> flaky)
+                    .queries(queries).threads(2).warmupRounds(0).measuredRounds(10).build().run();
+
+            // Then
+            assertThat(report.getMismatches()).isEqualTo(10L);
+            assertThat(report.getErrors()).isZero();
+            assertThat(report.isConsistent()).isFalse();
+        }
+
+        @Test
+        @DisplayName("Should count failed queries and keep the first failure")
+        void shouldCountErrors() {
+            // Given
+            AtomicInteger calls = new AtomicInteger();
+            DataProcessor failing = (file, format, validate, category, aggregation) -> {
+                if (calls.incrementAndGet() > 1) {
+                    throw new DataProcessingException("Boom");
+                }
+                return 820L;
+            };
+
+            // When
+            ThroughputReport report = ThroughputHarness.builder(() -> failing)
+                    .queries(queries).threads(3).warmupRounds(0).measuredRounds(2).build().run();
+
+            // Then
+            assertThat(report.getErrors()).isEqualTo(6L);
+            assertThat(report.getQueries()).isEqualTo(6L);
+            assertThat(report.getFirstError()).hasMessage("Boom");
+        }
+
+        @Test
+        @DisplayName("Should reject queries failing before the load test")
+        void shouldRejectFailingQueries() {
+            ThroughputHarness harness = ThroughputHarness.builder(MonolithicDataProcessor::new)
+                    .queries(List.of(new ThroughputHarness.Query("missing.csv", "CSV", false, null, "SUM")))
+                    .build();
+
+            assertThatThrownBy(harness::run)
+                    .isInstanceOf(DataProcessingException.class)
+                    .hasMessageContaining("missing.csv");
+        }
+
+        @Test
+        @DisplayName("Should report ordered latency percentiles and GC activity")
+        void shouldReportPercentiles() {
+            // When
+            ThroughputReport report = ThroughputHarness.builder(ColumnarDataProcessor::new)
+                    .threads(4).warmupRounds(1).measuredRounds(20).build().run();
+            JSONObject json = report.toJson();
+
+            // Then
+            assertThat(report.getP50Nanos()).isPositive()
+                    .isLessThanOrEqualTo(report.getP99Nanos());
+            assertThat(report.getP99Nanos()).isLessThanOrEqualTo(report.getP999Nanos());
+            assertThat(report.getP999Nanos()).isLessThanOrEqualTo(report.getMaxNanos());
+            assertThat(report.getGcCount()).isNotNegative();
+            assertThat(json.getInt("threads")).isEqualTo(4);
+            assertThat(json.getLong("queries")).isEqualTo(report.getQueries());
+            assertThat(json.has("gcMillis")).isTrue();
+            assertThat(report.toString()).contains("4 platform threads", "q/s", "p999");
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package org.buildozers.dojo.abstraction.advanced;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("TopKCollector Tests")
+class TopKCollectorTest {
+
+    @Nested
+    @DisplayName("Ranking Tests")
+    class RankingTests {
+
+        private final ColumnarDataset dataset = ColumnarDataset.load("data.csv", DataFormat.CSV);
+
+        @Test
+        @DisplayName("Should keep the records with the highest values, best first")
+        void shouldKeepHighestValues() {
+            // When
+            TopKCollector top = dataset.topK(3, TopKCollector.Order.HIGHEST, TopKCollector.Grouping.NONE, null);
+
+            // Then
+            assertThat(top.getTop()).containsExactly(
+                    new DataRecord(5, 300, "West", "Electronics"),
+                    new DataRecord(8, 220, "East", "Electronics"),
+                    new DataRecord(3, 200, "North", "Electronics"));
+            assertThat(top.getTopByGroup()).containsOnlyKeys("");
+        }
+
+        @Test
+        @DisplayName("Should rank per category and per region")
+        void shouldRankPerGroup() {
+            // When
+            TopKCollector byCategory = dataset.topK(1, TopKCollector.Order.HIGHEST, TopKCollector.Grouping.CATEGORY,
+                    null);
+            TopKCollector byRegion = dataset.topK(2, TopKCollector.Order.LOWEST, TopKCollector.Grouping.REGION, null);
+
+            // Then
+            assertThat(byCategory.getTopByGroup()).containsOnlyKeys("Electronics", "Clothing", "Books");
+            assertThat(byCategory.getTopByGroup().get("Clothing")).extracting(DataRecord::id).containsExactly(10L);
+            assertThat(byCategory.getTopByGroup().get("Books")).extracting(DataRecord::id).containsExactly(9L);
+            assertThat(byRegion.getTopByGroup().get("North")).extracting(DataRecord::id).containsExactly(7L, 1L);
+            assertThat(byRegion.getTopByGroup().get("West")).extracting(DataRecord::id).containsExactly(9L, 5L);
+            assertThat(byRegion.getTop()).extracting(DataRecord::value).containsExactly(75, 80);
+        }
+
+        @Test
+        @DisplayName("Should only rank the records of the filtered categories")
+        void shouldApplyCategoryFilter() {
+            TopKCollector top = dataset.topK(2, TopKCollector.Order.LOWEST, TopKCollector.Grouping.NONE, "books");
+
+            assertThat(top.getTop()).extracting(DataRecord::id).containsExactly(4L, 7L);
+        }
+
+        @Test
+        @DisplayName("Should stream the union of mixed formats")
+        void shouldRankUnion() {
+            // When
+            TopKCollector top = new UnionDataProcessor().topK(
+                    List.of(UnionDataProcessor.Source.of("data.csv"), UnionDataProcessor.Source.of("data.xml")),
+                    true, "Clothing", 3, TopKCollector.Order.HIGHEST, TopKCollector.Grouping.NONE);
+
+            // Then
+            assertThat(top.getTop()).extracting(DataRecord::value).containsExactly(180, 180, 150);
+            assertThat(top.getReceived()).isEqualTo(6L);
+        }
+    }
+
+    @Nested
+    @DisplayName("Heap Tests")
+    class HeapTests {
+
+        @Test
+        @DisplayName("Should match a full sort of a large random stream")
+        void shouldMatchFullSort() {
+            // Given
+            Random random = new Random(42);
+            List<DataRecord> records = new ArrayList<>();
+            TopKCollector top = new TopKCollector(10, TopKCollector.Order.HIGHEST, TopKCollector.Grouping.CATEGORY);
+
+            // When
+            for (int i = 0; i < 50_000; i++) {
+                DataRecord dataRecord = new DataRecord(i, random.nextInt(1_000), "North", "Category " + i % 4);
+                records.add(dataRecord);
+                top.accept(dataRecord.id(), dataRecord.value(), true, dataRecord.region(), dataRecord.category());
+            }
+
+            // Then
+            for (int group = 0; group < 4; group++) {
+                String category = "Category " + group;
+                List<DataRecord> expected = records.stream()
+                        .filter(dataRecord -> dataRecord.category().equals(category))
+                        .sorted(Comparator.comparingInt(DataRecord::value).reversed()
+                                .thenComparingLong(DataRecord::id))
+                        .limit(10)
+                        .toList();
+                assertThat(top.getTopByGroup().get(category)).containsExactlyElementsOf(expected);
+            }
+        }
+
+        @Test
+        @DisplayName("Should keep the first records received among equal values")
+        void shouldBreakTiesByArrival() {
+            // Given
+            TopKCollector top = new TopKCollector(2, TopKCollector.Order.LOWEST, TopKCollector.Grouping.NONE);
+
+            // When
+            for (long id = 1; id <= 5; id++) {
+                top.accept(id, 7, true, "North", "Books");
+            }
+
+            // Then
+            assertThat(top.getTop()).extracting(DataRecord::id).containsExactly(1L, 2L);
+        }
+
+        @Test
+        @DisplayName("Should skip malformed values")
+        void shouldSkipMalformedValues() {
+            // Given
+            TopKCollector top = new TopKCollector(5, TopKCollector.Order.LOWEST, TopKCollector.Grouping.NONE);
+
+            // When
+            top.accept(1, 0, false, "North", "Books");
+            top.accept(2, 10, true, "North", "Books");
+
+            // Then
+            assertThat(top.getTop()).extracting(DataRecord::id).containsExactly(2L);
+            assertThat(top.getReceived()).isEqualTo(2L);
+        }
+
+        @Test
+        @DisplayName("Should merge collectors as if their records were streamed in turn")
+        void shouldMergeCollectors() {
+            // Given
+            TopKCollector whole = new TopKCollector(3, TopKCollector.Order.HIGHEST, TopKCollector.Grouping.REGION);
+            TopKCollector first = new TopKCollector(3, TopKCollector.Order.HIGHEST, TopKCollector.Grouping.REGION);
+            TopKCollector second = new TopKCollector(3, TopKCollector.Order.HIGHEST, TopKCollector.Grouping.REGION);
+            for (int i = 0; i < 100; i++) {
+                String region = i % 3 == 0 ? "North" : "South";
+                whole.accept(i, i % 17, true, region, "Books");
+                (i < 50 ? first : second).accept(i, i % 17, true, region, "Books");
+            }
+
+            // When
+            first.merge(second);
+
+            // Then
+            assertThat(first.getTopByGroup()).isEqualTo(whole.getTopByGroup());
+            assertThat(first.getReceived()).isEqualTo(100L);
+        }
+
+        @Test
+        @DisplayName("Should reject invalid sizes and incompatible merges")
+        void shouldRejectInvalidUse() {
+            TopKCollector top = new TopKCollector(3, TopKCollector.Order.HIGHEST, TopKCollector.Grouping.NONE);
+
+            assertThatThrownBy(() -> new TopKCollector(0, TopKCollector.Order.HIGHEST, TopKCollector.Grouping.NONE))
+                    .isInstanceOf(IllegalArgumentException.class);
+            assertThatThrownBy(() -> top.merge(new TopKCollector(3, TopKCollector.Order.LOWEST,
+                    TopKCollector.Grouping.NONE)))
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessageContaining("Cannot merge");
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package org.buildozers.dojo.abstraction.advanced;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+@DisplayName("UnionDataProcessor Tests")
+class UnionDataProcessorTest {
+
+    private final UnionDataProcessor processor = new UnionDataProcessor();
+
+    @Nested
+    @DisplayName("Union Tests")
+    class UnionTests {
+
+        @Test
+        @DisplayName("Should match the sum of the per-file results")
+        void shouldMatchPerFileResults() {
+            try (ColumnarDataProcessor reference = new ColumnarDataProcessor()) {
+                for (String filter : new String[] { null, "Electronics", "clothing", "Unknown" }) {
+                    for (String aggregation : new String[] { "SUM", "COUNT" }) {
+                        long expected = reference.processFileData("data.csv", "CSV", false, filter, aggregation)
+                                + reference.processFileData("data.json", "JSON", false, filter, aggregation)
+                                + reference.processFileData("data.xml", "XML", false, filter, aggregation);
+
+                        assertThat(processor.processFileData("data.csv,data.json,data.xml", "AUTO", true, filter,
+                                aggregation)).as(aggregation + " " + filter).isEqualTo(expected);
+                    }
+                }
+            }
+        }
+
+        @Test
+        @DisplayName("Should accept one format per source or one for all")
+        void shouldAcceptFormatLists() {
+            assertThat(processor.processFileData("data.csv, data.xml", "CSV, XML", false, "Electronics", "SUM"))
+                    .isEqualTo(1640L);
+            assertThat(processor.processFileData("data.csv,data.csv", "csv", false, null, "COUNT"))
+                    .isEqualTo(20L);
+            assertThat(processor.processFiles(List.of(UnionDataProcessor.Source.of("data.json")), false, "Books",
+                    "COUNT")).isEqualTo(3L);
+        }
+
+        @Test
+        @DisplayName("Should combine MIN and MAX across files of a directory")
+        void shouldCombineMinAndMax(@TempDir Path directory) throws IOException {
+            // Given
+            Files.writeString(directory.resolve("yesterday.csv"),
+                    "id,value,region,category\n1,5,North,Books\n2,900,South,Electronics\n");
+            new DataTranscoder().transcode(DataSources.resourcePath("data.xml"), DataFormat.XML,
+                    directory.resolve("today.bin"), DataFormat.BINARY, null, false);
+            UnionDataProcessor fromDirectory = new UnionDataProcessor(directory);
+
+            // Then
+            assertThat(fromDirectory.processFileData("yesterday.csv,today.bin", "AUTO", true, null, "MIN"))
+                    .isEqualTo(5L);
+            assertThat(fromDirectory.processFileData("yesterday.csv,today.bin", "AUTO", true, null, "MAX"))
+                    .isEqualTo(900L);
+            assertThat(fromDirectory.processFileData("yesterday.csv,today.bin", "AUTO", true, "Books", "MAX"))
+                    .isEqualTo(95L);
+        }
+
+        @Test
+        @DisplayName("Should profile the sources as scanned partitions read in parallel")
+        void shouldExplainUnion() {
+            // When
+            QueryProfile profile = processor.explain("data.csv,data.json,data.xml", "AUTO", false, "Electronics",
+                    "SUM");
+
+            // Then
+            assertThat(profile.getResult()).isEqualTo(2460L);
+            assertThat(profile.getFormat()).isEqualTo("CSV,JSON,XML");
+            assertThat(profile.getExecutionMode()).isEqualTo(QueryProfile.ExecutionMode.PARALLEL);
+            assertThat(profile.getPartitionsScanned()).isEqualTo(3);
+            assertThat(profile.getRowsScanned()).isEqualTo(30L);
+            assertThat(profile.getRowsMatched()).isEqualTo(12L);
+        }
+    }
+
+    @Nested
+    @DisplayName("Error Handling Tests")
+    class ErrorHandlingTests {
+
+        @Test
+        @DisplayName("Should fail with the error of the failing source")
+        void shouldFailWithSourceError() {
+            assertThatThrownBy(() -> processor.processFileData("data.csv,missing.json", "AUTO", false, null, "SUM"))
+                    .isInstanceOf(DataProcessingException.class)
+                    .hasMessageContaining("missing.json");
+            assertThatThrownBy(() -> processor.processFileData("data.csv,invalid-data.json", "AUTO", true, null, "SUM"))
+                    .isInstanceOf(DataProcessingException.class)
+                    .hasMessageContaining("validation");
+        }
+
+        @Test
+        @DisplayName("Should reject formats that do not match the sources")
+        void shouldRejectMismatchedFormats() {
+            assertThatThrownBy(() -> processor.processFileData("data.csv,data.json,data.xml", "CSV,JSON", false, null,
+                    "SUM"))
+                    .isInstanceOf(DataProcessingException.class)
+                    .hasMessageContaining("Expected one format or 3 formats");
+            assertThatThrownBy(() -> processor.processFileData("data.txt", "AUTO", false, null, "SUM"))
+                    .isInstanceOf(DataProcessingException.class)
+                    .hasMessageContaining("Cannot infer");
+            assertThatThrownBy(() -> processor.processFiles(List.of(), false, null, "SUM"))
+                    .isInstanceOf(DataProcessingException.class);
+        }
+    }
+}
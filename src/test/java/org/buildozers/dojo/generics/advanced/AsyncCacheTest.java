@@ -0,0 +1,878 @@
+package org.buildozers.dojo.generics.advanced;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests for the asynchronous cache.
+ * 
+ * @author Dojo Team
+ * @since 1.0.0
+ */
+@DisplayName("AsyncCache Tests")
+class AsyncCacheTest {
+
+    @Nested
+    @DisplayName("Loading Tests")
+    class LoadingTests {
+
+        @Test
+        @DisplayName("Should load a missing key once and serve it from the cache afterwards")
+        void shouldLoadOnce() {
+            // Given
+            AsyncCache<String, Integer> cache = new AsyncCache<>();
+            AtomicInteger loads = new AtomicInteger();
+
+            // When
+            int first = cache.getOrCompute("answer", key -> {
+                loads.incrementAndGet();
+                return CompletableFuture.completedFuture(42);
+            }).join();
+            int second = cache.getOrCompute("answer", key -> CompletableFuture.completedFuture(0)).join();
+
+            // Then
+            assertThat(first).isEqualTo(42);
+            assertThat(second).isEqualTo(42);
+            assertThat(loads).hasValue(1);
+        }
+
+        @Test
+        @DisplayName("Should share one in-flight load between concurrent callers")
+        void shouldShareInFlightLoad() throws Exception {
+            // Given
+            AsyncCache<String, String> cache = new AsyncCache<>();
+            AtomicInteger loads = new AtomicInteger();
+            CompletableFuture<String> backend = new CompletableFuture<>();
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<CompletableFuture<String>>> callers = new ArrayList<>();
+
+            // When
+            try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (int i = 0; i < 64; i++) {
+                    callers.add(executor.submit(() -> {
+                        start.await();
+                        return cache.getOrCompute("user", key -> {
+                            loads.incrementAndGet();
+                            return backend;
+                        });
+                    }));
+                }
+                start.countDown();
+                for (Future<CompletableFuture<String>> caller : callers) {
+                    caller.get();
+                }
+            }
+            backend.complete("Alice");
+
+            // Then
+            assertThat(loads).hasValue(1);
+            for (Future<CompletableFuture<String>> caller : callers) {
+                assertThat(caller.get().join()).isEqualTo("Alice");
+            }
+        }
+
+        @Test
+        @DisplayName("Should evict failed loads so that a later call retries")
+        void shouldEvictFailedLoads() {
+            // Given
+            AsyncCache<String, Integer> cache = new AsyncCache<>();
+            CompletableFuture<Integer> failed = cache.getOrCompute("key",
+                    key -> CompletableFuture.failedFuture(new IllegalStateException("backend down")));
+
+            // When
+            int retried = cache.getOrCompute("key", key -> CompletableFuture.completedFuture(7)).join();
+
+            // Then
+            assertThatThrownBy(failed::join)
+                    .isInstanceOf(CompletionException.class)
+                    .hasCauseInstanceOf(IllegalStateException.class);
+            assertThat(retried).isEqualTo(7);
+        }
+
+        @Test
+        @DisplayName("Should evict loads whose loader throws or returns nothing")
+        void shouldEvictBrokenLoaders() {
+            // Given
+            AsyncCache<String, Integer> cache = new AsyncCache<>();
+
+            // When
+            CompletableFuture<Integer> thrown = cache.getOrCompute("key", key -> {
+                throw new IllegalArgumentException("bad key");
+            });
+            CompletableFuture<Integer> nothing = cache.getOrCompute("other", key -> null);
+
+            // Then
+            assertThat(thrown).isCompletedExceptionally();
+            assertThat(nothing).isCompletedExceptionally();
+            assertThat(cache.size()).isZero();
+        }
+
+        @Test
+        @DisplayName("Should transform the value for one caller only")
+        void shouldTransformForCaller() {
+            // Given
+            AsyncCache<String, String> cache = new AsyncCache<>();
+
+            // When
+            CompletableFuture<Integer> length = cache.getOrCompute("user",
+                    key -> CompletableFuture.completedFuture("Alice"), String::length);
+
+            // Then
+            assertThat(length.join()).isEqualTo(5);
+            assertThat(cache.getIfPresent("user").join()).isEqualTo("Alice");
+        }
+    }
+
+    @Nested
+    @DisplayName("Update Tests")
+    class UpdateTests {
+
+        @Test
+        @DisplayName("Should store a value and notify the callback")
+        void shouldPutWithCallback() {
+            // Given
+            AsyncCache<String, Integer> cache = new AsyncCache<>();
+            List<Integer> notified = new ArrayList<>();
+
+            // When
+            cache.put("key", 1, notified::add);
+
+            // Then
+            assertThat(notified).containsExactly(1);
+            assertThat(cache.getOrCompute("key", key -> CompletableFuture.completedFuture(2)).join()).isEqualTo(1);
+        }
+
+        @Test
+        @DisplayName("Should replace the cached value with its transformation")
+        void shouldTransformCachedValue() {
+            // Given
+            AsyncCache<String, Integer> cache = new AsyncCache<>();
+            cache.put("counter", 1);
+
+            // When
+            CompletableFuture<Integer> incremented = cache.transform("counter", value -> value + 1);
+
+            // Then
+            assertThat(incremented.join()).isEqualTo(2);
+            assertThat(cache.getIfPresent("counter").join()).isEqualTo(2);
+            assertThat(cache.transform("missing", value -> value + 1)).isNull();
+        }
+
+        @Test
+        @DisplayName("Should load every key of a batch")
+        void shouldBatchGet() {
+            // Given
+            AsyncCache<Integer, String> cache = new AsyncCache<>();
+            cache.put(1, "cached");
+
+            // When
+            Map<Integer, CompletableFuture<String>> values = cache.batchGet(List.of(1, 2, 3),
+                    missing -> CompletableFuture.completedFuture(missing.stream()
+                            .collect(Collectors.toMap(Function.identity(), key -> "loaded " + key))));
+
+            // Then
+            assertThat(values).containsOnlyKeys(1, 2, 3);
+            assertThat(values.get(1).join()).isEqualTo("cached");
+            assertThat(values.get(3).join()).isEqualTo("loaded 3");
+        }
+
+        @Test
+        @DisplayName("Should load the missing keys of a batch with one bulk call")
+        void shouldBulkLoadMissingKeys() {
+            // Given
+            AsyncCache<Integer, String> cache = new AsyncCache<>();
+            cache.put(0, "cached");
+            List<Set<Integer>> calls = new ArrayList<>();
+            List<Integer> keys = IntStream.range(0, 500).boxed().toList();
+
+            // When
+            Map<Integer, CompletableFuture<String>> values = cache.batchGet(keys, missing -> {
+                calls.add(Set.copyOf(missing));
+                Map<Integer, String> loaded = new HashMap<>();
+                missing.stream().filter(key -> key != 499).forEach(key -> loaded.put(key, "v" + key));
+                return CompletableFuture.completedFuture(loaded);
+            });
+
+            // Then
+            assertThat(calls).hasSize(1);
+            assertThat(calls.get(0)).hasSize(499).doesNotContain(0);
+            assertThat(values.keySet()).containsExactlyElementsOf(keys);
+            assertThat(values.get(0).join()).isEqualTo("cached");
+            assertThat(values.get(42).join()).isEqualTo("v42");
+            assertThat(values.get(499).join()).isNull();
+            assertThat(cache.getIfPresent(499)).isNull();
+            assertThat(cache.size()).isEqualTo(499);
+        }
+
+        @Test
+        @DisplayName("Should share pending keys between concurrent batches")
+        void shouldDeduplicateConcurrentBatches() {
+            // Given
+            AsyncCache<Integer, String> cache = new AsyncCache<>();
+            List<Set<Integer>> calls = new ArrayList<>();
+            List<CompletableFuture<Map<Integer, String>>> pending = new ArrayList<>();
+            Function<Set<Integer>, CompletableFuture<Map<Integer, String>>> bulkLoader = missing -> {
+                calls.add(Set.copyOf(missing));
+                CompletableFuture<Map<Integer, String>> load = new CompletableFuture<>();
+                pending.add(load);
+                return load;
+            };
+
+            // When
+            Map<Integer, CompletableFuture<String>> first = cache.batchGet(List.of(1, 2, 3), bulkLoader);
+            Map<Integer, CompletableFuture<String>> second = cache.batchGet(List.of(2, 3, 4), bulkLoader);
+            pending.get(0).complete(Map.of(1, "a", 2, "b", 3, "c"));
+            pending.get(1).completeExceptionally(new IllegalStateException("backend down"));
+
+            // Then
+            assertThat(calls).containsExactly(Set.of(1, 2, 3), Set.of(4));
+            assertThat(second.get(2)).isSameAs(first.get(2));
+            assertThat(second.get(3).join()).isEqualTo("c");
+            assertThatThrownBy(() -> second.get(4).join()).hasCauseInstanceOf(IllegalStateException.class);
+            assertThat(cache.getIfPresent(4)).isNull();
+        }
+
+        @Test
+        @DisplayName("Should evict the values of a type")
+        void shouldEvictByType() {
+            // Given
+            AsyncCache<String, Number> cache = new AsyncCache<>();
+            cache.put("int", 1);
+            cache.put("long", 2L);
+            cache.put("other int", 3);
+
+            // When
+            int evicted = cache.evictByType(Integer.class);
+
+            // Then
+            assertThat(evicted).isEqualTo(2);
+            assertThat(cache.getIfPresent("int")).isNull();
+            assertThat(cache.getIfPresent("long").join()).isEqualTo(2L);
+        }
+
+        @Test
+        @DisplayName("Should evict by type the current values only, as they are replaced or removed")
+        void shouldKeepTypeIndexConsistent() {
+            // Given
+            AsyncCache<String, Number> cache = new AsyncCache<>();
+            cache.put("replaced", 1);
+            cache.getOrCompute("transformed", key -> CompletableFuture.completedFuture(2L));
+            cache.put("invalidated", 3);
+            CompletableFuture<Number> pending = new CompletableFuture<>();
+            cache.getOrCompute("loading", key -> pending);
+
+            // When
+            cache.put("replaced", 4L);
+            cache.transform("transformed", Number::intValue);
+            cache.invalidate("invalidated");
+            int integers = cache.evictByType(Integer.class);
+            int numbers = cache.evictByType(Number.class);
+
+            // Then
+            assertThat(integers).isEqualTo(1);
+            assertThat(numbers).isEqualTo(1);
+            assertThat(cache.size()).isEqualTo(1);
+            pending.complete(5);
+            assertThat(cache.evictByType(Number.class)).isEqualTo(1);
+            assertThat(cache.size()).isZero();
+        }
+    }
+
+    @Nested
+    @DisplayName("Eviction Tests")
+    class EvictionTests {
+
+        @Test
+        @DisplayName("Should keep the number of entries within the maximum")
+        void shouldBoundSize() {
+            // Given
+            AsyncCache<Integer, Integer> cache = AsyncCache.builder().maximumSize(100).build();
+
+            // When
+            for (int i = 0; i < 1_000; i++) {
+                cache.put(i, i);
+            }
+            cache.cleanUp();
+
+            // Then
+            assertThat(cache.size()).isEqualTo(100);
+        }
+
+        @Test
+        @DisplayName("Should keep frequently used entries through a scan of keys used once")
+        void shouldResistScans() {
+            // Given
+            AsyncCache<Integer, Integer> cache = AsyncCache.builder().maximumSize(100).build();
+            AtomicInteger hotLoads = new AtomicInteger();
+            Function<Integer, CompletableFuture<Integer>> loader = key -> {
+                if (key < 80) {
+                    hotLoads.incrementAndGet();
+                }
+                return CompletableFuture.completedFuture(key);
+            };
+            for (int round = 0; round < 5; round++) {
+                for (int hot = 0; hot < 80; hot++) {
+                    cache.getOrCompute(hot, loader);
+                }
+            }
+            hotLoads.set(0);
+
+            // When
+            int scanKey = 1_000;
+            for (int round = 0; round < 20; round++) {
+                for (int hot = 0; hot < 80; hot++) {
+                    cache.getOrCompute(hot, loader);
+                    cache.getOrCompute(scanKey++, loader);
+                }
+            }
+
+            // Then
+            int hotRequests = 20 * 80;
+            assertThat(1.0 - (double) hotLoads.get() / hotRequests).isGreaterThan(0.9);
+        }
+
+        @Test
+        @DisplayName("Should stay consistent and bounded under concurrent use")
+        void shouldStayBoundedUnderConcurrency() throws Exception {
+            // Given
+            AsyncCache<Integer, Integer> cache = AsyncCache.builder().maximumSize(500).build();
+            List<Future<?>> workers = new ArrayList<>();
+
+            // When
+            try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (int worker = 0; worker < 16; worker++) {
+                    int seed = worker;
+                    workers.add(executor.submit(() -> {
+                        for (int i = 0; i < 5_000; i++) {
+                            int key = (i * 31 + seed * 7) % 2_000;
+                            int value = cache.getOrCompute(key, k -> CompletableFuture.completedFuture(k * 2)).join();
+                            assertThat(value).isEqualTo(key * 2);
+                            if (i % 10 == 0) {
+                                cache.invalidate(key);
+                            }
+                        }
+                    }));
+                }
+                for (Future<?> worker : workers) {
+                    worker.get();
+                }
+            }
+            cache.cleanUp();
+
+            // Then
+            assertThat(cache.size()).isLessThanOrEqualTo(500);
+        }
+
+        @Test
+        @DisplayName("Should keep the total weight of the values within the maximum")
+        void shouldKeepWeightWithinMaximum() {
+            // Given
+            AsyncCache<Integer, String> cache = AsyncCache.builder()
+                    .maximumWeight(1_000)
+                    .<Integer, String>weigher((key, value) -> value.length())
+                    .build();
+
+            // When
+            for (int key = 0; key < 100; key++) {
+                cache.getOrCompute(key, k -> CompletableFuture.completedFuture("x".repeat(100))).join();
+            }
+            cache.cleanUp();
+
+            // Then
+            assertThat(cache.size()).isEqualTo(10);
+        }
+
+        @Test
+        @DisplayName("Should weigh values again when they are replaced or transformed")
+        void shouldReweighUpdatedValues() {
+            // Given
+            AsyncCache<String, String> cache = AsyncCache.builder()
+                    .maximumWeight(100)
+                    .<String, String>weigher((key, value) -> value.length())
+                    .build();
+            cache.put("a", "x".repeat(95));
+            cache.cleanUp();
+
+            // When
+            cache.put("a", "x");
+            for (int i = 0; i < 9; i++) {
+                cache.put("key" + i, "x".repeat(10));
+            }
+            cache.cleanUp();
+            int afterShrink = cache.size();
+            cache.transform("a", value -> value.repeat(50)).join();
+            cache.cleanUp();
+
+            // Then
+            assertThat(afterShrink).isEqualTo(10);
+            assertThat(cache.size()).isLessThan(10);
+        }
+
+        @Test
+        @DisplayName("Should not cache a value the weigher rejects")
+        void shouldNotCacheRejectedWeight() {
+            // Given
+            AsyncCache<String, Integer> cache = AsyncCache.builder()
+                    .maximumWeight(100)
+                    .<String, Integer>weigher((key, value) -> value)
+                    .build();
+
+            // When
+            int value = cache.getOrCompute("a", key -> CompletableFuture.completedFuture(-1)).join();
+
+            // Then
+            assertThat(value).isEqualTo(-1);
+            assertThat(cache.getIfPresent("a")).isNull();
+        }
+
+        @Test
+        @DisplayName("Should require a weigher and a maximum weight together")
+        void shouldRejectIncompleteWeighing() {
+            assertThatThrownBy(() -> AsyncCache.builder().maximumWeight(10).build())
+                    .isInstanceOf(IllegalStateException.class);
+            assertThatThrownBy(() -> AsyncCache.builder().weigher((key, value) -> 1).build())
+                    .isInstanceOf(IllegalStateException.class);
+            assertThatThrownBy(() -> AsyncCache.builder().maximumSize(10).maximumWeight(10)
+                    .weigher((key, value) -> 1).build())
+                    .isInstanceOf(IllegalStateException.class);
+        }
+
+        @Test
+        @DisplayName("Should reject a maximum size below 1")
+        void shouldRejectInvalidMaximum() {
+            assertThatThrownBy(() -> AsyncCache.builder().maximumSize(0))
+                    .isInstanceOf(IllegalArgumentException.class);
+        }
+    }
+
+    @Nested
+    @DisplayName("Expiration Tests")
+    class ExpirationTests {
+
+        private final AtomicLong clock = new AtomicLong();
+
+        @Test
+        @DisplayName("Should never serve a value past its time to live")
+        void shouldReloadAfterTimeToLive() {
+            // Given
+            AsyncCache<String, Integer> cache = AsyncCache.builder().ticker(clock::get).build();
+            AtomicInteger loads = new AtomicInteger();
+            Function<String, CompletableFuture<Integer>> loader =
+                    key -> CompletableFuture.completedFuture(loads.incrementAndGet());
+            cache.getWithRefresh("a", loader, 1_000).join();
+
+            // When
+            clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(999));
+            int beforeExpiry = cache.getWithRefresh("a", loader, 1_000).join();
+            clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(1));
+            CompletableFuture<Integer> expired = cache.getIfPresent("a");
+            int afterExpiry = cache.getWithRefresh("a", loader, 1_000).join();
+
+            // Then
+            assertThat(beforeExpiry).isEqualTo(1);
+            assertThat(expired).isNull();
+            assertThat(afterExpiry).isEqualTo(2);
+            assertThat(cache.transform("b", value -> value)).isNull();
+        }
+
+        @Test
+        @DisplayName("Should remove expired entries when cleaning up")
+        void shouldRemoveExpiredEntries() {
+            // Given
+            AsyncCache<Integer, Integer> cache = AsyncCache.builder().ticker(clock::get).build();
+            for (int key = 0; key < 1_000; key++) {
+                long ttlMillis = (key % 10 + 1) * 60_000L;
+                cache.getWithRefresh(key, k -> CompletableFuture.completedFuture(k), ttlMillis);
+            }
+
+            // When
+            clock.addAndGet(TimeUnit.MINUTES.toNanos(5) + TimeUnit.SECONDS.toNanos(2));
+            cache.cleanUp();
+            int afterFiveMinutes = cache.size();
+            clock.addAndGet(TimeUnit.HOURS.toNanos(1));
+            cache.cleanUp();
+
+            // Then
+            assertThat(afterFiveMinutes).isEqualTo(500);
+            assertThat(cache.size()).isZero();
+        }
+
+        @Test
+        @DisplayName("Should keep a value stored over an expiring one")
+        void shouldClearTimeToLiveOnPut() {
+            // Given
+            AsyncCache<String, Integer> cache = AsyncCache.builder().ticker(clock::get).maximumSize(10).build();
+            cache.getWithRefresh("a", key -> CompletableFuture.completedFuture(1), 1_000).join();
+
+            // When
+            cache.put("a", 2);
+            clock.addAndGet(TimeUnit.HOURS.toNanos(1));
+            cache.cleanUp();
+
+            // Then
+            assertThat(cache.getIfPresent("a").join()).isEqualTo(2);
+            assertThat(cache.size()).isEqualTo(1);
+        }
+
+        @Test
+        @DisplayName("Should expire a value transformed while it was loading")
+        void shouldExpireValueTransformedWhileLoading() {
+            // Given
+            AsyncCache<String, Integer> cache = AsyncCache.builder().ticker(clock::get).build();
+            CompletableFuture<Integer> load = new CompletableFuture<>();
+            cache.getWithRefresh("a", key -> load, 1_000);
+            CompletableFuture<Integer> transformed = cache.transform("a", value -> value * 10);
+
+            // When
+            load.complete(1);
+            int beforeExpiry = cache.getIfPresent("a").join();
+            clock.addAndGet(TimeUnit.HOURS.toNanos(1));
+            cache.cleanUp();
+
+            // Then
+            assertThat(transformed.join()).isEqualTo(10);
+            assertThat(beforeExpiry).isEqualTo(10);
+            assertThat(cache.getIfPresent("a")).isNull();
+            assertThat(cache.size()).isZero();
+        }
+
+        @Test
+        @DisplayName("Should serve the current value while one background reload runs")
+        void shouldRefreshAhead() {
+            // Given
+            AsyncCache<String, Integer> cache = AsyncCache.builder().ticker(clock::get).build();
+            AtomicInteger loads = new AtomicInteger();
+            CompletableFuture<Integer> reload = new CompletableFuture<>();
+            Function<String, CompletableFuture<Integer>> loader =
+                    key -> loads.incrementAndGet() == 1 ? CompletableFuture.completedFuture(1) : reload;
+            cache.getWithRefresh("a", loader, 1_000, 800).join();
+            clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(900));
+
+            // When
+            List<Integer> served = new ArrayList<>();
+            for (int i = 0; i < 10; i++) {
+                served.add(cache.getWithRefresh("a", loader, 1_000, 800).join());
+            }
+            reload.complete(2);
+            clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(500));
+
+            // Then
+            assertThat(served).containsOnly(1);
+            assertThat(loads.get()).isEqualTo(2);
+            assertThat(cache.getWithRefresh("a", loader, 1_000, 800).join()).isEqualTo(2);
+        }
+
+        @Test
+        @DisplayName("Should keep the current value when a background reload fails")
+        void shouldKeepValueWhenRefreshFails() {
+            // Given
+            AsyncCache<String, Integer> cache = AsyncCache.builder().ticker(clock::get).build();
+            AtomicInteger loads = new AtomicInteger();
+            Function<String, CompletableFuture<Integer>> loader = key -> loads.incrementAndGet() == 1
+                    ? CompletableFuture.completedFuture(1)
+                    : CompletableFuture.failedFuture(new IllegalStateException("backend down"));
+            cache.getWithRefresh("a", loader, 1_000, 500).join();
+            clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(600));
+
+            // When
+            int served = cache.getWithRefresh("a", loader, 1_000, 500).join();
+
+            // Then
+            assertThat(served).isEqualTo(1);
+            assertThat(loads.get()).isEqualTo(2);
+            assertThat(cache.getIfPresent("a").join()).isEqualTo(1);
+            assertThatThrownBy(() -> cache.getWithRefresh("a", loader, 1_000, 2_000))
+                    .isInstanceOf(IllegalArgumentException.class);
+        }
+
+        @Test
+        @DisplayName("Should reject a time to live that is not positive")
+        void shouldRejectInvalidTimeToLive() {
+            AsyncCache<String, Integer> cache = new AsyncCache<>();
+            assertThatThrownBy(() -> cache.getWithRefresh("a", key -> CompletableFuture.completedFuture(1), 0))
+                    .isInstanceOf(IllegalArgumentException.class);
+        }
+    }
+
+    @Nested
+    @DisplayName("Statistics Tests")
+    class StatisticsTests {
+
+        private final AtomicLong clock = new AtomicLong();
+
+        @Test
+        @DisplayName("Should count hits, misses and loads")
+        void shouldCountHitsMissesAndLoads() {
+            // Given
+            AsyncCache<String, Integer> cache = AsyncCache.builder().ticker(clock::get).build();
+            CompletableFuture<Integer> slowLoad = new CompletableFuture<>();
+
+            // When
+            CompletableFuture<Integer> first = cache.getOrCompute("a", key -> slowLoad);
+            cache.getOrCompute("a", key -> slowLoad);
+            clock.addAndGet(5_000);
+            slowLoad.complete(1);
+            first.join();
+            cache.getIfPresent("a");
+            cache.getIfPresent("b");
+            cache.getOrCompute("c", key -> CompletableFuture.failedFuture(new IllegalStateException("down")));
+            CacheStats stats = cache.getStats();
+
+            // Then
+            assertThat(stats.getHitCount()).isEqualTo(2);
+            assertThat(stats.getMissCount()).isEqualTo(3);
+            assertThat(stats.getHitRate()).isEqualTo(0.4);
+            assertThat(stats.getLoadSuccessCount()).isEqualTo(1);
+            assertThat(stats.getLoadFailureCount()).isEqualTo(1);
+            assertThat(stats.getLoadTimes().getCount()).isEqualTo(2);
+            assertThat(stats.getLoadTimes().getMaxNanos()).isEqualTo(5_000);
+            assertThat(stats.getGetLatencies().getCount()).isEqualTo(3);
+            assertThat(stats.getGetLatencies().getValueAtPercentile(50)).isEqualTo(5_000);
+            assertThat(stats.getEvictionCount()).isZero();
+        }
+
+        @Test
+        @DisplayName("Should count evictions by cause")
+        void shouldCountEvictionsByCause() {
+            // Given
+            AsyncCache<Integer, Integer> cache = AsyncCache.builder().ticker(clock::get).maximumSize(10).build();
+            for (int key = 0; key < 30; key++) {
+                cache.getOrCompute(key, CompletableFuture::completedFuture);
+            }
+            cache.cleanUp();
+            cache.invalidate(firstCachedKey(cache));
+            cache.getWithRefresh(100, CompletableFuture::completedFuture, 1_000);
+
+            // When
+            clock.addAndGet(TimeUnit.SECONDS.toNanos(3));
+            cache.cleanUp();
+            CacheStats stats = cache.getStats();
+
+            // Then
+            assertThat(stats.getEvictionCount(CacheStats.EvictionCause.SIZE)).isEqualTo(20);
+            assertThat(stats.getEvictionCount(CacheStats.EvictionCause.EXPLICIT)).isEqualTo(1);
+            assertThat(stats.getEvictionCount(CacheStats.EvictionCause.EXPIRED)).isEqualTo(1);
+            assertThat(stats.getEvictionCount()).isEqualTo(22);
+        }
+
+        @Test
+        @DisplayName("Should record nothing when statistics are disabled")
+        void shouldRecordNothingWhenDisabled() {
+            // Given
+            AsyncCache<String, Integer> cache = AsyncCache.builder().recordStats(false).build();
+
+            // When
+            cache.getOrCompute("a", key -> CompletableFuture.completedFuture(1)).join();
+            cache.getOrCompute("a", key -> CompletableFuture.completedFuture(1)).join();
+
+            // Then
+            assertThat(cache.getStats()).isSameAs(CacheStats.empty());
+            assertThat(cache.getStats().getRequestCount()).isZero();
+        }
+
+        private int firstCachedKey(AsyncCache<Integer, Integer> cache) {
+            for (int key = 0; key < 30; key++) {
+                if (cache.getIfPresent(key) != null) {
+                    return key;
+                }
+            }
+            throw new IllegalStateException("No cached key");
+        }
+    }
+
+    @Nested
+    @DisplayName("Off-Heap Tier Tests")
+    class OffHeapTierTests {
+
+        @Test
+        @DisplayName("Should demote evicted values and promote them on the next miss")
+        void shouldPromoteDemotedValues() {
+            // Given
+            AsyncCache<Integer, String> cache = AsyncCache.builder()
+                    .maximumSize(10)
+                    .<Integer, String>offHeapTier(CacheCodec.utf8(), 1024 * 1024)
+                    .build();
+            AtomicInteger loads = new AtomicInteger();
+            Function<Integer, CompletableFuture<String>> loader = key -> {
+                loads.incrementAndGet();
+                return CompletableFuture.completedFuture("value" + key);
+            };
+            for (int key = 0; key < 100; key++) {
+                cache.getOrCompute(key, loader).join();
+            }
+            cache.cleanUp();
+            loads.set(0);
+
+            // When
+            List<String> values = new ArrayList<>();
+            for (int key = 0; key < 100; key++) {
+                values.add(cache.getOrCompute(key, loader).join());
+            }
+
+            // Then
+            assertThat(cache.size()).isLessThanOrEqualTo(11);
+            assertThat(values).hasSize(100).allSatisfy(value -> assertThat(value).startsWith("value"));
+            assertThat(values.get(42)).isEqualTo("value42");
+            assertThat(loads.get()).isZero();
+        }
+
+        @Test
+        @DisplayName("Should forget demoted values when invalidated or replaced")
+        void shouldInvalidateDemotedValues() {
+            // Given
+            AsyncCache<Integer, String> cache = AsyncCache.builder()
+                    .maximumSize(1)
+                    .<Integer, String>offHeapTier(CacheCodec.utf8(), 1024 * 1024)
+                    .build();
+            cache.put(1, "one");
+            cache.put(2, "two");
+            cache.put(3, "three");
+            cache.cleanUp();
+
+            // When
+            cache.invalidate(1);
+            cache.put(2, "deux");
+
+            // Then
+            assertThat(cache.getIfPresent(1)).isNull();
+            assertThat(cache.getIfPresent(2).join()).isEqualTo("deux");
+            assertThat(cache.getIfPresent(3).join()).isEqualTo("three");
+        }
+
+        @Test
+        @DisplayName("Should demote the latest value of a key stored while it is evicted")
+        void shouldDemoteValueStoredDuringEviction() {
+            // Given
+            CacheCodec<String> utf8 = CacheCodec.utf8();
+            AtomicReference<AsyncCache<Integer, String>> ref = new AtomicReference<>();
+            AtomicBoolean replaced = new AtomicBoolean();
+            CacheCodec<String> codec = new CacheCodec<>() {
+                @Override
+                public byte[] encode(String value) {
+                    if ("old".equals(value) && replaced.compareAndSet(false, true)) {
+                        CompletableFuture.runAsync(() -> ref.get().put(1, "new")).join();
+                    }
+                    return utf8.encode(value);
+                }
+
+                @Override
+                public String decode(byte[] bytes) {
+                    return utf8.decode(bytes);
+                }
+            };
+            AsyncCache<Integer, String> cache = AsyncCache.builder()
+                    .maximumSize(1)
+                    .<Integer, String>offHeapTier(codec, 1024 * 1024)
+                    .build();
+            ref.set(cache);
+            cache.put(1, "old");
+
+            // When
+            cache.put(2, "two");
+            cache.put(3, "three");
+            cache.cleanUp();
+
+            // Then
+            assertThat(replaced).isTrue();
+            assertThat(cache.getIfPresent(1).join()).isEqualTo("new");
+        }
+
+        @Test
+        @DisplayName("Should require a maximum for an off-heap tier")
+        void shouldRequireMaximum() {
+            assertThatThrownBy(() -> AsyncCache.builder().offHeapTier(CacheCodec.utf8(), 1024).build())
+                    .isInstanceOf(IllegalStateException.class);
+        }
+    }
+
+    @Nested
+    @DisplayName("Disk Tier Tests")
+    class DiskTierTests {
+
+        @TempDir
+        Path directory;
+
+        @Test
+        @DisplayName("Should start warm from the values saved when the previous cache closed")
+        void shouldRestartWarm() {
+            // Given
+            AsyncCache<String, String> cache = AsyncCache.builder()
+                    .maximumSize(5)
+                    .<String, String>offHeapTier(CacheCodec.utf8(), 1024 * 1024)
+                    .diskTier(directory, CacheCodec.utf8(), CacheCodec.utf8())
+                    .build();
+            for (int i = 0; i < 20; i++) {
+                cache.put("key" + i, "value" + i);
+            }
+            cache.getWithRefresh("expiring", key -> CompletableFuture.completedFuture("value"), 60_000).join();
+            cache.cleanUp();
+            cache.close();
+
+            // When
+            AsyncCache<String, String> restarted = AsyncCache.builder()
+                    .<String, String>diskTier(directory, CacheCodec.utf8(), CacheCodec.utf8())
+                    .build();
+            AtomicInteger loads = new AtomicInteger();
+            Function<String, CompletableFuture<String>> loader = key -> {
+                loads.incrementAndGet();
+                return CompletableFuture.completedFuture("reloaded");
+            };
+
+            // Then
+            for (int i = 0; i < 20; i++) {
+                assertThat(restarted.getOrCompute("key" + i, loader).join()).isEqualTo("value" + i);
+            }
+            assertThat(loads.get()).isZero();
+            assertThat(restarted.getOrCompute("expiring", loader).join()).isEqualTo("reloaded");
+        }
+
+        @Test
+        @DisplayName("Should not serve saved values of invalidated keys")
+        void shouldForgetInvalidatedKeys() {
+            // Given
+            AsyncCache<String, String> cache = AsyncCache.builder()
+                    .<String, String>diskTier(directory, CacheCodec.utf8(), CacheCodec.utf8())
+                    .build();
+            cache.put("a", "saved");
+            cache.put("b", "saved");
+            cache.close();
+            AsyncCache<String, String> restarted = AsyncCache.builder()
+                    .<String, String>diskTier(directory, CacheCodec.utf8(), CacheCodec.utf8())
+                    .build();
+
+            // When
+            restarted.invalidate("a");
+            restarted.put("b", "fresh");
+
+            // Then
+            assertThat(restarted.getIfPresent("a")).isNull();
+            assertThat(restarted.getIfPresent("b").join()).isEqualTo("fresh");
+        }
+    }
+}
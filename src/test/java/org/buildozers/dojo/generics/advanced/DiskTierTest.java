@@ -0,0 +1,136 @@
+package org.buildozers.dojo.generics.advanced;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests for the persistent tier of the asynchronous cache.
+ * 
+ * @author Dojo Team
+ * @since 1.0.0
+ */
+@DisplayName("DiskTier Tests")
+class DiskTierTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    @DisplayName("Should read saved values back after reopening")
+    void shouldReadSavedValues() throws IOException {
+        // Given
+        DiskTier<String> tier = new DiskTier<>(directory, CacheCodec.utf8(), 64);
+        tier.save(sink -> {
+            for (int i = 0; i < 20; i++) {
+                sink.accept("key" + i, bytes("value" + i));
+            }
+            sink.accept("key0", bytes("ignored"));
+        });
+
+        // When
+        DiskTier<String> reopened = new DiskTier<>(directory, CacheCodec.utf8(), 64);
+
+        // Then
+        assertThat(reopened.isDiscarded()).isFalse();
+        assertThat(reopened.size()).isEqualTo(20);
+        assertThat(reopened.remove("key0")).isEqualTo(bytes("value0"));
+        assertThat(reopened.remove("key19")).isEqualTo(bytes("value19"));
+        assertThat(reopened.remove("key0")).isNull();
+        assertThat(segmentCount()).isGreaterThan(1);
+    }
+
+    @Test
+    @DisplayName("Should carry unread values over to the next snapshot")
+    void shouldCarryOverUnreadValues() throws IOException {
+        // Given
+        new DiskTier<>(directory, CacheCodec.utf8()).save(sink -> {
+            sink.accept("a", bytes("old"));
+            sink.accept("b", bytes("kept"));
+        });
+        DiskTier<String> tier = new DiskTier<>(directory, CacheCodec.utf8());
+
+        // When
+        tier.save(sink -> sink.accept("a", bytes("new")));
+        DiskTier<String> reopened = new DiskTier<>(directory, CacheCodec.utf8());
+
+        // Then
+        assertThat(reopened.remove("a")).isEqualTo(bytes("new"));
+        assertThat(reopened.remove("b")).isEqualTo(bytes("kept"));
+        assertThat(segmentCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should start cold unless the previous process saved")
+    void shouldConsumeSnapshotOnOpen() throws IOException {
+        // Given
+        new DiskTier<>(directory, CacheCodec.utf8()).save(sink -> sink.accept("a", bytes("value")));
+        new DiskTier<>(directory, CacheCodec.utf8());
+
+        // When
+        DiskTier<String> reopened = new DiskTier<>(directory, CacheCodec.utf8());
+
+        // Then
+        assertThat(reopened.size()).isZero();
+        assertThat(reopened.isDiscarded()).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should discard a corrupt snapshot")
+    void shouldDiscardCorruptIndex() throws IOException {
+        // Given
+        new DiskTier<>(directory, CacheCodec.utf8()).save(sink -> sink.accept("a", bytes("value")));
+        Path index = directory.resolve("index.dat");
+        byte[] content = Files.readAllBytes(index);
+        content[content.length / 2] ^= 0x5a;
+        Files.write(index, content);
+
+        // When
+        DiskTier<String> reopened = new DiskTier<>(directory, CacheCodec.utf8());
+
+        // Then
+        assertThat(reopened.isDiscarded()).isTrue();
+        assertThat(reopened.size()).isZero();
+        assertThat(segmentCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should discard a value that fails its checksum")
+    void shouldDiscardCorruptValue() throws IOException {
+        // Given
+        new DiskTier<>(directory, CacheCodec.utf8()).save(sink -> sink.accept("a", bytes("value")));
+        Path segment;
+        try (Stream<Path> files = Files.list(directory)) {
+            segment = files.filter(file -> file.getFileName().toString().startsWith("segment-")).findFirst()
+                    .orElseThrow();
+        }
+        byte[] content = Files.readAllBytes(segment);
+        content[content.length - 1] ^= 0x5a;
+        Files.write(segment, content);
+
+        // When
+        DiskTier<String> reopened = new DiskTier<>(directory, CacheCodec.utf8());
+
+        // Then
+        assertThat(reopened.isDiscarded()).isFalse();
+        assertThat(reopened.remove("a")).isNull();
+    }
+
+    private long segmentCount() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().startsWith("segment-")).count();
+        }
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,53 @@
+package org.buildozers.dojo.generics.advanced;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for the frequency sketch of the W-TinyLFU policy.
+ * 
+ * @author Dojo Team
+ * @since 1.0.0
+ */
+@DisplayName("FrequencySketch Tests")
+class FrequencySketchTest {
+
+    @Test
+    @DisplayName("Should count occurrences up to 15")
+    void shouldCountOccurrences() {
+        // Given
+        FrequencySketch<String> sketch = new FrequencySketch<>(1_000);
+
+        // When
+        for (int i = 0; i < 20; i++) {
+            sketch.increment("hot");
+        }
+        sketch.increment("warm");
+        sketch.increment("warm");
+
+        // Then
+        assertThat(sketch.frequency("hot")).isEqualTo(15);
+        assertThat(sketch.frequency("warm")).isEqualTo(2);
+        assertThat(sketch.frequency("cold")).isZero();
+    }
+
+    @Test
+    @DisplayName("Should halve the counters once the sample size is reached")
+    void shouldAgeCounters() {
+        // Given
+        FrequencySketch<Integer> sketch = new FrequencySketch<>(64);
+        for (int i = 0; i < 8; i++) {
+            sketch.increment(-1);
+        }
+
+        // When
+        for (int i = 0; i < 10 * 64; i++) {
+            sketch.increment(i);
+        }
+
+        // Then
+        assertThat(sketch.frequency(-1)).isLessThanOrEqualTo(4);
+    }
+}
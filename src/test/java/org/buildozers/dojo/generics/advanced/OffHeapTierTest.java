@@ -0,0 +1,73 @@
+package org.buildozers.dojo.generics.advanced;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for the off-heap tier of the asynchronous cache.
+ * 
+ * @author Dojo Team
+ * @since 1.0.0
+ */
+@DisplayName("OffHeapTier Tests")
+class OffHeapTierTest {
+
+    @Test
+    @DisplayName("Should return a stored value once")
+    void shouldStoreAndRemoveValues() {
+        // Given
+        OffHeapTier<String> tier = new OffHeapTier<>(1024 * 1024);
+
+        // When
+        tier.store("a", bytes("first"));
+        tier.store("b", bytes("second"));
+        tier.store("a", bytes("replaced"));
+
+        // Then
+        assertThat(tier.size()).isEqualTo(2);
+        assertThat(tier.remove("a")).isEqualTo(bytes("replaced"));
+        assertThat(tier.remove("a")).isNull();
+        assertThat(tier.remove("b")).isEqualTo(bytes("second"));
+    }
+
+    @Test
+    @DisplayName("Should drop the values demoted longest ago once full")
+    void shouldRecycleOldestSlab() {
+        // Given
+        OffHeapTier<Integer> tier = new OffHeapTier<>(8 * 4096);
+        byte[] value = new byte[1024];
+
+        // When
+        for (int key = 0; key < 64; key++) {
+            tier.store(key, value);
+        }
+
+        // Then
+        assertThat(tier.size()).isLessThanOrEqualTo(32).isGreaterThanOrEqualTo(28);
+        assertThat(tier.remove(0)).isNull();
+        assertThat(tier.remove(63)).hasSize(1024);
+    }
+
+    @Test
+    @DisplayName("Should refuse values larger than a slab")
+    void shouldRefuseOversizedValues() {
+        // Given
+        OffHeapTier<String> tier = new OffHeapTier<>(8 * 4096);
+        tier.store("a", bytes("small"));
+
+        // When
+        boolean stored = tier.store("a", new byte[4097]);
+
+        // Then
+        assertThat(stored).isFalse();
+        assertThat(tier.remove("a")).isNull();
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}